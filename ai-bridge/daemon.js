@@ -12,11 +12,21 @@
  *
  * Protocol (stdout, one JSON per line):
  *   {"type":"daemon","event":"ready","pid":12345}           // daemon lifecycle
- *   {"id":"1","line":"[STREAM_START]"}                      // command output
- *   {"id":"1","line":"[CONTENT_DELTA] \"Hello\""}           // streaming delta
- *   {"id":"1","done":true,"success":true}                   // command complete
+ *   {"id":"1","ev":"tag","tag":"STREAM_START","text":""}    // tagged command output
+ *   {"id":"1","ev":"delta","text":"Hello"}                  // streaming delta (decoded)
+ *   {"id":"1","ev":"thinking_delta","text":"..."}           // thinking delta (decoded)
+ *   {"id":"1","ev":"line","text":"plain output"}            // untagged command output
+ *   {"id":"1","ev":"stderr","text":"..."}                   // console.error output
+ *   {"id":"1","ev":"done","success":true}                   // command complete
  *   {"id":"2","type":"heartbeat","ts":1234567890}           // heartbeat response
  *
+ * Command output is classified here, once, so Java can dispatch on "ev" without
+ * re-matching tag prefixes or decoding delta payloads a second time. The
+ * per-process mode (channel-manager.js) keeps printing the raw tagged lines.
+ *
+ * Started with --provider=codex, the daemon preloads the Codex SDK instead of the
+ * Claude SDK and serves codex.* commands for CodexDaemonCoordinator.
+ *
  * Key advantages over per-request spawning:
  * - SDK loaded once at startup (~2-5s saved per request)
  * - Process always warm (no cold start)
@@ -26,7 +36,12 @@
 import { createInterface } from 'readline';
 import { handleClaudeCommand } from './channels/claude-channel.js';
 import { handleCodexCommand } from './channels/codex-channel.js';
-import { loadClaudeSdk, isClaudeSdkAvailable } from './utils/sdk-loader.js';
+import {
+  loadClaudeSdk,
+  isClaudeSdkAvailable,
+  loadCodexSdk,
+  isCodexSdkAvailable
+} from './utils/sdk-loader.js';
 import {
   sendMessagePersistent,
   sendMessageWithAttachmentsPersistent,
@@ -35,6 +50,7 @@ import {
   abortCurrentTurn,
   resetRuntimePersistent
 } from './services/claude/persistent-query-service.js';
+import { abortCurrentCodexTurn } from './services/codex/message-service.js';
 import { injectNetworkEnvVars } from './config/api-config.js';
 
 // =============================================================================
@@ -59,6 +75,10 @@ const DAEMON_VERSION = '1.0.0';
 // State
 // =============================================================================
 
+// SDK to preload: "claude" (default) or "codex", from --provider=<name>
+const daemonProvider = (process.argv.find((arg) => arg.startsWith('--provider=')) || '--provider=claude')
+  .substring('--provider='.length);
+
 let activeRequestId = null;
 let isDaemonMode = true;
 let sdkPreloaded = false;
@@ -84,6 +104,53 @@ function writeRawLine(obj) {
   _originalStdoutWrite(JSON.stringify(obj) + '\n', 'utf8');
 }
 
+/**
+ * Write the completion frame of a command.
+ */
+function writeDone(id, success, error, code) {
+  const frame = { id, ev: 'done', success };
+  if (error !== undefined) frame.error = error;
+  if (code !== undefined) frame.code = code;
+  writeRawLine(frame);
+}
+
+const TAGGED_LINE = /^\[([A-Z_]+)\] ?/;
+
+/**
+ * Decode the JSON string payload of a delta line, falling back to the raw text
+ * (some emitters print deltas without JSON encoding).
+ */
+function decodeStringPayload(payload) {
+  if (payload.startsWith('"')) {
+    try {
+      const value = JSON.parse(payload);
+      if (typeof value === 'string') return value;
+    } catch {
+      // Not a complete JSON string; pass through as-is
+    }
+  }
+  return payload;
+}
+
+/**
+ * Convert one command output line into a structured frame.
+ */
+function toOutputFrame(id, line) {
+  const match = TAGGED_LINE.exec(line);
+  if (!match) {
+    return { id, ev: 'line', text: line };
+  }
+  const tag = match[1];
+  const payload = line.substring(match[0].length);
+  if (tag === 'CONTENT_DELTA') {
+    return { id, ev: 'delta', text: decodeStringPayload(payload) };
+  }
+  if (tag === 'THINKING_DELTA') {
+    return { id, ev: 'thinking_delta', text: decodeStringPayload(payload) };
+  }
+  return { id, ev: 'tag', tag, text: payload };
+}
+
 /**
  * Send a daemon lifecycle event.
  */
@@ -103,7 +170,7 @@ process.stdout.write = function (chunk, encoding, callback) {
     const lines = text.split('\n');
     for (const line of lines) {
       if (line.length > 0) {
-        writeRawLine({ id: activeRequestId, line });
+        writeRawLine(toOutputFrame(activeRequestId, line));
       }
     }
     if (typeof callback === 'function') callback();
@@ -150,7 +217,7 @@ console.error = function (...args) {
     .map((a) => (typeof a === 'string' ? a : JSON.stringify(a)))
     .join(' ');
   if (activeRequestId) {
-    writeRawLine({ id: activeRequestId, stderr: text });
+    writeRawLine({ id: activeRequestId, ev: 'stderr', text });
   } else {
     _originalStderrWrite(text + '\n', 'utf8');
   }
@@ -170,14 +237,9 @@ process.exit = function (code) {
 
     if (capturedId) {
       if (code === 0) {
-        writeRawLine({ id: capturedId, done: true, success: true });
+        writeDone(capturedId, true);
       } else {
-        writeRawLine({
-          id: capturedId,
-          done: true,
-          success: false,
-          error: `process.exit(${code}) intercepted by daemon`,
-        });
+        writeDone(capturedId, false, `process.exit(${code}) intercepted by daemon`);
       }
     }
     // Throw to unwind the current call stack instead of actually exiting.
@@ -216,18 +278,21 @@ try {
 // =============================================================================
 
 async function preloadSdks() {
+  const provider = daemonProvider === 'codex' ? 'codex' : 'claude';
+  const isAvailable = provider === 'codex' ? isCodexSdkAvailable : isClaudeSdkAvailable;
+  const load = provider === 'codex' ? loadCodexSdk : loadClaudeSdk;
   try {
-    if (isClaudeSdkAvailable()) {
-      sendDaemonEvent('sdk_loading', { provider: 'claude' });
-      await loadClaudeSdk();
+    if (isAvailable()) {
+      sendDaemonEvent('sdk_loading', { provider });
+      await load();
       sdkPreloaded = true;
-      sendDaemonEvent('sdk_loaded', { provider: 'claude' });
+      sendDaemonEvent('sdk_loaded', { provider });
     } else {
-      sendDaemonEvent('sdk_unavailable', { provider: 'claude' });
+      sendDaemonEvent('sdk_unavailable', { provider });
     }
   } catch (e) {
     sendDaemonEvent('sdk_load_error', {
-      provider: 'claude',
+      provider,
       error: e.message,
     });
   }
@@ -273,7 +338,7 @@ async function processRequest(request) {
   if (method === 'shutdown') {
     await shutdownPersistentRuntimes();
     sendDaemonEvent('shutdown', { reason: 'requested' });
-    writeRawLine({ id: id || '0', done: true, success: true });
+    writeDone(id || '0', true);
     isDaemonMode = false;
     // Allow a brief delay for the response to flush before exiting
     setTimeout(() => _originalExit(0), 100);
@@ -343,17 +408,11 @@ async function processRequest(request) {
       }
     }
 
-    writeRawLine({ id, done: true, success: true });
+    writeDone(id, true);
   } catch (error) {
     // Only send done if not already sent (e.g., by process.exit interceptor)
     if (activeRequestId !== null) {
-      writeRawLine({
-        id,
-        done: true,
-        success: false,
-        error: error.message || String(error),
-        code: error.code,
-      });
+      writeDone(id, false, error.message || String(error), error.code);
     }
   } finally {
     activeRequestId = null;
@@ -380,12 +439,7 @@ async function processRequest(request) {
       'utf8'
     );
     if (activeRequestId) {
-      writeRawLine({
-        id: activeRequestId,
-        done: true,
-        success: false,
-        error: `Uncaught exception: ${error.message}`,
-      });
+      writeDone(activeRequestId, false, `Uncaught exception: ${error.message}`);
       activeRequestId = null;
     }
   });
@@ -396,12 +450,7 @@ async function processRequest(request) {
       'utf8'
     );
     if (activeRequestId) {
-      writeRawLine({
-        id: activeRequestId,
-        done: true,
-        success: false,
-        error: `Unhandled rejection: ${String(reason)}`,
-      });
+      writeDone(activeRequestId, false, `Unhandled rejection: ${String(reason)}`);
       activeRequestId = null;
     }
   });
@@ -409,6 +458,7 @@ async function processRequest(request) {
   // --- Startup ---
   sendDaemonEvent('starting', {
     pid: process.pid,
+    provider: daemonProvider,
     version: DAEMON_VERSION,
     nodeVersion: process.version,
     platform: process.platform,
@@ -465,14 +515,18 @@ async function processRequest(request) {
         // Fire-and-forget: disposeRuntime will cause the queued processRequest
         // to throw and emit its own done signal. We don't need to await here
         // because the Java side already completes its futures in sendAbort().
-        abortCurrentTurn().catch((e) => {
-          _originalStderrWrite(
-            `[daemon] Abort error: ${e.message}\n`,
-            'utf8'
-          );
-        });
+        if (daemonProvider === 'codex') {
+          abortCurrentCodexTurn();
+        } else {
+          abortCurrentTurn().catch((e) => {
+            _originalStderrWrite(
+              `[daemon] Abort error: ${e.message}\n`,
+              'utf8'
+            );
+          });
+        }
       }
-      writeRawLine({ id: request.id || '0', done: true, success: true });
+      writeDone(request.id || '0', true);
       return;
     }
 
@@ -70,29 +70,77 @@ export async function readStdinData() {
   });
 }
 
+// Base64 payloads of recently used stored attachments, keyed by digest. Lets the daemon skip the
+// file read when the same screenshot is sent again or a message is retried.
+const MAX_CACHED_ATTACHMENT_CHARS = 64 * 1024 * 1024;
+const attachmentDataCache = new Map();
+let cachedAttachmentChars = 0;
+
+function rememberAttachmentData(digest, data) {
+  attachmentDataCache.set(digest, data);
+  cachedAttachmentChars += data.length;
+  for (const [key, value] of attachmentDataCache) {
+    if (cachedAttachmentChars <= MAX_CACHED_ATTACHMENT_CHARS) break;
+    attachmentDataCache.delete(key);
+    cachedAttachmentChars -= value.length;
+  }
+}
+
+/**
+ * Resolve an attachment passed by reference ({ digest, path }) to inline base64 data.
+ * The Java side writes attachments to a content-addressed store and keeps the file pinned
+ * until the request has finished, so the path is valid for the whole request.
+ */
+async function resolveAttachmentData(attachment) {
+  if (!attachment || attachment.data || !attachment.path) {
+    return attachment;
+  }
+  const { digest, path, ...rest } = attachment;
+  if (digest && attachmentDataCache.has(digest)) {
+    const data = attachmentDataCache.get(digest);
+    // Re-insert to mark as most recently used
+    attachmentDataCache.delete(digest);
+    attachmentDataCache.set(digest, data);
+    return { ...rest, data };
+  }
+  try {
+    const data = (await fs.promises.readFile(path)).toString('base64');
+    if (digest) {
+      rememberAttachmentData(digest, data);
+    }
+    return { ...rest, data };
+  } catch (e) {
+    throw new Error(`Attachment ${attachment.fileName || path} is not readable: ${e.message}`);
+  }
+}
+
 /**
  * Load attachments from stdin or environment variable file (supports both methods).
  * Prefers stdin; falls back to file-based loading if stdin data is not available.
+ * Attachments passed by reference are read from the attachment store.
  *
  * Supported stdinData formats:
  * 1. Direct array format: [{fileName, mediaType, data}, ...]
  * 2. Wrapped object format: { attachments: [...] }
  */
 export async function loadAttachments(stdinData) {
+  let attachments = null;
   // Prefer data passed via stdin
   if (stdinData) {
     // Format 1: Direct array format (sent from Java side)
     if (Array.isArray(stdinData)) {
-      return stdinData;
-    }
-    // Format 2: Wrapped object format
-    if (Array.isArray(stdinData.attachments)) {
-      return stdinData.attachments;
+      attachments = stdinData;
+    } else if (Array.isArray(stdinData.attachments)) {
+      // Format 2: Wrapped object format
+      attachments = stdinData.attachments;
     }
   }
 
   // Fall back to file-based loading (backward compatible with older versions)
-  return loadAttachmentsFromEnv();
+  if (!attachments) {
+    attachments = loadAttachmentsFromEnv();
+  }
+  return Promise.all(attachments.map(resolveAttachmentData));
 }
 
 /**
@@ -432,12 +432,13 @@ async function maybeRequestCommandApprovalViaBridge(state, config, { toolUseId,
   return false;
 }
 
+// Deltas are JSON-encoded so multi-line text stays on one output line
 function emitThinkingDelta(text) {
-  console.log('[THINKING_DELTA]', text);
+  process.stdout.write(`[THINKING_DELTA] ${JSON.stringify(text)}\n`);
 }
 
 function emitContentDelta(text) {
-  console.log('[CONTENT_DELTA]', text);
+  process.stdout.write(`[CONTENT_DELTA] ${JSON.stringify(text)}\n`);
 }
 
 function extractAppendedDelta(previousText, nextText) {
@@ -31,6 +31,22 @@ import {
 import { collectAgentsInstructions } from './codex-agents-loader.js';
 import { createInitialEventState, processCodexEventStream } from './codex-event-handler.js';
 
+// Abort controller of the turn in flight, so a long-lived daemon can cancel it
+let activeTurnAbortController = null;
+
+/**
+ * Abort the Codex turn currently streaming, if any (daemon mode).
+ * @returns {boolean} whether a turn was aborted
+ */
+export function abortCurrentCodexTurn() {
+  const controller = activeTurnAbortController;
+  if (!controller) {
+    return false;
+  }
+  controller.abort();
+  return true;
+}
+
 // ---------------------------------------------------------------------------
 // sendMessage
 // ---------------------------------------------------------------------------
@@ -219,6 +235,7 @@ export async function sendMessage(
     }
 
     const turnAbortController = new AbortController();
+    activeTurnAbortController = turnAbortController;
     const { events } = await thread.runStreamed(runInput, {
       signal: turnAbortController.signal
     });
@@ -290,6 +307,8 @@ export async function sendMessage(
     const errorPayload = buildErrorPayload(error);
     console.error('[SEND_ERROR]', JSON.stringify(errorPayload));
     console.log(JSON.stringify(errorPayload));
+  } finally {
+    activeTurnAbortController = null;
   }
 }
 
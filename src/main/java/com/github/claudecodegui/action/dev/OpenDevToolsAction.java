@@ -1,6 +1,9 @@
 package com.github.claudecodegui.action.dev;
 
+import com.github.claudecodegui.handler.core.MessageDispatchMetrics;
 import com.github.claudecodegui.i18n.ClaudeCodeGuiBundle;
+import com.github.claudecodegui.provider.common.DaemonEventQueueMetrics;
+import com.github.claudecodegui.ui.WebviewCallQueueMetrics;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
@@ -75,7 +78,8 @@ public class OpenDevToolsAction extends AnAction {
         List<DevToolsOption> options = List.of(
                 new DevToolsOption(ClaudeCodeGuiBundle.message("devtools.openEmbedded"), this::openEmbeddedDevTools),
                 new DevToolsOption(ClaudeCodeGuiBundle.message("devtools.openChrome"), this::openChromeDevTools),
-                new DevToolsOption(ClaudeCodeGuiBundle.message("devtools.copyDebugInfo"), this::copyDebugInfo)
+                new DevToolsOption(ClaudeCodeGuiBundle.message("devtools.copyDebugInfo"), this::copyDebugInfo),
+                new DevToolsOption(ClaudeCodeGuiBundle.message("devtools.copyDispatchMetrics"), this::copyDispatchMetrics)
         );
 
         ListPopup popup = JBPopupFactory.getInstance().createListPopup(
@@ -239,6 +243,31 @@ public class OpenDevToolsAction extends AnAction {
         LOG.info("[OpenDevToolsAction] Copied debug info for port: " + port);
     }
 
+    /**
+     * Copy per-type webview message dispatch counters and latency histograms, followed by the daemon
+     * event queue and webview call queue counters, to clipboard.
+     */
+    private void copyDispatchMetrics(Project project) {
+        MessageDispatchMetrics metrics = MessageDispatchMetrics.global();
+        DaemonEventQueueMetrics daemonMetrics = DaemonEventQueueMetrics.global();
+        WebviewCallQueueMetrics callQueueMetrics = WebviewCallQueueMetrics.global();
+        if (metrics.isEmpty() && daemonMetrics.isEmpty() && callQueueMetrics.isEmpty()) {
+            showNotification(project, ClaudeCodeGuiBundle.message("devtools.dispatchMetricsEmpty"), NotificationType.INFORMATION);
+            return;
+        }
+
+        String dump = metrics.dump();
+        if (!daemonMetrics.isEmpty()) {
+            dump += "\nDaemon event queue\n" + daemonMetrics.dump();
+        }
+        if (!callQueueMetrics.isEmpty()) {
+            dump += "\nWebview call queue\n" + callQueueMetrics.dump();
+        }
+        copyToClipboard(dump);
+        showNotification(project, ClaudeCodeGuiBundle.message("devtools.dispatchMetricsCopied"), NotificationType.INFORMATION);
+        LOG.info("[OpenDevToolsAction] Message dispatch metrics:\n" + dump);
+    }
+
     @Nullable
     private String fetchUrl(String urlString) {
         HttpURLConnection conn = null;
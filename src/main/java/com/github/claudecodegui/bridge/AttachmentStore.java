@@ -0,0 +1,260 @@
+package com.github.claudecodegui.bridge;
+
+import com.intellij.openapi.diagnostic.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Content-addressed file cache for message attachments.
+ *
+ * <p>Each attachment is decoded once and written to {@code <sha256><ext>} under the bridge temp
+ * directory, so a request only carries the digest and the file path instead of the base64 payload.
+ * Sending the same screenshot again, or retrying a message, finds the file already in place.</p>
+ *
+ * <p>Files are reference counted: {@link #acquire} pins a file for the duration of a request and
+ * {@link #release} unpins it. Unpinned files stay cached until the total size of unpinned files
+ * exceeds {@link #MAX_CACHED_BYTES}, at which point the least recently used ones are deleted.
+ * Files left behind by earlier IDE sessions are swept on first use.</p>
+ */
+public final class AttachmentStore {
+
+    private static final Logger LOG = Logger.getInstance(AttachmentStore.class);
+
+    static final String ATTACHMENT_DIR_NAME = "attachments";
+    static final long MAX_CACHED_BYTES = 128L * 1024 * 1024;
+    private static final long STALE_FILE_AGE_MS = TimeUnit.HOURS.toMillis(24);
+
+    private static volatile AttachmentStore instance;
+
+    private final Path directory;
+    private final long maxCachedBytes;
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long unpinnedBytes;
+    private boolean swept;
+
+    /**
+     * A pinned attachment file.
+     */
+    public static final class Ref {
+        private final String digest;
+        private final Path path;
+
+        Ref(String digest, Path path) {
+            this.digest = digest;
+            this.path = path;
+        }
+
+        public String getDigest() {
+            return digest;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+    }
+
+    private static final class Entry {
+        final Path path;
+        final long size;
+        int refs;
+
+        Entry(Path path, long size) {
+            this.path = path;
+            this.size = size;
+        }
+    }
+
+    AttachmentStore(Path directory, long maxCachedBytes) {
+        this.directory = directory;
+        this.maxCachedBytes = maxCachedBytes;
+    }
+
+    public static AttachmentStore getInstance() {
+        if (instance == null) {
+            synchronized (AttachmentStore.class) {
+                if (instance == null) {
+                    String baseTemp = System.getProperty("java.io.tmpdir", "");
+                    instance = new AttachmentStore(
+                            Paths.get(baseTemp, ProcessManager.CLAUDE_TEMP_DIR_NAME, ATTACHMENT_DIR_NAME),
+                            MAX_CACHED_BYTES);
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Store a base64 attachment, or find it already stored, and pin it.
+     *
+     * @throws IOException              if the file cannot be written
+     * @throws IllegalArgumentException if {@code base64Data} is not valid base64
+     */
+    public Ref acquire(String base64Data, String mediaType) throws IOException {
+        byte[] bytes = Base64.getDecoder().decode(base64Data);
+        String digest = sha256Hex(bytes);
+
+        synchronized (this) {
+            sweepStaleFilesOnce();
+            Entry entry = entries.get(digest);
+            if (entry != null && Files.isRegularFile(entry.path)) {
+                if (entry.refs++ == 0) {
+                    unpinnedBytes -= entry.size;
+                }
+                return new Ref(digest, entry.path);
+            }
+            if (entry != null) {
+                // Deleted behind our back; rewrite it below
+                entries.remove(digest);
+                if (entry.refs == 0) {
+                    unpinnedBytes -= entry.size;
+                }
+            }
+
+            Files.createDirectories(directory);
+            Path target = directory.resolve(digest + extensionFor(mediaType));
+            if (!Files.isRegularFile(target) || Files.size(target) != bytes.length) {
+                writeAtomically(target, bytes);
+            } else {
+                // Left by another IDE instance or an earlier session; keep it clear of the stale sweep
+                Files.setLastModifiedTime(target, FileTime.fromMillis(System.currentTimeMillis()));
+            }
+            Entry created = new Entry(target, bytes.length);
+            created.refs = 1;
+            entries.put(digest, created);
+            return new Ref(digest, target);
+        }
+    }
+
+    /**
+     * Unpin an attachment returned by {@link #acquire}. Unknown digests are ignored.
+     */
+    public synchronized void release(String digest) {
+        Entry entry = entries.get(digest);
+        if (entry == null || entry.refs == 0) {
+            return;
+        }
+        if (--entry.refs == 0) {
+            unpinnedBytes += entry.size;
+            evictIfNeeded();
+        }
+    }
+
+    synchronized int refCount(String digest) {
+        Entry entry = entries.get(digest);
+        return entry != null ? entry.refs : 0;
+    }
+
+    synchronized long getUnpinnedBytes() {
+        return unpinnedBytes;
+    }
+
+    private void evictIfNeeded() {
+        for (Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+             it.hasNext() && unpinnedBytes > maxCachedBytes; ) {
+            Entry entry = it.next().getValue();
+            if (entry.refs > 0) {
+                continue;
+            }
+            it.remove();
+            unpinnedBytes -= entry.size;
+            try {
+                Files.deleteIfExists(entry.path);
+            } catch (IOException e) {
+                LOG.debug("[AttachmentStore] Failed to evict " + entry.path + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Delete files older than a day that no entry knows about. They come from earlier IDE sessions;
+     * younger ones may belong to another running IDE sharing the temp directory.
+     */
+    private void sweepStaleFilesOnce() {
+        if (swept) {
+            return;
+        }
+        swept = true;
+        File[] files = directory.toFile().listFiles();
+        if (files == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        int removed = 0;
+        for (File file : files) {
+            if (file.isFile() && now - file.lastModified() > STALE_FILE_AGE_MS && file.delete()) {
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            LOG.info("[AttachmentStore] Removed " + removed + " stale attachment files");
+        }
+    }
+
+    private void writeAtomically(Path target, byte[] bytes) throws IOException {
+        Path temp = Files.createTempFile(directory, ".attachment-", ".tmp");
+        try {
+            Files.write(temp, bytes);
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    static String sha256Hex(byte[] bytes) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(bytes);
+            StringBuilder sb = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Get file extension from MIME type.
+     */
+    public static String extensionFor(String mimeType) {
+        if (mimeType == null) {
+            return ".bin";
+        }
+        switch (mimeType.toLowerCase()) {
+            case "image/jpeg":
+            case "image/jpg":
+                return ".jpg";
+            case "image/gif":
+                return ".gif";
+            case "image/webp":
+                return ".webp";
+            case "image/bmp":
+                return ".bmp";
+            case "image/svg+xml":
+                return ".svg";
+            case "image/png":
+                return ".png";
+            default:
+                return mimeType.toLowerCase().startsWith("image/") ? ".png" : ".bin";
+        }
+    }
+}
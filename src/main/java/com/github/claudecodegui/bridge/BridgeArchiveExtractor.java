@@ -0,0 +1,519 @@
+package com.github.claudecodegui.bridge;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.intellij.openapi.diagnostic.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Incremental, parallel extractor for {@code ai-bridge.zip}.
+ *
+ * <p>Each file entry is identified by the CRC-32 and size recorded in the archive's central
+ * directory, so the manifest is built without inflating anything. The manifest of the last
+ * extraction is kept in the target directory, and only entries whose CRC or size changed (or whose
+ * file is missing) are rewritten; files dropped from the archive are deleted.</p>
+ *
+ * <p>Entries reachable from the entry scripts through relative imports, plus the packages they
+ * import, are written first on the calling thread. The remaining entries (mostly
+ * {@code node_modules}) are spread over the executor through {@link ZipFile} random access, and
+ * the manifest is only written once everything is in place.</p>
+ *
+ * <p>The archive is built with {@code zip -r -y}, which records each entry's Unix mode and stores
+ * symlinks (such as {@code node_modules/.bin/*}) as links. {@link ZipFile} does not expose those
+ * attributes, so they are read from the central directory: permissions are applied where the file
+ * system supports POSIX attributes, and symlink entries are recreated as links pointing inside the
+ * target directory.</p>
+ */
+final class BridgeArchiveExtractor {
+
+    private static final Logger LOG = Logger.getInstance(BridgeArchiveExtractor.class);
+
+    static final String MANIFEST_FILE_NAME = ".bridge-manifest";
+    static final List<String> ENTRY_SCRIPTS = List.of("daemon.js", "channel-manager.js");
+    // Version 1 ignored Unix modes and wrote symlinks as regular files
+    private static final int MANIFEST_VERSION = 2;
+    private static final String NODE_MODULES = "node_modules/";
+
+    private static final int S_IFMT = 0170000;
+    private static final int S_IFLNK = 0120000;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int END_RECORD_SIZE = 22;
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+
+    // Static import/export ... from '...', side-effect import '...', dynamic import('...'), require('...')
+    private static final Pattern IMPORT_PATTERN = Pattern.compile(
+            "(?:\\bfrom\\s*|\\bimport\\s*\\(?\\s*|\\brequire\\s*\\(\\s*)['\"]([^'\"\\n]+)['\"]");
+
+    private final Executor executor;
+    private final int parallelism;
+
+    BridgeArchiveExtractor(Executor executor, int parallelism) {
+        this.executor = executor;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Brings {@code targetDir} in line with the archive.
+     * Returns once the entry scripts and everything they import are written.
+     *
+     * @param progress optional callback receiving (written entries, entries to write)
+     * @return a future that completes when all entries and the manifest are written
+     * @throws IOException if the archive cannot be read or a priority entry cannot be written
+     */
+    CompletableFuture<Void> extract(File archiveFile, File targetDir, BiConsumer<Integer, Integer> progress)
+            throws IOException {
+        Path target = targetDir.toPath().toAbsolutePath().normalize();
+        Files.createDirectories(target);
+
+        Map<String, Integer> modes = readUnixModes(archiveFile);
+        boolean posix = target.getFileSystem().supportedFileAttributeViews().contains("posix");
+        ZipFile zip = new ZipFile(archiveFile);
+        try {
+            Map<String, String> manifest = new HashMap<>();
+            Map<String, ZipEntry> files = new HashMap<>();
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                Path resolved = resolveSafely(target, entry.getName());
+                if (entry.isDirectory()) {
+                    Files.createDirectories(resolved);
+                } else {
+                    files.put(entry.getName(), entry);
+                    manifest.put(entry.getName(), entryId(entry, modes.getOrDefault(entry.getName(), 0)));
+                }
+            }
+
+            Map<String, String> previous = readManifest(target);
+            deleteRemovedEntries(target, previous, manifest);
+
+            List<ZipEntry> changed = new ArrayList<>();
+            for (ZipEntry entry : files.values()) {
+                Path file = target.resolve(entry.getName());
+                // A symlink entry is written as a plain file where links cannot be created
+                boolean present = isSymlink(modes.getOrDefault(entry.getName(), 0)) && Files.isSymbolicLink(file)
+                        || Files.isRegularFile(file, LinkOption.NOFOLLOW_LINKS) && Files.size(file) == entry.getSize();
+                if (!manifest.get(entry.getName()).equals(previous.get(entry.getName())) || !present) {
+                    changed.add(entry);
+                }
+            }
+            LOG.info("[BridgeExtractor] " + changed.size() + " of " + files.size() + " entries need writing");
+
+            Set<String> priority = collectPriorityEntries(zip, files);
+            List<ZipEntry> first = new ArrayList<>();
+            List<ZipEntry> rest = new ArrayList<>();
+            for (ZipEntry entry : changed) {
+                (priority.contains(entry.getName()) ? first : rest).add(entry);
+            }
+
+            int total = changed.size();
+            AtomicInteger written = new AtomicInteger();
+            EntryWriter writer = new EntryWriter(zip, target, modes, posix);
+            for (ZipEntry entry : first) {
+                writer.write(entry);
+                report(progress, written.incrementAndGet(), total);
+            }
+
+            CompletableFuture<Void> remaining = writeInParallel(writer, rest, progress, written, total)
+                    .thenRun(() -> writeManifest(target, manifest));
+            remaining.whenComplete((ignored, error) -> closeQuietly(zip));
+            return remaining;
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(zip);
+            throw e;
+        }
+    }
+
+    private CompletableFuture<Void> writeInParallel(
+            EntryWriter writer,
+            List<ZipEntry> entries,
+            BiConsumer<Integer, Integer> progress,
+            AtomicInteger written,
+            int total
+    ) {
+        if (entries.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        // Largest first, so one big file does not end up as the tail of a batch
+        entries.sort((a, b) -> Long.compare(b.getSize(), a.getSize()));
+        List<List<ZipEntry>> batches = new ArrayList<>();
+        for (int i = 0; i < Math.min(parallelism, entries.size()); i++) {
+            batches.add(new ArrayList<>());
+        }
+        for (int i = 0; i < entries.size(); i++) {
+            batches.get(i % batches.size()).add(entries.get(i));
+        }
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (List<ZipEntry> batch : batches) {
+            futures.add(CompletableFuture.runAsync(() -> {
+                for (ZipEntry entry : batch) {
+                    try {
+                        writer.write(entry);
+                    } catch (IOException e) {
+                        throw new IllegalStateException("Failed to extract " + entry.getName() + ": " + e.getMessage(), e);
+                    }
+                    report(progress, written.incrementAndGet(), total);
+                }
+            }, executor));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+    }
+
+    /**
+     * Collects the entry scripts and, transitively, every archive file they import by relative path,
+     * plus all files of each package they import by name.
+     */
+    static Set<String> collectPriorityEntries(ZipFile zip, Map<String, ZipEntry> files) throws IOException {
+        Set<String> result = new LinkedHashSet<>();
+        Set<String> packages = new LinkedHashSet<>();
+        Deque<String> queue = new ArrayDeque<>();
+        for (String script : ENTRY_SCRIPTS) {
+            if (files.containsKey(script)) {
+                queue.add(script);
+            }
+        }
+        while (!queue.isEmpty()) {
+            String name = queue.poll();
+            if (!result.add(name) || !isScript(name)) {
+                continue;
+            }
+            String source;
+            try (InputStream in = zip.getInputStream(files.get(name))) {
+                source = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            Matcher matcher = IMPORT_PATTERN.matcher(source);
+            while (matcher.find()) {
+                String specifier = matcher.group(1);
+                if (specifier.startsWith(".")) {
+                    String resolved = resolveRelative(name, specifier, files);
+                    if (resolved != null) {
+                        queue.add(resolved);
+                    }
+                } else if (!specifier.startsWith("node:")) {
+                    packages.add(packageName(specifier));
+                }
+            }
+        }
+        for (String pkg : packages) {
+            String prefix = NODE_MODULES + pkg + "/";
+            for (String name : files.keySet()) {
+                if (name.startsWith(prefix)) {
+                    result.add(name);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Hash of every entry's name, CRC-32 and size, read from the central directory.
+     * Identifies the archive contents without reading the whole file.
+     */
+    static String contentHash(File archiveFile) throws IOException {
+        List<String> ids = new ArrayList<>();
+        try (ZipFile zip = new ZipFile(archiveFile)) {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                ids.add(entry.getName() + "=" + (entry.isDirectory() ? "dir" : entryId(entry)));
+            }
+        }
+        Collections.sort(ids);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String id : ids) {
+                digest.update(id.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return "cd-" + hex;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("SHA-256 not available", e);
+        }
+    }
+
+    private static boolean isScript(String name) {
+        return name.endsWith(".js") || name.endsWith(".mjs") || name.endsWith(".cjs");
+    }
+
+    private static String resolveRelative(String from, String specifier, Map<String, ZipEntry> files) {
+        int slash = from.lastIndexOf('/');
+        String base = slash >= 0 ? from.substring(0, slash + 1) : "";
+        String joined = Path.of(base + specifier).normalize().toString().replace('\\', '/');
+        for (String candidate : new String[]{joined, joined + ".js", joined + "/index.js"}) {
+            if (files.containsKey(candidate)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static String packageName(String specifier) {
+        String[] parts = specifier.split("/");
+        if (specifier.startsWith("@") && parts.length > 1) {
+            return parts[0] + "/" + parts[1];
+        }
+        return parts[0];
+    }
+
+    private static String entryId(ZipEntry entry) {
+        return Long.toHexString(entry.getCrc()) + ":" + entry.getSize();
+    }
+
+    private static String entryId(ZipEntry entry, int mode) {
+        return mode != 0 ? entryId(entry) + ":" + Integer.toOctalString(mode) : entryId(entry);
+    }
+
+    private static boolean isSymlink(int mode) {
+        return (mode & S_IFMT) == S_IFLNK;
+    }
+
+    /**
+     * Reads the Unix mode of every entry from the central directory, the upper 16 bits of the
+     * external attributes. Entries written on other systems have no mode and are left out.
+     *
+     * @return entry name to mode; empty if the central directory cannot be read
+     */
+    static Map<String, Integer> readUnixModes(File archiveFile) {
+        Map<String, Integer> modes = new HashMap<>();
+        try (FileChannel channel = FileChannel.open(archiveFile.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            int tailSize = (int) Math.min(size, END_RECORD_SIZE + MAX_COMMENT_SIZE);
+            ByteBuffer tail = readFully(channel, size - tailSize, tailSize);
+            int end = -1;
+            for (int i = tailSize - END_RECORD_SIZE; i >= 0; i--) {
+                if (tail.getInt(i) == END_SIGNATURE) {
+                    end = i;
+                    break;
+                }
+            }
+            if (end < 0) {
+                return modes;
+            }
+            long directorySize = Integer.toUnsignedLong(tail.getInt(end + 12));
+            long directoryOffset = Integer.toUnsignedLong(tail.getInt(end + 16));
+            if (directoryOffset == 0xFFFFFFFFL && end >= 20 && tail.getInt(end - 20) == ZIP64_LOCATOR_SIGNATURE) {
+                ByteBuffer zip64End = readFully(channel, tail.getLong(end - 20 + 8), 56);
+                directorySize = zip64End.getLong(40);
+                directoryOffset = zip64End.getLong(48);
+            }
+            if (directorySize > Integer.MAX_VALUE) {
+                return modes;
+            }
+
+            ByteBuffer directory = readFully(channel, directoryOffset, (int) directorySize);
+            int position = 0;
+            while (position + 46 <= directory.limit() && directory.getInt(position) == CENTRAL_HEADER_SIGNATURE) {
+                int madeBy = (directory.getShort(position + 4) >> 8) & 0xFF;
+                int nameLength = Short.toUnsignedInt(directory.getShort(position + 28));
+                int extraLength = Short.toUnsignedInt(directory.getShort(position + 30));
+                int commentLength = Short.toUnsignedInt(directory.getShort(position + 32));
+                int mode = directory.getInt(position + 38) >>> 16;
+                if (madeBy == 3 && mode != 0) {
+                    byte[] name = new byte[nameLength];
+                    directory.get(position + 46, name);
+                    modes.put(new String(name, StandardCharsets.UTF_8), mode);
+                }
+                position += 46 + nameLength + extraLength + commentLength;
+            }
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("[BridgeExtractor] Failed to read file modes, extracting without permissions: " + e.getMessage());
+            modes.clear();
+        }
+        return modes;
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of archive");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static Path resolveSafely(Path target, String name) throws IOException {
+        Path resolved = target.resolve(name).normalize();
+        if (!resolved.startsWith(target)) {
+            throw new IOException("Unsafe zip entry detected: " + name);
+        }
+        return resolved;
+    }
+
+    /**
+     * Writes single entries, restoring their Unix mode and symlinks.
+     */
+    private record EntryWriter(ZipFile zip, Path target, Map<String, Integer> modes, boolean posix) {
+
+        void write(ZipEntry entry) throws IOException {
+            Path file = resolveSafely(target, entry.getName());
+            Files.createDirectories(file.getParent());
+            int mode = modes.getOrDefault(entry.getName(), 0);
+            if (isSymlink(mode) && writeSymlink(entry, file)) {
+                return;
+            }
+            try (InputStream in = zip.getInputStream(entry)) {
+                Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            if (posix && mode != 0) {
+                Files.setPosixFilePermissions(file, toPermissions(mode));
+            }
+        }
+
+        /**
+         * @return false if links cannot be created here and the entry should be written as a file
+         */
+        private boolean writeSymlink(ZipEntry entry, Path file) throws IOException {
+            String linkTarget;
+            try (InputStream in = zip.getInputStream(entry)) {
+                linkTarget = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            // A link out of the target directory would let later entries be written through it
+            if (!file.getParent().resolve(linkTarget).normalize().startsWith(target)) {
+                throw new IOException("Unsafe symlink entry detected: " + entry.getName() + " -> " + linkTarget);
+            }
+            try {
+                Files.deleteIfExists(file);
+                Files.createSymbolicLink(file, Path.of(linkTarget));
+                return true;
+            } catch (UnsupportedOperationException | FileSystemException e) {
+                // E.g. Windows without the symlink privilege
+                LOG.debug("[BridgeExtractor] Cannot create symlink " + entry.getName() + ": " + e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    private static Set<PosixFilePermission> toPermissions(int mode) {
+        Set<PosixFilePermission> permissions = EnumSet.noneOf(PosixFilePermission.class);
+        PosixFilePermission[] bits = {
+                PosixFilePermission.OTHERS_EXECUTE, PosixFilePermission.OTHERS_WRITE, PosixFilePermission.OTHERS_READ,
+                PosixFilePermission.GROUP_EXECUTE, PosixFilePermission.GROUP_WRITE, PosixFilePermission.GROUP_READ,
+                PosixFilePermission.OWNER_EXECUTE, PosixFilePermission.OWNER_WRITE, PosixFilePermission.OWNER_READ
+        };
+        for (int i = 0; i < bits.length; i++) {
+            if ((mode & (1 << i)) != 0) {
+                permissions.add(bits[i]);
+            }
+        }
+        return permissions;
+    }
+
+    private static void deleteRemovedEntries(Path target, Map<String, String> previous, Map<String, String> manifest) {
+        for (String name : previous.keySet()) {
+            if (manifest.containsKey(name)) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(resolveSafely(target, name));
+            } catch (IOException e) {
+                LOG.debug("[BridgeExtractor] Failed to delete removed entry " + name + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static Map<String, String> readManifest(Path target) {
+        Path file = target.resolve(MANIFEST_FILE_NAME);
+        if (!Files.isRegularFile(file)) {
+            return Map.of();
+        }
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            JsonObject root = JsonParser.parseReader(reader).getAsJsonObject();
+            if (!root.has("version") || root.get("version").getAsInt() != MANIFEST_VERSION) {
+                return Map.of();
+            }
+            Map<String, String> result = new HashMap<>();
+            JsonObject entries = root.getAsJsonObject("entries");
+            for (String name : entries.keySet()) {
+                result.put(name, entries.get(name).getAsString());
+            }
+            return result;
+        } catch (Exception e) {
+            LOG.debug("[BridgeExtractor] Ignoring unreadable manifest: " + e.getMessage());
+            return Map.of();
+        }
+    }
+
+    private static void writeManifest(Path target, Map<String, String> manifest) {
+        JsonObject root = new JsonObject();
+        root.addProperty("version", MANIFEST_VERSION);
+        JsonObject entries = new JsonObject();
+        manifest.forEach(entries::addProperty);
+        root.add("entries", entries);
+
+        Path file = target.resolve(MANIFEST_FILE_NAME);
+        Path temp = target.resolve(MANIFEST_FILE_NAME + ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                new Gson().toJson(root, writer);
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            // Without a manifest the next extraction simply rewrites every entry
+            LOG.warn("[BridgeExtractor] Failed to write manifest: " + e.getMessage());
+        }
+    }
+
+    private static void report(BiConsumer<Integer, Integer> progress, int written, int total) {
+        if (progress != null) {
+            progress.accept(written, total);
+        }
+    }
+
+    private static void closeQuietly(ZipFile zip) {
+        try {
+            zip.close();
+        } catch (IOException e) {
+            LOG.debug("[BridgeExtractor] Failed to close archive: " + e.getMessage());
+        }
+    }
+}
@@ -11,25 +11,21 @@ import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import org.jetbrains.annotations.NotNull;
 
-import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.security.CodeSource;
-import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
+import java.util.function.BiConsumer;
 
 /**
  * Bridge directory resolver.
@@ -68,6 +64,7 @@ public class BridgeDirectoryResolver {
     private final AtomicReference<ExtractionState> extractionState = new AtomicReference<>(ExtractionState.NOT_STARTED);
     private final AtomicReference<CompletableFuture<File>> extractionFutureRef = new AtomicReference<>();
     private volatile CompletableFuture<Boolean> extractionReadyFuture = new CompletableFuture<>();
+    private volatile BridgeArchiveExtractor archiveExtractor;
 
     /**
      * Find the claude-bridge directory.
@@ -465,8 +462,8 @@ public class BridgeDirectoryResolver {
             File archiveParentDir = archiveFile.getParentFile();
             String archiveHash = readPrecomputedHash(archiveParentDir);
             if (archiveHash == null) {
-                LOG.info("[BridgeResolver] Precomputed hash file not found, falling back to runtime calculation");
-                archiveHash = calculateFileHash(archiveFile);
+                LOG.info("[BridgeResolver] Precomputed hash file not found, hashing the archive's central directory");
+                archiveHash = calculateArchiveHash(archiveFile);
             }
             if (archiveHash == null) {
                 LOG.warn("[BridgeResolver] Failed to calculate archive hash, falling back to version-based signature");
@@ -555,20 +552,12 @@ public class BridgeDirectoryResolver {
                     // Direct extraction on non-EDT thread
                     LOG.info("[BridgeResolver] Starting synchronous extraction on non-EDT thread");
                     try {
-                        LOG.info("[BridgeResolver] Step 1: Deleting old directory if exists");
-                        deleteDirectory(extractedDir);
-
-                        LOG.info("[BridgeResolver] Step 2: Unzipping archive");
-                        unzipArchive(archiveFile, extractedDir);
-                        LOG.info("[BridgeResolver] Unzip completed, extractedDir exists: " + extractedDir.exists());
-
-                        LOG.info("[BridgeResolver] Step 3: Writing version file");
-                        Files.writeString(versionFile.toPath(), signature, StandardCharsets.UTF_8);
-                        LOG.info("[BridgeResolver] Version file written");
+                        LOG.info("[BridgeResolver] Step 1: Extracting entry scripts and their imports");
+                        CompletableFuture<Void> remaining = startExtraction(archiveFile, extractedDir, versionFile, null);
+                        LOG.info("[BridgeResolver] Priority entries extracted, extractedDir exists: " + extractedDir.exists());
 
                         // Wait for filesystem to sync and validate with retry
-                        // This fixes race condition where unzip returns before files are fully synced
-                        LOG.info("[BridgeResolver] Step 4: Validating extracted directory");
+                        LOG.info("[BridgeResolver] Step 2: Validating extracted directory");
                         File validatedDir = waitForValidBridgeDir(extractedDir, 3, 100);
                         if (validatedDir != null) {
                             LOG.info("[BridgeResolver] Validation succeeded!");
@@ -579,7 +568,11 @@ public class BridgeDirectoryResolver {
                                 future.complete(validatedDir);
                             }
                             this.extractionReadyFuture.complete(true);
-                            LOG.info("[BridgeResolver] ai-bridge extraction completed: " + validatedDir.getAbsolutePath());
+                            LOG.info("[BridgeResolver] ai-bridge ready, remaining entries extract in background: "
+                                    + validatedDir.getAbsolutePath());
+
+                            // Step 3: the version file is written once every entry is in place
+                            finishExtraction(remaining, validatedDir, signature, versionFile);
                             return validatedDir;
                         } else {
                             LOG.error("[BridgeResolver] Bridge validation failed after extraction and retries");
@@ -701,29 +694,18 @@ public class BridgeDirectoryResolver {
                     indicator.setText("Extracting ai-bridge.zip...");
 
                     try {
-                        // Delete old directory
+                        // Extract entry scripts first, the rest continues on the extraction pool
                         indicator.setFraction(0.1);
-                        indicator.setText("Cleaning old files...");
-                        deleteDirectory(extractedDir);
-
-                        // Extract archive
-                        indicator.setFraction(0.2);
                         indicator.setText("Extracting archive...");
-                        unzipArchiveWithProgress(archiveFile, extractedDir, indicator);
-
-                        // Write version file
-                        indicator.setFraction(0.9);
-                        indicator.setText("Finalizing...");
-                        Files.writeString(versionFile.toPath(), signature, StandardCharsets.UTF_8);
+                        CompletableFuture<Void> remaining = startExtraction(archiveFile, extractedDir, versionFile,
+                                (written, total) -> indicator.setFraction(0.1 + 0.9 * written / Math.max(1, total)));
 
                         // Validate with retry to handle filesystem sync delay
                         indicator.setText("Validating extraction...");
                         File validatedDir = waitForValidBridgeDir(extractedDir, 3, 100);
 
-                        indicator.setFraction(1.0);
-
                         if (validatedDir != null) {
-                            LOG.info("[BridgeResolver] Background extraction completed successfully");
+                            LOG.info("[BridgeResolver] Bridge ready, extracting remaining entries in background");
                             // Mark as completed and cache the directory
                             BridgeDirectoryResolver.this.extractionState.set(ExtractionState.COMPLETED);
                             BridgeDirectoryResolver.this.cachedSdkDir = validatedDir;
@@ -732,6 +714,12 @@ public class BridgeDirectoryResolver {
                                 future.complete(validatedDir);
                             }
                             BridgeDirectoryResolver.this.extractionReadyFuture.complete(true);
+
+                            // Keep the progress bar until the dependencies are written
+                            indicator.setText("Extracting dependencies...");
+                            finishExtraction(remaining, validatedDir, signature, versionFile);
+                            remaining.exceptionally(error -> null).join();
+                            indicator.setFraction(1.0);
                         } else {
                             LOG.error("[BridgeResolver] Background extraction completed but validation failed");
                             BridgeDirectoryResolver.this.extractionState.set(ExtractionState.FAILED);
@@ -798,195 +786,67 @@ public class BridgeDirectoryResolver {
         }
     }
 
-    private void unzipArchive(File archiveFile, File targetDir) throws IOException {
-        Files.createDirectories(targetDir.toPath());
-
-        // Try to use system unzip command to preserve permissions
-        if (trySystemUnzip(archiveFile, targetDir)) {
-            LOG.info("[BridgeResolver] Successfully extracted using system unzip command");
-            return;
-        }
-
-        // Fallback to Java ZipInputStream
-        LOG.warn("[BridgeResolver] System unzip not available, using Java ZipInputStream (permissions may be lost)");
-        unzipWithJava(archiveFile, targetDir);
-    }
-
     /**
-     * Try to extract using system unzip command to preserve file permissions.
-     * Returns true if successful, false if unzip command is not available.
+     * Starts an incremental extraction and returns once the entry scripts and their imports are on disk.
+     * A directory without a manifest was written by an older plugin version and is cleared first,
+     * since its leftover files cannot be told apart from current ones.
+     *
+     * @return a future that completes when the remaining entries and the manifest are written
      */
-    private boolean trySystemUnzip(File archiveFile, File targetDir) {
-        return executeSystemUnzip(archiveFile, targetDir, null);
+    private CompletableFuture<Void> startExtraction(
+            File archiveFile,
+            File extractedDir,
+            File versionFile,
+            BiConsumer<Integer, Integer> progress
+    ) throws IOException {
+        if (!new File(extractedDir, BridgeArchiveExtractor.MANIFEST_FILE_NAME).exists()) {
+            deleteDirectory(extractedDir);
+        }
+        // The signature is only written back once every entry is in place
+        Files.deleteIfExists(versionFile.toPath());
+        return getArchiveExtractor().extract(archiveFile, extractedDir, progress);
     }
 
     /**
-     * Try to extract using system unzip command with progress updates.
+     * Writes the version file when the background phase finishes. If it fails, the directory is
+     * dropped from the cache so that the next lookup extracts again.
      */
-    private boolean trySystemUnzipWithProgress(File archiveFile, File targetDir, ProgressIndicator indicator) {
-        if (indicator != null) {
-            indicator.setText("Extracting with system unzip...");
-            indicator.setFraction(0.5);
-        }
-        boolean result = executeSystemUnzip(archiveFile, targetDir, indicator);
-        if (result && indicator != null) {
-            indicator.setFraction(0.9);
-        }
-        return result;
-    }
-
-    /**
-     * Core implementation for system unzip extraction.
-     * @param archiveFile The archive to extract
-     * @param targetDir The target directory
-     * @param indicator Optional progress indicator (can be null)
-     * @return true if extraction succeeded, false otherwise
-     */
-    private boolean executeSystemUnzip(File archiveFile, File targetDir, ProgressIndicator indicator) {
-        Process process = null;
-        try {
-            ProcessBuilder pb;
-            if (System.getProperty("os.name").toLowerCase().contains("windows")) {
-                // Windows: try to use tar command (available in Windows 10+)
-                pb = new ProcessBuilder("tar", "-xf", archiveFile.getAbsolutePath(), "-C", targetDir.getAbsolutePath());
-            } else {
-                // Unix/Linux/macOS: use unzip command
-                pb = new ProcessBuilder("unzip", "-o", "-q", archiveFile.getAbsolutePath(), "-d", targetDir.getAbsolutePath());
-            }
-
-            pb.redirectErrorStream(true);
-            process = pb.start();
-
-            // Read output to prevent blocking
-            try (java.io.BufferedReader reader = new java.io.BufferedReader(
-                    new java.io.InputStreamReader(process.getInputStream()))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    LOG.debug("[BridgeResolver] unzip: " + line);
+    private void finishExtraction(CompletableFuture<Void> remaining, File extractedDir, String signature, File versionFile) {
+        remaining.whenComplete((ignored, error) -> {
+            if (error == null) {
+                try {
+                    Files.writeString(versionFile.toPath(), signature, StandardCharsets.UTF_8);
+                    LOG.info("[BridgeResolver] ai-bridge extraction completed: " + extractedDir.getAbsolutePath());
+                } catch (IOException e) {
+                    LOG.warn("[BridgeResolver] Failed to write version file: " + e.getMessage());
                 }
+                return;
             }
-
-            // Add timeout (5 minutes) to prevent hanging
-            if (!process.waitFor(5, java.util.concurrent.TimeUnit.MINUTES)) {
-                LOG.warn("[BridgeResolver] Unzip process timeout, killing...");
-                process.destroyForcibly();
-                return false;
-            }
-
-            return process.exitValue() == 0;
-        } catch (Exception e) {
-            LOG.debug("[BridgeResolver] System unzip failed: " + e.getMessage());
-            return false;
-        } finally {
-            // Ensure process is destroyed if still alive
-            if (process != null && process.isAlive()) {
-                LOG.warn("[BridgeResolver] Forcibly destroying unzip process");
-                process.destroyForcibly();
-            }
-        }
-    }
-
-    /**
-     * Fallback extraction using Java ZipInputStream.
-     * Note: This method does not preserve Unix file permissions.
-     */
-    private void unzipWithJava(File archiveFile, File targetDir) throws IOException {
-        Path targetPath = targetDir.toPath();
-        byte[] buffer = new byte[8192];
-
-        try (ZipInputStream zis = new ZipInputStream(new BufferedInputStream(new FileInputStream(archiveFile)))) {
-            ZipEntry entry;
-            while ((entry = zis.getNextEntry()) != null) {
-                Path resolvedPath = targetPath.resolve(entry.getName()).normalize();
-                if (!resolvedPath.startsWith(targetPath)) {
-                    throw new IOException("Unsafe zip entry detected: " + entry.getName());
-                }
-
-                if (entry.isDirectory()) {
-                    Files.createDirectories(resolvedPath);
-                } else {
-                    Files.createDirectories(resolvedPath.getParent());
-                    try (FileOutputStream fos = new FileOutputStream(resolvedPath.toFile())) {
-                        int len;
-                        while ((len = zis.read(buffer)) > 0) {
-                            fos.write(buffer, 0, len);
-                        }
-                    }
+            LOG.error("[BridgeResolver] Background extraction of ai-bridge failed: " + error.getMessage(), error);
+            synchronized (this.bridgeExtractionLock) {
+                if (extractedDir.equals(this.cachedSdkDir)) {
+                    this.cachedSdkDir = null;
                 }
-
-                zis.closeEntry();
+                this.extractionState.set(ExtractionState.FAILED);
             }
-        }
+        });
     }
 
-    /**
-     * Unzip archive with progress indicator support.
-     * This method counts total entries first, then updates progress during extraction.
-     */
-    private void unzipArchiveWithProgress(File archiveFile, File targetDir, ProgressIndicator indicator) throws IOException {
-        Files.createDirectories(targetDir.toPath());
-
-        // Try to use system unzip command first
-        if (trySystemUnzipWithProgress(archiveFile, targetDir, indicator)) {
-            LOG.info("[BridgeResolver] Successfully extracted using system unzip command");
-            return;
-        }
-
-        // Fallback to Java ZipInputStream
-        LOG.warn("[BridgeResolver] System unzip not available, using Java ZipInputStream (permissions may be lost)");
-        unzipWithJavaAndProgress(archiveFile, targetDir, indicator);
-    }
-
-    /**
-     * Fallback extraction with progress using Java ZipInputStream.
-     */
-    private void unzipWithJavaAndProgress(File archiveFile, File targetDir, ProgressIndicator indicator) throws IOException {
-        Path targetPath = targetDir.toPath();
-        byte[] buffer = new byte[8192];
-
-        // First pass: count total entries
-        int totalEntries = 0;
-        try (ZipInputStream zis = new ZipInputStream(new BufferedInputStream(new FileInputStream(archiveFile)))) {
-            while (zis.getNextEntry() != null) {
-                totalEntries++;
-                zis.closeEntry();
-            }
-        }
-
-        LOG.info("[BridgeResolver] Total entries to extract: " + totalEntries);
-
-        // Second pass: extract with progress
-        try (ZipInputStream zis = new ZipInputStream(new BufferedInputStream(new FileInputStream(archiveFile)))) {
-            ZipEntry entry;
-            int processedEntries = 0;
-
-            while ((entry = zis.getNextEntry()) != null) {
-                Path resolvedPath = targetPath.resolve(entry.getName()).normalize();
-                if (!resolvedPath.startsWith(targetPath)) {
-                    throw new IOException("Unsafe zip entry detected: " + entry.getName());
-                }
-
-                if (entry.isDirectory()) {
-                    Files.createDirectories(resolvedPath);
-                } else {
-                    Files.createDirectories(resolvedPath.getParent());
-                    try (FileOutputStream fos = new FileOutputStream(resolvedPath.toFile())) {
-                        int len;
-                        while ((len = zis.read(buffer)) > 0) {
-                            fos.write(buffer, 0, len);
-                        }
-                    }
+    private BridgeArchiveExtractor getArchiveExtractor() {
+        BridgeArchiveExtractor extractor = this.archiveExtractor;
+        if (extractor == null) {
+            synchronized (this.bridgeExtractionLock) {
+                extractor = this.archiveExtractor;
+                if (extractor == null) {
+                    int parallelism = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+                    extractor = new BridgeArchiveExtractor(
+                            AppExecutorUtil.createBoundedApplicationPoolExecutor("CCG Bridge Extraction", parallelism),
+                            parallelism);
+                    this.archiveExtractor = extractor;
                 }
-
-                zis.closeEntry();
-                processedEntries++;
-
-                // Update progress (0.2 to 0.9 range allocated for extraction)
-                double progress = 0.2 + (0.7 * processedEntries / totalEntries);
-                indicator.setFraction(progress);
-                indicator.setText("Extracting: " + entry.getName() + " (" + processedEntries + "/" + totalEntries + ")");
             }
         }
+        return extractor;
     }
 
     /**
@@ -1097,44 +957,22 @@ public class BridgeDirectoryResolver {
     }
 
     /**
-     * Calculate SHA-256 hash of a file.
+     * Hash the archive's entry names, CRCs and sizes from its central directory.
      * NOTE: This is a fallback method only used when precomputed hash file is missing.
      * Prefer using readPrecomputedHash() when available.
      *
-     * @param file The file to hash
+     * @param file The archive to hash
      * @return Hex string of the hash, or null if calculation fails
      */
-    private String calculateFileHash(File file) {
+    private String calculateArchiveHash(File file) {
         if (file == null || !file.exists()) {
             return null;
         }
 
-        LOG.info("[BridgeResolver] Calculating archive hash at runtime (fallback mode)");
         try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] buffer = new byte[8192];
-
-            try (FileInputStream fis = new FileInputStream(file);
-                 BufferedInputStream bis = new BufferedInputStream(fis)) {
-                int bytesRead;
-                while ((bytesRead = bis.read(buffer)) != -1) {
-                    digest.update(buffer, 0, bytesRead);
-                }
-            }
-
-            byte[] hashBytes = digest.digest();
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hashBytes) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) {
-                    hexString.append('0');
-                }
-                hexString.append(hex);
-            }
-
-            return hexString.toString();
+            return BridgeArchiveExtractor.contentHash(file);
         } catch (Exception e) {
-            LOG.warn("[BridgeResolver] Failed to calculate file hash: " + e.getMessage());
+            LOG.warn("[BridgeResolver] Failed to calculate archive hash: " + e.getMessage());
             return null;
         }
     }
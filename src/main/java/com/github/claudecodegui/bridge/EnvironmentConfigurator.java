@@ -2,7 +2,6 @@ package com.github.claudecodegui.bridge;
 
 import com.github.claudecodegui.settings.CodemossSettingsService;
 import com.github.claudecodegui.util.PlatformUtils;
-import com.github.claudecodegui.util.ShellExecutor;
 import com.intellij.openapi.diagnostic.Logger;
 
 import java.io.BufferedReader;
@@ -113,6 +112,7 @@ public class EnvironmentConfigurator {
                     newPath.append(separator).append(p);
                 }
             }
+            appendShellPathEntries(newPath);
         }
 
         // 3. Set the PATH environment variable
@@ -153,6 +153,25 @@ public class EnvironmentConfigurator {
         configurePermissionEnv(env);
     }
 
+    /**
+     * Appends PATH entries from the captured login shell environment (e.g. fnm/nvm shims) that are
+     * still missing. Never blocks: if no snapshot is available yet, one is captured in the background.
+     */
+    private void appendShellPathEntries(StringBuilder newPath) {
+        Map<String, String> shellEnv = ShellEnvironmentSnapshot.getInstance().peek();
+        String shellPath = shellEnv != null ? shellEnv.get("PATH") : null;
+        if (shellPath == null || shellPath.isEmpty()) {
+            return;
+        }
+        String separator = File.pathSeparator;
+        for (String entry : shellPath.split(Pattern.quote(separator))) {
+            String trimmed = entry.trim();
+            if (!trimmed.isEmpty() && !containsPathEntry(newPath.toString(), trimmed)) {
+                newPath.append(separator).append(trimmed);
+            }
+        }
+    }
+
     /**
      * Configures permission-related environment variables.
      */
@@ -234,6 +253,18 @@ public class EnvironmentConfigurator {
         return pathEnv.contains(targetPath);
     }
 
+    /**
+     * Checks whether the PATH has an entry exactly equal to the specified path.
+     */
+    private boolean containsPathEntry(String pathEnv, String targetPath) {
+        for (String entry : pathEnv.split(Pattern.quote(File.pathSeparator))) {
+            if (entry.trim().equals(targetPath)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Removes a specific path entry from the PATH environment variable.
      * Performs case-insensitive comparison on Windows.
@@ -468,45 +499,24 @@ public class EnvironmentConfigurator {
     }
 
     /**
-     * Get environment variable by executing a login shell (macOS/Linux).
+     * Get environment variable from the login shell environment (macOS/Linux).
      * This captures environment variables set in .zshrc, .bash_profile, etc.
+     * The whole environment is captured once and cached; see {@link ShellEnvironmentSnapshot}.
      *
      * @param envName Environment variable name
      * @return Value or null
      */
     private String getEnvFromShell(String envName) {
-        // Validate env name to prevent command injection
         if (!isValidEnvName(envName)) {
             LOG.warn("[Codex] Invalid env var name, skipping: " + envName);
             return null;
         }
 
-        // Use login + interactive shell to get full environment
-        // fnm and other version managers require interactive shell to load .zshrc
-        String shell = System.getenv("SHELL");
-        if (shell == null || shell.isEmpty()) {
-            shell = "/bin/zsh"; // Default to zsh on macOS
-        }
-
-        List<String> command = new ArrayList<>();
-        command.add(shell);
-        command.add("-l"); // Login shell
-        command.add("-i"); // Interactive shell (needed for fnm, nvm etc.)
-        command.add("-c");
-        command.add("echo \"$" + envName + "\"");
-
-        ShellExecutor.ExecutionResult result = ShellExecutor.executeAndGetLast(
-                command,
-                ShellExecutor.createShellOutputFilter(),
-                "[Codex] getEnvFromShell(" + envName + ")",
-                ShellExecutor.DEFAULT_TIMEOUT_SECONDS
-        );
-
-        if (result.isSuccess() && result.getOutput() != null) {
+        String value = ShellEnvironmentSnapshot.getInstance().get(envName);
+        if (value != null && !value.isEmpty()) {
             LOG.debug("[Codex] Env var found via shell: " + envName);
-            return result.getOutput();
+            return value;
         }
-
         return null;
     }
 
@@ -0,0 +1,183 @@
+package com.github.claudecodegui.bridge;
+
+import com.github.claudecodegui.model.NodeDetectionResult;
+import com.github.claudecodegui.util.PlatformUtils;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.intellij.openapi.diagnostic.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Persisted record of the last verified Node.js executable.
+ *
+ * <p>Stores the path and version together with the binary's modification time and size, and a hash
+ * of the PATH it was detected under. A new IDE session trusts the record after a stat check instead
+ * of running shell lookups and {@code node --version}; {@link NodeDetector} revalidates it in the
+ * background. Location: {@code ~/.codemoss/cache/node-detection.json}.</p>
+ */
+final class NodeDetectionCache {
+
+    private static final Logger LOG = Logger.getInstance(NodeDetectionCache.class);
+
+    static final String CACHE_FILE_NAME = "node-detection.json";
+    private static final int CACHE_VERSION = 1;
+
+    private final Path file;
+
+    NodeDetectionCache(Path file) {
+        this.file = file;
+    }
+
+    static NodeDetectionCache createDefault() {
+        String home = PlatformUtils.getHomeDirectory();
+        return new NodeDetectionCache(
+                Paths.get(home != null ? home : "", ".codemoss", "cache", CACHE_FILE_NAME));
+    }
+
+    /**
+     * Returns the stored result if it still applies.
+     *
+     * @param nodePath     path the caller wants verified, or null to accept an auto-detected record
+     * @param pathEnv      current PATH, compared against the record's when {@code nodePath} is null
+     * @return the stored result, or null if there is none or the binary or PATH changed
+     */
+    NodeDetectionResult lookup(String nodePath, String pathEnv) {
+        JsonObject record = read();
+        if (record == null) {
+            return null;
+        }
+        String storedPath = getString(record, "nodePath");
+        String storedVersion = getString(record, "nodeVersion");
+        if (storedPath == null || storedVersion == null) {
+            return null;
+        }
+        if (nodePath != null) {
+            if (!nodePath.equals(storedPath)) {
+                return null;
+            }
+        } else if (!record.has("autoDetected") || !record.get("autoDetected").getAsBoolean()
+                || !hashPath(pathEnv).equals(getString(record, "pathHash"))) {
+            return null;
+        }
+
+        File binary = new File(storedPath);
+        if (!binary.isFile()
+                || binary.lastModified() != record.get("binaryModified").getAsLong()
+                || binary.length() != record.get("binarySize").getAsLong()) {
+            return null;
+        }
+
+        NodeDetectionResult.DetectionMethod method = NodeDetectionResult.DetectionMethod.KNOWN_PATH;
+        try {
+            String storedMethod = getString(record, "method");
+            if (storedMethod != null) {
+                method = NodeDetectionResult.DetectionMethod.valueOf(storedMethod);
+            }
+        } catch (IllegalArgumentException ignored) {
+            // Written by a newer version; the path and version are still valid
+        }
+        return NodeDetectionResult.success(storedPath, storedVersion, method);
+    }
+
+    /**
+     * Stores a verified result. Results without an absolute path (such as a bare {@code node}) are skipped.
+     */
+    void store(NodeDetectionResult result, boolean autoDetected, String pathEnv) {
+        if (result == null || !result.isFound() || result.getNodePath() == null || result.getNodeVersion() == null) {
+            return;
+        }
+        File binary = new File(result.getNodePath());
+        if (!binary.isAbsolute() || !binary.isFile()) {
+            return;
+        }
+
+        JsonObject record = new JsonObject();
+        record.addProperty("version", CACHE_VERSION);
+        record.addProperty("nodePath", result.getNodePath());
+        record.addProperty("nodeVersion", result.getNodeVersion());
+        if (result.getMethod() != null) {
+            record.addProperty("method", result.getMethod().name());
+        }
+        record.addProperty("autoDetected", autoDetected);
+        record.addProperty("binaryModified", binary.lastModified());
+        record.addProperty("binarySize", binary.length());
+        record.addProperty("pathHash", hashPath(pathEnv));
+        write(record);
+    }
+
+    /**
+     * Deletes the record if it refers to the given path.
+     */
+    void forget(String nodePath) {
+        JsonObject record = read();
+        if (record != null && nodePath != null && nodePath.equals(getString(record, "nodePath"))) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                LOG.debug("[NodeDetectionCache] Failed to delete " + file + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private JsonObject read() {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            JsonObject record = JsonParser.parseReader(reader).getAsJsonObject();
+            if (!record.has("version") || record.get("version").getAsInt() != CACHE_VERSION
+                    || !record.has("binaryModified") || !record.has("binarySize")) {
+                return null;
+            }
+            return record;
+        } catch (Exception e) {
+            LOG.debug("[NodeDetectionCache] Ignoring unreadable record " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void write(JsonObject record) {
+        Path temp = null;
+        try {
+            Files.createDirectories(file.getParent());
+            temp = Files.createTempFile(file.getParent(), ".node-detection-", ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                new Gson().toJson(record, writer);
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            LOG.debug("[NodeDetectionCache] Failed to persist record: " + e.getMessage());
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // Best effort
+                }
+            }
+        }
+    }
+
+    private static String getString(JsonObject record, String key) {
+        return record.has(key) && !record.get(key).isJsonNull() ? record.get(key).getAsString() : null;
+    }
+
+    private static String hashPath(String pathEnv) {
+        return AttachmentStore.sha256Hex((pathEnv != null ? pathEnv : "").getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -11,9 +11,11 @@ import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ForkJoinPool;
@@ -104,6 +106,10 @@ public class NodeDetector {
     private final Object cacheLock = new Object();
     // Executor for in-flight detection. Defaults to ForkJoinPool.commonPool().
     private volatile Executor detectionExecutor = ForkJoinPool.commonPool();
+    // Last verified result persisted across IDE restarts
+    private final NodeDetectionCache persistentCache = NodeDetectionCache.createDefault();
+    // Paths whose persisted record has already been revalidated in this IDE session
+    private final Set<String> revalidatedPaths = ConcurrentHashMap.newKeySet();
 
     /**
      * Finds Node.js executable path.
@@ -176,10 +182,32 @@ public class NodeDetector {
 
     /**
      * Detects Node.js and returns a detailed result.
+     * A result persisted by an earlier IDE session is trusted if the binary and PATH are unchanged,
+     * and is then revalidated in the background.
      *
      * @return NodeDetectionResult containing detection details
      */
     public NodeDetectionResult detectNodeWithDetails() {
+        String pathEnv = System.getenv("PATH");
+        NodeDetectionResult persisted = this.persistentCache.lookup(null, pathEnv);
+        if (persisted != null) {
+            LOG.info("[NodeDetector] Using persisted Node.js detection: " + persisted.getNodePath()
+                    + " (" + persisted.getNodeVersion() + ")");
+            revalidateAsync(persisted, true);
+            return persisted;
+        }
+
+        NodeDetectionResult result = probeNode();
+        if (result != null && result.isFound()) {
+            this.persistentCache.store(result, true, pathEnv);
+        }
+        return result;
+    }
+
+    /**
+     * Runs the detection chain: system commands, known paths, PATH scan, and direct invocation.
+     */
+    private NodeDetectionResult probeNode() {
         long startTime = System.currentTimeMillis();
         try {
             List<String> triedPaths = new ArrayList<>();
@@ -758,10 +786,17 @@ public class NodeDetector {
         if (!"node".equals(path) && !new File(path).exists()) {
             return NodeDetectionResult.failure("文件不存在，请检查路径是否正确：" + path);
         }
+        NodeDetectionResult persisted = this.persistentCache.lookup(path, null);
+        if (persisted != null) {
+            cacheDetection(persisted);
+            revalidateAsync(persisted, false);
+            return persisted;
+        }
         String version = verifyNodePath(path);
         NodeDetectionResult result;
         if (version != null) {
             result = NodeDetectionResult.success(path, version, NodeDetectionResult.DetectionMethod.KNOWN_PATH);
+            this.persistentCache.store(result, false, System.getenv("PATH"));
         } else {
             result = NodeDetectionResult.failure("无法验证指定的 Node.js 路径: " + path);
         }
@@ -769,6 +804,46 @@ public class NodeDetector {
         return result;
     }
 
+    /**
+     * Re-runs {@code node --version} for a persisted result in the background, once per path and
+     * IDE session. Updates the record and the in-memory cache if the version changed, and forgets
+     * both if the binary no longer runs so the next lookup detects again.
+     */
+    private void revalidateAsync(NodeDetectionResult persisted, boolean autoDetected) {
+        String path = persisted.getNodePath();
+        if (!this.revalidatedPaths.add(path)) {
+            return;
+        }
+        try {
+            CompletableFuture.runAsync(() -> {
+                String version = verifyNodePath(path);
+                if (version != null && version.equals(persisted.getNodeVersion())) {
+                    return;
+                }
+                NodeDetectionResult updated = version != null
+                        ? NodeDetectionResult.success(path, version, persisted.getMethod())
+                        : null;
+                if (updated != null) {
+                    LOG.info("[NodeDetector] Node.js version changed: " + persisted.getNodeVersion() + " -> " + version);
+                    this.persistentCache.store(updated, autoDetected, System.getenv("PATH"));
+                } else {
+                    LOG.warn("[NodeDetector] Persisted Node.js path no longer works: " + path);
+                    this.persistentCache.forget(path);
+                }
+                synchronized (this.cacheLock) {
+                    if (this.cachedDetectionResult != null && path.equals(this.cachedDetectionResult.getNodePath())) {
+                        this.cachedDetectionResult = updated;
+                        if (updated == null && path.equals(this.cachedNodeExecutable)) {
+                            this.cachedNodeExecutable = null;
+                        }
+                    }
+                }
+            }, this.detectionExecutor);
+        } catch (RuntimeException e) {
+            LOG.debug("[NodeDetector] Failed to schedule revalidation: " + e.getMessage());
+        }
+    }
+
     /**
      * Cache a detection result.
      */
@@ -20,7 +20,7 @@ import java.util.concurrent.TimeUnit;
 public class ProcessManager {
 
     private static final Logger LOG = Logger.getInstance(ProcessManager.class);
-    private static final String CLAUDE_TEMP_DIR_NAME = "claude-agent-tmp";
+    static final String CLAUDE_TEMP_DIR_NAME = "claude-agent-tmp";
 
     private final Map<String, Process> activeChannelProcesses = new ConcurrentHashMap<>();
     private final Set<String> interruptedChannels = ConcurrentHashMap.newKeySet();
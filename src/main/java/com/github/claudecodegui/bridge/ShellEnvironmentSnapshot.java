@@ -0,0 +1,437 @@
+package com.github.claudecodegui.bridge;
+
+import com.github.claudecodegui.util.PlatformUtils;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.util.concurrency.AppExecutorUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Snapshot of the user's login shell environment (macOS/Linux).
+ *
+ * <p>IDE processes launched from the Dock or a desktop launcher do not inherit variables set in
+ * {@code ~/.zshrc} and friends. Instead of starting a login + interactive shell for every variable,
+ * the whole environment is captured with a single {@code env -0} and parsed once.</p>
+ *
+ * <p>The snapshot is keyed by a hash of {@code $SHELL} and the modification times of the shell rc
+ * files, and is persisted to {@code ~/.codemoss/cache} so a new IDE session can use it without
+ * launching a shell. A snapshot loaded from disk is refreshed once in the background, which picks
+ * up changes in files sourced indirectly from the rc files. Only variables that differ from the
+ * IDE's own environment are kept. The cache file holds just PATH and the variables looked up by
+ * name, so unrelated secrets in the shell environment never reach the disk, and it is created
+ * readable by its owner only.</p>
+ */
+class ShellEnvironmentSnapshot {
+
+    private static final Logger LOG = Logger.getInstance(ShellEnvironmentSnapshot.class);
+
+    static final String CACHE_FILE_NAME = "shell-env.json";
+    // Version 1 stored the whole environment
+    private static final int CACHE_VERSION = 2;
+    private static final int CAPTURE_TIMEOUT_SECONDS = 10;
+    private static final String BEGIN_MARKER = "__CCG_ENV_BEGIN__";
+    private static final String[] RC_FILES = {
+            ".zshenv", ".zprofile", ".zshrc", ".zlogin",
+            ".bash_profile", ".bash_login", ".bashrc", ".profile"
+    };
+    // Set per shell invocation; never meaningful to a child process
+    private static final Set<String> VOLATILE_VARS = Set.of("_", "PWD", "OLDPWD", "SHLVL", "TERM");
+
+    private static volatile ShellEnvironmentSnapshot instance;
+
+    private final String shell;
+    private final Path home;
+    private final Path cacheFile;
+    private final Map<String, String> baseEnv;
+    private final Executor executor;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    // Variables written to the cache file
+    private final Set<String> persistedNames = ConcurrentHashMap.newKeySet();
+
+    private volatile Snapshot current;
+    private boolean loadedFromDisk;
+
+    /**
+     * @param names the variables the snapshot knows about, or null if it holds the whole environment
+     */
+    private record Snapshot(String key, Map<String, String> env, Set<String> names) {
+        boolean covers(String name) {
+            return names == null || names.contains(name);
+        }
+    }
+
+    ShellEnvironmentSnapshot(String shell, Path home, Path cacheFile, Map<String, String> baseEnv, Executor executor) {
+        this.shell = shell;
+        this.home = home;
+        this.cacheFile = cacheFile;
+        this.baseEnv = baseEnv;
+        this.executor = executor;
+        persistedNames.add("PATH");
+    }
+
+    static ShellEnvironmentSnapshot getInstance() {
+        if (instance == null) {
+            synchronized (ShellEnvironmentSnapshot.class) {
+                if (instance == null) {
+                    String shell = System.getenv("SHELL");
+                    if (shell == null || shell.isEmpty()) {
+                        shell = "/bin/zsh"; // Default to zsh on macOS
+                    }
+                    String userHome = PlatformUtils.getHomeDirectory();
+                    Path home = Paths.get(userHome != null ? userHome : "");
+                    instance = new ShellEnvironmentSnapshot(
+                            shell,
+                            home,
+                            home.resolve(".codemoss").resolve("cache").resolve(CACHE_FILE_NAME),
+                            System.getenv(),
+                            AppExecutorUtil.createBoundedApplicationPoolExecutor("CCG Shell Environment", 1));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Looks up a variable in the shell environment, capturing it first if needed.
+     *
+     * @return the value, or null if the shell does not set it
+     */
+    String get(String name) {
+        boolean newlyPersisted = persistedNames.add(name);
+        Snapshot previous = current;
+        Snapshot snapshot = snapshot(name);
+        if (newlyPersisted && snapshot == previous && snapshot.names() == null && !snapshot.env().isEmpty()) {
+            // Captured before this variable was asked for; keep it for the next session
+            save(snapshot);
+        }
+        String value = snapshot.env().get(name);
+        return value != null ? value : baseEnv.get(name);
+    }
+
+    /**
+     * Returns the current snapshot without blocking, scheduling a capture if there is none or it is
+     * out of date.
+     *
+     * @return the variables the shell sets differently from the IDE, possibly from an older snapshot,
+     * or null if nothing has been captured yet
+     */
+    Map<String, String> peek() {
+        String key = computeKey();
+        Snapshot snapshot = current;
+        if (snapshot == null) {
+            synchronized (this) {
+                snapshot = current != null ? current : loadStoredOnce(key);
+            }
+        }
+        if (snapshot == null || !snapshot.key().equals(key)) {
+            refreshAsync();
+        }
+        return snapshot != null ? snapshot.env() : null;
+    }
+
+    /**
+     * Returns the variables the shell sets differently from the IDE, capturing them if the
+     * in-memory and on-disk snapshots are missing or out of date. A snapshot loaded from disk only
+     * holds PATH and the variables previously looked up with {@link #get}.
+     */
+    Map<String, String> getEnvironment() {
+        return snapshot(null).env();
+    }
+
+    /**
+     * Returns a current snapshot that knows about {@code name} (any snapshot if null), capturing
+     * one if needed.
+     */
+    private Snapshot snapshot(String name) {
+        String key = computeKey();
+        Snapshot snapshot = current;
+        if (isUsable(snapshot, key, name)) {
+            return snapshot;
+        }
+        synchronized (this) {
+            snapshot = current;
+            if (isUsable(snapshot, key, name)) {
+                return snapshot;
+            }
+            Snapshot stored = loadStoredOnce(key);
+            if (isUsable(stored, key, name)) {
+                return stored;
+            }
+            // A failed capture is kept in memory too, so a broken rc file costs one timeout per change
+            Snapshot captured = capture(key);
+            current = captured;
+            return captured;
+        }
+    }
+
+    private static boolean isUsable(Snapshot snapshot, String key, String name) {
+        return snapshot != null && snapshot.key().equals(key) && (name == null || snapshot.covers(name));
+    }
+
+    /**
+     * Reads the persisted snapshot the first time it is needed, installs it if it is still current,
+     * and schedules the one background refresh per IDE session. Must be called while holding the lock.
+     */
+    private Snapshot loadStoredOnce(String key) {
+        if (loadedFromDisk) {
+            return null;
+        }
+        loadedFromDisk = true;
+        Snapshot stored = load();
+        if (stored != null && stored.key().equals(key)) {
+            current = stored;
+            refreshAsync();
+        }
+        return stored;
+    }
+
+    private void refreshAsync() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    String key = computeKey();
+                    Snapshot captured = capture(key);
+                    Snapshot previous = current;
+                    if (captured.env().isEmpty() && previous != null && !previous.env().isEmpty()) {
+                        // Keep the last good variables, but don't retry until the rc files change
+                        captured = new Snapshot(key, previous.env(), previous.names());
+                    }
+                    // Failed and empty captures are cached under their key as well, so peek()
+                    // does not start another shell on every call
+                    current = captured;
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            refreshing.set(false);
+            LOG.debug("[ShellEnv] Failed to schedule refresh: " + e.getMessage());
+        }
+    }
+
+    private Snapshot capture(String key) {
+        long start = System.currentTimeMillis();
+        Map<String, String> env;
+        try {
+            env = diff(parseEnvOutput(runShell(buildCommand())));
+        } catch (IOException e) {
+            LOG.warn("[ShellEnv] Failed to capture shell environment: " + e.getMessage());
+            return new Snapshot(key, Map.of(), null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Snapshot(key, Map.of(), null);
+        }
+        LOG.info("[ShellEnv] Captured " + env.size() + " shell variables in "
+                + (System.currentTimeMillis() - start) + "ms");
+        Snapshot snapshot = new Snapshot(key, env, null);
+        if (!env.isEmpty()) {
+            save(snapshot);
+        }
+        return snapshot;
+    }
+
+    List<String> buildCommand() {
+        List<String> command = new ArrayList<>();
+        command.add(shell);
+        command.add("-l"); // Login shell
+        command.add("-i"); // Interactive shell (needed for fnm, nvm etc.)
+        command.add("-c");
+        // The marker separates rc file noise from the environment; older env builds lack -0
+        command.add("printf '%s' '" + BEGIN_MARKER + "'; command env -0 2>/dev/null || command env");
+        return command;
+    }
+
+    /**
+     * Runs the capture command and returns its standard output.
+     * Output goes to a temp file so a large environment cannot fill the pipe and stall the shell.
+     */
+    byte[] runShell(List<String> command) throws IOException, InterruptedException {
+        Path output = Files.createTempFile("ccg-shell-env", ".out");
+        try {
+            ProcessBuilder pb = new ProcessBuilder(command);
+            // Set TERM=dumb to suppress extra output from interactive shells
+            pb.environment().put("TERM", "dumb");
+            pb.redirectInput(ProcessBuilder.Redirect.from(new File("/dev/null")));
+            pb.redirectOutput(output.toFile());
+            pb.redirectError(ProcessBuilder.Redirect.DISCARD);
+
+            Process process = pb.start();
+            if (!process.waitFor(CAPTURE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                throw new IOException("shell did not exit within " + CAPTURE_TIMEOUT_SECONDS + "s");
+            }
+            return Files.readAllBytes(output);
+        } finally {
+            Files.deleteIfExists(output);
+        }
+    }
+
+    /**
+     * Parses {@code env -0} output (or newline-separated {@code env} output) following the marker.
+     */
+    static Map<String, String> parseEnvOutput(byte[] output) throws IOException {
+        String text = new String(output, StandardCharsets.UTF_8);
+        int marker = text.lastIndexOf(BEGIN_MARKER);
+        if (marker < 0) {
+            throw new IOException("shell output did not contain the environment");
+        }
+        String body = text.substring(marker + BEGIN_MARKER.length());
+        String separator = body.indexOf('\0') >= 0 ? "\0" : "\n";
+
+        Map<String, String> env = new HashMap<>();
+        for (String entry : body.split(separator)) {
+            int eq = entry.indexOf('=');
+            if (eq <= 0) {
+                continue;
+            }
+            env.put(entry.substring(0, eq), entry.substring(eq + 1));
+        }
+        return env;
+    }
+
+    private Map<String, String> diff(Map<String, String> shellEnv) {
+        Map<String, String> result = new HashMap<>();
+        for (Map.Entry<String, String> entry : shellEnv.entrySet()) {
+            if (!VOLATILE_VARS.contains(entry.getKey())
+                    && !Objects.equals(baseEnv.get(entry.getKey()), entry.getValue())) {
+                result.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return Map.copyOf(result);
+    }
+
+    String computeKey() {
+        StringBuilder sb = new StringBuilder(shell);
+        for (String rcFile : RC_FILES) {
+            File file = home.resolve(rcFile).toFile();
+            sb.append('\0').append(rcFile).append('=').append(file.lastModified());
+        }
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(sb.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return sb.toString();
+        }
+    }
+
+    private Snapshot load() {
+        if (!Files.isRegularFile(cacheFile)) {
+            return null;
+        }
+        try (Reader reader = Files.newBufferedReader(cacheFile, StandardCharsets.UTF_8)) {
+            JsonObject root = JsonParser.parseReader(reader).getAsJsonObject();
+            if (!root.has("version") || root.get("version").getAsInt() != CACHE_VERSION) {
+                reader.close();
+                // Older caches hold the whole environment; don't leave it lying around
+                Files.deleteIfExists(cacheFile);
+                return null;
+            }
+            if (!root.has("key") || !root.has("env") || !root.has("names")) {
+                return null;
+            }
+            Set<String> names = new HashSet<>();
+            for (JsonElement name : root.getAsJsonArray("names")) {
+                names.add(name.getAsString());
+            }
+            Map<String, String> env = new HashMap<>();
+            JsonObject stored = root.getAsJsonObject("env");
+            for (String name : stored.keySet()) {
+                if (names.contains(name)) {
+                    env.put(name, stored.get(name).getAsString());
+                }
+            }
+            persistedNames.addAll(names);
+            return new Snapshot(root.get("key").getAsString(), Map.copyOf(env), Set.copyOf(names));
+        } catch (Exception e) {
+            LOG.debug("[ShellEnv] Ignoring unreadable cache " + cacheFile + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void save(Snapshot snapshot) {
+        JsonObject root = new JsonObject();
+        root.addProperty("version", CACHE_VERSION);
+        root.addProperty("key", snapshot.key());
+        JsonArray names = new JsonArray();
+        JsonObject env = new JsonObject();
+        for (String name : new TreeSet<>(persistedNames)) {
+            if (!snapshot.covers(name)) {
+                continue;
+            }
+            names.add(name);
+            String value = snapshot.env().get(name);
+            if (value != null) {
+                env.addProperty(name, value);
+            }
+        }
+        root.add("names", names);
+        root.add("env", env);
+
+        Path temp = null;
+        try {
+            Path dir = cacheFile.getParent();
+            Files.createDirectories(dir);
+            // The requested variables may carry API keys; create the file private to the user
+            if (dir.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+                temp = Files.createTempFile(dir, ".shell-env-", ".tmp",
+                        PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+            } else {
+                temp = Files.createTempFile(dir, ".shell-env-", ".tmp");
+            }
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                new Gson().toJson(root, writer);
+            }
+            try {
+                Files.move(temp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            LOG.debug("[ShellEnv] Failed to persist shell environment: " + e.getMessage());
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // Best effort
+                }
+            }
+        }
+    }
+}
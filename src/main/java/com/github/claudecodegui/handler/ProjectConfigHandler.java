@@ -514,6 +514,44 @@ public class ProjectConfigHandler {
         }
     }
 
+    public void handleGetStandbyDaemonEnabled() {
+        try {
+            boolean enabled = settingsService.getStandbyDaemonEnabled();
+            ApplicationManager.getApplication().invokeLater(() -> {
+                JsonObject r = new JsonObject();
+                r.addProperty("standbyDaemonEnabled", enabled);
+                context.callJavaScript("window.updateStandbyDaemonEnabled", context.escapeJs(gson.toJson(r)));
+            });
+        } catch (Exception e) {
+            LOG.error("[ProjectConfigHandler] Failed to get standby daemon enabled: " + e.getMessage(), e);
+            ApplicationManager.getApplication().invokeLater(() -> {
+                JsonObject r = new JsonObject();
+                r.addProperty("standbyDaemonEnabled", false);
+                context.callJavaScript("window.updateStandbyDaemonEnabled", context.escapeJs(gson.toJson(r)));
+            });
+        }
+    }
+
+    public void handleSetStandbyDaemonEnabled(String content) {
+        try {
+            JsonObject json = gson.fromJson(content, JsonObject.class);
+            boolean enabled = json != null && json.has("standbyDaemonEnabled") && !json.get("standbyDaemonEnabled").isJsonNull()
+                && json.get("standbyDaemonEnabled").getAsBoolean();
+            settingsService.setStandbyDaemonEnabled(enabled);
+            LOG.info("[ProjectConfigHandler] Set standby daemon enabled: " + enabled);
+            final boolean finalVal = enabled;
+            ApplicationManager.getApplication().invokeLater(() -> {
+                JsonObject r = new JsonObject();
+                r.addProperty("standbyDaemonEnabled", finalVal);
+                context.callJavaScript("window.updateStandbyDaemonEnabled", context.escapeJs(gson.toJson(r)));
+            });
+        } catch (Exception e) {
+            LOG.error("[ProjectConfigHandler] Failed to set standby daemon enabled: " + e.getMessage(), e);
+            ApplicationManager.getApplication().invokeLater(() ->
+                context.callJavaScript("window.showError", context.escapeJs("保存备用守护进程配置失败")));
+        }
+    }
+
     private void dispatchUiFontConfigUpdate() {
         try {
             String uiFontConfigJson = FontConfigService.getResolvedUiFontConfigJson(settingsService);
@@ -51,6 +51,8 @@ public class SettingsHandler extends BaseMessageHandler {
         "set_commit_generation_enabled",
         "get_status_bar_widget_enabled",
         "set_status_bar_widget_enabled",
+        "get_standby_daemon_enabled",
+        "set_standby_daemon_enabled",
         "get_ide_theme",
         "get_commit_prompt",
         "set_commit_prompt",
@@ -182,6 +184,12 @@ public class SettingsHandler extends BaseMessageHandler {
             case "set_status_bar_widget_enabled":
                 projectConfigHandler.handleSetStatusBarWidgetEnabled(content);
                 return true;
+            case "get_standby_daemon_enabled":
+                projectConfigHandler.handleGetStandbyDaemonEnabled();
+                return true;
+            case "set_standby_daemon_enabled":
+                projectConfigHandler.handleSetStandbyDaemonEnabled(content);
+                return true;
             case "get_ide_theme":
                 projectConfigHandler.handleGetIdeTheme();
                 return true;
@@ -83,18 +83,16 @@ public class UsagePushService {
         String usageJson = gson.toJson(usageUpdate);
 
         // Push to frontend (must be executed on the EDT thread)
-        ApplicationManager.getApplication().invokeLater(() -> {
-            if (context.getBrowser() != null && !context.isDisposed()) {
-                String js = "(function() {" +
-                        "  if (typeof window.onUsageUpdate === 'function') {" +
-                        "    window.onUsageUpdate('" + context.escapeJs(usageJson) + "');" +
-                        "  }" +
-                        "})();";
-                context.getBrowser().getCefBrowser().executeJavaScript(js, context.getBrowser().getCefBrowser().getURL(), 0);
-            } else {
-                LOG.warn("[UsagePushService] Cannot send usage update: browser is null or disposed");
-            }
-        });
+        if (context.getBrowser() != null && !context.isDisposed()) {
+            String js = "(function() {" +
+                    "  if (typeof window.onUsageUpdate === 'function') {" +
+                    "    window.onUsageUpdate('" + context.escapeJs(usageJson) + "');" +
+                    "  }" +
+                    "})();";
+            context.executeJavaScriptOnEDT(js);
+        } else {
+            LOG.warn("[UsagePushService] Cannot send usage update: browser is null or disposed");
+        }
     }
 
     /**
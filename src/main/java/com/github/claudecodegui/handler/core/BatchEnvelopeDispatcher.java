@@ -0,0 +1,152 @@
+package com.github.claudecodegui.handler.core;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.intellij.openapi.diagnostic.Logger;
+
+/**
+ * Decodes batched webview messages and routes each entry through a {@link MessageDispatcher}.
+ *
+ * <p>The webview queues outgoing messages for one microtask and posts them as a single JSON array
+ * of {@code {type, id, payload}} envelopes, instead of one {@code type:content} string per message.
+ * Entries carrying an {@code id} are requests: the id is copied into object payloads as
+ * {@code requestId} so the handler can answer through {@link HandlerContext#resolveRequest}, and
+ * requests nobody handles are rejected right away so the webview promise does not hang until its
+ * timeout. {@code console.*} entries are coalesced log lines and go to the console sink.</p>
+ */
+public final class BatchEnvelopeDispatcher {
+
+    private static final Logger LOG = Logger.getInstance(BatchEnvelopeDispatcher.class);
+
+    static final String REQUEST_ID_KEY = "requestId";
+    private static final String CONSOLE_PREFIX = "console.";
+
+    public interface ReplySink {
+        void reject(String requestId, String error);
+    }
+
+    public interface ConsoleSink {
+        /**
+         * @param level {@code log}, {@code warn} or {@code error}
+         * @param args the original console arguments
+         * @param repeat how many identical consecutive calls were folded into this one
+         */
+        void log(String level, JsonArray args, int repeat);
+    }
+
+    private final MessageDispatcher dispatcher;
+    private final ReplySink replySink;
+    private final ConsoleSink consoleSink;
+
+    public BatchEnvelopeDispatcher(MessageDispatcher dispatcher, ReplySink replySink, ConsoleSink consoleSink) {
+        this.dispatcher = dispatcher;
+        this.replySink = replySink;
+        this.consoleSink = consoleSink;
+    }
+
+    /**
+     * Whether a raw bridge message is a batch. Legacy messages are {@code type:content} strings
+     * and message types never start with {@code [}.
+     */
+    public static boolean isBatch(String message) {
+        return message != null && !message.isEmpty() && message.charAt(0) == '[';
+    }
+
+    /**
+     * Dispatch every entry of a batch, in order.
+     * @return the number of entries that were handled
+     */
+    public int dispatch(String message) {
+        JsonArray entries;
+        try {
+            entries = JsonParser.parseString(message).getAsJsonArray();
+        } catch (Exception e) {
+            LOG.warn("Malformed webview batch: " + e.getMessage());
+            return 0;
+        }
+
+        int handled = 0;
+        for (JsonElement element : entries) {
+            if (element == null || !element.isJsonObject()) {
+                continue;
+            }
+            try {
+                if (dispatchEntry(element.getAsJsonObject())) {
+                    handled++;
+                }
+            } catch (Exception e) {
+                LOG.warn("Failed to dispatch webview batch entry: " + e.getMessage(), e);
+            }
+        }
+        return handled;
+    }
+
+    private boolean dispatchEntry(JsonObject entry) {
+        String type = getString(entry, "type");
+        if (type == null || type.isEmpty()) {
+            return false;
+        }
+        String id = getString(entry, "id");
+        JsonElement payload = entry.get("payload");
+
+        if (type.startsWith(CONSOLE_PREFIX)) {
+            logConsole(type.substring(CONSOLE_PREFIX.length()), payload);
+            return true;
+        }
+
+        String content = toContent(payload, id);
+        if (dispatcher.dispatch(type, content)) {
+            return true;
+        }
+
+        LOG.warn("Unknown message type: " + type);
+        if (id != null) {
+            replySink.reject(id, "Unhandled message type: " + type);
+        }
+        return false;
+    }
+
+    private void logConsole(String level, JsonElement payload) {
+        JsonArray args = new JsonArray();
+        int repeat = 1;
+        if (payload != null && payload.isJsonObject()) {
+            JsonObject object = payload.getAsJsonObject();
+            if (object.has("args") && object.get("args").isJsonArray()) {
+                args = object.getAsJsonArray("args");
+            }
+            if (object.has("repeat") && object.get("repeat").isJsonPrimitive()) {
+                repeat = Math.max(1, object.get("repeat").getAsInt());
+            }
+        }
+        consoleSink.log(level, args, repeat);
+    }
+
+    /**
+     * Convert a payload to the string form handlers already accept: strings are passed through,
+     * anything else is serialized back to JSON.
+     */
+    static String toContent(JsonElement payload, String requestId) {
+        if (payload == null || payload.isJsonNull()) {
+            return "";
+        }
+        if (payload.isJsonPrimitive() && payload.getAsJsonPrimitive().isString()) {
+            return payload.getAsString();
+        }
+        if (requestId != null && payload.isJsonObject()) {
+            JsonObject copy = payload.getAsJsonObject().deepCopy();
+            copy.addProperty(REQUEST_ID_KEY, requestId);
+            return copy.toString();
+        }
+        return payload.toString();
+    }
+
+    private static String getString(JsonObject object, String key) {
+        JsonElement value = object.get(key);
+        if (value == null || value.isJsonNull() || !value.isJsonPrimitive()) {
+            return null;
+        }
+        return value.getAsString();
+    }
+}
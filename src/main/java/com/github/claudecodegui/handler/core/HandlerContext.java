@@ -4,7 +4,6 @@ import com.github.claudecodegui.session.ClaudeSession;
 import com.github.claudecodegui.provider.claude.ClaudeSDKBridge;
 import com.github.claudecodegui.provider.codex.CodexSDKBridge;
 import com.github.claudecodegui.settings.CodemossSettingsService;
-import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.ui.jcef.JBCefBrowser;
 
@@ -36,6 +35,11 @@ public class HandlerContext {
     public interface JsCallback {
         void callJavaScript(String functionName, String... args);
         String escapeJs(String str);
+
+        /**
+         * Run a raw script after every call queued before it.
+         */
+        void executeScript(String jsCode);
     }
 
     public HandlerContext(
@@ -120,15 +124,37 @@ public class HandlerContext {
     }
 
     /**
-     * Execute JavaScript on the EDT (Event Dispatch Thread).
+     * Resolve the webview promise of a batched request (see {@link BatchEnvelopeDispatcher}).
+     * @param resultJson the JSON value the promise resolves with
+     */
+    public void resolveRequest(String requestId, String resultJson) {
+        jsCallback.callJavaScript("window.__resolveBridgeRequest",
+                jsCallback.escapeJs(requestId), jsCallback.escapeJs(resultJson));
+    }
+
+    /**
+     * Deliver an intermediate result of a batched request without settling its promise.
+     */
+    public void progressRequest(String requestId, String resultJson) {
+        jsCallback.callJavaScript("window.__progressBridgeRequest",
+                jsCallback.escapeJs(requestId), jsCallback.escapeJs(resultJson));
+    }
+
+    /**
+     * Reject the webview promise of a batched request.
+     */
+    public void rejectRequest(String requestId, String error) {
+        jsCallback.callJavaScript("window.__rejectBridgeRequest",
+                jsCallback.escapeJs(requestId), jsCallback.escapeJs(error));
+    }
+
+    /**
+     * Execute JavaScript on the EDT (Event Dispatch Thread), in order with
+     * {@link #callJavaScript} calls made before it.
      */
     public void executeJavaScriptOnEDT(String jsCode) {
         if (browser != null && !disposed) {
-            ApplicationManager.getApplication().invokeLater(() -> {
-                if (browser != null && !disposed) {
-                    browser.getCefBrowser().executeJavaScript(jsCode, browser.getCefBrowser().getURL(), 0);
-                }
-            });
+            jsCallback.executeScript(jsCode);
         }
     }
 }
@@ -0,0 +1,135 @@
+package com.github.claudecodegui.handler.core;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-message-type dispatch counters and latency histograms.
+ *
+ * <p>Latencies are bucketed by powers of two in microseconds, so recording is a couple of
+ * atomic increments and never allocates after the first message of a type. One application-wide
+ * instance aggregates all chat windows and can be dumped from the DevTools action.</p>
+ */
+public final class MessageDispatchMetrics {
+
+    /** Bucket {@code i} holds latencies in {@code [2^(i-1), 2^i)} us; the last bucket is open-ended. */
+    static final int BUCKET_COUNT = 22;
+
+    private static final MessageDispatchMetrics GLOBAL = new MessageDispatchMetrics();
+
+    private final Map<String, TypeStats> statsByType = new ConcurrentHashMap<>();
+
+    public static MessageDispatchMetrics global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Record one dispatched message.
+     * @param type the message type
+     * @param handler the handler that accepted the message, or null if none did
+     * @param elapsedNanos time spent inside the handler
+     */
+    public void record(String type, MessageHandler handler, long elapsedNanos) {
+        TypeStats stats = statsByType.computeIfAbsent(type, k -> new TypeStats());
+        stats.record(handler, elapsedNanos);
+    }
+
+    public long getCount(String type) {
+        TypeStats stats = statsByType.get(type);
+        return stats != null ? stats.count.sum() : 0L;
+    }
+
+    public boolean isEmpty() {
+        return statsByType.isEmpty();
+    }
+
+    public void reset() {
+        statsByType.clear();
+    }
+
+    /**
+     * Render a plain-text table sorted by total time spent, slowest types first.
+     */
+    public String dump() {
+        List<Map.Entry<String, TypeStats>> entries = new ArrayList<>(statsByType.entrySet());
+        entries.sort(Comparator.comparingLong((Map.Entry<String, TypeStats> e) -> e.getValue().totalNanos.sum())
+                .reversed());
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%-36s %-28s %8s %10s %9s %9s %9s%n",
+                "type", "handler", "count", "total ms", "p50 us", "p95 us", "max us"));
+        for (Map.Entry<String, TypeStats> entry : entries) {
+            TypeStats stats = entry.getValue();
+            long count = stats.count.sum();
+            sb.append(String.format(Locale.ROOT, "%-36s %-28s %8d %10.2f %9s %9s %9d%n",
+                    entry.getKey(),
+                    stats.handlerName,
+                    count,
+                    stats.totalNanos.sum() / 1_000_000.0,
+                    formatBound(stats.percentileBucket(0.50)),
+                    formatBound(stats.percentileBucket(0.95)),
+                    stats.maxNanos.get() / 1_000L));
+        }
+        return sb.toString();
+    }
+
+    static int bucketFor(long elapsedNanos) {
+        long micros = Math.max(0L, elapsedNanos / 1_000L);
+        int bucket = 64 - Long.numberOfLeadingZeros(micros);
+        return Math.min(bucket, BUCKET_COUNT - 1);
+    }
+
+    private static String formatBound(int bucket) {
+        if (bucket < 0) {
+            return "-";
+        }
+        if (bucket == BUCKET_COUNT - 1) {
+            return ">" + (1L << (bucket - 1));
+        }
+        return "<" + (1L << bucket);
+    }
+
+    private static final class TypeStats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+        private volatile String handlerName = "-";
+
+        private void record(MessageHandler handler, long elapsedNanos) {
+            count.increment();
+            totalNanos.add(elapsedNanos);
+            maxNanos.accumulate(elapsedNanos);
+            buckets.incrementAndGet(bucketFor(elapsedNanos));
+            if (handler != null && "-".equals(handlerName)) {
+                handlerName = handler.getClass().getSimpleName();
+            }
+        }
+
+        private int percentileBucket(double percentile) {
+            long total = 0L;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                total += buckets.get(i);
+            }
+            if (total == 0L) {
+                return -1;
+            }
+            long threshold = (long) Math.ceil(total * percentile);
+            long seen = 0L;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                seen += buckets.get(i);
+                if (seen >= threshold) {
+                    return i;
+                }
+            }
+            return BUCKET_COUNT - 1;
+        }
+    }
+}
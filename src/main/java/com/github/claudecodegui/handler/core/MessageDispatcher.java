@@ -1,21 +1,41 @@
 package com.github.claudecodegui.handler.core;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Message dispatcher.
  * Routes messages to the appropriate handler for processing.
+ *
+ * <p>A type-to-handler route table is built from {@link MessageHandler#getSupportedTypes()} at
+ * registration time, so dispatch is a single map lookup. When a type is claimed by several
+ * handlers, the first registered one wins, matching the former linear scan order. Types that are
+ * not advertised by any handler still fall back to offering the message to every handler.</p>
  */
 public class MessageDispatcher {
 
     private final List<MessageHandler> handlers = new ArrayList<>();
+    private final Map<String, MessageHandler> routes = new HashMap<>();
+    private final MessageDispatchMetrics metrics;
+
+    public MessageDispatcher() {
+        this(MessageDispatchMetrics.global());
+    }
+
+    MessageDispatcher(MessageDispatchMetrics metrics) {
+        this.metrics = metrics;
+    }
 
     /**
      * Register a message handler.
      */
     public void registerHandler(MessageHandler handler) {
         handlers.add(handler);
+        for (String type : handler.getSupportedTypes()) {
+            routes.putIfAbsent(type, handler);
+        }
     }
 
     /**
@@ -25,11 +45,20 @@ public class MessageDispatcher {
      * @return true if the message was handled, false if no handler could process it
      */
     public boolean dispatch(String type, String content) {
+        long start = System.nanoTime();
+        MessageHandler routed = routes.get(type);
+        if (routed != null && routed.handle(type, content)) {
+            metrics.record(type, routed, System.nanoTime() - start);
+            return true;
+        }
+
         for (MessageHandler handler : handlers) {
-            if (handler.handle(type, content)) {
+            if (handler != routed && handler.handle(type, content)) {
+                metrics.record(type, handler, System.nanoTime() - start);
                 return true;
             }
         }
+        metrics.record(type, null, System.nanoTime() - start);
         return false;
     }
 
@@ -37,14 +66,7 @@ public class MessageDispatcher {
      * Check whether any handler supports the given message type.
      */
     public boolean hasHandlerFor(String type) {
-        for (MessageHandler handler : handlers) {
-            for (String supported : handler.getSupportedTypes()) {
-                if (supported.equals(type)) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        return routes.containsKey(type);
     }
 
     /**
@@ -59,5 +81,6 @@ public class MessageDispatcher {
      */
     public void clear() {
         handlers.clear();
+        routes.clear();
     }
 }
@@ -34,7 +34,7 @@ public class DiffBrowserBridge {
                 }
                 String escapedMsg = JsUtils.escapeJs(message);
                 String js = "if (window.addToast) { window.addToast('" + escapedMsg + "', 'error'); }";
-                context.getBrowser().getCefBrowser().executeJavaScript(js, context.getBrowser().getCefBrowser().getURL(), 0);
+                context.executeJavaScriptOnEDT(js);
             } catch (Exception e) {
                 LOG.error("Failed to show error toast: " + e.getMessage(), e);
             }
@@ -59,7 +59,7 @@ public class DiffBrowserBridge {
                         "    window.handleRemoveFileFromEdits('" + JsUtils.escapeJs(payloadJson) + "');" +
                         "  }" +
                         "})();";
-                context.getBrowser().getCefBrowser().executeJavaScript(js, context.getBrowser().getCefBrowser().getURL(), 0);
+                context.executeJavaScriptOnEDT(js);
             } catch (Exception e) {
                 LOG.error("Failed to send remove_file_from_edits message: " + e.getMessage(), e);
             }
@@ -93,7 +93,7 @@ public class DiffBrowserBridge {
                         "    window.handleDiffResult('" + JsUtils.escapeJs(payloadJson) + "');" +
                         "  }" +
                         "})();";
-                context.getBrowser().getCefBrowser().executeJavaScript(js, context.getBrowser().getCefBrowser().getURL(), 0);
+                context.executeJavaScriptOnEDT(js);
                 LOG.info("Diff result sent to frontend: " + action + " for " + filePath);
             } catch (Exception e) {
                 LOG.error("Failed to send diff_result message: " + e.getMessage(), e);
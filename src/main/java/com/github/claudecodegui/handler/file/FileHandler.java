@@ -11,12 +11,15 @@ import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.progress.ProcessCanceledException;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.concurrency.AppExecutorUtil;
 
 import java.io.File;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
 
 /**
  * File related message handler.
@@ -28,6 +31,12 @@ public class FileHandler extends BaseMessageHandler {
 
     private static final String[] SUPPORTED_TYPES = {"list_files", "open_file", "open_browser"};
 
+    /** Shared by all windows; superseded scans bail out early, so two threads are plenty. */
+    private static final ExecutorService LIST_FILES_EXECUTOR =
+            AppExecutorUtil.createBoundedApplicationPoolExecutor("CCG File List", 2);
+
+    private final AtomicLong listGeneration = new AtomicLong();
+
     private final OpenFileHandler openFileHandler;
     private final OpenFileCollector openFileCollector;
     private final RecentFileCollector recentFileCollector;
@@ -39,7 +48,9 @@ public class FileHandler extends BaseMessageHandler {
         this.openFileHandler = new OpenFileHandler(context);
         this.openFileCollector = new OpenFileCollector(context);
         this.recentFileCollector = new RecentFileCollector(context);
-        this.fileSystemCollector = new FileSystemCollector();
+        this.fileSystemCollector = new FileSystemCollector(basePath -> context.getProject() == null
+                ? null
+                : FilePathIndexService.getInstance(context.getProject()).getIndex(basePath));
         this.runtimeContextCollector = new RuntimeContextCollector(context);
     }
 
@@ -69,59 +80,107 @@ public class FileHandler extends BaseMessageHandler {
 
     /**
      * Handle file list request.
+     *
+     * <p>Each request takes a new generation number; a scan whose generation is no longer the latest
+     * stops at the next cancellation check and sends no files, so stale results can never overwrite
+     * newer ones; a batched request is rejected instead (see {@link FileListReply}). Batched
+     * requests get the open/recent files as a progress update before the (slower) disk matches
+     * are appended.</p>
      */
     private void handleListFiles(String content) {
-        CompletableFuture.runAsync(() -> {
+        // 1. Parse request and claim the latest generation
+        FileListRequest request = parseRequest(content);
+        long generation = listGeneration.incrementAndGet();
+        request.cancellation = () -> listGeneration.get() != generation || context.isDisposed();
+
+        LIST_FILES_EXECUTOR.execute(() -> {
             try {
-                // 1. Parse request
-                FileListRequest request = parseRequest(content);
+                FileListReply.run(request.requestId, () -> collectFiles(request),
+                        files -> sendResult(files, request.requestId), context::rejectRequest);
+            } catch (ProcessCanceledException e) {
+                throw e;
+            } catch (Exception e) {
+                LOG.error("[FileHandler] Failed to list files: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Collect and sort the files of a request.
+     *
+     * @return the files, or null once the request has been superseded
+     */
+    private List<JsonObject> collectFiles(FileListRequest request) {
+        if (request.isCancelled()) {
+            return null;
+        }
 
-                // 2. Get base path
-                String basePath = getEffectiveBasePath();
+        // 2. Get base path
+        String basePath = getEffectiveBasePath();
 
-                // 3. Initialize file set (deduplication)
-                FileSet fileSet = new FileSet();
+        // 3. Initialize file set (deduplication)
+        FileSet fileSet = new FileSet();
 
-                // 4. Collect files
-                List<JsonObject> files = new ArrayList<>();
+        // 4. Collect files
+        List<JsonObject> files = new ArrayList<>();
 
-                // Priority 0: Active Terminals
-                runtimeContextCollector.collectTerminals(files, request);
+        // Priority 0: Active Terminals
+        runtimeContextCollector.collectTerminals(files, request);
 
-                // Priority 0: Active Services
-                runtimeContextCollector.collectServices(files, request);
+        // Priority 0: Active Services
+        runtimeContextCollector.collectServices(files, request);
 
-                // Priority 1: Currently open files
-                openFileCollector.collect(files, fileSet, basePath, request);
+        // Priority 1: Currently open files
+        openFileCollector.collect(files, fileSet, basePath, request);
 
-                // Priority 2: Recently opened files
-                recentFileCollector.collect(files, fileSet, basePath, request);
+        // Priority 2: Recently opened files
+        recentFileCollector.collect(files, fileSet, basePath, request);
 
-                // Priority 3: File system scan
-                fileSystemCollector.collect(files, fileSet, basePath, request);
+        if (request.isCancelled()) {
+            return null;
+        }
+        if (request.requestId != null && !files.isEmpty()) {
+            sendPartialResult(files, request.requestId);
+        }
 
-                // 5. Sort
-                sortFiles(files);
+        // Priority 3: File system scan
+        fileSystemCollector.collect(files, fileSet, basePath, request);
 
-                // 6. Return result
-                sendResult(files);
-            } catch (ProcessCanceledException e) {
-                throw e;
-            } catch (Exception e) {
-                LOG.error("[FileHandler] Failed to list files: " + e.getMessage(), e);
-            }
-        });
+        if (request.isCancelled()) {
+            LOG.debug("[FileHandler] Dropping superseded file list request");
+            return null;
+        }
+
+        // 5. Sort
+        sortFiles(files);
+        return files;
     }
 
     /**
-     * Send results back to the frontend.
+     * Send the files collected so far as a progress update of a batched request.
      */
-    private void sendResult(List<JsonObject> files) {
+    private void sendPartialResult(List<JsonObject> files, String requestId) {
+        List<JsonObject> partial = new ArrayList<>(files);
+        sortFiles(partial);
+        JsonObject result = new JsonObject();
+        result.add("files", new Gson().toJsonTree(partial));
+        context.progressRequest(requestId, result.toString());
+    }
+
+    /**
+     * Send results back to the frontend. Batched requests resolve their promise directly;
+     * legacy {@code list_files:} messages still go through {@code window.onFileListResult}.
+     */
+    private void sendResult(List<JsonObject> files, String requestId) {
         Gson gson = new Gson();
         JsonObject result = new JsonObject();
         result.add("files", gson.toJsonTree(files));
         String resultJson = gson.toJson(result);
 
+        if (requestId != null) {
+            context.resolveRequest(requestId, resultJson);
+            return;
+        }
         ApplicationManager.getApplication().invokeLater(() -> {
             callJavaScript("window.onFileListResult", escapeJs(resultJson));
         });
@@ -139,7 +198,8 @@ public class FileHandler extends BaseMessageHandler {
             JsonObject json = new Gson().fromJson(content, JsonObject.class);
             String query = json.has("query") ? json.get("query").getAsString() : "";
             String currentPath = json.has("currentPath") ? json.get("currentPath").getAsString() : "";
-            return new FileListRequest(query, currentPath);
+            String requestId = json.has("requestId") ? json.get("requestId").getAsString() : null;
+            return new FileListRequest(query, currentPath, requestId);
         } catch (Exception e) {
             // If not JSON, treat as plain text query
             return new FileListRequest(content.trim(), "");
@@ -202,6 +262,11 @@ public class FileHandler extends BaseMessageHandler {
                 return a.priority - b.priority;
             }
 
+            // Fuzzy index hits: keep the match ranking
+            if (a.score != b.score) {
+                return Integer.compare(b.score, a.score);
+            }
+
             // Priority 3+: Sort by depth -> parent -> type -> name
             int depthDiff = a.getDepth() - b.getDepth();
             if (depthDiff != 0) return depthDiff;
@@ -255,6 +320,25 @@ public class FileHandler extends BaseMessageHandler {
         return fileObj;
     }
 
+    /**
+     * Create a file object from indexed data, avoiding physical I/O.
+     */
+    static JsonObject createFileObject(String absolutePath, String name, String relativePath, boolean isDirectory) {
+        JsonObject fileObj = new JsonObject();
+        fileObj.addProperty("name", name);
+        fileObj.addProperty("path", relativePath);
+        fileObj.addProperty("absolutePath", absolutePath);
+        fileObj.addProperty("type", isDirectory ? "directory" : "file");
+
+        if (!isDirectory) {
+            int dotIndex = name.lastIndexOf('.');
+            if (dotIndex > 0) {
+                fileObj.addProperty("extension", name.substring(dotIndex + 1));
+            }
+        }
+        return fileObj;
+    }
+
     /**
      * Create a file object (from VirtualFile, avoiding physical I/O).
      */
@@ -324,14 +408,27 @@ public class FileHandler extends BaseMessageHandler {
         final String queryLower;
         final String currentPath;
         final boolean hasQuery;
+        /** Correlation id of a batched request, or null for the legacy callback path. */
+        final String requestId;
+        /** Becomes true once a newer request from the same window has been issued. */
+        BooleanSupplier cancellation = () -> false;
 
         FileListRequest(String query, String currentPath) {
+            this(query, currentPath, null);
+        }
+
+        FileListRequest(String query, String currentPath, String requestId) {
+            this.requestId = requestId;
             this.query = query != null ? query : "";
             this.queryLower = this.query.toLowerCase();
             this.currentPath = currentPath != null ? currentPath : "";
             this.hasQuery = !this.query.isEmpty();
         }
 
+        boolean isCancelled() {
+            return cancellation.getAsBoolean();
+        }
+
         boolean matches(String name, String relativePath) {
             if (!hasQuery) return true;
             String lowerName = name.toLowerCase();
@@ -0,0 +1,60 @@
+package com.github.claudecodegui.handler.file;
+
+import com.google.gson.JsonObject;
+import com.intellij.openapi.progress.ProcessCanceledException;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Settles one file list request. A batched request is always answered: with the files, or with a
+ * rejection when it was superseded or failed, so its webview promise never waits for the timeout.
+ * Legacy requests have no promise and only get an answer on success.
+ */
+final class FileListReply {
+
+    static final String SUPERSEDED = "superseded";
+
+    /**
+     * Collects the files of a request.
+     */
+    interface Collector {
+        /**
+         * @return the files, or null if the request was superseded
+         */
+        List<JsonObject> collect() throws Exception;
+    }
+
+    private FileListReply() {
+    }
+
+    /**
+     * @param requestId correlation id of a batched request, or null
+     * @param send      sends the collected files
+     * @param reject    rejects a batched request, given its id and the reason
+     * @throws Exception what the collector threw, after the request was rejected
+     */
+    static void run(String requestId, Collector collector, Consumer<List<JsonObject>> send,
+                    BiConsumer<String, String> reject) throws Exception {
+        List<JsonObject> files;
+        try {
+            files = collector.collect();
+        } catch (Exception e) {
+            if (requestId != null) {
+                reject.accept(requestId, isCancellation(e) ? SUPERSEDED : "Failed to list files: " + e.getMessage());
+            }
+            throw e;
+        }
+        if (files != null) {
+            send.accept(files);
+        } else if (requestId != null) {
+            reject.accept(requestId, SUPERSEDED);
+        }
+    }
+
+    private static boolean isCancellation(Exception e) {
+        return e instanceof ProcessCanceledException || e instanceof CancellationException;
+    }
+}
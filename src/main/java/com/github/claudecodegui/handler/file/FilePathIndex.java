@@ -0,0 +1,347 @@
+package com.github.claudecodegui.handler.file;
+
+import com.github.claudecodegui.util.CompiledIgnoreMatcher;
+import com.intellij.openapi.diagnostic.Logger;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+/**
+ * In-memory index of every searchable path below one base directory.
+ *
+ * <p>The index is filled by a single background walk (no depth or result cap) and then kept
+ * current by {@link FilePathIndexService} from VFS events, so @-mention queries only scan an
+ * array of pre-lowered paths instead of walking the disk on each keystroke. The same skip lists
+ * and .gitignore rules (including nested ones) as the on-demand scan in
+ * {@link FileSystemCollector} apply.</p>
+ */
+final class FilePathIndex {
+
+    private static final Logger LOG = Logger.getInstance(FilePathIndex.class);
+
+    /** Upper bound on indexed paths, to keep memory bounded on pathological trees. */
+    static final int MAX_INDEXED_PATHS = 500_000;
+
+    /** Check for cancellation every 4096 scored entries. */
+    private static final int CANCEL_CHECK_MASK = 4095;
+
+    /** Events held back during a build; beyond this the tree is walked again instead. */
+    static final int MAX_PENDING_EVENTS = 10_000;
+
+    /**
+     * One indexed path, pre-lowered for matching.
+     */
+    static final class Entry {
+        /** The path as on disk, sent to the webview. */
+        final String relativePath;
+        /** The path used for matching; index-aligned with {@link #lowerPath}. */
+        final String matchPath;
+        final String lowerPath;
+        /** Start of the file name within {@link #lowerPath}. */
+        final int nameStart;
+        final boolean directory;
+
+        Entry(String relativePath, boolean directory) {
+            String lower = relativePath.toLowerCase(Locale.ROOT);
+            this.relativePath = relativePath;
+            // Case folding can change the length of a few characters (e.g. 'İ'); matching and
+            // highlight offsets then use the lowered form, so indices stay aligned
+            this.matchPath = lower.length() == relativePath.length() ? relativePath : lower;
+            this.lowerPath = lower;
+            this.nameStart = lower.lastIndexOf('/') + 1;
+            this.directory = directory;
+        }
+
+        String name() {
+            return relativePath.substring(relativePath.lastIndexOf('/') + 1);
+        }
+    }
+
+    /**
+     * A search hit.
+     */
+    static final class Match {
+        final Entry entry;
+        final int score;
+
+        Match(Entry entry, int score) {
+            this.entry = entry;
+            this.score = score;
+        }
+    }
+
+    private final String basePath;
+    private volatile Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private volatile Entry[] snapshot = new Entry[0];
+    private volatile boolean snapshotStale;
+    private volatile boolean ready;
+    private volatile CompiledIgnoreMatcher ignoreMatcher;
+    private volatile boolean limitWarned;
+
+    // Create/delete events that arrive while a build is pending or running; they are replayed
+    // once the walk is done. Null while events apply directly.
+    private final Object pendingLock = new Object();
+    private List<Runnable> pendingEvents;
+    private boolean pendingOverflow;
+
+    FilePathIndex(String basePath) {
+        this.basePath = normalize(basePath);
+    }
+
+    String getBasePath() {
+        return basePath;
+    }
+
+    boolean isReady() {
+        return ready;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Walk the base directory and replace the index contents. Runs on the calling thread.
+     */
+    void rebuild() {
+        deferEvents();
+        do {
+            long start = System.nanoTime();
+            ignoreMatcher = CompiledIgnoreMatcher.forProject(basePath);
+            Map<String, Entry> fresh = new ConcurrentHashMap<>();
+            walk(new File(basePath), fresh);
+            entries = fresh;
+            snapshotStale = true;
+            LOG.debug("[FilePathIndex] Indexed " + fresh.size() + " paths under " + basePath
+                    + " in " + (System.nanoTime() - start) / 1_000_000 + "ms");
+        } while (!replayDeferredEvents());
+    }
+
+    /**
+     * Mark the index as needing a rebuild; queries fall back to the disk scan until then.
+     * Events received from now on are held back and replayed after the rebuild.
+     */
+    void invalidate() {
+        deferEvents();
+        ready = false;
+    }
+
+    private void deferEvents() {
+        synchronized (pendingLock) {
+            if (pendingEvents == null) {
+                pendingEvents = new ArrayList<>();
+            }
+        }
+    }
+
+    /**
+     * Hold an event back if a build is pending or running.
+     *
+     * @return false if the event should be applied now
+     */
+    private boolean deferEvent(Runnable event) {
+        synchronized (pendingLock) {
+            if (pendingEvents == null) {
+                return false;
+            }
+            if (pendingEvents.size() < MAX_PENDING_EVENTS) {
+                pendingEvents.add(event);
+            } else {
+                pendingOverflow = true;
+                pendingEvents.clear();
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Apply the events held back during the walk, then let events apply directly again.
+     *
+     * @return false if too many events arrived and the tree has to be walked again
+     */
+    private boolean replayDeferredEvents() {
+        while (true) {
+            List<Runnable> batch;
+            synchronized (pendingLock) {
+                if (pendingOverflow) {
+                    pendingOverflow = false;
+                    pendingEvents = new ArrayList<>();
+                    LOG.debug("[FilePathIndex] Too many changes during indexing of " + basePath + ", walking again");
+                    return false;
+                }
+                if (pendingEvents.isEmpty()) {
+                    pendingEvents = null;
+                    ready = true;
+                    return true;
+                }
+                batch = pendingEvents;
+                pendingEvents = new ArrayList<>();
+            }
+            for (Runnable event : batch) {
+                event.run();
+            }
+        }
+    }
+
+    /**
+     * Add a created (or moved-in) path, walking it if it is a directory.
+     */
+    void onCreated(String absolutePath) {
+        if (!deferEvent(() -> applyCreated(absolutePath))) {
+            applyCreated(absolutePath);
+        }
+    }
+
+    private void applyCreated(String absolutePath) {
+        String relativePath = toRelative(absolutePath);
+        if (relativePath == null || relativePath.isEmpty()) {
+            return;
+        }
+        File file = new File(absolutePath);
+        boolean directory = file.isDirectory();
+        if (isSkipped(file.getName(), directory, relativePath)) {
+            return;
+        }
+        entries.put(relativePath, new Entry(relativePath, directory));
+        if (directory) {
+            walk(file, entries);
+        }
+        snapshotStale = true;
+    }
+
+    /**
+     * Remove a deleted (or moved-out) path and everything below it.
+     */
+    void onDeleted(String absolutePath) {
+        if (!deferEvent(() -> applyDeleted(absolutePath))) {
+            applyDeleted(absolutePath);
+        }
+    }
+
+    private void applyDeleted(String absolutePath) {
+        String relativePath = toRelative(absolutePath);
+        if (relativePath == null || relativePath.isEmpty()) {
+            return;
+        }
+        Entry removed = entries.remove(relativePath);
+        if (removed != null && removed.directory) {
+            String prefix = relativePath + "/";
+            entries.keySet().removeIf(key -> key.startsWith(prefix));
+        }
+        if (removed != null) {
+            snapshotStale = true;
+        }
+    }
+
+    /**
+     * Rank every indexed path against the query and return the best {@code limit} hits,
+     * highest score first.
+     */
+    List<Match> search(String query, int limit) {
+        return search(query, limit, () -> false);
+    }
+
+    /**
+     * Same as {@link #search(String, int)}, returning early with an empty list once
+     * {@code cancelled} reports true.
+     */
+    List<Match> search(String query, int limit, BooleanSupplier cancelled) {
+        String queryLower = query.toLowerCase(Locale.ROOT);
+        Entry[] current = currentSnapshot();
+        PriorityQueue<Match> top = new PriorityQueue<>(limit + 1, Comparator.comparingInt(m -> m.score));
+        for (int i = 0; i < current.length; i++) {
+            if ((i & CANCEL_CHECK_MASK) == 0 && cancelled.getAsBoolean()) {
+                return new ArrayList<>();
+            }
+            Entry entry = current[i];
+            int score = FuzzyPathScorer.score(queryLower, entry.matchPath, entry.lowerPath, entry.nameStart);
+            if (score == FuzzyPathScorer.NO_MATCH) {
+                continue;
+            }
+            if (top.size() < limit) {
+                top.add(new Match(entry, score));
+            } else if (score > top.peek().score) {
+                top.poll();
+                top.add(new Match(entry, score));
+            }
+        }
+        List<Match> result = new ArrayList<>(top);
+        result.sort(Comparator.comparingInt((Match m) -> m.score).reversed()
+                .thenComparing(m -> m.entry.relativePath));
+        return result;
+    }
+
+    private Entry[] currentSnapshot() {
+        if (snapshotStale) {
+            synchronized (this) {
+                if (snapshotStale) {
+                    snapshotStale = false;
+                    snapshot = entries.values().toArray(new Entry[0]);
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    private void walk(File dir, Map<String, Entry> target) {
+        File[] children = dir.listFiles();
+        if (children == null) {
+            return;
+        }
+        for (File child : children) {
+            if (target.size() >= MAX_INDEXED_PATHS) {
+                if (!limitWarned) {
+                    limitWarned = true;
+                    LOG.warn("[FilePathIndex] Index limit of " + MAX_INDEXED_PATHS + " paths reached for " + basePath);
+                }
+                return;
+            }
+            String name = child.getName();
+            boolean directory = child.isDirectory();
+            String relativePath = FileHandler.getRelativePath(child, basePath);
+            if (isSkipped(name, directory, relativePath)) {
+                continue;
+            }
+            target.put(relativePath, new Entry(relativePath, directory));
+            // Do not follow directory symlinks, which could loop
+            if (directory && !Files.isSymbolicLink(child.toPath())) {
+                walk(child, target);
+            }
+        }
+    }
+
+    private boolean isSkipped(String name, boolean directory, String relativePath) {
+        if (FileSystemCollector.shouldSkipInSearch(name, directory)) {
+            return true;
+        }
+        CompiledIgnoreMatcher matcher = ignoreMatcher;
+        return matcher != null && matcher.isIgnored(relativePath, directory);
+    }
+
+    private String toRelative(String absolutePath) {
+        if (absolutePath == null) {
+            return null;
+        }
+        String normalized = normalize(absolutePath);
+        if (!normalized.startsWith(basePath + "/")) {
+            return null;
+        }
+        return normalized.substring(basePath.length() + 1);
+    }
+
+    private static String normalize(String path) {
+        String normalized = path.replace('\\', '/');
+        while (normalized.length() > 1 && normalized.endsWith("/")) {
+            normalized = normalized.substring(0, normalized.length() - 1);
+        }
+        return normalized;
+    }
+}
@@ -0,0 +1,206 @@
+package com.github.claudecodegui.handler.file;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileCopyEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileCreateEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileDeleteEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Project-scoped owner of {@link FilePathIndex} instances, one per search base path
+ * (project root or session cwd).
+ *
+ * <p>Indexes are built lazily on a background thread the first time a base path is searched and
+ * are then updated from VFS create/delete/move/rename/copy events, including events that arrive
+ * while a build is running. A change to any .gitignore file schedules a full rebuild, since it can
+ * change what is indexed anywhere below it.</p>
+ *
+ * <p>VFS events are delivered on the EDT inside the write action; only their paths are taken there.
+ * Applying them (which walks created directories and scans the index for deletions) happens on the
+ * same single-threaded executor as the builds, so changes and rebuilds keep their order.</p>
+ */
+@Service(Service.Level.PROJECT)
+public final class FilePathIndexService implements BulkFileListener, Disposable {
+
+    private static final Logger LOG = Logger.getInstance(FilePathIndexService.class);
+
+    private static final int MAX_INDEXES = 4;
+
+    // Access-ordered, so the least recently searched base path is evicted first. Guarded by itself.
+    private final Map<String, FilePathIndex> indexes = new LinkedHashMap<>(8, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, FilePathIndex> eldest) {
+            return size() > MAX_INDEXES;
+        }
+    };
+    private final ExecutorService buildExecutor =
+            AppExecutorUtil.createBoundedApplicationPoolExecutor("CCG File Path Index", 1);
+    private volatile boolean disposed;
+
+    /**
+     * Paths of one VFS change: a creation has only {@code newPath}, a deletion only
+     * {@code oldPath}, a move or rename both.
+     */
+    private record PathChange(String oldPath, String newPath) {
+    }
+
+    public FilePathIndexService(@NotNull Project project) {
+        project.getMessageBus().connect(this).subscribe(VirtualFileManager.VFS_CHANGES, this);
+    }
+
+    public static FilePathIndexService getInstance(@NotNull Project project) {
+        return project.getService(FilePathIndexService.class);
+    }
+
+    /**
+     * Get the index for a base path, starting its first build if needed.
+     * The returned index may not be {@link FilePathIndex#isReady() ready} yet.
+     */
+    FilePathIndex getIndex(String basePath) {
+        if (basePath == null || disposed) {
+            return null;
+        }
+        String key = basePath.replace('\\', '/');
+        FilePathIndex created;
+        synchronized (indexes) {
+            FilePathIndex existing = indexes.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            created = new FilePathIndex(key);
+            indexes.put(key, created);
+        }
+        scheduleRebuild(created);
+        return created;
+    }
+
+    private List<FilePathIndex> currentIndexes() {
+        synchronized (indexes) {
+            return new ArrayList<>(indexes.values());
+        }
+    }
+
+    private void scheduleRebuild(FilePathIndex index) {
+        index.invalidate();
+        buildExecutor.execute(() -> {
+            if (disposed) {
+                return;
+            }
+            try {
+                index.rebuild();
+            } catch (Exception e) {
+                LOG.warn("[FilePathIndex] Failed to index " + index.getBasePath() + ": " + e.getMessage(), e);
+            }
+        });
+    }
+
+    @Override
+    public void after(@NotNull List<? extends VFileEvent> events) {
+        if (disposed || currentIndexes().isEmpty()) {
+            return;
+        }
+        // Runs on the EDT inside the write action: only collect paths here
+        List<PathChange> changes = new ArrayList<>();
+        for (VFileEvent event : events) {
+            try {
+                PathChange change = toPathChange(event);
+                if (change != null) {
+                    changes.add(change);
+                }
+            } catch (Exception e) {
+                LOG.debug("[FilePathIndex] Failed to read VFS event: " + e.getMessage());
+            }
+        }
+        if (changes.isEmpty()) {
+            return;
+        }
+        try {
+            buildExecutor.execute(() -> {
+                for (PathChange change : changes) {
+                    if (disposed) {
+                        return;
+                    }
+                    try {
+                        apply(change);
+                    } catch (Exception e) {
+                        LOG.debug("[FilePathIndex] Failed to apply VFS event: " + e.getMessage());
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Disposed meanwhile
+        }
+    }
+
+    private static PathChange toPathChange(VFileEvent event) {
+        if (event instanceof VFileCreateEvent || event instanceof VFileCopyEvent) {
+            return new PathChange(null, event.getPath());
+        }
+        if (event instanceof VFileDeleteEvent) {
+            return new PathChange(event.getPath(), null);
+        }
+        if (event instanceof VFileMoveEvent moveEvent) {
+            return new PathChange(moveEvent.getOldPath(), moveEvent.getNewPath());
+        }
+        if (event instanceof VFilePropertyChangeEvent propertyEvent && propertyEvent.isRename()) {
+            return new PathChange(propertyEvent.getOldPath(), propertyEvent.getNewPath());
+        }
+        return null;
+    }
+
+    private void apply(PathChange change) {
+        String gitignore = isGitignore(change.newPath()) ? change.newPath()
+                : isGitignore(change.oldPath()) ? change.oldPath() : null;
+        if (gitignore != null) {
+            for (FilePathIndex index : currentIndexes()) {
+                if (isUnder(gitignore, index)) {
+                    scheduleRebuild(index);
+                }
+            }
+            return;
+        }
+
+        for (FilePathIndex index : currentIndexes()) {
+            // While a build is pending or running, the index holds events back and replays them
+            if (change.oldPath() != null && isUnder(change.oldPath(), index)) {
+                index.onDeleted(change.oldPath());
+            }
+            if (change.newPath() != null && isUnder(change.newPath(), index)) {
+                index.onCreated(change.newPath());
+            }
+        }
+    }
+
+    private static boolean isGitignore(String path) {
+        return path != null && path.endsWith("/.gitignore");
+    }
+
+    private static boolean isUnder(String path, FilePathIndex index) {
+        return path.startsWith(index.getBasePath() + "/");
+    }
+
+    @Override
+    public void dispose() {
+        disposed = true;
+        synchronized (indexes) {
+            indexes.clear();
+        }
+        buildExecutor.shutdownNow();
+    }
+}
@@ -1,6 +1,6 @@
 package com.github.claudecodegui.handler.file;
 
-import com.github.claudecodegui.util.IgnoreRuleMatcher;
+import com.github.claudecodegui.util.CompiledIgnoreMatcher;
 import com.google.gson.JsonObject;
 import com.intellij.openapi.diagnostic.Logger;
 
@@ -8,10 +8,13 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Function;
 
 /**
  * Collects files from the file system via directory scanning.
  * Handles recursive search, directory listing, and .gitignore rules.
+ * Searches are answered from the {@link FilePathIndex} once it is built; the capped recursive
+ * walk is only used while the index is still being built.
  */
 class FileSystemCollector {
 
@@ -20,6 +23,8 @@ class FileSystemCollector {
     private static final int MAX_SEARCH_RESULTS = 200;
     private static final int MAX_SEARCH_DEPTH = 15;
     private static final int MAX_DIRECTORY_CHILDREN = 100;
+    /** Number of best-ranked index hits returned to the webview. */
+    private static final int MAX_INDEX_RESULTS = 200;
 
     // Directories always skipped (version control, package management, build cache, IDE config, etc.)
     private static final Set<String> ALWAYS_SKIP_DIRS = Set.of(
@@ -50,12 +55,26 @@ class FileSystemCollector {
             ".DS_Store", "Thumbs.db", "desktop.ini"
     );
 
+    /** Nested .gitignore files are not stat'ed per request; re-read them at most this often. */
+    private static final long IGNORE_MATCHER_TTL_MS = 30_000;
+
     // Ignore rule matcher cache — volatile for thread safety
-    private volatile IgnoreRuleMatcher cachedIgnoreMatcher = null;
+    private volatile CompiledIgnoreMatcher cachedIgnoreMatcher = null;
     private volatile String cachedIgnoreMatcherBasePath = null;
     private volatile long cachedGitignoreLastModified = 0;
+    private volatile long cachedIgnoreMatcherCreatedAt = 0;
+
+    private final Function<String, FilePathIndex> indexLookup;
 
     FileSystemCollector() {
+        this(basePath -> null);
+    }
+
+    /**
+     * @param indexLookup resolves the path index for a base path; may return null
+     */
+    FileSystemCollector(Function<String, FilePathIndex> indexLookup) {
+        this.indexLookup = indexLookup;
     }
 
     /**
@@ -65,15 +84,18 @@ class FileSystemCollector {
         List<JsonObject> diskFiles = new ArrayList<>();
 
         // Get or create ignore rule matcher
-        IgnoreRuleMatcher ignoreMatcher = getOrCreateIgnoreMatcher(basePath);
+        CompiledIgnoreMatcher ignoreMatcher = getOrCreateIgnoreMatcher(basePath);
 
-        if (request.hasQuery) {
+        FilePathIndex index = request.hasQuery ? indexLookup.apply(basePath) : null;
+        if (index != null && index.isReady()) {
+            collectFromIndex(index, diskFiles, request);
+        } else if (request.hasQuery) {
             File baseDir = new File(basePath);
             collectFilesRecursive(baseDir, basePath, diskFiles, request, 0, ignoreMatcher);
         } else {
             File targetDir = new File(basePath, request.currentPath);
             if (targetDir.exists() && targetDir.isDirectory()) {
-                listDirectChildren(targetDir, basePath, diskFiles, ignoreMatcher);
+                listDirectChildren(targetDir, basePath, diskFiles, request, ignoreMatcher);
             }
         }
 
@@ -100,7 +122,7 @@ class FileSystemCollector {
     /**
      * Determine whether to skip a file or directory (includes .gitignore rule checking).
      */
-    private boolean shouldSkipInSearch(String name, boolean isDirectory, String relativePath, IgnoreRuleMatcher matcher) {
+    private boolean shouldSkipInSearch(String name, boolean isDirectory, String relativePath, CompiledIgnoreMatcher matcher) {
         // First check the hardcoded exclusion list
         if (shouldSkipInSearch(name, isDirectory)) {
             return true;
@@ -117,7 +139,7 @@ class FileSystemCollector {
     /**
      * List direct children of a directory (non-recursive).
      */
-    private void listDirectChildren(File dir, String basePath, List<JsonObject> files, IgnoreRuleMatcher ignoreMatcher) {
+    private void listDirectChildren(File dir, String basePath, List<JsonObject> files, FileHandler.FileListRequest request, CompiledIgnoreMatcher ignoreMatcher) {
         if (!dir.isDirectory()) return;
 
         File[] children = dir.listFiles();
@@ -125,7 +147,7 @@ class FileSystemCollector {
 
         int added = 0;
         for (File child : children) {
-            if (added >= MAX_DIRECTORY_CHILDREN) break;
+            if (added >= MAX_DIRECTORY_CHILDREN || request.isCancelled()) break;
 
             String name = child.getName();
             boolean isDir = child.isDirectory();
@@ -141,11 +163,26 @@ class FileSystemCollector {
         }
     }
 
+    /**
+     * Collect the best fuzzy matches from the path index. The score is kept on each result so the
+     * final sort preserves the ranking.
+     */
+    private void collectFromIndex(FilePathIndex index, List<JsonObject> files, FileHandler.FileListRequest request) {
+        String basePath = index.getBasePath();
+        for (FilePathIndex.Match match : index.search(request.query, MAX_INDEX_RESULTS, request::isCancelled)) {
+            FilePathIndex.Entry entry = match.entry;
+            JsonObject fileObj = FileHandler.createFileObject(
+                    basePath + "/" + entry.relativePath, entry.name(), entry.relativePath, entry.directory);
+            fileObj.addProperty("score", match.score);
+            files.add(fileObj);
+        }
+    }
+
     /**
      * Recursively collect files.
      */
-    private void collectFilesRecursive(File dir, String basePath, List<JsonObject> files, FileHandler.FileListRequest request, int depth, IgnoreRuleMatcher ignoreMatcher) {
-        if (depth > MAX_SEARCH_DEPTH || files.size() >= MAX_SEARCH_RESULTS) return;
+    private void collectFilesRecursive(File dir, String basePath, List<JsonObject> files, FileHandler.FileListRequest request, int depth, CompiledIgnoreMatcher ignoreMatcher) {
+        if (depth > MAX_SEARCH_DEPTH || files.size() >= MAX_SEARCH_RESULTS || request.isCancelled()) return;
         if (!dir.isDirectory()) return;
 
         File[] children = dir.listFiles();
@@ -153,7 +190,7 @@ class FileSystemCollector {
         if (children == null) return;
 
         for (File child : children) {
-            if (files.size() >= MAX_SEARCH_RESULTS) break;
+            if (files.size() >= MAX_SEARCH_RESULTS || request.isCancelled()) break;
 
             String name = child.getName();
             boolean isDir = child.isDirectory();
@@ -183,8 +220,9 @@ class FileSystemCollector {
 
     /**
      * Get or create ignore rule matcher.
+     * Rebuilt when the root .gitignore changes, and periodically to pick up nested ones.
      */
-    private IgnoreRuleMatcher getOrCreateIgnoreMatcher(String basePath) {
+    private CompiledIgnoreMatcher getOrCreateIgnoreMatcher(String basePath) {
         if (basePath == null) {
             return null;
         }
@@ -195,7 +233,8 @@ class FileSystemCollector {
         // Check if cache is valid
         boolean cacheValid = cachedIgnoreMatcher != null
                                      && basePath.equals(cachedIgnoreMatcherBasePath)
-                                     && currentLastModified == cachedGitignoreLastModified;
+                                     && currentLastModified == cachedGitignoreLastModified
+                                     && System.currentTimeMillis() - cachedIgnoreMatcherCreatedAt < IGNORE_MATCHER_TTL_MS;
 
         if (cacheValid) {
             return cachedIgnoreMatcher;
@@ -203,17 +242,18 @@ class FileSystemCollector {
 
         // Re-create matcher
         try {
-            IgnoreRuleMatcher matcher = IgnoreRuleMatcher.forProject(basePath);
-            LOG.debug("[FileHandler] Created IgnoreRuleMatcher with " + matcher.getRuleCount() + " rules for " + basePath);
+            CompiledIgnoreMatcher matcher = CompiledIgnoreMatcher.forProject(basePath);
+            LOG.debug("[FileHandler] Created CompiledIgnoreMatcher for " + basePath);
 
             // Update cache
             cachedIgnoreMatcher = matcher;
             cachedIgnoreMatcherBasePath = basePath;
             cachedGitignoreLastModified = currentLastModified;
+            cachedIgnoreMatcherCreatedAt = System.currentTimeMillis();
 
             return matcher;
         } catch (Exception e) {
-            LOG.warn("[FileHandler] Failed to create IgnoreRuleMatcher: " + e.getMessage());
+            LOG.warn("[FileHandler] Failed to create CompiledIgnoreMatcher: " + e.getMessage());
             return null;
         }
     }
@@ -0,0 +1,156 @@
+package com.github.claudecodegui.handler.file;
+
+/**
+ * Subsequence scoring for @-mention file search.
+ *
+ * <p>A path matches when every query character occurs in it in order (case-insensitive). The
+ * score rewards matches on path-segment starts ({@code /}, {@code _}, {@code -}, {@code .}),
+ * camel-case humps and consecutive runs, prefers matches inside the file name over matches in
+ * parent directories, and penalizes gaps. Scoring is linear in the path length: the match is
+ * located with a forward scan and then tightened with a backward scan, as in fzf's v1 algorithm,
+ * instead of running a full alignment.</p>
+ */
+final class FuzzyPathScorer {
+
+    static final int NO_MATCH = Integer.MIN_VALUE;
+
+    private static final int SCORE_MATCH = 16;
+    private static final int BONUS_SEGMENT_START = 10;
+    private static final int BONUS_WORD_START = 8;
+    private static final int BONUS_CAMEL = 7;
+    private static final int BONUS_CONSECUTIVE = 6;
+    private static final int BONUS_IN_NAME = 20;
+    private static final int BONUS_NAME_PREFIX = 30;
+    private static final int BONUS_NAME_EXACT = 40;
+    private static final int PENALTY_GAP_START = 3;
+    private static final int PENALTY_GAP = 1;
+
+    private FuzzyPathScorer() {
+    }
+
+    /**
+     * @param queryLower lower-cased query, non-empty
+     * @param path the path as displayed (used for camel-case detection)
+     * @param pathLower {@code path} lower-cased
+     * @param nameStart index of the first character of the file name within {@code path}
+     * @return the score, or {@link #NO_MATCH}
+     */
+    static int score(String queryLower, String path, String pathLower, int nameStart) {
+        int queryLength = queryLower.length();
+        if (queryLength == 0) {
+            return 0;
+        }
+        if (queryLength > pathLower.length()) {
+            return NO_MATCH;
+        }
+
+        int[] positions = new int[queryLength];
+        int best = NO_MATCH;
+
+        // Alignment confined to the file name, which is what users usually type
+        if (align(queryLower, pathLower, nameStart, positions)) {
+            best = scorePositions(queryLower, path, pathLower, nameStart, positions) + BONUS_IN_NAME;
+            if (pathLower.startsWith(queryLower, nameStart)) {
+                best += BONUS_NAME_PREFIX;
+                int nameLength = pathLower.length() - nameStart;
+                int dot = pathLower.lastIndexOf('.');
+                int stemLength = dot > nameStart ? dot - nameStart : nameLength;
+                if (stemLength == queryLength || nameLength == queryLength) {
+                    best += BONUS_NAME_EXACT;
+                }
+            }
+        }
+
+        // Alignment over the whole relative path
+        if (align(queryLower, pathLower, 0, positions)) {
+            best = Math.max(best, scorePositions(queryLower, path, pathLower, nameStart, positions));
+        } else if (best == NO_MATCH) {
+            return NO_MATCH;
+        }
+
+        // Mild preference for shallower and shorter paths among equal matches
+        return best - depth(pathLower, nameStart) - pathLower.length() / 16;
+    }
+
+    private static int depth(String pathLower, int nameStart) {
+        int depth = 0;
+        for (int i = 0; i < nameStart; i++) {
+            if (pathLower.charAt(i) == '/') {
+                depth++;
+            }
+        }
+        return depth;
+    }
+
+    /**
+     * Find a tight subsequence match starting at {@code from}: a forward scan finds the earliest
+     * end, then a backward scan from that end finds the latest start.
+     */
+    private static boolean align(String queryLower, String pathLower, int from, int[] positions) {
+        int queryLength = queryLower.length();
+        int q = 0;
+        int end = -1;
+        for (int i = from; i < pathLower.length(); i++) {
+            if (pathLower.charAt(i) == queryLower.charAt(q)) {
+                q++;
+                if (q == queryLength) {
+                    end = i;
+                    break;
+                }
+            }
+        }
+        if (end < 0) {
+            return false;
+        }
+
+        q = queryLength - 1;
+        for (int i = end; i >= from && q >= 0; i--) {
+            if (pathLower.charAt(i) == queryLower.charAt(q)) {
+                positions[q] = i;
+                q--;
+            }
+        }
+        return q < 0;
+    }
+
+    private static int scorePositions(String queryLower, String path, String pathLower, int nameStart, int[] positions) {
+        int score = 0;
+        for (int i = 0; i < queryLower.length(); i++) {
+            int pos = positions[i];
+            score += SCORE_MATCH + boundaryBonus(path, pathLower, pos);
+            if (i > 0) {
+                int gap = pos - positions[i - 1] - 1;
+                if (gap == 0) {
+                    score += BONUS_CONSECUTIVE;
+                } else {
+                    score -= PENALTY_GAP_START + Math.min(gap, 16) * PENALTY_GAP;
+                }
+            }
+        }
+        if (positions[0] >= nameStart) {
+            score += BONUS_WORD_START / 2;
+        }
+        return score;
+    }
+
+    private static int boundaryBonus(String path, String pathLower, int pos) {
+        if (pos == 0) {
+            return BONUS_SEGMENT_START;
+        }
+        char previous = pathLower.charAt(pos - 1);
+        if (previous == '/') {
+            return BONUS_SEGMENT_START;
+        }
+        if (previous == '_' || previous == '-' || previous == '.' || previous == ' ') {
+            return BONUS_WORD_START;
+        }
+        char current = path.charAt(pos);
+        if (Character.isUpperCase(current) && Character.isLowerCase(path.charAt(pos - 1))) {
+            return BONUS_CAMEL;
+        }
+        if (Character.isDigit(current) && !Character.isDigit(path.charAt(pos - 1))) {
+            return BONUS_WORD_START / 2;
+        }
+        return 0;
+    }
+}
@@ -46,6 +46,9 @@ class OpenFileCollector {
                 LOG.debug("[FileHandler] Collecting " + openFiles.length + " open files");
 
                 for (VirtualFile vf : openFiles) {
+                    if (request.isCancelled()) {
+                        return;
+                    }
                     FileHandler.addVirtualFile(vf, basePath, files, fileSet, request, 1);
                 }
             } catch (Exception e) {
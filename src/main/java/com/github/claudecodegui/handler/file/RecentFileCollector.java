@@ -55,7 +55,7 @@ class RecentFileCollector {
                 // Iterate in reverse order to get the most recent files
                 int count = 0;
                 for (int i = recentFiles.size() - 1; i >= 0; i--) {
-                    if (count >= MAX_RECENT_FILES) {
+                    if (count >= MAX_RECENT_FILES || request.isCancelled()) {
                         break;
                     }
                     VirtualFile vf = recentFiles.get(i);
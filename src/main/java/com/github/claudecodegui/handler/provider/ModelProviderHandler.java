@@ -123,6 +123,11 @@ public class ModelProviderHandler {
                 context.getSession().setProvider(provider);
             }
 
+            // Start the Codex daemon now so the first Codex message skips Node.js/SDK startup
+            if ("codex".equalsIgnoreCase(provider) && context.getCodexSDKBridge() != null) {
+                context.getCodexSDKBridge().prewarmDaemonAsync();
+            }
+
             refreshSlashCommandsForProvider(provider);
             usagePushService.refreshContextBar();
         } catch (Exception e) {
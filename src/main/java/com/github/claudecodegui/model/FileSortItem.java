@@ -12,6 +12,8 @@ public class FileSortItem {
     public final String path;
     public final boolean isDir;
     public final String name;
+    /** Fuzzy match score from the path index, or {@link Integer#MIN_VALUE} for unranked entries. */
+    public final int score;
 
     // Lazily initialized fields
     private int depth = -1;
@@ -26,6 +28,7 @@ public class FileSortItem {
         this.path = json.has("path") ? json.get("path").getAsString() : "";
         this.isDir = json.has("type") && "directory".equals(json.get("type").getAsString());
         this.name = json.has("name") ? json.get("name").getAsString() : "";
+        this.score = json.has("score") ? json.get("score").getAsInt() : Integer.MIN_VALUE;
     }
 
     public int getDepth() {
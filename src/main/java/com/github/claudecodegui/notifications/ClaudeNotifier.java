@@ -52,6 +52,17 @@ public class ClaudeNotifier {
         });
     }
 
+    /**
+     * Track a chat that is streaming while its tab or window is hidden.
+     */
+    public static void setBackgroundActivity(@NotNull Project project, @NotNull Object chat, boolean active) {
+        ApplicationManager.getApplication().invokeLater(() -> {
+            if (project.isDisposed()) return;
+            ClaudeStatusBarWidget widget = ClaudeStatusBarWidget.Factory.getWidget(project);
+            if (widget != null) widget.setBackgroundActivity(chat, active);
+        });
+    }
+
     private static String formatTokenUsage(int used, int max) {
         if (used == 0) return "";
         String usedStr = formatNumber(used);
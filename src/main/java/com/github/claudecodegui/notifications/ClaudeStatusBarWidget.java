@@ -18,6 +18,8 @@ import com.intellij.openapi.application.ApplicationManager;
 import javax.swing.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -38,6 +40,8 @@ public class ClaudeStatusBarWidget implements CustomStatusBarWidget, StatusBarWi
     private final AtomicReference<String> currentModel = new AtomicReference<>("");
     private final AtomicReference<String> currentMode = new AtomicReference<>("default");
     private final AtomicReference<String> currentAgent = new AtomicReference<>("");
+    // Chats streaming while hidden
+    private final Set<Object> backgroundChats = ConcurrentHashMap.newKeySet();
 
     // Timer management for proper resource cleanup
     private Timer hideTimer;
@@ -131,12 +135,20 @@ public class ClaudeStatusBarWidget implements CustomStatusBarWidget, StatusBarWi
         refreshDisplay(null);
     }
 
+    public void setBackgroundActivity(Object chat, boolean active) {
+        boolean changed = active ? backgroundChats.add(chat) : backgroundChats.remove(chat);
+        if (changed) {
+            refreshDisplay(null);
+        }
+    }
+
     private void refreshDisplay(String details) {
         String status = currentStatus.get();
         String model = currentModel.get();
         String mode = currentMode.get();
         String agent = currentAgent.get();
         String tokenInfo = currentTokenInfo.get();
+        int backgroundCount = backgroundChats.size();
 
         String icon = switch (status) {
             case "thinking" -> "💭";
@@ -184,6 +196,10 @@ public class ClaudeStatusBarWidget implements CustomStatusBarWidget, StatusBarWi
             text.append(" ").append(statusText);
         }
 
+        if (backgroundCount > 0) {
+            text.append(" ").append(ClaudeCodeGuiBundle.message("status.background", backgroundCount));
+        }
+
         // Add Token Info
         if (tokenInfo != null && !tokenInfo.isEmpty()) {
             text.append(" ").append(tokenInfo);
@@ -199,6 +215,9 @@ public class ClaudeStatusBarWidget implements CustomStatusBarWidget, StatusBarWi
         if (agent != null && !agent.isEmpty()) {
             tooltip.append(ClaudeCodeGuiBundle.message("status.tooltip.agent", agent));
         }
+        if (backgroundCount > 0) {
+            tooltip.append(ClaudeCodeGuiBundle.message("status.tooltip.background", backgroundCount));
+        }
         if (details != null) {
             tooltip.append(ClaudeCodeGuiBundle.message("status.tooltip.details", details));
         }
@@ -4,6 +4,8 @@ import com.github.claudecodegui.bridge.BridgeDirectoryResolver;
 import com.github.claudecodegui.bridge.EnvironmentConfigurator;
 import com.github.claudecodegui.bridge.NodeDetector;
 import com.github.claudecodegui.provider.common.DaemonBridge;
+import com.github.claudecodegui.provider.common.StandbyDaemon;
+import com.github.claudecodegui.settings.CodemossSettingsService;
 import com.google.gson.JsonObject;
 import com.intellij.openapi.diagnostic.Logger;
 
@@ -27,6 +29,7 @@ class ClaudeDaemonCoordinator {
     private final Object daemonLock = new Object();
     private volatile long daemonRetryAfter = 0;
     private volatile CompletableFuture<?> prewarmFuture;
+    private final StandbyDaemon standby;
 
     ClaudeDaemonCoordinator(
             Logger log,
@@ -38,6 +41,7 @@ class ClaudeDaemonCoordinator {
         this.nodeDetector = nodeDetector;
         this.directoryResolverSupplier = directoryResolverSupplier;
         this.envConfigurator = envConfigurator;
+        this.standby = new StandbyDaemon(this::createDaemonBridge);
     }
 
     DaemonBridge getDaemonBridge() {
@@ -45,15 +49,20 @@ class ClaudeDaemonCoordinator {
         if (current != null && current.isAlive()) {
             return current;
         }
-        if (System.currentTimeMillis() < daemonRetryAfter) {
-            return null;
-        }
 
         synchronized (daemonLock) {
             current = daemonBridge;
             if (current != null && current.isAlive()) {
                 return current;
             }
+            // A warm spare skips both the start and the retry window
+            DaemonBridge promoted = promoteStandby(current);
+            if (promoted != null) {
+                return promoted;
+            }
+            if (System.currentTimeMillis() < daemonRetryAfter) {
+                return null;
+            }
 
             daemonRetryAfter = System.currentTimeMillis() + DAEMON_RETRY_DELAY_MS;
             try {
@@ -61,15 +70,12 @@ class ClaudeDaemonCoordinator {
                     current.stop();
                 }
 
-                DaemonBridge newBridge = new DaemonBridge(
-                        nodeDetector,
-                        directoryResolverSupplier.get(),
-                        envConfigurator
-                );
+                DaemonBridge newBridge = createDaemonBridge();
                 if (newBridge.start()) {
                     daemonBridge = newBridge;
                     daemonRetryAfter = 0;
                     log.info("[DaemonCoordinator] Daemon bridge started successfully");
+                    replenishStandby();
                     return newBridge;
                 }
                 log.warn("[DaemonCoordinator] Failed to start daemon, using per-process mode");
@@ -80,11 +86,68 @@ class ClaudeDaemonCoordinator {
         }
     }
 
+    /**
+     * Hand the warm spare over as the primary daemon.
+     * Must be called while holding {@code daemonLock}.
+     *
+     * @return the promoted daemon, or {@code null} if no live spare was available
+     */
+    private DaemonBridge promoteStandby(DaemonBridge dead) {
+        DaemonBridge spare = standby.take();
+        if (spare == null) {
+            return null;
+        }
+        if (dead != null && dead.isAlive()) {
+            dead.stop();
+        }
+        daemonBridge = spare;
+        daemonRetryAfter = 0;
+        log.info("[DaemonCoordinator] Promoted standby daemon to primary");
+        replenishStandby();
+        return spare;
+    }
+
+    private DaemonBridge createDaemonBridge() {
+        DaemonBridge bridge = new DaemonBridge(nodeDetector, directoryResolverSupplier.get(), envConfigurator);
+        bridge.setLifecycleListener(new DaemonBridge.DaemonLifecycleListener() {
+            @Override
+            public void onDaemonReady() {
+            }
+
+            @Override
+            public void onDaemonDied() {
+            }
+
+            @Override
+            public boolean onFailover() {
+                synchronized (daemonLock) {
+                    if (daemonBridge != bridge) {
+                        // An idle spare restarts in place; a replaced primary is simply retired
+                        return !standby.isSpare(bridge);
+                    }
+                    return promoteStandby(bridge) != null;
+                }
+            }
+        });
+        return bridge;
+    }
+
+    private void replenishStandby() {
+        try {
+            if (new CodemossSettingsService().getStandbyDaemonEnabled()) {
+                standby.replenishAsync();
+            }
+        } catch (Exception e) {
+            log.debug("[DaemonCoordinator] Standby daemon setting unavailable: " + e.getMessage());
+        }
+    }
+
     DaemonBridge getCurrentDaemonBridge() {
         return daemonBridge;
     }
 
     void shutdownDaemon() {
+        standby.shutdown();
         CompletableFuture<?> runningPrewarm = prewarmFuture;
         if (runningPrewarm != null) {
             runningPrewarm.cancel(true);
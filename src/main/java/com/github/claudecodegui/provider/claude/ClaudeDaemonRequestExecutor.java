@@ -2,12 +2,14 @@ package com.github.claudecodegui.provider.claude;
 
 import com.github.claudecodegui.session.ClaudeSession;
 import com.github.claudecodegui.provider.common.DaemonBridge;
+import com.github.claudecodegui.provider.common.DaemonEvent;
 import com.github.claudecodegui.provider.common.MessageCallback;
 import com.github.claudecodegui.provider.common.SDKResult;
 import com.google.gson.JsonObject;
 import com.intellij.openapi.diagnostic.Logger;
 
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -17,6 +19,9 @@ import java.util.concurrent.TimeoutException;
  */
 class ClaudeDaemonRequestExecutor {
 
+    private static final Set<String> NODE_ERROR_TAGS = Set.of(
+            "UNCAUGHT_ERROR", "UNHANDLED_REJECTION", "COMMAND_ERROR", "STARTUP_ERROR", "ERROR");
+
     private final Logger log;
     private final ClaudeRequestParamsBuilder requestParamsBuilder;
     private final ClaudeStreamAdapter streamAdapter;
@@ -55,9 +60,10 @@ class ClaudeDaemonRequestExecutor {
             StringBuilder assistantContent = new StringBuilder();
             boolean[] hadSendError = {false};
             String[] lastNodeError = {null};
+            JsonObject params = null;
 
             try {
-                JsonObject params = requestParamsBuilder.buildSendParams(
+                params = requestParamsBuilder.buildSendParams(
                         message,
                         sessionId,
                         runtimeSessionEpoch,
@@ -83,13 +89,8 @@ class ClaudeDaemonRequestExecutor {
                         new DaemonBridge.DaemonOutputCallback() {
                             @Override
                             public void onLine(String line) {
-                                if (line.startsWith("[UNCAUGHT_ERROR]")
-                                        || line.startsWith("[UNHANDLED_REJECTION]")
-                                        || line.startsWith("[COMMAND_ERROR]")
-                                        || line.startsWith("[STARTUP_ERROR]")
-                                        || line.startsWith("[ERROR]")) {
-                                    log.warn("[Node.js ERROR] " + line);
-                                    lastNodeError[0] = line;
+                                if (isNodeErrorLine(line)) {
+                                    recordNodeError(line, lastNodeError);
                                 }
                                 streamAdapter.processOutputLine(
                                         line,
@@ -101,6 +102,21 @@ class ClaudeDaemonRequestExecutor {
                                 );
                             }
 
+                            @Override
+                            public void onEvent(DaemonEvent event) {
+                                if (DaemonEvent.TAG.equals(event.getType()) && NODE_ERROR_TAGS.contains(event.getTag())) {
+                                    recordNodeError(event.toLine(), lastNodeError);
+                                }
+                                streamAdapter.processEvent(
+                                        event,
+                                        callback,
+                                        result,
+                                        assistantContent,
+                                        hadSendError,
+                                        lastNodeError
+                                );
+                            }
+
                             @Override
                             public void onStderr(String text) {
                                 if (text != null && text.startsWith("[SEND_ERROR]")) {
@@ -178,6 +194,8 @@ class ClaudeDaemonRequestExecutor {
                     callback.onError(result.error);
                 }
                 return result;
+            } finally {
+                requestParamsBuilder.releaseAttachments(params);
             }
         }).exceptionally(ex -> {
             SDKResult errorResult = new SDKResult();
@@ -188,4 +206,13 @@ class ClaudeDaemonRequestExecutor {
         });
     }
 
+    private void recordNodeError(String line, String[] lastNodeError) {
+        log.warn("[Node.js ERROR] " + line);
+        lastNodeError[0] = line;
+    }
+
+    private static boolean isNodeErrorLine(String line) {
+        int close = line.indexOf(']');
+        return line.startsWith("[") && close > 0 && NODE_ERROR_TAGS.contains(line.substring(1, close));
+    }
 }
@@ -6,6 +6,7 @@ import com.github.claudecodegui.bridge.NodeDetector;
 import com.github.claudecodegui.bridge.ProcessManager;
 import com.github.claudecodegui.provider.common.MessageCallback;
 import com.github.claudecodegui.provider.common.SDKResult;
+import com.github.claudecodegui.settings.CodemossSettingsService;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import com.intellij.openapi.diagnostic.Logger;
@@ -81,6 +82,7 @@ class ClaudeProcessInvoker {
             StringBuilder assistantContent = new StringBuilder();
             boolean[] hadSendError = {false};
             String[] lastNodeError = {null};
+            JsonObject stdinInput = null;
 
             try {
                 String node = nodeDetector.findNodeExecutable();
@@ -98,7 +100,7 @@ class ClaudeProcessInvoker {
                 log.info("[ProcessInvoker]   Node.js version: " + (nodeVersion != null ? nodeVersion : "unknown"));
                 log.info("[ProcessInvoker]   SDK directory: " + workDir.getAbsolutePath());
 
-                JsonObject stdinInput = requestParamsBuilder.buildSendParams(
+                stdinInput = requestParamsBuilder.buildSendParams(
                         message,
                         sessionId,
                         runtimeSessionEpoch,
@@ -123,6 +125,7 @@ class ClaudeProcessInvoker {
                 command.add(hasAttachments ? "sendWithAttachments" : "send");
 
                 File processTempDir = processManager.prepareClaudeTempDir();
+                CodemossSettingsService.flushPendingConfigWrites();
                 ProcessBuilder pb = new ProcessBuilder(command);
                 pb.directory(ClaudeBridgeUtils.resolveWorkingDirectory(workDir, cwd));
 
@@ -195,6 +198,8 @@ class ClaudeProcessInvoker {
                 errorAlreadyReported[0] = true;
                 callback.onError(e.getMessage());
                 return result;
+            } finally {
+                requestParamsBuilder.releaseAttachments(stdinInput);
             }
         }).exceptionally(ex -> {
             if (errorAlreadyReported[0]) {
@@ -1,10 +1,14 @@
 package com.github.claudecodegui.provider.claude;
 
+import com.github.claudecodegui.bridge.AttachmentStore;
 import com.github.claudecodegui.session.ClaudeSession;
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.intellij.openapi.diagnostic.Logger;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -15,6 +19,8 @@ import java.util.Map;
  */
 class ClaudeRequestParamsBuilder {
 
+    private static final Logger LOG = Logger.getInstance(ClaudeRequestParamsBuilder.class);
+
     private final Gson gson;
 
     ClaudeRequestParamsBuilder(Gson gson) {
@@ -63,6 +69,27 @@ class ClaudeRequestParamsBuilder {
         return params;
     }
 
+    /**
+     * Unpin the attachment files referenced by params from {@link #buildSendParams}.
+     * Call once the request has finished.
+     */
+    void releaseAttachments(JsonObject params) {
+        if (params == null || !params.has("attachments") || !params.get("attachments").isJsonArray()) {
+            return;
+        }
+        AttachmentStore store = AttachmentStore.getInstance();
+        for (JsonElement element : params.getAsJsonArray("attachments")) {
+            if (element.isJsonObject() && element.getAsJsonObject().has("digest")) {
+                store.release(element.getAsJsonObject().get("digest").getAsString());
+            }
+        }
+    }
+
+    /**
+     * Attachments are passed by reference: the payload goes to the content-addressed
+     * {@link AttachmentStore} and the request only carries its digest and path, which keeps
+     * multi-MB images out of the single stdin pipe. Inline base64 remains the fallback.
+     */
     private JsonArray serializeAttachments(List<ClaudeSession.Attachment> attachments) {
         if (attachments == null || attachments.isEmpty()) {
             return null;
@@ -76,7 +103,13 @@ class ClaudeRequestParamsBuilder {
             Map<String, String> obj = new LinkedHashMap<>();
             obj.put("fileName", att.fileName);
             obj.put("mediaType", att.mediaType);
-            obj.put("data", att.data);
+            AttachmentStore.Ref ref = storeAttachment(att);
+            if (ref != null) {
+                obj.put("digest", ref.getDigest());
+                obj.put("path", ref.getPath().toString());
+            } else {
+                obj.put("data", att.data);
+            }
             serializable.add(obj);
         }
 
@@ -85,4 +118,16 @@ class ClaudeRequestParamsBuilder {
         }
         return gson.fromJson(gson.toJson(serializable), JsonArray.class);
     }
+
+    private AttachmentStore.Ref storeAttachment(ClaudeSession.Attachment att) {
+        if (att.data == null || att.data.isEmpty()) {
+            return null;
+        }
+        try {
+            return AttachmentStore.getInstance().acquire(att.data, att.mediaType);
+        } catch (IOException | IllegalArgumentException e) {
+            LOG.warn("[RequestParams] Sending attachment inline, store unavailable: " + e.getMessage());
+            return null;
+        }
+    }
 }
@@ -1,12 +1,14 @@
 package com.github.claudecodegui.provider.claude;
 
+import com.github.claudecodegui.provider.common.DaemonEvent;
 import com.github.claudecodegui.provider.common.MessageCallback;
 import com.github.claudecodegui.provider.common.SDKResult;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 
 /**
- * Adapts tagged Node.js output lines into bridge callbacks and SDKResult updates.
+ * Adapts tagged Node.js output lines, or the equivalent structured daemon events, into bridge
+ * callbacks and SDKResult updates.
  */
 class ClaudeStreamAdapter {
 
@@ -24,100 +26,146 @@ class ClaudeStreamAdapter {
             boolean[] hadSendError,
             String[] lastNodeError
     ) {
-        if (line.startsWith("[STDIN_ERROR]")
-                || line.startsWith("[STDIN_PARSE_ERROR]")
-                || line.startsWith("[GET_SESSION_ERROR]")
-                || line.startsWith("[PERSIST_ERROR]")) {
-            lastNodeError[0] = line;
-        }
-
-        if (line.startsWith("[MESSAGE]")) {
-            String jsonStr = line.substring("[MESSAGE]".length()).trim();
-            try {
-                JsonObject msg = gson.fromJson(jsonStr, JsonObject.class);
-                result.messages.add(msg);
-                String type = msg.has("type") ? msg.get("type").getAsString() : "unknown";
-                callback.onMessage(type, jsonStr);
-            } catch (Exception ignored) {
-            }
+        if (!line.startsWith("[")) {
             return;
         }
-
-        if (line.startsWith("[SEND_ERROR]")) {
-            String jsonStr = line.substring("[SEND_ERROR]".length()).trim();
-            String errorMessage = jsonStr;
-            try {
-                JsonObject obj = gson.fromJson(jsonStr, JsonObject.class);
-                if (obj.has("error")) {
-                    errorMessage = obj.get("error").getAsString();
-                }
-            } catch (Exception ignored) {
-            }
-            hadSendError[0] = true;
-            result.success = false;
-            result.error = errorMessage;
-            callback.onError(errorMessage);
+        int close = line.indexOf(']');
+        if (close < 0) {
             return;
         }
-
-        if (line.startsWith("[CONTENT]")) {
-            String content = line.substring("[CONTENT]".length()).trim();
-            assistantContent.append(content);
-            callback.onMessage("content", content);
+        String tag = line.substring(1, close);
+        String payload = line.substring(close + 1);
+        if ("CONTENT_DELTA".equals(tag)) {
+            appendContentDelta(decodeJsonStringPayload(payload), callback, assistantContent);
             return;
         }
-
-        if (line.startsWith("[CONTENT_DELTA]")) {
-            String delta = decodeJsonStringPayload(line.substring("[CONTENT_DELTA]".length()));
-            assistantContent.append(delta);
-            callback.onMessage("content_delta", delta);
+        if ("THINKING_DELTA".equals(tag)) {
+            callback.onMessage("thinking_delta", decodeJsonStringPayload(payload));
             return;
         }
+        processTagged(tag, payload, line, callback, result, assistantContent, hadSendError, lastNodeError);
+    }
 
-        if (line.startsWith("[THINKING]")) {
-            String thinkingContent = line.substring("[THINKING]".length()).trim();
-            callback.onMessage("thinking", thinkingContent);
-            return;
+    /**
+     * Process a structured daemon event. Deltas arrive already decoded, and tagged lines arrive
+     * already split, so nothing is prefix-matched or JSON-decoded a second time here.
+     */
+    void processEvent(
+            DaemonEvent event,
+            MessageCallback callback,
+            SDKResult result,
+            StringBuilder assistantContent,
+            boolean[] hadSendError,
+            String[] lastNodeError
+    ) {
+        switch (event.getType()) {
+            case DaemonEvent.DELTA:
+                appendContentDelta(event.getText(), callback, assistantContent);
+                break;
+            case DaemonEvent.THINKING_DELTA:
+                callback.onMessage("thinking_delta", event.getText());
+                break;
+            case DaemonEvent.TAG:
+                processTagged(event.getTag(), event.getText(), null,
+                        callback, result, assistantContent, hadSendError, lastNodeError);
+                break;
+            default:
+                processOutputLine(event.getText(), callback, result, assistantContent, hadSendError, lastNodeError);
         }
+    }
 
-        if (line.startsWith("[THINKING_DELTA]")) {
-            String thinkingDelta = decodeJsonStringPayload(line.substring("[THINKING_DELTA]".length()));
-            callback.onMessage("thinking_delta", thinkingDelta);
-            return;
-        }
+    private void appendContentDelta(String delta, MessageCallback callback, StringBuilder assistantContent) {
+        assistantContent.append(delta);
+        callback.onMessage("content_delta", delta);
+    }
 
-        if (line.startsWith("[STREAM_START]")) {
-            callback.onMessage("stream_start", "");
-            return;
-        }
+    /**
+     * @param line the original line, or {@code null} to rebuild it when needed for error reporting
+     */
+    private void processTagged(
+            String tag,
+            String rawPayload,
+            String line,
+            MessageCallback callback,
+            SDKResult result,
+            StringBuilder assistantContent,
+            boolean[] hadSendError,
+            String[] lastNodeError
+    ) {
+        String payload = rawPayload.trim();
+        switch (tag) {
+            case "STDIN_ERROR":
+            case "STDIN_PARSE_ERROR":
+            case "GET_SESSION_ERROR":
+            case "PERSIST_ERROR":
+                lastNodeError[0] = line != null ? line : "[" + tag + "] " + rawPayload;
+                break;
+
+            case "MESSAGE":
+                try {
+                    JsonObject msg = gson.fromJson(payload, JsonObject.class);
+                    result.messages.add(msg);
+                    String type = msg.has("type") ? msg.get("type").getAsString() : "unknown";
+                    callback.onMessage(type, payload);
+                } catch (Exception ignored) {
+                }
+                break;
+
+            case "SEND_ERROR": {
+                String errorMessage = payload;
+                try {
+                    JsonObject obj = gson.fromJson(payload, JsonObject.class);
+                    if (obj.has("error")) {
+                        errorMessage = obj.get("error").getAsString();
+                    }
+                } catch (Exception ignored) {
+                }
+                hadSendError[0] = true;
+                result.success = false;
+                result.error = errorMessage;
+                callback.onError(errorMessage);
+                break;
+            }
 
-        if (line.startsWith("[STREAM_END]")) {
-            callback.onMessage("stream_end", "");
-            return;
-        }
+            case "CONTENT":
+                assistantContent.append(payload);
+                callback.onMessage("content", payload);
+                break;
 
-        if (line.startsWith("[SESSION_ID]")) {
-            callback.onMessage("session_id", line.substring("[SESSION_ID]".length()).trim());
-            return;
-        }
+            case "THINKING":
+                callback.onMessage("thinking", payload);
+                break;
 
-        if (line.startsWith("[TOOL_RESULT]")) {
-            callback.onMessage("tool_result", line.substring("[TOOL_RESULT]".length()).trim());
-            return;
-        }
+            case "STREAM_START":
+                callback.onMessage("stream_start", "");
+                break;
 
-        if (line.startsWith("[USAGE]")) {
-            callback.onMessage("usage", line.substring("[USAGE]".length()).trim());
-            return;
-        }
+            case "STREAM_END":
+                callback.onMessage("stream_end", "");
+                break;
 
-        if (line.startsWith("[MESSAGE_START]")) {
-            callback.onMessage("message_start", "");
-            return;
-        }
+            case "SESSION_ID":
+                callback.onMessage("session_id", payload);
+                break;
+
+            case "TOOL_RESULT":
+                callback.onMessage("tool_result", payload);
+                break;
+
+            case "USAGE":
+                callback.onMessage("usage", payload);
+                break;
+
+            case "MESSAGE_START":
+                callback.onMessage("message_start", "");
+                break;
+
+            case "MESSAGE_END":
+                callback.onMessage("message_end", "");
+                break;
 
-        if (line.startsWith("[MESSAGE_END]")) {
-            callback.onMessage("message_end", "");
+            default:
+                break;
         }
     }
 
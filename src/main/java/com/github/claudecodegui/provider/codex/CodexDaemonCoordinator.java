@@ -0,0 +1,205 @@
+package com.github.claudecodegui.provider.codex;
+
+import com.github.claudecodegui.bridge.BridgeDirectoryResolver;
+import com.github.claudecodegui.bridge.EnvironmentConfigurator;
+import com.github.claudecodegui.bridge.NodeDetector;
+import com.github.claudecodegui.provider.common.DaemonBridge;
+import com.github.claudecodegui.provider.common.StandbyDaemon;
+import com.github.claudecodegui.settings.CodemossSettingsService;
+import com.intellij.openapi.diagnostic.Logger;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Owns the lifecycle of the Codex daemon: a daemon.js process started with
+ * {@code --provider=codex}, which loads the Codex SDK once and then serves every message.
+ *
+ * <p>Heartbeats, unresponsiveness detection and automatic restarts are handled by
+ * {@link DaemonBridge} exactly as for Claude. On top of that, a daemon that fails to start is not
+ * retried for a while, and callers fall back to the per-process mode in the meantime.</p>
+ */
+class CodexDaemonCoordinator {
+
+    private static final long DAEMON_RETRY_DELAY_MS = 60_000;
+    private static final List<String> DAEMON_ARGS = List.of("--provider=codex");
+
+    private final Logger log;
+    private final NodeDetector nodeDetector;
+    private final Supplier<BridgeDirectoryResolver> directoryResolverSupplier;
+    private final EnvironmentConfigurator envConfigurator;
+
+    private volatile DaemonBridge daemonBridge;
+    private final Object daemonLock = new Object();
+    private volatile long daemonRetryAfter = 0;
+    private volatile CompletableFuture<?> prewarmFuture;
+    private final StandbyDaemon standby;
+
+    CodexDaemonCoordinator(
+            Logger log,
+            NodeDetector nodeDetector,
+            Supplier<BridgeDirectoryResolver> directoryResolverSupplier,
+            EnvironmentConfigurator envConfigurator
+    ) {
+        this.log = log;
+        this.nodeDetector = nodeDetector;
+        this.directoryResolverSupplier = directoryResolverSupplier;
+        this.envConfigurator = envConfigurator;
+        this.standby = new StandbyDaemon(this::createDaemonBridge);
+    }
+
+    /**
+     * Return the running daemon, starting it if needed.
+     *
+     * @return the daemon, or {@code null} if it is unavailable and the per-process mode should be used
+     */
+    DaemonBridge getDaemonBridge() {
+        DaemonBridge current = daemonBridge;
+        if (current != null && current.isAlive()) {
+            return current;
+        }
+
+        synchronized (daemonLock) {
+            current = daemonBridge;
+            if (current != null && current.isAlive()) {
+                return current;
+            }
+            // A warm spare skips both the start and the retry window
+            DaemonBridge promoted = promoteStandby(current);
+            if (promoted != null) {
+                return promoted;
+            }
+            if (System.currentTimeMillis() < daemonRetryAfter) {
+                return null;
+            }
+
+            daemonRetryAfter = System.currentTimeMillis() + DAEMON_RETRY_DELAY_MS;
+            try {
+                if (current != null) {
+                    current.stop();
+                }
+
+                DaemonBridge newBridge = createDaemonBridge();
+                if (newBridge.start()) {
+                    daemonBridge = newBridge;
+                    daemonRetryAfter = 0;
+                    log.info("[CodexDaemonCoordinator] Codex daemon started, SDK preloaded: "
+                            + newBridge.isSdkPreloaded());
+                    replenishStandby();
+                    return newBridge;
+                }
+                log.warn("[CodexDaemonCoordinator] Failed to start Codex daemon, using per-process mode");
+            } catch (Exception e) {
+                log.debug("[CodexDaemonCoordinator] Codex daemon init failed: " + e.getMessage());
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Hand the warm spare over as the primary daemon.
+     * Must be called while holding {@code daemonLock}.
+     *
+     * @return the promoted daemon, or {@code null} if no live spare was available
+     */
+    private DaemonBridge promoteStandby(DaemonBridge dead) {
+        DaemonBridge spare = standby.take();
+        if (spare == null) {
+            return null;
+        }
+        if (dead != null && dead.isAlive()) {
+            dead.stop();
+        }
+        daemonBridge = spare;
+        daemonRetryAfter = 0;
+        log.info("[CodexDaemonCoordinator] Promoted standby daemon to primary");
+        replenishStandby();
+        return spare;
+    }
+
+    private DaemonBridge createDaemonBridge() {
+        DaemonBridge bridge = new DaemonBridge(nodeDetector, directoryResolverSupplier.get(), envConfigurator, DAEMON_ARGS);
+        bridge.setLifecycleListener(new DaemonBridge.DaemonLifecycleListener() {
+            @Override
+            public void onDaemonReady() {
+            }
+
+            @Override
+            public void onDaemonDied() {
+            }
+
+            @Override
+            public boolean onFailover() {
+                synchronized (daemonLock) {
+                    if (daemonBridge != bridge) {
+                        // An idle spare restarts in place; a replaced primary is simply retired
+                        return !standby.isSpare(bridge);
+                    }
+                    return promoteStandby(bridge) != null;
+                }
+            }
+        });
+        return bridge;
+    }
+
+    private void replenishStandby() {
+        try {
+            if (new CodemossSettingsService().getStandbyDaemonEnabled()) {
+                standby.replenishAsync();
+            }
+        } catch (Exception e) {
+            log.debug("[CodexDaemonCoordinator] Standby daemon setting unavailable: " + e.getMessage());
+        }
+    }
+
+    DaemonBridge getCurrentDaemonBridge() {
+        return daemonBridge;
+    }
+
+    /**
+     * Start the daemon in the background so the first Codex message skips Node.js and SDK startup.
+     *
+     * @param enabled checked on the background thread; the daemon is not started if it returns false
+     */
+    void prewarmDaemonAsync(BooleanSupplier enabled) {
+        CompletableFuture<?> previous = prewarmFuture;
+        if (previous != null && !previous.isDone()) {
+            return;
+        }
+        DaemonBridge current = daemonBridge;
+        if (current != null && current.isAlive()) {
+            return;
+        }
+
+        prewarmFuture = CompletableFuture.runAsync(() -> {
+            try {
+                if (!enabled.getAsBoolean()) {
+                    return;
+                }
+                if (getDaemonBridge() == null) {
+                    log.info("[CodexDaemonCoordinator] Daemon prewarm skipped (daemon unavailable)");
+                }
+            } catch (Exception e) {
+                log.debug("[CodexDaemonCoordinator] Daemon prewarm failed: " + e.getMessage());
+            }
+        });
+    }
+
+    void shutdownDaemon() {
+        standby.shutdown();
+        CompletableFuture<?> runningPrewarm = prewarmFuture;
+        if (runningPrewarm != null) {
+            runningPrewarm.cancel(true);
+            prewarmFuture = null;
+        }
+
+        DaemonBridge current = daemonBridge;
+        if (current != null) {
+            current.stop();
+            daemonBridge = null;
+            daemonRetryAfter = 0;
+        }
+    }
+}
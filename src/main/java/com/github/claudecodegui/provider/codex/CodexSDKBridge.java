@@ -4,11 +4,14 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 
+import com.github.claudecodegui.bridge.AttachmentStore;
 import com.github.claudecodegui.session.ClaudeSession;
 import com.github.claudecodegui.settings.CodemossSettingsService;
 import com.github.claudecodegui.i18n.ClaudeCodeGuiBundle;
 import com.github.claudecodegui.dependency.DependencyManager;
 import com.github.claudecodegui.provider.common.BaseSDKBridge;
+import com.github.claudecodegui.provider.common.DaemonBridge;
+import com.github.claudecodegui.provider.common.DaemonEvent;
 import com.github.claudecodegui.provider.common.MessageCallback;
 import com.github.claudecodegui.provider.common.SDKResult;
 import com.github.claudecodegui.util.PlatformUtils;
@@ -18,9 +21,12 @@ import java.io.File;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Codex SDK bridge.
@@ -45,8 +51,16 @@ public class CodexSDKBridge extends BaseSDKBridge {
     private static final String ENV_CODEX_SANDBOX_NETWORK_DISABLED = "CODEX_SANDBOX_NETWORK_DISABLED";
     private static final long MCP_TOOLS_TIMEOUT_MS = 65_000;
 
+    private final CodexDaemonCoordinator daemonCoordinator;
+    // Channel whose message is currently running in the daemon, and whether it was interrupted
+    private volatile String activeDaemonChannel;
+    private volatile boolean daemonInterrupted;
+
     public CodexSDKBridge() {
         super(CodexSDKBridge.class);
+        this.daemonCoordinator = new CodexDaemonCoordinator(
+                LOG, nodeDetector, this::getDirectoryResolver, envConfigurator
+        );
     }
 
     // ============================================================================
@@ -121,9 +135,8 @@ public class CodexSDKBridge extends BaseSDKBridge {
             } catch (Exception ignored) {
             }
         } else if (line.startsWith("[CONTENT_DELTA]")) {
-            String delta = line.substring("[CONTENT_DELTA]".length()).trim();
-            assistantContent.append(delta);
-            callback.onMessage("content_delta", delta);
+            appendContentDelta(decodeJsonStringPayload(line.substring("[CONTENT_DELTA]".length())),
+                    callback, assistantContent);
         } else if (line.startsWith("[CONTENT]")) {
             String content = line.substring("[CONTENT]".length()).trim();
             // Avoid duplicate
@@ -148,6 +161,68 @@ public class CodexSDKBridge extends BaseSDKBridge {
         }
     }
 
+    private void appendContentDelta(String delta, MessageCallback callback, StringBuilder assistantContent) {
+        assistantContent.append(delta);
+        callback.onMessage("content_delta", delta);
+    }
+
+    private String decodeJsonStringPayload(String rawPayload) {
+        String jsonStr = rawPayload.startsWith(" ") ? rawPayload.substring(1) : rawPayload;
+        try {
+            return gson.fromJson(jsonStr, String.class);
+        } catch (Exception ignored) {
+            return jsonStr;
+        }
+    }
+
+    // ============================================================================
+    // Daemon lifecycle
+    // ============================================================================
+
+    /**
+     * Start the Codex daemon in the background so the next message skips Node.js/SDK startup.
+     */
+    public void prewarmDaemonAsync() {
+        daemonCoordinator.prewarmDaemonAsync(() -> {
+            try {
+                return !CodemossSettingsService.CODEX_RUNTIME_ACCESS_INACTIVE.equals(
+                        new CodemossSettingsService().getCodexRuntimeAccessMode());
+            } catch (Exception e) {
+                LOG.debug("[Codex] Skipping daemon prewarm, access mode unavailable: " + e.getMessage());
+                return false;
+            }
+        });
+    }
+
+    public void shutdownDaemon() {
+        daemonCoordinator.shutdownDaemon();
+    }
+
+    @Override
+    public void cleanupAllProcesses() {
+        shutdownDaemon();
+        super.cleanupAllProcesses();
+    }
+
+    /**
+     * Interrupt a channel. In daemon mode, aborts the active Codex turn; also delegates to
+     * ProcessManager for the per-process mode.
+     */
+    @Override
+    public void interruptChannel(String channelId) {
+        DaemonBridge db = daemonCoordinator.getCurrentDaemonBridge();
+        if (db != null && db.isAlive() && channelId != null && channelId.equals(activeDaemonChannel)) {
+            LOG.info("[Codex] Sending daemon abort for channel: " + channelId);
+            daemonInterrupted = true;
+            try {
+                db.sendAbort();
+            } catch (Exception e) {
+                LOG.error("[Codex] Daemon abort failed: " + e.getMessage());
+            }
+        }
+        super.interruptChannel(channelId);
+    }
+
     // ============================================================================
     // Codex-specific configuration
     // ============================================================================
@@ -249,7 +324,7 @@ public class CodexSDKBridge extends BaseSDKBridge {
             StringBuilder assistantContent = new StringBuilder();
             final String[] lastNodeError = {null};
             final boolean[] hadSendError = {false};
-            final List<File> tempImageFiles = new ArrayList<>();  // Track temp images for cleanup
+            final List<String> attachmentDigests = new ArrayList<>();  // Pinned attachment files, released after send
 
             try {
                 String accessMode = CodemossSettingsService.CODEX_RUNTIME_ACCESS_INACTIVE;
@@ -308,14 +383,25 @@ public class CodexSDKBridge extends BaseSDKBridge {
                     LOG.info("[Codex] CLI Login mode: skipping apiKey/baseUrl, using native OAuth tokens");
                 }
 
-                // Process attachments for Codex (images need to be saved as temp files)
+                // Process attachments for Codex (images are passed as files from the attachment store)
                 // Codex SDK requires local file paths, not base64 data
-                JsonArray attachmentsArray = buildCodexAttachments(attachments, tempImageFiles);
+                JsonArray attachmentsArray = buildCodexAttachments(attachments, attachmentDigests);
                 if (attachmentsArray.size() > 0) {
                     stdinInput.add("attachments", attachmentsArray);
                     LOG.info("[Codex] ✓ Prepared " + attachmentsArray.size() + " image attachment(s)");
                 }
 
+                // Prefer the long-lived daemon: no Node.js or SDK startup per message
+                DaemonBridge daemon = daemonCoordinator.getDaemonBridge();
+                if (daemon != null) {
+                    try {
+                        return sendMessageViaDaemon(daemon, channelId, stdinInput, cwd, permissionMode, model,
+                                callback, result, assistantContent, hadSendError, lastNodeError);
+                    } finally {
+                        releaseAttachments(attachmentDigests);
+                    }
+                }
+
                 String stdinJson = gson.toJson(stdinInput);
 
                 List<String> command = new ArrayList<>();
@@ -325,6 +411,7 @@ public class CodexSDKBridge extends BaseSDKBridge {
                 command.add("send");
 
                 File processTempDir = processManager.prepareClaudeTempDir();
+                CodemossSettingsService.flushPendingConfigWrites();
 
                 ProcessBuilder pb = new ProcessBuilder(command);
 
@@ -351,39 +438,7 @@ public class CodexSDKBridge extends BaseSDKBridge {
                 }
 
                 // Override user's ~/.codex/config.toml sandbox and approval settings via environment variables
-                if (permissionMode != null && !permissionMode.isEmpty()) {
-                    String sandboxMode = resolveCodexSandboxMode(cwd);
-
-                    switch (permissionMode) {
-                        case "bypassPermissions":
-                            env.put(ENV_CODEX_SANDBOX_MODE, sandboxMode);
-                            env.put(ENV_CODEX_SANDBOX, sandboxMode);
-                            env.put(ENV_CODEX_APPROVAL_POLICY, APPROVAL_POLICY_NEVER);
-                            break;
-                        case "acceptEdits":
-                        case "autoEdit":
-                            env.put(ENV_CODEX_SANDBOX_MODE, sandboxMode);
-                            env.put(ENV_CODEX_SANDBOX, sandboxMode);
-                            env.put(ENV_CODEX_APPROVAL_POLICY, APPROVAL_POLICY_ON_REQUEST);
-                            break;
-                        case "plan":
-                            env.put(ENV_CODEX_SANDBOX_MODE, sandboxMode);
-                            env.put(ENV_CODEX_SANDBOX, sandboxMode);
-                            env.put(ENV_CODEX_APPROVAL_POLICY, APPROVAL_POLICY_UNTRUSTED);
-                            break;
-                        default:
-                            // Default mode: use configured sandbox mode with confirmation
-                            env.put(ENV_CODEX_SANDBOX_MODE, sandboxMode);
-                            env.put(ENV_CODEX_SANDBOX, sandboxMode);
-                            env.put(ENV_CODEX_APPROVAL_POLICY, APPROVAL_POLICY_UNTRUSTED);
-                            break;
-                    }
-                    LOG.info("[Codex] Permission env override: SANDBOX_MODE=" +
-                            env.get(ENV_CODEX_SANDBOX_MODE) + ", SANDBOX=" +
-                            env.get(ENV_CODEX_SANDBOX) + ", APPROVAL_POLICY=" +
-                            env.get(ENV_CODEX_APPROVAL_POLICY) + " (from permissionMode=" + permissionMode +
-                            ")");
-                }
+                applyPermissionEnv(env, permissionMode, cwd);
 
                 pb.redirectErrorStream(true);
                 envConfigurator.updateProcessEnvironment(pb, node);
@@ -458,19 +513,182 @@ public class CodexSDKBridge extends BaseSDKBridge {
                 } finally {
                     processManager.unregisterProcess(channelId, process);
                     processManager.waitForProcessTermination(process);
-                    cleanupTempImages(tempImageFiles);  // Cleanup temp image files
+                    releaseAttachments(attachmentDigests);
                 }
 
             } catch (Exception e) {
                 result.success = false;
                 result.error = e.getMessage();
                 callback.onError(e.getMessage());
-                cleanupTempImages(tempImageFiles);  // Cleanup temp image files on error
+                releaseAttachments(attachmentDigests);
                 return result;
             }
         });
     }
 
+    /**
+     * Send a message through the Codex daemon. Per-message settings that the per-process mode
+     * passes as process environment travel as request env, which the daemon applies for the
+     * duration of the request only.
+     */
+    private SDKResult sendMessageViaDaemon(
+            DaemonBridge daemon,
+            String channelId,
+            JsonObject params,
+            String cwd,
+            String permissionMode,
+            String model,
+            MessageCallback callback,
+            SDKResult result,
+            StringBuilder assistantContent,
+            boolean[] hadSendError,
+            String[] lastNodeError
+    ) {
+        Map<String, String> requestEnv = new HashMap<>();
+        requestEnv.put("CODEX_USE_STDIN", "true");
+        if (model != null && !model.isEmpty()) {
+            requestEnv.put("CODEX_MODEL", model);
+        }
+        applyPermissionEnv(requestEnv, permissionMode, cwd);
+        envConfigurator.configureCodexEnv(requestEnv);
+        JsonObject env = new JsonObject();
+        requestEnv.forEach(env::addProperty);
+        params.add("env", env);
+
+        activeDaemonChannel = channelId;
+        daemonInterrupted = false;
+        Boolean success = null;
+        try {
+            LOG.info("[Codex] Sending via daemon");
+            CompletableFuture<Boolean> cmdFuture = daemon.sendCommand(
+                    "codex.send",
+                    params,
+                    new DaemonBridge.DaemonOutputCallback() {
+                        @Override
+                        public void onLine(String line) {
+                            if (line.startsWith("[UNCAUGHT_ERROR]")
+                                    || line.startsWith("[UNHANDLED_REJECTION]")
+                                    || line.startsWith("[COMMAND_ERROR]")) {
+                                LOG.warn("[Node.js ERROR] " + line);
+                                lastNodeError[0] = line;
+                            }
+                            processOutputLine(line, callback, result, assistantContent, hadSendError, lastNodeError);
+                        }
+
+                        @Override
+                        public void onEvent(DaemonEvent event) {
+                            if (DaemonEvent.DELTA.equals(event.getType())) {
+                                appendContentDelta(event.getText(), callback, assistantContent);
+                            } else {
+                                onLine(event.toLine());
+                            }
+                        }
+
+                        @Override
+                        public void onStderr(String text) {
+                            if (text != null && text.startsWith("[SEND_ERROR]")) {
+                                processOutputLine(text, callback, result, assistantContent, hadSendError, lastNodeError);
+                                return;
+                            }
+                            LOG.debug("[Codex daemon:stderr] " + text);
+                        }
+
+                        @Override
+                        public void onError(String error) {
+                            if (!hadSendError[0]) {
+                                result.success = false;
+                                result.error = error;
+                            }
+                        }
+
+                        @Override
+                        public void onComplete(boolean success) {
+                        }
+                    }
+            );
+
+            while (success == null) {
+                try {
+                    success = cmdFuture.get(30, TimeUnit.SECONDS);
+                } catch (TimeoutException timeout) {
+                    if (!daemon.isAlive()) {
+                        throw new RuntimeException("Codex daemon is not alive while waiting for response", timeout);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            if (!hadSendError[0] && !daemonInterrupted) {
+                result.error = "Codex daemon request failed: " + e.getMessage();
+            }
+        } finally {
+            activeDaemonChannel = null;
+        }
+
+        result.finalResult = assistantContent.toString();
+        result.messageCount = result.messages.size();
+
+        if (daemonInterrupted) {
+            daemonInterrupted = false;
+            result.success = false;
+            result.error = "User interrupted";
+            callback.onComplete(result);
+        } else if (!hadSendError[0]) {
+            result.success = Boolean.TRUE.equals(success);
+            if (result.success) {
+                callback.onComplete(result);
+            } else {
+                String errorMsg = result.error != null ? result.error : "Codex daemon command failed";
+                if (lastNodeError[0] != null && !lastNodeError[0].isEmpty()) {
+                    errorMsg = errorMsg + " | Last error: " + lastNodeError[0];
+                }
+                result.error = errorMsg;
+                callback.onError(errorMsg);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Force the sandbox and approval policy for a permission mode through the environment,
+     * overriding ~/.codex/config.toml.
+     */
+    private void applyPermissionEnv(Map<String, String> env, String permissionMode, String cwd) {
+        if (permissionMode == null || permissionMode.isEmpty()) {
+            return;
+        }
+        String sandboxMode = resolveCodexSandboxMode(cwd);
+
+        switch (permissionMode) {
+            case "bypassPermissions":
+                env.put(ENV_CODEX_SANDBOX_MODE, sandboxMode);
+                env.put(ENV_CODEX_SANDBOX, sandboxMode);
+                env.put(ENV_CODEX_APPROVAL_POLICY, APPROVAL_POLICY_NEVER);
+                break;
+            case "acceptEdits":
+            case "autoEdit":
+                env.put(ENV_CODEX_SANDBOX_MODE, sandboxMode);
+                env.put(ENV_CODEX_SANDBOX, sandboxMode);
+                env.put(ENV_CODEX_APPROVAL_POLICY, APPROVAL_POLICY_ON_REQUEST);
+                break;
+            case "plan":
+                env.put(ENV_CODEX_SANDBOX_MODE, sandboxMode);
+                env.put(ENV_CODEX_SANDBOX, sandboxMode);
+                env.put(ENV_CODEX_APPROVAL_POLICY, APPROVAL_POLICY_UNTRUSTED);
+                break;
+            default:
+                // Default mode: use configured sandbox mode with confirmation
+                env.put(ENV_CODEX_SANDBOX_MODE, sandboxMode);
+                env.put(ENV_CODEX_SANDBOX, sandboxMode);
+                env.put(ENV_CODEX_APPROVAL_POLICY, APPROVAL_POLICY_UNTRUSTED);
+                break;
+        }
+        LOG.info("[Codex] Permission env override: SANDBOX_MODE=" +
+                env.get(ENV_CODEX_SANDBOX_MODE) + ", SANDBOX=" +
+                env.get(ENV_CODEX_SANDBOX) + ", APPROVAL_POLICY=" +
+                env.get(ENV_CODEX_APPROVAL_POLICY) + " (from permissionMode=" + permissionMode +
+                ")");
+    }
+
     /**
      * Get session history messages (Codex doesn't support this, returns empty list).
      */
@@ -644,28 +862,20 @@ public class CodexSDKBridge extends BaseSDKBridge {
     /**
      * Build Codex-compatible attachments array.
      * Codex SDK requires local file paths for images, not base64 data.
-     * This method saves base64 image data to temporary files and returns file paths.
-     * Files are marked for deletion on JVM exit and tracked for cleanup after message send.
+     * Images are stored in the content-addressed {@link AttachmentStore}, so an image sent again
+     * (or a retried message) reuses the file already written.
      *
      * @param attachments List of attachments from the UI
-     * @param tempFiles List to collect temp files for cleanup after send (optional, can be null)
+     * @param digests List to collect the pinned attachments, to release after send
      * @return JsonArray with local_image entries for Codex SDK
      */
-    private JsonArray buildCodexAttachments(List<ClaudeSession.Attachment> attachments, List<File> tempFiles) {
+    private JsonArray buildCodexAttachments(List<ClaudeSession.Attachment> attachments, List<String> digests) {
         JsonArray result = new JsonArray();
 
         if (attachments == null || attachments.isEmpty()) {
             return result;
         }
 
-        // Use system temp directory (clean, no project pollution)
-        File tempDir = new File(System.getProperty("java.io.tmpdir"), "codex-images");
-
-        // Create temp directory if not exists
-        if (!tempDir.exists()) {
-            tempDir.mkdirs();
-        }
-
         for (ClaudeSession.Attachment attachment : attachments) {
             if (attachment == null) continue;
 
@@ -679,35 +889,14 @@ public class CodexSDKBridge extends BaseSDKBridge {
             }
 
             try {
-                // Determine file extension from MIME type
-                String extension = getImageExtension(type);
-
-                // Generate unique filename
-                String filename = "codex-img-" + System.currentTimeMillis() + "-" +
-                                  java.util.UUID.randomUUID().toString().substring(0, 8) + extension;
-                File imageFile = new File(tempDir, filename);
-
-                // Decode base64 and write to file
-                byte[] imageBytes = java.util.Base64.getDecoder().decode(data);
-                try (java.io.FileOutputStream fos = new java.io.FileOutputStream(imageFile)) {
-                    fos.write(imageBytes);
-                }
-
-                // Mark for deletion on JVM exit (fallback cleanup)
-                imageFile.deleteOnExit();
-
-                // Track for immediate cleanup after send
-                if (tempFiles != null) {
-                    tempFiles.add(imageFile);
-                }
-
-                LOG.info("[Codex] Saved temp image: " + imageFile.getAbsolutePath() +
-                         " (" + imageBytes.length + " bytes, will auto-delete)");
+                AttachmentStore.Ref ref = AttachmentStore.getInstance().acquire(data, type);
+                digests.add(ref.getDigest());
+                LOG.debug("[Codex] Image attachment stored: " + ref.getPath());
 
                 // Add to result array in Codex SDK format
                 JsonObject imageEntry = new JsonObject();
                 imageEntry.addProperty("type", "local_image");
-                imageEntry.addProperty("path", imageFile.getAbsolutePath());
+                imageEntry.addProperty("path", ref.getPath().toString());
                 result.add(imageEntry);
 
             } catch (Exception e) {
@@ -719,45 +908,14 @@ public class CodexSDKBridge extends BaseSDKBridge {
     }
 
     /**
-     * Cleanup temporary image files after message send.
-     */
-    private void cleanupTempImages(List<File> tempFiles) {
-        if (tempFiles == null || tempFiles.isEmpty()) {
-            return;
-        }
-        for (File file : tempFiles) {
-            try {
-                if (file.exists() && file.delete()) {
-                    LOG.debug("[Codex] Cleaned up temp image: " + file.getName());
-                }
-            } catch (Exception e) {
-                LOG.debug("[Codex] Failed to cleanup temp image: " + e.getMessage());
-            }
-        }
-    }
-
-    /**
-     * Get file extension from MIME type.
+     * Unpin attachment files after message send. They stay cached for resends until evicted.
      */
-    private String getImageExtension(String mimeType) {
-        if (mimeType == null) return ".png";
-
-        switch (mimeType.toLowerCase()) {
-            case "image/jpeg":
-            case "image/jpg":
-                return ".jpg";
-            case "image/gif":
-                return ".gif";
-            case "image/webp":
-                return ".webp";
-            case "image/bmp":
-                return ".bmp";
-            case "image/svg+xml":
-                return ".svg";
-            case "image/png":
-            default:
-                return ".png";
+    private void releaseAttachments(List<String> digests) {
+        AttachmentStore store = AttachmentStore.getInstance();
+        for (String digest : digests) {
+            store.release(digest);
         }
+        digests.clear();
     }
 
     private String extractAssistantText(JsonObject msg) {
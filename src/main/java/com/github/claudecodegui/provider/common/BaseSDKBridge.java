@@ -7,6 +7,7 @@ import com.github.claudecodegui.bridge.BridgeDirectoryResolver;
 import com.github.claudecodegui.bridge.EnvironmentConfigurator;
 import com.github.claudecodegui.bridge.NodeDetector;
 import com.github.claudecodegui.bridge.ProcessManager;
+import com.github.claudecodegui.settings.CodemossSettingsService;
 import com.github.claudecodegui.startup.BridgePreloader;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.util.concurrency.AppExecutorUtil;
@@ -241,6 +242,8 @@ public abstract class BaseSDKBridge {
             final String[] lastNodeError = {null};
 
             try {
+                // The spawned process reads ~/.codemoss/config.json; make recent setting changes visible
+                CodemossSettingsService.flushPendingConfigWrites();
                 File bridgeDir = getDirectoryResolver().findSdkDir();
                 if (bridgeDir == null) {
                     // Bridge extraction is in progress
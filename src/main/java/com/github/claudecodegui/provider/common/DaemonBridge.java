@@ -3,13 +3,16 @@ package com.github.claudecodegui.provider.common;
 import com.github.claudecodegui.bridge.BridgeDirectoryResolver;
 import com.github.claudecodegui.bridge.EnvironmentConfigurator;
 import com.github.claudecodegui.bridge.NodeDetector;
-import com.google.gson.JsonElement;
+import com.github.claudecodegui.settings.CodemossSettingsService;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.util.concurrency.AppExecutorUtil;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -27,8 +30,12 @@ import java.util.concurrent.atomic.AtomicLong;
  * - Java writes JSON requests to daemon's stdin (one per line)
  * - Daemon writes JSON responses to stdout (one per line, tagged with request ID)
  * - Daemon lifecycle events have type="daemon"
- * - Command output lines have an "id" field matching the request
- * - Command completion is signaled by {"id":"X","done":true}
+ * - Command output has an "id" field matching the request and an "ev" kind
+ *   (see {@link DaemonEvent}); it is decoded by {@link DaemonFrame} without building a JSON tree
+ * - Command completion is signaled by {"id":"X","ev":"done","success":true}
+ *
+ * Command output is handed from the stdout reader to the request's callback through a
+ * {@link DaemonEventQueue}, so a slow consumer never stalls the pipe.
  */
 public class DaemonBridge {
 
@@ -44,6 +51,10 @@ public class DaemonBridge {
     private final NodeDetector nodeDetector;
     private final BridgeDirectoryResolver directoryResolver;
     private final EnvironmentConfigurator envConfigurator;
+    private final List<String> daemonArgs;
+    // Single consumer for request callbacks, so they leave the reader thread but keep their order
+    private final Executor eventExecutor =
+            AppExecutorUtil.createBoundedApplicationPoolExecutor("CCG Daemon Events", 1);
     // Daemon process state
     private volatile Process daemonProcess;
     private volatile BufferedWriter daemonStdin;
@@ -70,10 +81,23 @@ public class DaemonBridge {
             NodeDetector nodeDetector,
             BridgeDirectoryResolver directoryResolver,
             EnvironmentConfigurator envConfigurator
+    ) {
+        this(nodeDetector, directoryResolver, envConfigurator, List.of());
+    }
+
+    /**
+     * @param daemonArgs extra arguments for daemon.js, e.g. {@code --provider=codex}
+     */
+    public DaemonBridge(
+            NodeDetector nodeDetector,
+            BridgeDirectoryResolver directoryResolver,
+            EnvironmentConfigurator envConfigurator,
+            List<String> daemonArgs
     ) {
         this.nodeDetector = nodeDetector;
         this.directoryResolver = directoryResolver;
         this.envConfigurator = envConfigurator;
+        this.daemonArgs = List.copyOf(daemonArgs);
     }
 
     // =========================================================================
@@ -116,7 +140,11 @@ public class DaemonBridge {
                     return false;
                 }
 
-                ProcessBuilder pb = new ProcessBuilder(nodePath, daemonScript.getAbsolutePath());
+                List<String> command = new ArrayList<>();
+                command.add(nodePath);
+                command.add(daemonScript.getAbsolutePath());
+                command.addAll(daemonArgs);
+                ProcessBuilder pb = new ProcessBuilder(command);
                 pb.directory(bridgeDir);
 
                 // Configure environment
@@ -189,7 +217,7 @@ public class DaemonBridge {
 
         // Cancel all pending requests
         for (Map.Entry<String, RequestHandler> entry : pendingRequests.entrySet()) {
-            entry.getValue().onError("Daemon stopped");
+            entry.getValue().fail("Daemon stopped");
         }
         pendingRequests.clear();
         activeRequestCount.set(0);
@@ -263,7 +291,7 @@ public class DaemonBridge {
 
         // Complete all pending request futures so Java-side callers unblock
         for (Map.Entry<String, RequestHandler> entry : pendingRequests.entrySet()) {
-            entry.getValue().onError("Request aborted by user");
+            entry.getValue().fail("Request aborted by user");
             entry.getValue().future.complete(false);
         }
         pendingRequests.clear();
@@ -315,8 +343,12 @@ public class DaemonBridge {
         String requestId = String.valueOf(requestIdCounter.incrementAndGet());
         CompletableFuture<Boolean> future = new CompletableFuture<>();
         boolean countsAsActiveRequest = !"heartbeat".equals(method) && !"status".equals(method);
+        if (countsAsActiveRequest) {
+            // The bridge reads ~/.codemoss/config.json per request; make recent setting changes visible
+            CodemossSettingsService.flushPendingConfigWrites();
+        }
 
-        RequestHandler handler = new RequestHandler(callback, future);
+        RequestHandler handler = new RequestHandler(callback, future, eventExecutor);
         pendingRequests.put(requestId, handler);
         if (countsAsActiveRequest) {
             activeRequestCount.incrementAndGet();
@@ -454,35 +486,32 @@ public class DaemonBridge {
         }
 
         try {
-            JsonElement element = JsonParser.parseString(trimmed);
-            if (!element.isJsonObject()) return;
-            JsonObject obj = element.getAsJsonObject();
+            DaemonFrame frame = DaemonFrame.parse(trimmed);
 
             // --- Daemon lifecycle events ---
-            if (obj.has("type")) {
-                String type = obj.get("type").getAsString();
-
-                if ("daemon".equals(type)) {
-                    handleDaemonEvent(obj);
+            if (frame.type != null) {
+                if ("daemon".equals(frame.type)) {
+                    // Rare: parse the full object for the event-specific fields
+                    handleDaemonEvent(JsonParser.parseString(trimmed).getAsJsonObject());
                     return;
                 }
 
-                if ("heartbeat".equals(type)) {
+                if ("heartbeat".equals(frame.type)) {
                     // Heartbeat response — daemon is alive
                     lastHeartbeatResponse.set(System.currentTimeMillis());
                     markDaemonActivity();
                     return;
                 }
 
-                if ("status".equals(type)) {
+                if ("status".equals(frame.type)) {
                     // Status response
                     return;
                 }
             }
 
             // --- Request-tagged output ---
-            if (!obj.has("id")) return;
-            String id = obj.get("id").getAsString();
+            String id = frame.id;
+            if (id == null) return;
 
             // Skip heartbeat responses
             if (id.startsWith("hb-")) return;
@@ -494,25 +523,23 @@ public class DaemonBridge {
             }
 
             // Command completion
-            if (obj.has("done")) {
-                boolean success = obj.has("success") && obj.get("success").getAsBoolean();
-                if (!success && obj.has("error")) {
-                    handler.onError(obj.get("error").getAsString());
-                }
-                handler.onComplete(success);
+            if (frame.isDone()) {
                 pendingRequests.remove(id);
+                handler.queue.offerDone(frame.success, frame.error);
                 return;
             }
 
-            // Output line from the command
-            if (obj.has("line")) {
-                handler.callback.onLine(obj.get("line").getAsString());
+            // Stderr output
+            String stderr = frame.stderrText();
+            if (stderr != null) {
+                handler.queue.offerStderr(stderr);
                 return;
             }
 
-            // Stderr output
-            if (obj.has("stderr")) {
-                handler.callback.onStderr(obj.get("stderr").getAsString());
+            // Output from the command; callbacks run off the reader thread so stdout keeps draining
+            DaemonEvent event = frame.toEvent();
+            if (event != null) {
+                handler.queue.offerEvent(event);
             }
 
         } catch (Exception e) {
@@ -574,14 +601,19 @@ public class DaemonBridge {
 
         // Fail all pending requests
         for (Map.Entry<String, RequestHandler> entry : pendingRequests.entrySet()) {
-            entry.getValue().onError("Daemon process died unexpectedly");
+            entry.getValue().fail("Daemon process died unexpectedly");
         }
         pendingRequests.clear();
         activeRequestCount.set(0);
 
         // Notify listener
-        if (lifecycleListener != null) {
-            lifecycleListener.onDaemonDied();
+        DaemonLifecycleListener listener = lifecycleListener;
+        if (listener != null) {
+            listener.onDaemonDied();
+            if (listener.onFailover()) {
+                LOG.info("[DaemonBridge] Standby daemon took over, skipping restart");
+                return;
+            }
         }
 
         // Auto-restart if within limit.
@@ -636,6 +668,15 @@ public class DaemonBridge {
      */
     public interface DaemonOutputCallback {
         void onLine(String line);
+
+        /**
+         * Receive a structured output event. The default hands the equivalent tagged line to
+         * {@link #onLine}; stream consumers override this to skip re-parsing the tags.
+         */
+        default void onEvent(DaemonEvent event) {
+            onLine(event.toLine());
+        }
+
         void onStderr(String text);
         void onError(String error);
         void onComplete(boolean success);
@@ -647,18 +688,61 @@ public class DaemonBridge {
     public interface DaemonLifecycleListener {
         void onDaemonReady();
         void onDaemonDied();
+
+        /**
+         * Called after {@link #onDaemonDied()}, before the automatic restart.
+         *
+         * @return true if another daemon has taken over, in which case this one is not restarted
+         */
+        default boolean onFailover() {
+            return false;
+        }
     }
 
     /**
      * Internal handler that wraps callback + future for a pending request.
      */
-    private static class RequestHandler {
+    private static class RequestHandler implements DaemonEventQueue.Sink {
         final DaemonOutputCallback callback;
         final CompletableFuture<Boolean> future;
+        final DaemonEventQueue queue;
 
-        RequestHandler(DaemonOutputCallback callback, CompletableFuture<Boolean> future) {
+        RequestHandler(DaemonOutputCallback callback, CompletableFuture<Boolean> future, Executor executor) {
             this.callback = callback;
             this.future = future;
+            this.queue = new DaemonEventQueue(this, executor,
+                    DaemonEventQueue.DEFAULT_CAPACITY, DaemonEventQueueMetrics.global());
+        }
+
+        @Override
+        public void onEvent(DaemonEvent event) {
+            callback.onEvent(event);
+        }
+
+        @Override
+        public void onStderr(String text) {
+            callback.onStderr(text);
+        }
+
+        @Override
+        public void onDone(boolean success, String error) {
+            if (!success && error != null) {
+                onError(error);
+            }
+            onComplete(success);
+        }
+
+        @Override
+        public void onFailed(String error) {
+            onError(error);
+        }
+
+        /**
+         * Fail the request, discarding output that was not delivered yet. The error is reported
+         * by the event executor after any callback that is already running.
+         */
+        void fail(String error) {
+            queue.fail(error);
         }
 
         void onError(String error) {
@@ -0,0 +1,70 @@
+package com.github.claudecodegui.provider.common;
+
+import com.google.gson.JsonPrimitive;
+
+/**
+ * A structured output event of a daemon command.
+ *
+ * <p>The daemon classifies each output line of a command once, on the Node.js side: streaming
+ * deltas arrive as {@code {"id":"1","ev":"delta","text":"..."}} with the text already decoded,
+ * other tagged lines as {@code {"id":"1","ev":"tag","tag":"MESSAGE","text":"..."}}, and anything
+ * else as {@code {"id":"1","ev":"line","text":"..."}}. {@link #toLine()} rebuilds the tagged line
+ * the per-process mode would have printed, for consumers that only understand lines.</p>
+ */
+public final class DaemonEvent {
+
+    /** Assistant text delta; {@link #getText()} is the decoded text. */
+    public static final String DELTA = "delta";
+    /** Thinking text delta; {@link #getText()} is the decoded text. */
+    public static final String THINKING_DELTA = "thinking_delta";
+    /** A {@code [TAG] payload} line; {@link #getTag()} is the tag without brackets. */
+    public static final String TAG = "tag";
+    /** An untagged output line. */
+    public static final String LINE = "line";
+
+    private final String type;
+    private final String tag;
+    private final String text;
+
+    public DaemonEvent(String type, String tag, String text) {
+        this.type = type;
+        this.tag = tag;
+        this.text = text != null ? text : "";
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * @return the tag of a {@link #TAG} event, or {@code null}
+     */
+    public String getTag() {
+        return tag;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Rebuild the equivalent line of the tagged-text protocol.
+     */
+    public String toLine() {
+        switch (type) {
+            case DELTA:
+                return "[CONTENT_DELTA] " + new JsonPrimitive(text);
+            case THINKING_DELTA:
+                return "[THINKING_DELTA] " + new JsonPrimitive(text);
+            case TAG:
+                return text.isEmpty() ? "[" + tag + "]" : "[" + tag + "] " + text;
+            default:
+                return text;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "DaemonEvent{" + type + (tag != null ? ":" + tag : "") + "}";
+    }
+}
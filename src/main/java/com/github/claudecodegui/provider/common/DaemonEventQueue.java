@@ -0,0 +1,266 @@
+package com.github.claudecodegui.provider.common;
+
+import com.intellij.openapi.diagnostic.Logger;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+
+/**
+ * Bounded hand-off between the daemon stdout reader and the callbacks of one request.
+ *
+ * <p>The reader thread only enqueues, so it keeps draining the pipe however slow the UI side is.
+ * Delivery runs on an executor, with at most one drain task per queue at a time, so callbacks of a
+ * request are never invoked concurrently and keep their order.</p>
+ *
+ * <p>The queue stays small by merging rather than blocking: a text or thinking delta arriving
+ * while the previous entry is a delta of the same kind is appended to it, so a slow consumer sees
+ * fewer, larger deltas. Diagnostic entries (plain stderr and {@code [DEBUG]} lines) are lossy: at
+ * capacity the oldest one is dropped to make room. Everything else is never dropped; if the queue
+ * is full of such entries it grows past capacity and the overflow is counted, up to a hard limit of
+ * {@link #OVERFLOW_FACTOR} times the capacity. A consumer that far behind is not coming back, so
+ * reaching the limit fails the request instead of buffering its output without bound.</p>
+ *
+ * <p>Completion and failure are terminal entries: once one is queued, later offers are ignored.
+ * {@link #fail} discards what was not delivered yet but still hands the failure to the drain task,
+ * so it never races a callback that is running.</p>
+ */
+final class DaemonEventQueue {
+
+    private static final Logger LOG = Logger.getInstance(DaemonEventQueue.class);
+
+    static final int DEFAULT_CAPACITY = 1024;
+
+    /** Entries delivered per drain task before yielding the executor thread to other queues. */
+    private static final int DRAIN_BATCH = 64;
+
+    /** Multiple of the capacity that essential entries may fill before the request is failed. */
+    static final int OVERFLOW_FACTOR = 4;
+
+    /**
+     * Receiver of the dequeued entries, called on the executor.
+     */
+    interface Sink {
+        void onEvent(DaemonEvent event);
+
+        void onStderr(String text);
+
+        void onDone(boolean success, String error);
+
+        void onFailed(String error);
+    }
+
+    private final Sink sink;
+    private final Executor executor;
+    private final int capacity;
+    private final DaemonEventQueueMetrics metrics;
+
+    private final Object lock = new Object();
+    private final ArrayDeque<Entry> entries = new ArrayDeque<>();
+    private boolean draining;
+    private boolean closed;
+
+    DaemonEventQueue(Sink sink, Executor executor, int capacity, DaemonEventQueueMetrics metrics) {
+        this.sink = sink;
+        this.executor = executor;
+        this.capacity = capacity;
+        this.metrics = metrics;
+    }
+
+    void offerEvent(DaemonEvent event) {
+        String type = event.getType();
+        if (DaemonEvent.DELTA.equals(type) || DaemonEvent.THINKING_DELTA.equals(type)) {
+            offer(Entry.delta(type, event.getText()));
+        } else {
+            boolean lossy = DaemonEvent.TAG.equals(type) && "DEBUG".equals(event.getTag());
+            offer(Entry.event(event, lossy));
+        }
+    }
+
+    void offerStderr(String text) {
+        offer(Entry.stderr(text, !text.startsWith("[")));
+    }
+
+    void offerDone(boolean success, String error) {
+        offer(Entry.done(success, error));
+    }
+
+    /**
+     * Discard pending entries and deliver {@code error} as the last callback of the request.
+     * Does nothing if the request already completed or failed.
+     */
+    void fail(String error) {
+        boolean schedule;
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            schedule = terminate(Entry.failed(error));
+        }
+        if (schedule) {
+            executor.execute(this::drain);
+        }
+    }
+
+    int size() {
+        synchronized (lock) {
+            return entries.size();
+        }
+    }
+
+    private void offer(Entry entry) {
+        boolean schedule;
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            Entry tail = entries.peekLast();
+            if (entry.deltaText != null && tail != null && tail.deltaText != null && tail.type.equals(entry.type)) {
+                tail.deltaText.append(entry.deltaText);
+                metrics.recordCoalesced();
+                return;
+            }
+            if (entries.size() >= capacity && !makeRoom(entry)) {
+                metrics.recordDropped();
+                return;
+            }
+            if (DaemonFrame.EV_DONE.equals(entry.type)) {
+                closed = true;
+                schedule = enqueue(entry);
+            } else if (entries.size() >= capacity * OVERFLOW_FACTOR) {
+                LOG.warn("[DaemonEventQueue] " + entries.size() + " undelivered entries, failing the request");
+                metrics.recordOverflow();
+                schedule = terminate(Entry.failed("Daemon output queue overflow: the UI is not keeping up"));
+            } else {
+                schedule = enqueue(entry);
+            }
+        }
+        if (schedule) {
+            executor.execute(this::drain);
+        }
+    }
+
+    /**
+     * Replace the pending entries with a terminal one and stop accepting offers.
+     */
+    private boolean terminate(Entry entry) {
+        closed = true;
+        metrics.recordDropped(entries.size());
+        entries.clear();
+        return enqueue(entry);
+    }
+
+    /**
+     * @return true if a drain task must be scheduled
+     */
+    private boolean enqueue(Entry entry) {
+        entries.addLast(entry);
+        metrics.recordEnqueued(entries.size(), entries.size() > capacity);
+        boolean schedule = !draining;
+        draining = true;
+        return schedule;
+    }
+
+    /**
+     * Drop the oldest lossy entry to make room.
+     *
+     * @return false if the incoming entry itself should be dropped
+     */
+    private boolean makeRoom(Entry incoming) {
+        for (Iterator<Entry> it = entries.iterator(); it.hasNext(); ) {
+            if (it.next().lossy) {
+                it.remove();
+                metrics.recordDropped();
+                return true;
+            }
+        }
+        // Nothing lossy queued: drop a lossy newcomer, but never lose output the UI depends on
+        return !incoming.lossy;
+    }
+
+    private void drain() {
+        for (int delivered = 0; ; delivered++) {
+            Entry entry;
+            synchronized (lock) {
+                if (delivered == DRAIN_BATCH && !entries.isEmpty()) {
+                    executor.execute(this::drain);
+                    return;
+                }
+                entry = entries.pollFirst();
+                if (entry == null) {
+                    draining = false;
+                    return;
+                }
+            }
+            deliver(entry);
+        }
+    }
+
+    private void deliver(Entry entry) {
+        try {
+            if (entry.deltaText != null) {
+                metrics.recordDeltaLatency(System.nanoTime() - entry.enqueuedNanos);
+                sink.onEvent(new DaemonEvent(entry.type, null, entry.deltaText.toString()));
+            } else if (entry.event != null) {
+                sink.onEvent(entry.event);
+            } else if (entry.stderr != null) {
+                sink.onStderr(entry.stderr);
+            } else if (entry.failed) {
+                sink.onFailed(entry.error);
+            } else {
+                sink.onDone(entry.success, entry.error);
+            }
+        } catch (Exception e) {
+            LOG.error("[DaemonEventQueue] Callback failed: " + e.getMessage(), e);
+        }
+    }
+
+    private static final class Entry {
+        final String type;
+        final long enqueuedNanos = System.nanoTime();
+        final boolean lossy;
+        StringBuilder deltaText;
+        DaemonEvent event;
+        String stderr;
+        boolean success;
+        boolean failed;
+        String error;
+
+        private Entry(String type, boolean lossy) {
+            this.type = type;
+            this.lossy = lossy;
+        }
+
+        static Entry delta(String type, String text) {
+            Entry entry = new Entry(type, false);
+            entry.deltaText = new StringBuilder(text);
+            return entry;
+        }
+
+        static Entry event(DaemonEvent event, boolean lossy) {
+            Entry entry = new Entry(event.getType(), lossy);
+            entry.event = event;
+            return entry;
+        }
+
+        static Entry stderr(String text, boolean lossy) {
+            Entry entry = new Entry(DaemonFrame.EV_STDERR, lossy);
+            entry.stderr = text;
+            return entry;
+        }
+
+        static Entry done(boolean success, String error) {
+            Entry entry = new Entry(DaemonFrame.EV_DONE, false);
+            entry.success = success;
+            entry.error = error;
+            return entry;
+        }
+
+        static Entry failed(String error) {
+            Entry entry = new Entry(DaemonFrame.EV_DONE, false);
+            entry.failed = true;
+            entry.error = error;
+            return entry;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.github.claudecodegui.provider.common;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for {@link DaemonEventQueue}: queue depth, merged and dropped entries, requests failed
+ * because the queue hit its hard limit, and the time a delta spends between the stdout reader and
+ * its callback.
+ *
+ * <p>Delta latency is bucketed by powers of two in microseconds like the webview dispatch metrics.
+ * One application-wide instance aggregates all daemons and is included in the DevTools metrics
+ * dump.</p>
+ */
+public final class DaemonEventQueueMetrics {
+
+    static final int BUCKET_COUNT = 22;
+
+    private static final DaemonEventQueueMetrics GLOBAL = new DaemonEventQueueMetrics();
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder overCapacity = new LongAdder();
+    private final LongAdder overflowed = new LongAdder();
+    private final LongAccumulator maxDepth = new LongAccumulator(Math::max, 0L);
+    private final LongAdder deltaCount = new LongAdder();
+    private final LongAdder deltaTotalNanos = new LongAdder();
+    private final LongAccumulator deltaMaxNanos = new LongAccumulator(Math::max, 0L);
+    private final AtomicLongArray deltaBuckets = new AtomicLongArray(BUCKET_COUNT);
+
+    public static DaemonEventQueueMetrics global() {
+        return GLOBAL;
+    }
+
+    void recordEnqueued(int depth, boolean aboveCapacity) {
+        enqueued.increment();
+        maxDepth.accumulate(depth);
+        if (aboveCapacity) {
+            overCapacity.increment();
+        }
+    }
+
+    void recordCoalesced() {
+        coalesced.increment();
+    }
+
+    void recordDropped() {
+        dropped.increment();
+    }
+
+    void recordDropped(int count) {
+        dropped.add(count);
+    }
+
+    void recordOverflow() {
+        overflowed.increment();
+    }
+
+    void recordDeltaLatency(long elapsedNanos) {
+        deltaCount.increment();
+        deltaTotalNanos.add(elapsedNanos);
+        deltaMaxNanos.accumulate(elapsedNanos);
+        deltaBuckets.incrementAndGet(bucketFor(elapsedNanos));
+    }
+
+    public long getEnqueuedCount() {
+        return enqueued.sum();
+    }
+
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public long getOverflowCount() {
+        return overflowed.sum();
+    }
+
+    public long getMaxDepth() {
+        return maxDepth.get();
+    }
+
+    public boolean isEmpty() {
+        return enqueued.sum() == 0L && coalesced.sum() == 0L;
+    }
+
+    public void reset() {
+        enqueued.reset();
+        coalesced.reset();
+        dropped.reset();
+        overCapacity.reset();
+        overflowed.reset();
+        maxDepth.reset();
+        deltaCount.reset();
+        deltaTotalNanos.reset();
+        deltaMaxNanos.reset();
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            deltaBuckets.set(i, 0L);
+        }
+    }
+
+    /**
+     * Render a plain-text summary.
+     */
+    public String dump() {
+        long deltas = deltaCount.sum();
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%-12s %-12s %-10s %-14s %-12s %-10s%n",
+                "enqueued", "coalesced", "dropped", "over capacity", "overflowed", "max depth"));
+        sb.append(String.format(Locale.ROOT, "%-12d %-12d %-10d %-14d %-12d %-10d%n",
+                enqueued.sum(), coalesced.sum(), dropped.sum(), overCapacity.sum(), overflowed.sum(),
+                maxDepth.get()));
+        sb.append(String.format(Locale.ROOT, "delta latency: count=%d avg=%dus p50=%sus p95=%sus max=%dus%n",
+                deltas,
+                deltas > 0 ? deltaTotalNanos.sum() / deltas / 1_000L : 0L,
+                formatBound(percentileBucket(0.50)),
+                formatBound(percentileBucket(0.95)),
+                deltaMaxNanos.get() / 1_000L));
+        return sb.toString();
+    }
+
+    static int bucketFor(long elapsedNanos) {
+        long micros = Math.max(0L, elapsedNanos / 1_000L);
+        int bucket = 64 - Long.numberOfLeadingZeros(micros);
+        return Math.min(bucket, BUCKET_COUNT - 1);
+    }
+
+    private int percentileBucket(double percentile) {
+        long total = 0L;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += deltaBuckets.get(i);
+        }
+        if (total == 0L) {
+            return -1;
+        }
+        long threshold = (long) Math.ceil(total * percentile);
+        long seen = 0L;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += deltaBuckets.get(i);
+            if (seen >= threshold) {
+                return i;
+            }
+        }
+        return BUCKET_COUNT - 1;
+    }
+
+    private static String formatBound(int bucket) {
+        if (bucket < 0) {
+            return "-";
+        }
+        if (bucket == BUCKET_COUNT - 1) {
+            return ">" + (1L << (bucket - 1));
+        }
+        return "<" + (1L << bucket);
+    }
+}
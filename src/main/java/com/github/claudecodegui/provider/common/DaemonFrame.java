@@ -0,0 +1,142 @@
+package com.github.claudecodegui.provider.common;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+/**
+ * One NDJSON line written by the daemon, decoded in a single streaming pass.
+ *
+ * <p>Command output is by far the most frequent traffic, so its fields are read straight off a
+ * {@link JsonReader} without building a {@code JsonObject}. Frames carrying a {@code type}
+ * (lifecycle events, heartbeats, status replies) are rare; only their type is captured here and
+ * the caller parses the line again if it needs the other fields.</p>
+ *
+ * <p>Both envelope generations are understood: the structured one ({@code ev}) and the older
+ * {@code {"id","line"}} / {@code {"id","stderr"}} / {@code {"id","done"}} one.</p>
+ */
+final class DaemonFrame {
+
+    static final String EV_DONE = "done";
+    static final String EV_STDERR = "stderr";
+
+    String id;
+    String type;
+    String ev;
+    String tag;
+    String text;
+    String line;
+    String stderr;
+    String error;
+    boolean done;
+    boolean success;
+
+    private DaemonFrame() {
+    }
+
+    /**
+     * @param json a line starting with {@code '{'}
+     */
+    static DaemonFrame parse(String json) throws IOException {
+        DaemonFrame frame = new DaemonFrame();
+        JsonReader reader = new JsonReader(new StringReader(json));
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id":
+                    frame.id = nextString(reader);
+                    break;
+                case "type":
+                    frame.type = nextString(reader);
+                    break;
+                case "ev":
+                    frame.ev = nextString(reader);
+                    break;
+                case "tag":
+                    frame.tag = nextString(reader);
+                    break;
+                case "text":
+                    frame.text = nextString(reader);
+                    break;
+                case "line":
+                    frame.line = nextString(reader);
+                    break;
+                case "stderr":
+                    frame.stderr = nextString(reader);
+                    break;
+                case "error":
+                    frame.error = nextString(reader);
+                    break;
+                case "done":
+                    frame.done = nextBoolean(reader);
+                    break;
+                case "success":
+                    frame.success = nextBoolean(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return frame;
+    }
+
+    boolean isDone() {
+        return done || EV_DONE.equals(ev);
+    }
+
+    /**
+     * @return the stderr text of this frame, or {@code null} if it is not a stderr frame
+     */
+    String stderrText() {
+        if (EV_STDERR.equals(ev)) {
+            return text != null ? text : "";
+        }
+        return stderr;
+    }
+
+    /**
+     * @return the output event carried by this frame, or {@code null}
+     */
+    DaemonEvent toEvent() {
+        if (ev == null) {
+            return line != null ? new DaemonEvent(DaemonEvent.LINE, null, line) : null;
+        }
+        switch (ev) {
+            case DaemonEvent.DELTA:
+            case DaemonEvent.THINKING_DELTA:
+            case DaemonEvent.LINE:
+                return new DaemonEvent(ev, null, text);
+            case DaemonEvent.TAG:
+                return tag != null ? new DaemonEvent(ev, tag, text) : new DaemonEvent(DaemonEvent.LINE, null, text);
+            default:
+                return null;
+        }
+    }
+
+    private static String nextString(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        if (token == JsonToken.STRING || token == JsonToken.NUMBER) {
+            return reader.nextString();
+        }
+        if (token == JsonToken.BOOLEAN) {
+            return String.valueOf(reader.nextBoolean());
+        }
+        reader.skipValue();
+        return null;
+    }
+
+    private static boolean nextBoolean(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.BOOLEAN) {
+            return reader.nextBoolean();
+        }
+        reader.skipValue();
+        return false;
+    }
+}
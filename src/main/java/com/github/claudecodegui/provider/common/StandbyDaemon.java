@@ -0,0 +1,124 @@
+package com.github.claudecodegui.provider.common;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.util.concurrency.AppExecutorUtil;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * A warm spare for a primary {@link DaemonBridge}.
+ *
+ * <p>The spare is started in the background and kept only once it has signalled {@code ready},
+ * which the daemon does after preloading its SDK. When the primary dies, {@link #take()} hands the
+ * spare over in one atomic step, so the next message runs on a ready daemon instead of waiting for
+ * a full start or falling back to the per-process mode. The caller then calls
+ * {@link #replenishAsync()} to start a replacement.</p>
+ *
+ * <p>An idle spare that dies is restarted in place by its own {@link DaemonBridge}; a spare that
+ * stays dead is discarded by {@link #take()} and replaced by the next {@link #replenishAsync()}.</p>
+ */
+public final class StandbyDaemon {
+
+    private static final Logger LOG = Logger.getInstance(StandbyDaemon.class);
+
+    private final Supplier<DaemonBridge> factory;
+    private final Executor executor;
+
+    private final AtomicReference<DaemonBridge> spare = new AtomicReference<>();
+    private final AtomicBoolean starting = new AtomicBoolean(false);
+    // Bumped by shutdown() so a spare that finishes starting afterwards is stopped instead of kept
+    private final AtomicInteger generation = new AtomicInteger(0);
+
+    public StandbyDaemon(Supplier<DaemonBridge> factory) {
+        this(factory, AppExecutorUtil.createBoundedApplicationPoolExecutor("CCG Standby Daemon", 1));
+    }
+
+    StandbyDaemon(Supplier<DaemonBridge> factory, Executor executor) {
+        this.factory = factory;
+        this.executor = executor;
+    }
+
+    /**
+     * Start a spare in the background unless a live one exists or one is already starting.
+     */
+    public void replenishAsync() {
+        DaemonBridge current = spare.get();
+        if (current != null) {
+            if (current.isAlive()) {
+                return;
+            }
+            if (spare.compareAndSet(current, null)) {
+                current.stop();
+            }
+        }
+        if (!starting.compareAndSet(false, true)) {
+            return;
+        }
+
+        int startGeneration = generation.get();
+        executor.execute(() -> {
+            DaemonBridge candidate = null;
+            try {
+                candidate = factory.get();
+                if (!candidate.start()) {
+                    LOG.info("[StandbyDaemon] Spare daemon failed to start");
+                    candidate.stop();
+                    return;
+                }
+                if (generation.get() != startGeneration || !spare.compareAndSet(null, candidate)) {
+                    candidate.stop();
+                    return;
+                }
+                LOG.info("[StandbyDaemon] Spare daemon ready, SDK preloaded: " + candidate.isSdkPreloaded());
+            } catch (Exception e) {
+                LOG.debug("[StandbyDaemon] Spare daemon start failed: " + e.getMessage());
+                if (candidate != null) {
+                    candidate.stop();
+                }
+            } finally {
+                starting.set(false);
+            }
+        });
+    }
+
+    /**
+     * Remove and return the spare.
+     *
+     * @return a live, ready daemon, or {@code null} if there is none
+     */
+    public DaemonBridge take() {
+        DaemonBridge candidate = spare.getAndSet(null);
+        if (candidate == null) {
+            return null;
+        }
+        if (!candidate.isAlive()) {
+            candidate.stop();
+            return null;
+        }
+        return candidate;
+    }
+
+    public boolean isSpare(DaemonBridge bridge) {
+        return bridge != null && spare.get() == bridge;
+    }
+
+    public boolean hasSpare() {
+        DaemonBridge current = spare.get();
+        return current != null && current.isAlive();
+    }
+
+    /**
+     * Stop the spare and discard one that is still starting.
+     */
+    public void shutdown() {
+        generation.incrementAndGet();
+        DaemonBridge current = spare.getAndSet(null);
+        if (current != null) {
+            current.stop();
+        }
+    }
+}
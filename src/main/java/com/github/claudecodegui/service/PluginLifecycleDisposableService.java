@@ -0,0 +1,25 @@
+package com.github.claudecodegui.service;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.Service;
+
+/**
+ * Application-scoped disposable holder for listeners that live as long as the plugin, so they are
+ * disconnected when the plugin is unloaded.
+ */
+@Service(Service.Level.APP)
+public final class PluginLifecycleDisposableService implements Disposable {
+
+    /**
+     * Get the application-scoped disposable service instance.
+     */
+    public static PluginLifecycleDisposableService getInstance() {
+        return ApplicationManager.getApplication().getService(PluginLifecycleDisposableService.class);
+    }
+
+    @Override
+    public void dispose() {
+        // No-op. This service provides a plugin-scoped disposable parent.
+    }
+}
@@ -1,5 +1,6 @@
 package com.github.claudecodegui.service;
 
+import com.github.claudecodegui.util.ChunkedTextBuffer;
 import com.intellij.execution.ExecutionManager;
 import com.intellij.execution.RunnerAndConfigurationSettings;
 import com.intellij.execution.process.ProcessEvent;
@@ -46,7 +47,7 @@ public class RunConfigMonitorService implements ProjectActivity {
      * Buffer storage for run configuration output using WeakHashMap.
      * Buffers are automatically cleaned up when the associated descriptor is garbage collected.
      */
-    private static final Map<RunContentDescriptor, StringBuilder> buffers =
+    private static final Map<RunContentDescriptor, ChunkedTextBuffer> buffers =
             Collections.synchronizedMap(new WeakHashMap<>());
 
     /**
@@ -57,6 +58,8 @@ public class RunConfigMonitorService implements ProjectActivity {
             Collections.newSetFromMap(new WeakHashMap<>());
 
     private static final int MAX_BUFFER_SIZE = 100000; // Keep last 100k chars
+    /** Lines of captured output returned as content, like the terminal monitor. */
+    private static final int MAX_CONTENT_LINES = 500;
 
     private final Set<ContentManager> attachedManagers = Collections.synchronizedSet(new HashSet<>());
     private Project currentProject;
@@ -180,7 +183,7 @@ public class RunConfigMonitorService implements ProjectActivity {
         LOG.debug("Monitoring run configuration: " + displayName);
 
         // Initialize buffer for this descriptor
-        buffers.computeIfAbsent(descriptor, k -> new StringBuilder());
+        buffers.computeIfAbsent(descriptor, k -> new ChunkedTextBuffer(MAX_BUFFER_SIZE));
 
         // Attach process listener to capture output
         processHandler.addProcessListener(new ProcessListener() {
@@ -188,13 +191,7 @@ public class RunConfigMonitorService implements ProjectActivity {
             public void onTextAvailable(@NotNull ProcessEvent event, @NotNull Key outputType) {
                 String text = event.getText();
                 if (text != null && !text.isEmpty()) {
-                    StringBuilder sb = buffers.computeIfAbsent(descriptor, k -> new StringBuilder());
-                    synchronized (sb) {
-                        sb.append(text);
-                        if (sb.length() > MAX_BUFFER_SIZE) {
-                            sb.delete(0, sb.length() - MAX_BUFFER_SIZE);
-                        }
-                    }
+                    buffers.computeIfAbsent(descriptor, k -> new ChunkedTextBuffer(MAX_BUFFER_SIZE)).append(text);
                 }
             }
 
@@ -251,16 +248,10 @@ public class RunConfigMonitorService implements ProjectActivity {
     }
 
     /**
-     * Get the captured output content of a run configuration.
+     * Get the last {@value #MAX_CONTENT_LINES} lines of captured output of a run configuration.
      */
     public static String getRunConfigContent(@NotNull RunContentDescriptor descriptor) {
-        StringBuilder sb = buffers.get(descriptor);
-        String captured = "";
-        if (sb != null) {
-            synchronized (sb) {
-                captured = sb.toString();
-            }
-        }
+        String captured = getRunConfigTail(descriptor, MAX_CONTENT_LINES);
         
         LOG.debug("getRunConfigContent for " + descriptor.getDisplayName() + ", captured length: " + captured.length());
 
@@ -272,6 +263,14 @@ public class RunConfigMonitorService implements ProjectActivity {
         return captured;
     }
 
+    /**
+     * Get the last {@code maxLines} lines of captured output without copying the whole buffer.
+     */
+    public static String getRunConfigTail(@NotNull RunContentDescriptor descriptor, int maxLines) {
+        ChunkedTextBuffer buffer = buffers.get(descriptor);
+        return buffer != null ? buffer.tailLines(maxLines) : "";
+    }
+
     /**
      * Get content directly from ConsoleView (fallback method).
      */
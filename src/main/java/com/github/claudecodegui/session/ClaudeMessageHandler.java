@@ -276,6 +276,7 @@ public class ClaudeMessageHandler implements MessageCallback {
                 syncedContentOffset = assistantContent.length();
             }
             currentAssistantMessage.raw = mergedRaw;
+            currentAssistantMessage.touch();
 
             // Streaming: check if the message contains tool calls
             // If tool_use is present, we need to update messages even in streaming mode to render tool blocks
@@ -371,6 +372,7 @@ public class ClaudeMessageHandler implements MessageCallback {
             state.addMessage(currentAssistantMessage);
         } else {
             currentAssistantMessage.content = assistantContent.toString();
+            currentAssistantMessage.touch();
         }
 
         // Streaming: skip full message update in streaming mode
@@ -423,6 +425,7 @@ public class ClaudeMessageHandler implements MessageCallback {
         ensureCurrentAssistantMessageExists();
         currentAssistantMessage.content = assistantContent.toString();
         applyTextDeltaToRaw(content);
+        currentAssistantMessage.touch();
         syncedContentOffset = assistantContent.length();
         textSegmentActive = true;
 
@@ -494,6 +497,7 @@ public class ClaudeMessageHandler implements MessageCallback {
                     continue;
                 }
                 msg.raw.addProperty("uuid", uuid);
+                msg.touch();
                 LOG.info("Updated user message with uuid: " + uuid);
                 callbackHandler.notifyUserMessageUuidPatched(msg.content != null ? msg.content : "", uuid);
                 break;
@@ -584,6 +588,7 @@ public class ClaudeMessageHandler implements MessageCallback {
                     JsonObject usageJson = resultJson.getAsJsonObject("usage");
                     if (msg != null) {
                         msg.add("usage", usageJson);
+                        currentAssistantMessage.touch();
                     }
                     int usedTokens = TokenUsageUtils.extractUsedTokens(usageJson, state.getProvider());
                     int maxTokens = SettingsHandler.getModelContextLimit(state.getModel());
@@ -682,6 +687,9 @@ public class ClaudeMessageHandler implements MessageCallback {
         // Conservative sync may leave raw text/thinking blocks shorter than assistantContent
         // if deltas arrived after the sync but before stream end.
         ensureRawBlocksConsistency();
+        if (currentAssistantMessage != null) {
+            currentAssistantMessage.touch();
+        }
 
         // After streaming ends, send a final message update to ensure the message list is in sync
         callbackHandler.notifyMessageUpdate(state.getMessages());
@@ -708,6 +716,7 @@ public class ClaudeMessageHandler implements MessageCallback {
         ensureCurrentAssistantMessageExists();
         boolean applied = applyThinkingDeltaToRaw(content);
         if (applied) {
+            currentAssistantMessage.touch();
             // Note: uses += (not absolute assignment like syncedContentOffset)
             // because there is no thinkingContent StringBuilder to take length from
             syncedThinkingOffset += content.length();
@@ -916,6 +925,7 @@ public class ClaudeMessageHandler implements MessageCallback {
 
         // Always update usage during streaming to capture accumulating values
         message.add("usage", usageJson);
+        currentAssistantMessage.touch();
         LOG.debug("Updated assistant message usage from [USAGE] tag");
     }
 
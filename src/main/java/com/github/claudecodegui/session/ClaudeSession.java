@@ -13,6 +13,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Session management for Claude conversations.
@@ -62,11 +63,16 @@ public class ClaudeSession {
             USER, ASSISTANT, SYSTEM, ERROR
         }
 
+        private static final AtomicLong VERSION_SEQUENCE = new AtomicLong();
+
         public Type type;
         public String content;
         public long timestamp;
         public JsonObject raw; // Raw message data from SDK
 
+        // Unique across all messages; a new value after each mutation lets serializers cache per version
+        private volatile long version = VERSION_SEQUENCE.incrementAndGet();
+
         public Message(Type type, String content) {
             this.type = type;
             this.content = content;
@@ -77,6 +83,18 @@ public class ClaudeSession {
             this(type, content);
             this.raw = raw;
         }
+
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * Mark this message as changed. Call after mutating any field or the raw JSON in place,
+         * so cached serializations keyed by {@link #getVersion()} are not reused.
+         */
+        public void touch() {
+            version = VERSION_SEQUENCE.incrementAndGet();
+        }
     }
 
     /**
@@ -241,6 +241,7 @@ public class CodexMessageHandler implements MessageCallback {
             Message msg = messages.get(i);
             if (msg.type == Message.Type.ASSISTANT && msg.raw != null) {
                 msg.raw.add("usage", usage);
+                msg.touch();
                 return true;
             }
         }
@@ -439,6 +440,7 @@ public class CodexMessageHandler implements MessageCallback {
             state.addMessage(currentAssistantMessage);
         } else {
             currentAssistantMessage.content = assistantContent.toString();
+            currentAssistantMessage.touch();
         }
 
         callbackHandler.notifyMessageUpdate(state.getMessages());
@@ -0,0 +1,85 @@
+package com.github.claudecodegui.session;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Append-only list with O(1) immutable snapshots.
+ *
+ * <p>Elements live in fixed-size chunks referenced from a spine array. Appending writes the next
+ * free slot and never touches an occupied one, so a snapshot only needs the spine and the size at
+ * the time it was taken: slots beyond its size may be filled later without changing what it sees.
+ * When the spine is full it is copied into a larger one (O(n / {@value #CHUNK_SIZE})), and
+ * {@link #clear()} starts over with fresh arrays, leaving existing snapshots untouched.</p>
+ *
+ * <p>Mutators and {@link #snapshot()} synchronize on the vector, which is cheap since they are
+ * O(1) and rarely contended. Snapshots are immutable and can be shared freely across threads.</p>
+ */
+final class MessageVector<E> {
+
+    static final int CHUNK_SIZE = 32;
+    private static final int CHUNK_SHIFT = 5;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int INITIAL_SPINE_LENGTH = 4;
+
+    private Object[][] spine = new Object[INITIAL_SPINE_LENGTH][];
+    private int size;
+
+    synchronized void add(E element) {
+        int chunkIndex = size >>> CHUNK_SHIFT;
+        if (chunkIndex == spine.length) {
+            spine = Arrays.copyOf(spine, spine.length * 2);
+        }
+        Object[] chunk = spine[chunkIndex];
+        if (chunk == null) {
+            chunk = new Object[CHUNK_SIZE];
+            spine[chunkIndex] = chunk;
+        }
+        chunk[size & CHUNK_MASK] = element;
+        size++;
+    }
+
+    synchronized void clear() {
+        spine = new Object[INITIAL_SPINE_LENGTH][];
+        size = 0;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @return an immutable view of the current elements, sharing storage with this vector
+     */
+    synchronized Snapshot<E> snapshot() {
+        return new Snapshot<>(spine, size);
+    }
+
+    /**
+     * Immutable, random-access view of a {@link MessageVector} at one point in time.
+     */
+    static final class Snapshot<E> extends AbstractList<E> implements RandomAccess {
+        private final Object[][] spine;
+        private final int size;
+
+        private Snapshot(Object[][] spine, int size) {
+            this.spine = spine;
+            this.size = size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return (E) spine[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -79,6 +79,17 @@ public class SessionCallbackAdapter implements ClaudeSession.SessionCallback {
         streamEndFallbackAlarm.cancelAllRequests();
     }
 
+    /**
+     * Suspend or resume webview delivery while the chat is hidden. On resume the held deltas
+     * are delivered before the message snapshot, so the frontend's streaming buffer is complete
+     * when the snapshot arrives.
+     */
+    public void setVisible(boolean visible) {
+        contentDeltaThrottler.setSuspended(!visible);
+        thinkingDeltaThrottler.setSuspended(!visible);
+        streamCoalescer.setVisible(visible);
+    }
+
     private boolean isInactive() {
         return !active;
     }
@@ -245,8 +256,14 @@ public class SessionCallbackAdapter implements ClaudeSession.SessionCallback {
         // (e.g., flushNow throwing due to a disposed throttler, or JCEF
         // rejecting a large payload) does not prevent the critical
         // onStreamEnd signal from reaching the frontend.
-        safeRun("contentDeltaThrottler.flushNow", contentDeltaThrottler::flushNow);
-        safeRun("thinkingDeltaThrottler.flushNow", thinkingDeltaThrottler::flushNow);
+        if (streamCoalescer.isVisible()) {
+            safeRun("contentDeltaThrottler.flushNow", contentDeltaThrottler::flushNow);
+            safeRun("thinkingDeltaThrottler.flushNow", thinkingDeltaThrottler::flushNow);
+        } else {
+            // Hidden: the final snapshot pushed on show already contains this text
+            contentDeltaThrottler.reset();
+            thinkingDeltaThrottler.reset();
+        }
         safeRun("streamCoalescer.onStreamEnd", streamCoalescer::onStreamEnd);
 
         // ── Dual-path onStreamEnd delivery ──
@@ -68,6 +68,7 @@ public class SessionContextService {
             rawUser.add("message", messageObj);
             userMessage.raw = rawUser;
             userMessage.content = userDisplayText;
+            userMessage.touch();
 
             LOG.info("[ClaudeSession] Created user message: content="
                     + (userDisplayText.length() > 50 ? userDisplayText.substring(0, 50) + "..." : userDisplayText)
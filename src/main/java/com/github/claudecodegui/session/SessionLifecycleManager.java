@@ -373,7 +373,7 @@ public class SessionLifecycleManager {
                                 "    console.warn('[Backend->Frontend] window.onUsageUpdate not found');" +
                                 "  }" +
                                 "})();";
-            browser.getCefBrowser().executeJavaScript(js, browser.getCefBrowser().getURL(), 0);
+            host.getHandlerContext().executeJavaScriptOnEDT(js);
         }
     }
 
@@ -206,6 +206,7 @@ public class SessionMessageOrchestrator {
                     localMsg.raw = createDefaultUserRaw(localMsg.content);
                 }
                 localMsg.raw.addProperty("uuid", uuid);
+                localMsg.touch();
             }
             return localMsg;
         }
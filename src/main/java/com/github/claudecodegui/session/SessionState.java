@@ -47,8 +47,9 @@ public class SessionState {
     private boolean loading = false;
     private String error = null;
 
-    // Message history
-    private final List<ClaudeSession.Message> messages = new ArrayList<>();
+    // Message history; append-only with O(1) snapshots shared by the handler thread, the EDT and
+    // the pooled serialization thread
+    private final MessageVector<ClaudeSession.Message> messages = new MessageVector<>();
 
     // Session metadata — cwd is written in handler thread before send(), read inside send();
     // the happens-before from CompletableFuture.runAsync guarantees visibility, so volatile is not required.
@@ -92,12 +93,19 @@ public class SessionState {
         return error;
     }
 
+    /**
+     * Immutable snapshot of the message history. O(1): the snapshot shares storage with the
+     * history and is not affected by later additions.
+     */
     public List<ClaudeSession.Message> getMessages() {
-        return new ArrayList<>(messages);
+        return messages.snapshot();
     }
 
+    /**
+     * Same as {@link #getMessages()}; kept for callers that only scan the current history.
+     */
     public List<ClaudeSession.Message> getMessagesReference() {
-        return messages;
+        return messages.snapshot();
     }
 
     public String getSummary() {
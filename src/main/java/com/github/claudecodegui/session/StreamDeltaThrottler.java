@@ -34,6 +34,7 @@ public final class StreamDeltaThrottler {
 
     private long lastFlushAtMs;
     private boolean scheduled;
+    private boolean suspended;
 
     public StreamDeltaThrottler(long intervalMs, Consumer<String> flushConsumer) {
         this(intervalMs, flushConsumer, new ExecutorScheduler(), System::currentTimeMillis);
@@ -60,7 +61,7 @@ public final class StreamDeltaThrottler {
         final long delayMs;
         synchronized (lock) {
             pending.append(delta);
-            if (scheduled) {
+            if (scheduled || suspended) {
                 return;
             }
             long elapsed = nowSupplier.getAsLong() - lastFlushAtMs;
@@ -76,6 +77,24 @@ public final class StreamDeltaThrottler {
         flushPending();
     }
 
+    /**
+     * While suspended, deltas are accumulated but not delivered, and {@link #flushNow()} keeps
+     * them. Resuming delivers everything accumulated so far as a single batch.
+     */
+    public void setSuspended(boolean suspended) {
+        synchronized (lock) {
+            if (this.suspended == suspended) {
+                return;
+            }
+            this.suspended = suspended;
+            scheduled = false;
+        }
+        scheduler.cancel();
+        if (!suspended) {
+            flushPending();
+        }
+    }
+
     public void reset() {
         scheduler.cancel();
         synchronized (lock) {
@@ -97,6 +116,9 @@ public final class StreamDeltaThrottler {
         final String text;
         synchronized (lock) {
             scheduled = false;
+            if (suspended) {
+                return;
+            }
             if (pending.length() == 0) {
                 lastFlushAtMs = nowSupplier.getAsLong();
                 return;
@@ -16,6 +16,9 @@ import java.util.function.LongConsumer;
  * Coalesces streaming message updates to throttle webview pushes.
  * Batches rapid onMessageUpdate callbacks into periodic UI refreshes
  * to avoid overwhelming the JCEF browser.
+ *
+ * <p>While the chat is hidden (see {@link #setVisible(boolean)}), updates are not pushed at all:
+ * only the latest snapshot is kept and sent once when the chat is shown again.</p>
  */
 public class StreamMessageCoalescer {
 
@@ -45,11 +48,17 @@ public class StreamMessageCoalescer {
     // watchdog may falsely trigger and prematurely end the streaming state.
     // This lightweight signal keeps the frontend watchdog alive.
     private static final int HEARTBEAT_INTERVAL_MS = 10_000;       // 10s
+    // While hidden, no updates reach the frontend, so the heartbeat alone keeps its
+    // stall watchdog (60s) from ending the stream; it only needs to beat often enough.
+    private static final int HIDDEN_HEARTBEAT_INTERVAL_MS = 30_000; // 30s
 
     private final Object lock = new Object();
     private final Alarm updateAlarm = new Alarm(Alarm.ThreadToUse.SWING_THREAD);
     private final Alarm heartbeatAlarm = new Alarm(Alarm.ThreadToUse.SWING_THREAD);
     private volatile boolean streamActive = false;
+    private volatile boolean visible = true;
+    // Guarded by lock: last value reported through onBackgroundActivityChanged
+    private boolean backgroundActivity = false;
     private volatile boolean updateScheduled = false;
     private volatile long lastUpdateAtMs = 0L;
     private volatile long updateSequence = 0L;
@@ -71,6 +80,12 @@ public class StreamMessageCoalescer {
         JBCefBrowser getBrowser();
         boolean isDisposed();
         HandlerContext getHandlerContext();
+
+        /**
+         * Called when the chat starts or stops streaming while hidden.
+         */
+        default void onBackgroundActivityChanged(boolean active) {
+        }
     }
 
     public StreamMessageCoalescer(JsCallbackTarget callbackTarget) {
@@ -86,10 +101,18 @@ public class StreamMessageCoalescer {
         }
         // Defensive copy: the caller's list may be mutated on another thread,
         // so we snapshot it here to guarantee a consistent read in sendToWebView.
-        final List<ClaudeSession.Message> snapshot = List.copyOf(messages);
+        // Session snapshots are already immutable and are shared as is.
+        final List<ClaudeSession.Message> snapshot = messages instanceof MessageVector.Snapshot
+                ? messages
+                : List.copyOf(messages);
         synchronized (lock) {
             pendingMessages = snapshot;
         }
+        if (!visible) {
+            // Kept for the resync on show. The heartbeat keeps its own pace, since
+            // nothing reaches the frontend until then.
+            return;
+        }
         schedulePush();
         // Restart heartbeat timer: real data just arrived, so the next heartbeat
         // should fire HEARTBEAT_INTERVAL_MS from now, not from the last heartbeat.
@@ -98,6 +121,50 @@ public class StreamMessageCoalescer {
         }
     }
 
+    /**
+     * Switch between live delivery and suspended delivery for a hidden chat.
+     * Showing the chat pushes the snapshot held back while it was hidden, if any.
+     */
+    public void setVisible(boolean visible) {
+        if (callbackTarget.isDisposed()) {
+            return;
+        }
+
+        final List<ClaudeSession.Message> snapshot;
+        final long sequence;
+        synchronized (lock) {
+            if (this.visible == visible) {
+                return;
+            }
+            this.visible = visible;
+            if (visible) {
+                snapshot = pendingMessages;
+                pendingMessages = null;
+                sequence = ++updateSequence;
+            } else {
+                updateAlarm.cancelAllRequests();
+                updateScheduled = false;
+                snapshot = null;
+                sequence = 0L;
+            }
+        }
+
+        if (streamActive) {
+            // Restart at the heartbeat pace for the new state
+            startHeartbeat();
+        }
+        updateBackgroundActivity();
+
+        if (snapshot != null) {
+            LOG.debug("[WebviewTransport] Resyncing " + snapshot.size() + " messages after chat was shown");
+            sendToWebView(snapshot, sequence, null);
+        }
+    }
+
+    public boolean isVisible() {
+        return visible;
+    }
+
     /**
      * Notify that a stream has started.
      */
@@ -106,6 +173,7 @@ public class StreamMessageCoalescer {
             streamActive = true;
         }
         startHeartbeat();
+        updateBackgroundActivity();
     }
 
     /**
@@ -117,6 +185,7 @@ public class StreamMessageCoalescer {
             streamActive = false;
             lastPayloadChars = 0;  // Reset so post-stream flush uses normal interval
         }
+        updateBackgroundActivity();
     }
 
     /**
@@ -134,6 +203,7 @@ public class StreamMessageCoalescer {
             lastPayloadChars = 0;
             ++updateSequence;
         }
+        updateBackgroundActivity();
     }
 
     public boolean isStreamActive() {
@@ -153,8 +223,13 @@ public class StreamMessageCoalescer {
         synchronized (lock) {
             updateAlarm.cancelAllRequests();
             updateScheduled = false;
-            snapshot = pendingMessages != null ? pendingMessages : lastSnapshot;
-            pendingMessages = null;
+            if (visible) {
+                snapshot = pendingMessages != null ? pendingMessages : lastSnapshot;
+                pendingMessages = null;
+            } else {
+                // Pending messages stay for the resync on show
+                snapshot = null;
+            }
             sequence = ++updateSequence;
         }
 
@@ -173,6 +248,14 @@ public class StreamMessageCoalescer {
      * Dispose internal resources.
      */
     public void dispose() {
+        boolean reportInactive;
+        synchronized (lock) {
+            reportInactive = backgroundActivity;
+            backgroundActivity = false;
+        }
+        if (reportInactive) {
+            notifyBackgroundActivity(false);
+        }
         try {
             updateAlarm.cancelAllRequests();
             updateAlarm.dispose();
@@ -219,7 +302,7 @@ public class StreamMessageCoalescer {
 
         final int delayMs;
         synchronized (lock) {
-            if (updateScheduled) {
+            if (updateScheduled || !visible) {
                 return;
             }
             int intervalMs = effectiveIntervalMs();
@@ -350,6 +433,26 @@ public class StreamMessageCoalescer {
         });
     }
 
+    private void updateBackgroundActivity() {
+        final boolean active;
+        synchronized (lock) {
+            active = streamActive && !visible && !callbackTarget.isDisposed();
+            if (active == backgroundActivity) {
+                return;
+            }
+            backgroundActivity = active;
+        }
+        notifyBackgroundActivity(active);
+    }
+
+    private void notifyBackgroundActivity(boolean active) {
+        try {
+            callbackTarget.onBackgroundActivityChanged(active);
+        } catch (Exception e) {
+            LOG.warn("Failed to report background activity: " + e.getMessage());
+        }
+    }
+
     // ===== Streaming heartbeat =====
 
     /**
@@ -381,6 +484,6 @@ public class StreamMessageCoalescer {
             }
             // Schedule next heartbeat
             scheduleHeartbeat();
-        }, HEARTBEAT_INTERVAL_MS);
+        }, visible ? HEARTBEAT_INTERVAL_MS : HIDDEN_HEARTBEAT_INTERVAL_MS);
     }
 }
@@ -0,0 +1,358 @@
+package com.github.claudecodegui.settings;
+
+import com.github.claudecodegui.util.PlatformUtils;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.intellij.openapi.diagnostic.Logger;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Partial reader and writer for {@code ~/.claude.json}.
+ *
+ * <p>The Claude CLI keeps per-project state in this file, which can grow to tens of megabytes.
+ * {@link #read} walks it with a streaming {@link JsonReader}, materializing only the MCP-related
+ * top-level members and the requested project's MCP members while skipping everything else. The
+ * result is cached per file and project, and reused while the file's modification time and size
+ * are unchanged.</p>
+ *
+ * <p>{@link #splice} copies the file token by token into a temporary file, replacing only the
+ * given members, and then atomically replaces the original. If the file is a symlink (e.g. into a
+ * dotfiles repository), the link target is replaced and the link is kept.</p>
+ */
+final class ClaudeJsonFile {
+
+    private static final Logger LOG = Logger.getInstance(ClaudeJsonFile.class);
+
+    static final String FILE_NAME = ".claude.json";
+    static final Set<String> TOP_LEVEL_MEMBERS = Set.of("mcpServers", "disabledMcpServers", "oauthAccount");
+    static final Set<String> PROJECT_MEMBERS = Set.of("mcpServers", "disabledMcpServers");
+    static final long RACY_WINDOW_MS = 2000;
+    private static final int MAX_ENTRIES = 64;
+
+    // Nulls are kept and nothing is HTML-escaped, so replaced members read like the rest of the file
+    private static final Gson GSON = new GsonBuilder().serializeNulls().disableHtmlEscaping().create();
+
+    private static volatile ClaudeJsonFile instance;
+
+    private final Map<Key, Entry> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Extracted members. Both objects are shared with the cache and must not be modified.
+     *
+     * @param topLevel the members of {@link #TOP_LEVEL_MEMBERS} present in the file
+     * @param project  the members of {@link #PROJECT_MEMBERS} of the requested project, or null if
+     *                 no project was requested or it has no entry
+     */
+    record Extract(JsonObject topLevel, JsonObject project) {
+    }
+
+    private record Key(Path file, String projectPath) {
+    }
+
+    private record Stamp(long modified, long size) {
+    }
+
+    private record Entry(Stamp stamp, Extract extract) {
+    }
+
+    ClaudeJsonFile() {
+    }
+
+    static ClaudeJsonFile getInstance() {
+        if (instance == null) {
+            synchronized (ClaudeJsonFile.class) {
+                if (instance == null) {
+                    instance = new ClaudeJsonFile();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Path of {@code ~/.claude.json} for the current home directory.
+     */
+    static Path defaultPath() {
+        return Paths.get(PlatformUtils.getHomeDirectory(), FILE_NAME);
+    }
+
+    /**
+     * Reads the MCP-related members, and those of {@code projectPath} if given.
+     *
+     * @return the extracted members, or null if the file does not exist
+     * @throws IOException if the file cannot be read or is not a JSON object
+     */
+    Extract read(Path file, String projectPath) throws IOException {
+        Stamp stamp = stat(file);
+        Key key = new Key(file, projectPath);
+        if (stamp == null) {
+            cache.remove(key);
+            return null;
+        }
+        Entry cached = cache.get(key);
+        if (cached != null && cached.stamp().equals(stamp)) {
+            return cached.extract();
+        }
+
+        Extract extract;
+        try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            extract = extract(new JsonReader(in), projectPath);
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new IOException("Malformed " + file + ": " + e.getMessage(), e);
+        }
+        // A second write within the timestamp granularity could otherwise go unnoticed
+        if (System.currentTimeMillis() - stamp.modified() >= RACY_WINDOW_MS) {
+            if (cache.size() >= MAX_ENTRIES && !cache.containsKey(key)) {
+                cache.clear();
+            }
+            cache.put(key, new Entry(stamp, extract));
+        }
+        return extract;
+    }
+
+    /**
+     * Rewrites the file with the given members replaced. Members that do not exist yet are
+     * appended; a missing project entry (or {@code projects} object) is created. Everything else is
+     * copied through unchanged.
+     *
+     * @param topLevel       replacement top-level members
+     * @param projectPath    project whose members to replace, or null
+     * @param projectMembers replacement members of that project; ignored if {@code projectPath} is null
+     */
+    void splice(Path file, Map<String, JsonElement> topLevel, String projectPath,
+                Map<String, JsonElement> projectMembers) throws IOException {
+        // Moving onto a symlink would replace the link itself with a regular file
+        Path target = file.toRealPath();
+        Path temp = Files.createTempFile(target.getParent(), FILE_NAME + "-", ".tmp");
+        try {
+            try (Reader in = Files.newBufferedReader(target, StandardCharsets.UTF_8);
+                 Writer out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                JsonReader reader = new JsonReader(in);
+                JsonWriter writer = newWriter(out);
+                spliceObject(reader, writer, topLevel, projectPath,
+                        projectPath != null ? projectMembers : null);
+                writer.flush();
+            } catch (IllegalStateException | NumberFormatException e) {
+                throw new IOException("Malformed " + file + ": " + e.getMessage(), e);
+            }
+            copyPermissions(target, temp);
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+            invalidate(file);
+        }
+    }
+
+    void invalidate(Path file) {
+        cache.keySet().removeIf(key -> key.file().equals(file));
+    }
+
+    private static Extract extract(JsonReader reader, String projectPath) throws IOException {
+        JsonObject topLevel = new JsonObject();
+        JsonObject project = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (TOP_LEVEL_MEMBERS.contains(name)) {
+                topLevel.add(name, JsonParser.parseReader(reader));
+            } else if ("projects".equals(name) && projectPath != null && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String path = reader.nextName();
+                    if (path.equals(projectPath) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                        project = extractMembers(reader, PROJECT_MEMBERS);
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return new Extract(topLevel, project);
+    }
+
+    private static JsonObject extractMembers(JsonReader reader, Set<String> members) throws IOException {
+        JsonObject result = new JsonObject();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (members.contains(name)) {
+                result.add(name, JsonParser.parseReader(reader));
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return result;
+    }
+
+    private static JsonWriter newWriter(Writer out) {
+        JsonWriter writer = new JsonWriter(out);
+        // Same layout as the Claude CLI's JSON.stringify(value, null, 2)
+        writer.setIndent("  ");
+        writer.setSerializeNulls(true);
+        writer.setHtmlSafe(false);
+        return writer;
+    }
+
+    /**
+     * Copies the top-level object, replacing members and descending into {@code projects} if needed.
+     */
+    private static void spliceObject(JsonReader reader, JsonWriter writer, Map<String, JsonElement> replacements,
+                                     String projectPath, Map<String, JsonElement> projectMembers) throws IOException {
+        Map<String, JsonElement> remaining = new LinkedHashMap<>(replacements);
+        boolean projectWritten = projectMembers == null || projectMembers.isEmpty();
+
+        reader.beginObject();
+        writer.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            writer.name(name);
+            if (remaining.containsKey(name)) {
+                reader.skipValue();
+                writeElement(writer, remaining.remove(name));
+            } else if ("projects".equals(name) && !projectWritten && reader.peek() != JsonToken.BEGIN_OBJECT) {
+                // Not an object: replace it, as a tree-based rewrite would
+                reader.skipValue();
+                JsonObject projects = new JsonObject();
+                projects.add(projectPath, toObject(projectMembers));
+                writeElement(writer, projects);
+                projectWritten = true;
+            } else if ("projects".equals(name) && !projectWritten) {
+                reader.beginObject();
+                writer.beginObject();
+                while (reader.hasNext()) {
+                    String path = reader.nextName();
+                    writer.name(path);
+                    if (path.equals(projectPath) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                        spliceObject(reader, writer, projectMembers, null, null);
+                        projectWritten = true;
+                    } else {
+                        copyValue(reader, writer);
+                    }
+                }
+                if (!projectWritten) {
+                    writer.name(projectPath);
+                    writeElement(writer, toObject(projectMembers));
+                    projectWritten = true;
+                }
+                reader.endObject();
+                writer.endObject();
+            } else {
+                copyValue(reader, writer);
+            }
+        }
+        for (Map.Entry<String, JsonElement> entry : remaining.entrySet()) {
+            writer.name(entry.getKey());
+            writeElement(writer, entry.getValue());
+        }
+        if (!projectWritten) {
+            JsonObject projects = new JsonObject();
+            projects.add(projectPath, toObject(projectMembers));
+            writer.name("projects");
+            writeElement(writer, projects);
+        }
+        reader.endObject();
+        writer.endObject();
+    }
+
+    /**
+     * Copies one value without building a tree. Number lexemes are kept as written.
+     */
+    private static void copyValue(JsonReader reader, JsonWriter writer) throws IOException {
+        int depth = 0;
+        do {
+            switch (reader.peek()) {
+                case BEGIN_ARRAY -> {
+                    reader.beginArray();
+                    writer.beginArray();
+                    depth++;
+                }
+                case END_ARRAY -> {
+                    reader.endArray();
+                    writer.endArray();
+                    depth--;
+                }
+                case BEGIN_OBJECT -> {
+                    reader.beginObject();
+                    writer.beginObject();
+                    depth++;
+                }
+                case END_OBJECT -> {
+                    reader.endObject();
+                    writer.endObject();
+                    depth--;
+                }
+                case NAME -> writer.name(reader.nextName());
+                case STRING -> writer.value(reader.nextString());
+                case NUMBER -> writer.jsonValue(reader.nextString());
+                case BOOLEAN -> writer.value(reader.nextBoolean());
+                case NULL -> {
+                    reader.nextNull();
+                    writer.nullValue();
+                }
+                case END_DOCUMENT -> throw new IOException("Unexpected end of document");
+            }
+        } while (depth > 0);
+    }
+
+    private static void writeElement(JsonWriter writer, JsonElement element) {
+        GSON.toJson(element != null ? element : JsonNull.INSTANCE, writer);
+    }
+
+    private static JsonObject toObject(Map<String, JsonElement> members) {
+        JsonObject object = new JsonObject();
+        members.forEach(object::add);
+        return object;
+    }
+
+    private static void copyPermissions(Path source, Path target) {
+        try {
+            PosixFileAttributeView view = Files.getFileAttributeView(source, PosixFileAttributeView.class);
+            if (view != null) {
+                Files.setPosixFilePermissions(target, view.readAttributes().permissions());
+            }
+        } catch (IOException | UnsupportedOperationException e) {
+            LOG.debug("[ClaudeJsonFile] Failed to copy permissions: " + e.getMessage());
+        }
+    }
+
+    private static Stamp stat(Path file) throws IOException {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return attributes.isRegularFile() ? new Stamp(attributes.lastModifiedTime().toMillis(), attributes.size()) : null;
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+}
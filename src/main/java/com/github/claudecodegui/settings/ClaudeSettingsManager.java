@@ -1,6 +1,5 @@
 package com.github.claudecodegui.settings;
 
-import com.github.claudecodegui.util.PlatformUtils;
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
@@ -15,7 +14,6 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.Set;
 
 /**
@@ -141,20 +139,18 @@ public class ClaudeSettingsManager {
      */
     public void syncMcpToClaudeSettings() throws IOException {
         try {
-            String homeDir = PlatformUtils.getHomeDirectory();
-
-            // Read ~/.claude.json
-            Path claudeJsonPath = Paths.get(homeDir, ".claude.json");
+            // Read the MCP members of ~/.claude.json
+            Path claudeJsonPath = ClaudeJsonFile.defaultPath();
             File claudeJsonFile = claudeJsonPath.toFile();
 
-            if (!claudeJsonFile.exists()) {
-                LOG.info("[ClaudeSettingsManager] ~/.claude.json not found, skipping MCP sync");
-                return;
-            }
-
             JsonObject claudeJson;
-            try (FileReader reader = new FileReader(claudeJsonFile, StandardCharsets.UTF_8)) {
-                claudeJson = JsonParser.parseReader(reader).getAsJsonObject();
+            try {
+                ClaudeJsonFile.Extract extract = ClaudeJsonFile.getInstance().read(claudeJsonPath, null);
+                if (extract == null) {
+                    LOG.info("[ClaudeSettingsManager] ~/.claude.json not found, skipping MCP sync");
+                    return;
+                }
+                claudeJson = extract.topLevel();
             } catch (Exception e) {
                 LOG.error("[ClaudeSettingsManager] Failed to parse ~/.claude.json: " + e.getMessage(), e);
                 LOG.error("[ClaudeSettingsManager] This may indicate a corrupted JSON file. Please check ~/.claude.json");
@@ -172,13 +168,13 @@ public class ClaudeSettingsManager {
 
             // Sync mcpServers
             if (claudeJson.has("mcpServers")) {
-                settings.add("mcpServers", claudeJson.get("mcpServers"));
+                settings.add("mcpServers", claudeJson.get("mcpServers").deepCopy());
                 LOG.info("[ClaudeSettingsManager] Synced mcpServers to settings.json");
             }
 
             // Sync disabledMcpServers
             if (claudeJson.has("disabledMcpServers")) {
-                settings.add("disabledMcpServers", claudeJson.get("disabledMcpServers"));
+                settings.add("disabledMcpServers", claudeJson.get("disabledMcpServers").deepCopy());
                 JsonArray disabledServers = claudeJson.getAsJsonArray("disabledMcpServers");
                 LOG.info("[ClaudeSettingsManager] Synced " + disabledServers.size()
                                  + " disabled MCP servers to settings.json");
@@ -225,28 +221,23 @@ public class ClaudeSettingsManager {
      */
     public JsonObject readCliLoginAccountInfo() {
         try {
-            String homeDir = PlatformUtils.getHomeDirectory();
-            Path claudeJsonPath = Paths.get(homeDir, ".claude.json");
-            File claudeJsonFile = claudeJsonPath.toFile();
-
-            if (!claudeJsonFile.exists()) {
+            ClaudeJsonFile.Extract extract = ClaudeJsonFile.getInstance().read(ClaudeJsonFile.defaultPath(), null);
+            if (extract == null) {
                 return null;
             }
 
-            try (FileReader reader = new FileReader(claudeJsonFile, StandardCharsets.UTF_8)) {
-                JsonObject claudeJson = JsonParser.parseReader(reader).getAsJsonObject();
-                if (claudeJson.has("oauthAccount") && !claudeJson.get("oauthAccount").isJsonNull()) {
-                    JsonObject oauthAccount = claudeJson.getAsJsonObject("oauthAccount");
-                    // Only extract safe display fields - never pass the full object
-                    JsonObject safeInfo = new JsonObject();
-                    if (oauthAccount.has("emailAddress")) {
-                        safeInfo.addProperty("emailAddress", oauthAccount.get("emailAddress").getAsString());
-                    }
-                    if (oauthAccount.has("name")) {
-                        safeInfo.addProperty("name", oauthAccount.get("name").getAsString());
-                    }
-                    return safeInfo;
+            JsonObject claudeJson = extract.topLevel();
+            if (claudeJson.has("oauthAccount") && !claudeJson.get("oauthAccount").isJsonNull()) {
+                JsonObject oauthAccount = claudeJson.getAsJsonObject("oauthAccount");
+                // Only extract safe display fields - never pass the full object
+                JsonObject safeInfo = new JsonObject();
+                if (oauthAccount.has("emailAddress")) {
+                    safeInfo.addProperty("emailAddress", oauthAccount.get("emailAddress").getAsString());
+                }
+                if (oauthAccount.has("name")) {
+                    safeInfo.addProperty("name", oauthAccount.get("name").getAsString());
                 }
+                return safeInfo;
             }
         } catch (Exception e) {
             LOG.debug("[ClaudeSettingsManager] Failed to read CLI login account info: " + e.getMessage());
@@ -8,19 +8,11 @@ import com.github.claudecodegui.model.PromptScope;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
 
-import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -189,54 +181,46 @@ public class CodemossSettingsService {
 
     /**
      * Read the config file.
+     * Returns a copy of the in-memory snapshot that the caller may modify and pass to {@link #writeConfig}.
      */
     public JsonObject readConfig() throws IOException {
-        String configPath = getConfigPath();
-        File configFile = new File(configPath);
-
-        if (!configFile.exists()) {
-            LOG.info("[CodemossSettings] Config file not found, creating default: " + configPath);
-            return createDefaultConfig();
-        }
-
-        try (FileReader reader = new FileReader(configFile, StandardCharsets.UTF_8)) {
-            JsonObject config = JsonParser.parseReader(reader).getAsJsonObject();
-            LOG.info("[CodemossSettings] Successfully read config from: " + configPath);
-            return config;
-        } catch (Exception e) {
-            LOG.warn("[CodemossSettings] Failed to read config: " + e.getMessage());
-            return createDefaultConfig();
-        }
+        return currentConfig().deepCopy();
     }
 
     /**
      * Write the config file.
+     * The change is visible to readers immediately; the file is written shortly after, together
+     * with other changes made in the meantime.
      */
     public void writeConfig(JsonObject config) throws IOException {
         pathManager.ensureConfigDirectory();
+        configStore().write(config);
+    }
 
-        // Back up existing config
-        backupConfig();
+    /**
+     * Write pending config changes to disk now.
+     * Call before starting work in the Node.js bridge, which reads config.json itself.
+     */
+    public static void flushPendingConfigWrites() {
+        ConfigSnapshotStore.flushAll();
+    }
 
-        String configPath = getConfigPath();
-        try (FileWriter writer = new FileWriter(configPath, StandardCharsets.UTF_8)) {
-            gson.toJson(config, writer);
-            LOG.info("[CodemossSettings] Successfully wrote config to: " + configPath);
-        } catch (Exception e) {
-            LOG.warn("[CodemossSettings] Failed to write config: " + e.getMessage());
-            throw e;
+    /**
+     * Shared, read-only view of the current config for getters.
+     */
+    private JsonObject currentConfig() {
+        JsonObject config = configStore().read();
+        if (config == null) {
+            LOG.debug("[CodemossSettings] Config file missing or unreadable, using default: " + getConfigPath());
+            return createDefaultConfig();
         }
+        return config;
     }
 
-    private void backupConfig() {
-        try {
-            Path configPath = pathManager.getConfigFilePath();
-            if (Files.exists(configPath)) {
-                Files.copy(configPath, Paths.get(pathManager.getBackupPath()), StandardCopyOption.REPLACE_EXISTING);
-            }
-        } catch (Exception e) {
-            LOG.warn("[CodemossSettings] Failed to backup config: " + e.getMessage());
-        }
+    private ConfigSnapshotStore configStore() {
+        // Resolved per call: the home directory (and with it the path) can change in tests
+        return ConfigSnapshotStore.forFile(
+                pathManager.getConfigFilePath(), Paths.get(pathManager.getBackupPath()), gson);
     }
 
     /**
@@ -272,7 +256,7 @@ public class CodemossSettingsService {
         if (currentConfig.has("providerId")) {
             String providerId = currentConfig.get("providerId").getAsString();
             try {
-                JsonObject config = readConfig();
+                JsonObject config = currentConfig();
                 if (config.has("claude")) {
                     JsonObject claude = config.getAsJsonObject("claude");
                     if (claude.has("providers")) {
@@ -351,7 +335,7 @@ public class CodemossSettingsService {
      * @return commit prompt
      */
     public String getCommitPrompt() throws IOException {
-        JsonObject config = readConfig();
+        JsonObject config = currentConfig();
 
         // Check for commitPrompt config
         if (config.has("commitPrompt")) {
@@ -385,7 +369,7 @@ public class CodemossSettingsService {
      * @return normalized UI font configuration
      */
     public JsonObject getUiFontConfig() throws IOException {
-        JsonObject config = readConfig();
+        JsonObject config = currentConfig();
         if (!config.has(UI_FONT_CONFIG_KEY) || !config.get(UI_FONT_CONFIG_KEY).isJsonObject()) {
             return createDefaultUiFontConfig();
         }
@@ -415,7 +399,7 @@ public class CodemossSettingsService {
      * @return whether streaming is enabled
      */
     public boolean getStreamingEnabled(String projectPath) throws IOException {
-        JsonObject config = readConfig();
+        JsonObject config = currentConfig();
 
         // Check for streaming config
         if (!config.has("streaming")) {
@@ -509,7 +493,7 @@ public class CodemossSettingsService {
      * @return whether auto-open file is enabled
      */
     public boolean getAutoOpenFileEnabled(String projectPath) throws IOException {
-        JsonObject config = readConfig();
+        JsonObject config = currentConfig();
 
         // Check for autoOpenFile config
         if (!config.has("autoOpenFile")) {
@@ -568,7 +552,7 @@ public class CodemossSettingsService {
      * @return sandbox mode (workspace-write or danger-full-access)
      */
     public String getCodexSandboxMode(String projectPath) throws IOException {
-        JsonObject config = readConfig();
+        JsonObject config = currentConfig();
         String defaultMode = getDefaultCodexSandboxMode();
 
         if (!config.has("codexSandboxMode")) {
@@ -952,7 +936,7 @@ public class CodemossSettingsService {
      * @return whether sound notification is enabled, default is false
      */
     public boolean getSoundNotificationEnabled() throws IOException {
-        JsonObject config = readConfig();
+        JsonObject config = currentConfig();
 
         if (!config.has("soundNotification")) {
             return false;
@@ -993,7 +977,7 @@ public class CodemossSettingsService {
      * @return custom sound path, null means use default sound
      */
     public String getCustomSoundPath() throws IOException {
-        JsonObject config = readConfig();
+        JsonObject config = currentConfig();
 
         if (!config.has("soundNotification")) {
             return null;
@@ -1039,7 +1023,7 @@ public class CodemossSettingsService {
      * @return whether only-when-unfocused is enabled, default is false
      */
     public boolean getSoundOnlyWhenUnfocused() throws IOException {
-        JsonObject config = readConfig();
+        JsonObject config = currentConfig();
 
         if (!config.has("soundNotification")) {
             return false;
@@ -1080,7 +1064,7 @@ public class CodemossSettingsService {
      * @return sound ID (e.g. "default", "chime", "bell", "ding", "success", "custom"), defaults to "default"
      */
     public String getSelectedSound() throws IOException {
-        JsonObject config = readConfig();
+        JsonObject config = currentConfig();
 
         if (!config.has("soundNotification")) {
             return "default";
@@ -1123,7 +1107,7 @@ public class CodemossSettingsService {
      * @return whether commit generation is enabled, default is true
      */
     public boolean getCommitGenerationEnabled() throws IOException {
-        JsonObject config = readConfig();
+        JsonObject config = currentConfig();
 
         if (config.has("commitGenerationEnabled") && !config.get("commitGenerationEnabled").isJsonNull()) {
             return config.get("commitGenerationEnabled").getAsBoolean();
@@ -1150,7 +1134,7 @@ public class CodemossSettingsService {
      * @return whether status bar widget is enabled, default is true
      */
     public boolean getStatusBarWidgetEnabled() throws IOException {
-        JsonObject config = readConfig();
+        JsonObject config = currentConfig();
 
         if (config.has("statusBarWidgetEnabled") && !config.get("statusBarWidgetEnabled").isJsonNull()) {
             return config.get("statusBarWidgetEnabled").getAsBoolean();
@@ -1171,6 +1155,33 @@ public class CodemossSettingsService {
         LOG.info("[CodemossSettings] Set status bar widget enabled: " + enabled);
     }
 
+    /**
+     * Get whether a warm spare daemon is kept running for instant failover.
+     *
+     * @return whether the standby daemon is enabled, default is false
+     */
+    public boolean getStandbyDaemonEnabled() throws IOException {
+        JsonObject config = currentConfig();
+
+        if (config.has("standbyDaemonEnabled") && !config.get("standbyDaemonEnabled").isJsonNull()) {
+            return config.get("standbyDaemonEnabled").getAsBoolean();
+        }
+
+        return false;
+    }
+
+    /**
+     * Set whether a warm spare daemon is kept running for instant failover.
+     *
+     * @param enabled whether to enable
+     */
+    public void setStandbyDaemonEnabled(boolean enabled) throws IOException {
+        JsonObject config = readConfig();
+        config.addProperty("standbyDaemonEnabled", enabled);
+        writeConfig(config);
+        LOG.info("[CodemossSettings] Set standby daemon enabled: " + enabled);
+    }
+
     // ==================== Codex Provider Management ====================
 
     public List<JsonObject> getCodexProviders() throws IOException {
@@ -1245,7 +1256,7 @@ public class CodemossSettingsService {
     }
 
     public boolean isCodexLocalConfigAuthorized() throws IOException {
-        JsonObject config = readConfig();
+        JsonObject config = currentConfig();
         if (!config.has("codex") || !config.get("codex").isJsonObject()) {
             return false;
         }
@@ -1272,7 +1283,7 @@ public class CodemossSettingsService {
     }
 
     public String getCodexRuntimeAccessMode() throws IOException {
-        JsonObject config = readConfig();
+        JsonObject config = currentConfig();
         if (!config.has("codex") || !config.get("codex").isJsonObject()) {
             return CODEX_RUNTIME_ACCESS_INACTIVE;
         }
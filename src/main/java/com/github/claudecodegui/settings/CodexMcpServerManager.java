@@ -200,20 +200,29 @@ public class CodexMcpServerManager {
 
         String serverId = server.get("id").getAsString();
 
-        // Read current config
-        Map<String, Object> config = settingsManager.readConfigToml();
-        if (config == null) {
-            config = new LinkedHashMap<>();
+        // Build server config map from JsonObject
+        Map<String, Object> serverConfig = buildServerConfigMap(server);
+
+        // Rewrite only the [mcp_servers.<id>] table, keeping the rest of the file as is
+        CodexTomlDocument document = settingsManager.readConfigDocument();
+        if (document == null) {
+            document = CodexTomlDocument.parse("");
         }
+        CodexTomlDocument updated = document.withTable("mcp_servers." + serverId, serverConfig);
+        if (updated != null) {
+            settingsManager.writeConfigDocument(updated);
+            LOG.info("[CodexMcpServerManager] Upserted MCP server: " + serverId);
+            return;
+        }
+
+        // Not editable in place (e.g. inline table): regenerate the whole file
+        Map<String, Object> config = document.toMap();
 
         // Ensure mcp_servers section exists
         @SuppressWarnings("unchecked")
         Map<String, Object> mcpServers = (Map<String, Object>) config.computeIfAbsent("mcp_servers",
                 k -> new LinkedHashMap<String, Object>());
 
-        // Build server config map from JsonObject
-        Map<String, Object> serverConfig = buildServerConfigMap(server);
-
         // Add or update server
         mcpServers.put(serverId, serverConfig);
 
@@ -295,10 +304,11 @@ public class CodexMcpServerManager {
      * Delete an MCP server by ID
      */
     public boolean deleteMcpServer(String serverId) throws IOException {
-        Map<String, Object> config = settingsManager.readConfigToml();
-        if (config == null) {
+        CodexTomlDocument document = settingsManager.readConfigDocument();
+        if (document == null) {
             return false;
         }
+        Map<String, Object> config = document.toMap();
 
         Object mcpServersObj = config.get("mcp_servers");
         if (!(mcpServersObj instanceof Map)) {
@@ -312,10 +322,14 @@ public class CodexMcpServerManager {
             return false;
         }
 
-        mcpServers.remove(serverId);
-
-        // Write back
-        settingsManager.writeConfigToml(config);
+        // Remove only the [mcp_servers.<id>] table if possible
+        CodexTomlDocument updated = document.withoutTable("mcp_servers." + serverId);
+        if (updated != null) {
+            settingsManager.writeConfigDocument(updated);
+        } else {
+            mcpServers.remove(serverId);
+            settingsManager.writeConfigToml(config);
+        }
         LOG.info("[CodexMcpServerManager] Deleted MCP server: " + serverId);
         return true;
     }
@@ -15,11 +15,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
-import java.util.ArrayList;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Pattern;
 
 /**
  * Codex Settings Manager
@@ -28,9 +25,6 @@ import java.util.regex.Pattern;
 public class CodexSettingsManager {
     private static final Logger LOG = Logger.getInstance(CodexSettingsManager.class);
 
-    // Pattern to validate TOML bare keys (letters, digits, hyphens, underscores)
-    private static final Pattern TOML_KEY_PATTERN = Pattern.compile("^[a-zA-Z0-9_-]+$");
-
     private final Gson gson;
     private final Path codexDir;
 
@@ -69,15 +63,23 @@ public class CodexSettingsManager {
      * Returns null if file doesn't exist
      */
     public Map<String, Object> readConfigToml() throws IOException {
-        Path configPath = getConfigTomlPath();
-        if (!Files.exists(configPath)) {
-            LOG.info("[CodexSettingsManager] config.toml not found at: " + configPath);
-            return null;
-        }
+        CodexTomlDocument document = readConfigDocument();
+        return document != null ? document.toMap() : null;
+    }
 
+    /**
+     * Read config.toml as a document that keeps the original layout.
+     * The document is shared and only parsed again after the file changed.
+     * Returns null if file doesn't exist
+     */
+    CodexTomlDocument readConfigDocument() throws IOException {
+        Path configPath = getConfigTomlPath();
         try {
-            String content = Files.readString(configPath, StandardCharsets.UTF_8);
-            return parseToml(content);
+            CodexTomlDocument document = CodexTomlDocument.load(configPath);
+            if (document == null) {
+                LOG.info("[CodexSettingsManager] config.toml not found at: " + configPath);
+            }
+            return document;
         } catch (Exception e) {
             LOG.warn("[CodexSettingsManager] Failed to read config.toml: " + e.getMessage());
             throw new IOException("Failed to read config.toml: " + e.getMessage(), e);
@@ -88,11 +90,14 @@ public class CodexSettingsManager {
      * Write config.toml from a map structure
      */
     public void writeConfigToml(Map<String, Object> config) throws IOException {
-        Path configPath = getConfigTomlPath();
+        writeConfigTomlRaw(CodexTomlDocument.generate(config));
+    }
 
-        String tomlContent = generateToml(config);
-        writeStringAtomically(configPath, tomlContent);
-        LOG.info("[CodexSettingsManager] Wrote config.toml to: " + configPath);
+    /**
+     * Write config.toml from an edited document
+     */
+    void writeConfigDocument(CodexTomlDocument document) throws IOException {
+        writeConfigTomlRaw(document.text());
     }
 
     /**
@@ -101,8 +106,12 @@ public class CodexSettingsManager {
     public void writeConfigTomlRaw(String content) throws IOException {
         Path configPath = getConfigTomlPath();
 
-        writeStringAtomically(configPath, content);
-        LOG.info("[CodexSettingsManager] Wrote raw config.toml to: " + configPath);
+        try {
+            writeStringAtomically(configPath, content);
+        } finally {
+            CodexTomlDocument.invalidate(configPath);
+        }
+        LOG.info("[CodexSettingsManager] Wrote config.toml to: " + configPath);
     }
 
     /**
@@ -325,6 +334,7 @@ public class CodexSettingsManager {
         if (Files.exists(backupPath)) {
             Path configTomlPath = getConfigTomlPath();
             Files.copy(backupPath, configTomlPath, StandardCopyOption.REPLACE_EXISTING);
+            CodexTomlDocument.invalidate(configTomlPath);
             Files.deleteIfExists(backupPath);
             LOG.info("[CodexSettingsManager] Restored config.toml from CLI login backup");
         } else {
@@ -353,534 +363,6 @@ public class CodexSettingsManager {
         return result;
     }
 
-    // ==================== TOML Parsing Utilities ====================
-
-    /**
-     * Simple TOML parser (handles basic key=value and [section] syntax)
-     */
-    private Map<String, Object> parseToml(String content) {
-        Map<String, Object> result = new LinkedHashMap<>();
-        Map<String, Object> currentSection = result;
-
-        String[] lines = content.split("\n");
-        for (String line : lines) {
-            line = line.trim();
-
-            // Skip empty lines and comments
-            if (line.isEmpty() || line.startsWith("#")) {
-                continue;
-            }
-
-            // Array of tables header [[section.subsection]]
-            if (line.startsWith("[[") && line.endsWith("]]")) {
-                String sectionName = line.substring(2, line.length() - 2).trim();
-
-                // Navigate to parent, then append a new map to the List at the leaf key
-                String[] parts = sectionName.split("\\.");
-                Map<String, Object> nav = result;
-                boolean navFailed = false;
-                for (int i = 0; i < parts.length - 1; i++) {
-                    if (!nav.containsKey(parts[i])) {
-                        nav.put(parts[i], new LinkedHashMap<String, Object>());
-                    }
-                    Object next = nav.get(parts[i]);
-                    if (next instanceof Map) {
-                        @SuppressWarnings("unchecked")
-                        Map<String, Object> nextMap = (Map<String, Object>) next;
-                        nav = nextMap;
-                    } else {
-                        // Type conflict: intermediate node is not a Map
-                        LOG.warn("[CodexSettingsManager] Type conflict at key '" + parts[i] + "' in [[" + sectionName + "]], skipping");
-                        navFailed = true;
-                        break;
-                    }
-                }
-
-                if (navFailed) {
-                    // Use a throwaway map so subsequent key=value lines don't corrupt other sections
-                    currentSection = new LinkedHashMap<>();
-                    continue;
-                }
-                currentSection = nav;
-
-                // At the leaf key, create or get a List<Map> and append a new entry
-                String leafKey = parts[parts.length - 1];
-                if (!nav.containsKey(leafKey)) {
-                    nav.put(leafKey, new ArrayList<Map<String, Object>>());
-                }
-                Object leafVal = nav.get(leafKey);
-                if (leafVal instanceof List) {
-                    @SuppressWarnings("unchecked")
-                    List<Map<String, Object>> tableList = (List<Map<String, Object>>) leafVal;
-                    Map<String, Object> newEntry = new LinkedHashMap<>();
-                    tableList.add(newEntry);
-                    currentSection = newEntry;
-                } else {
-                    LOG.warn("[CodexSettingsManager] Type conflict at leaf key '" + leafKey + "' in [[" + sectionName + "]], expected List");
-                    currentSection = new LinkedHashMap<>();
-                }
-                continue;
-            }
-
-            // Section header [section] or [section.subsection]
-            if (line.startsWith("[") && line.endsWith("]")) {
-                String sectionName = line.substring(1, line.length() - 1).trim();
-
-                // Navigate/create nested sections
-                String[] parts = sectionName.split("\\.");
-                Map<String, Object> nav = result;
-                boolean navFailed = false;
-                for (String part : parts) {
-                    if (!nav.containsKey(part)) {
-                        nav.put(part, new LinkedHashMap<String, Object>());
-                    }
-                    Object next = nav.get(part);
-                    if (next instanceof Map) {
-                        @SuppressWarnings("unchecked")
-                        Map<String, Object> nextMap = (Map<String, Object>) next;
-                        nav = nextMap;
-                    } else {
-                        // Type conflict: node is not a Map (could be a List or simple value)
-                        LOG.warn("[CodexSettingsManager] Type conflict at key '" + part + "' in [" + sectionName + "], skipping");
-                        navFailed = true;
-                        break;
-                    }
-                }
-
-                currentSection = navFailed ? new LinkedHashMap<>() : nav;
-                continue;
-            }
-
-            // Key = value
-            int eqIndex = line.indexOf('=');
-            if (eqIndex > 0) {
-                String key = line.substring(0, eqIndex).trim();
-                String valueStr = line.substring(eqIndex + 1).trim();
-                Object value = parseTomlValue(valueStr);
-                currentSection.put(key, value);
-            }
-        }
-
-        return result;
-    }
-
-    /**
-     * Parse a TOML value string
-     */
-    private Object parseTomlValue(String valueStr) {
-        if (valueStr.isEmpty()) {
-            return "";
-        }
-
-        // Boolean
-        if (valueStr.equals("true")) {
-            return true;
-        }
-        if (valueStr.equals("false")) {
-            return false;
-        }
-
-        // Array: [value1, value2, ...]
-        if (valueStr.startsWith("[") && valueStr.endsWith("]")) {
-            return parseTomlArray(valueStr);
-        }
-
-        // Inline table: { key = "value", ... }
-        if (valueStr.startsWith("{") && valueStr.endsWith("}")) {
-            return parseTomlInlineTable(valueStr);
-        }
-
-        // String (quoted)
-        if ((valueStr.startsWith("\"") && valueStr.endsWith("\"")) ||
-                    (valueStr.startsWith("'") && valueStr.endsWith("'"))) {
-            return unescapeTomlString(valueStr.substring(1, valueStr.length() - 1));
-        }
-
-        // Number
-        try {
-            if (valueStr.contains(".")) {
-                return Double.parseDouble(valueStr);
-            } else {
-                return Long.parseLong(valueStr);
-            }
-        } catch (NumberFormatException ignored) {
-        }
-
-        // Default: treat as unquoted string
-        return valueStr;
-    }
-
-    /**
-     * Parse a TOML array: [value1, value2, ...]
-     */
-    private List<Object> parseTomlArray(String arrayStr) {
-        List<Object> result = new ArrayList<>();
-        String content = arrayStr.substring(1, arrayStr.length() - 1).trim();
-
-        if (content.isEmpty()) {
-            return result;
-        }
-
-        // Split by comma, respecting quotes and nested structures
-        List<String> elements = splitTomlElements(content, ',');
-        for (String element : elements) {
-            element = element.trim();
-            if (!element.isEmpty()) {
-                result.add(parseTomlValue(element));
-            }
-        }
-        return result;
-    }
-
-    /**
-     * Parse a TOML inline table: { key = "value", ... }
-     */
-    private Map<String, Object> parseTomlInlineTable(String tableStr) {
-        Map<String, Object> result = new LinkedHashMap<>();
-        String content = tableStr.substring(1, tableStr.length() - 1).trim();
-
-        if (content.isEmpty()) {
-            return result;
-        }
-
-        // Split by comma, respecting quotes and nested structures
-        List<String> pairs = splitTomlElements(content, ',');
-        for (String pair : pairs) {
-            pair = pair.trim();
-            int eqIndex = pair.indexOf('=');
-            if (eqIndex > 0) {
-                String key = pair.substring(0, eqIndex).trim();
-                String valueStr = pair.substring(eqIndex + 1).trim();
-                // Remove quotes from key if present
-                if ((key.startsWith("\"") && key.endsWith("\"")) ||
-                            (key.startsWith("'") && key.endsWith("'"))) {
-                    key = key.substring(1, key.length() - 1);
-                }
-                result.put(key, parseTomlValue(valueStr));
-            }
-        }
-        return result;
-    }
-
-    /**
-     * Split TOML elements by delimiter, respecting quotes and nested structures
-     */
-    private List<String> splitTomlElements(String content, char delimiter) {
-        List<String> result = new ArrayList<>();
-        StringBuilder current = new StringBuilder();
-        int depth = 0;
-        boolean inDoubleQuote = false;
-        boolean inSingleQuote = false;
-        boolean escaped = false;
-
-        for (int i = 0; i < content.length(); i++) {
-            char c = content.charAt(i);
-
-            if (escaped) {
-                current.append(c);
-                escaped = false;
-                continue;
-            }
-
-            if (c == '\\') {
-                current.append(c);
-                escaped = true;
-                continue;
-            }
-
-            if (c == '"' && !inSingleQuote) {
-                inDoubleQuote = !inDoubleQuote;
-                current.append(c);
-                continue;
-            }
-
-            if (c == '\'' && !inDoubleQuote) {
-                inSingleQuote = !inSingleQuote;
-                current.append(c);
-                continue;
-            }
-
-            if (!inDoubleQuote && !inSingleQuote) {
-                if (c == '[' || c == '{') {
-                    depth++;
-                } else if (c == ']' || c == '}') {
-                    depth--;
-                } else if (c == delimiter && depth == 0) {
-                    result.add(current.toString());
-                    current = new StringBuilder();
-                    continue;
-                }
-            }
-
-            current.append(c);
-        }
-
-        if (current.length() > 0) {
-            result.add(current.toString());
-        }
-
-        return result;
-    }
-
-    /**
-     * Unescape TOML string (handle \n, \t, \\, \", etc.)
-     */
-    private String unescapeTomlString(String str) {
-        StringBuilder result = new StringBuilder();
-        boolean escaped = false;
-
-        for (int i = 0; i < str.length(); i++) {
-            char c = str.charAt(i);
-            if (escaped) {
-                switch (c) {
-                    case 'n':
-                        result.append('\n');
-                        break;
-                    case 't':
-                        result.append('\t');
-                        break;
-                    case 'r':
-                        result.append('\r');
-                        break;
-                    case '\\':
-                        result.append('\\');
-                        break;
-                    case '"':
-                        result.append('"');
-                        break;
-                    case '\'':
-                        result.append('\'');
-                        break;
-                    default:
-                        result.append('\\').append(c);
-                        break;
-                }
-                escaped = false;
-            } else if (c == '\\') {
-                escaped = true;
-            } else {
-                result.append(c);
-            }
-        }
-
-        if (escaped) {
-            result.append('\\');
-        }
-
-        return result.toString();
-    }
-
-    /**
-     * Generate TOML string from map
-     */
-    private String generateToml(Map<String, Object> config) {
-        StringBuilder sb = new StringBuilder();
-
-        // First, write top-level key=value pairs (exclude Map sections and array of tables)
-        for (Map.Entry<String, Object> entry : config.entrySet()) {
-            Object val = entry.getValue();
-            if (!(val instanceof Map) && !isArrayOfTables(val)) {
-                if (!isValidTomlKey(entry.getKey())) {
-                    LOG.warn("[CodexSettingsManager] Skipping invalid TOML key: " + entry.getKey());
-                    continue;
-                }
-                sb.append(entry.getKey()).append(" = ").append(toTomlValue(val)).append("\n");
-            }
-        }
-
-        // Then write Map sections
-        for (Map.Entry<String, Object> entry : config.entrySet()) {
-            if (entry.getValue() instanceof Map) {
-                if (!isValidTomlKey(entry.getKey())) {
-                    LOG.warn("[CodexSettingsManager] Skipping invalid TOML section key: " + entry.getKey());
-                    continue;
-                }
-                @SuppressWarnings("unchecked")
-                Map<String, Object> section = (Map<String, Object>) entry.getValue();
-                writeTomlSection(sb, entry.getKey(), section);
-            }
-        }
-
-        // Finally, write top-level array of tables ([[key]])
-        for (Map.Entry<String, Object> entry : config.entrySet()) {
-            if (isArrayOfTables(entry.getValue())) {
-                if (!isValidTomlKey(entry.getKey())) {
-                    LOG.warn("[CodexSettingsManager] Skipping invalid TOML array key: " + entry.getKey());
-                    continue;
-                }
-                @SuppressWarnings("unchecked")
-                List<Map<String, Object>> tableList = (List<Map<String, Object>>) entry.getValue();
-                for (Map<String, Object> tableEntry : tableList) {
-                    sb.append("\n[[").append(entry.getKey()).append("]]\n");
-                    for (Map.Entry<String, Object> kv : tableEntry.entrySet()) {
-                        if (!isValidTomlKey(kv.getKey())) {
-                            LOG.warn("[CodexSettingsManager] Skipping invalid TOML key in array entry: " + kv.getKey());
-                            continue;
-                        }
-                        sb.append(kv.getKey()).append(" = ").append(toTomlValue(kv.getValue())).append("\n");
-                    }
-                }
-            }
-        }
-
-        return sb.toString();
-    }
-
-    /**
-     * Write a TOML section recursively.
-     * Handles nested Map sections and List&lt;Map&gt; array of tables.
-     */
-    private void writeTomlSection(StringBuilder sb, String sectionPath, Map<String, Object> section) {
-        // A "simple value" is anything that is NOT a nested Map, NOT an array of tables (List<Map>),
-        // and NOT an empty list (which would be an empty array of tables with no TOML representation).
-        boolean hasSimpleValues = section.values().stream()
-                                          .anyMatch(v -> !(v instanceof Map) && !isArrayOfTables(v)
-                                                                 && !(v instanceof List && ((List<?>) v).isEmpty()));
-
-        // Write section header and simple values
-        if (hasSimpleValues) {
-            sb.append("[").append(sectionPath).append("]\n");
-            for (Map.Entry<String, Object> entry : section.entrySet()) {
-                Object val = entry.getValue();
-                // Skip Maps, array of tables, and empty lists
-                if (val instanceof Map || isArrayOfTables(val)
-                            || (val instanceof List && ((List<?>) val).isEmpty())) {
-                    continue;
-                }
-                if (!isValidTomlKey(entry.getKey())) {
-                    LOG.warn("[CodexSettingsManager] Skipping invalid TOML key in section: " + entry.getKey());
-                    continue;
-                }
-                sb.append(entry.getKey()).append(" = ").append(toTomlValue(val)).append("\n");
-            }
-        }
-
-        // Write nested sections (Map values)
-        for (Map.Entry<String, Object> entry : section.entrySet()) {
-            if (entry.getValue() instanceof Map) {
-                if (!isValidTomlKey(entry.getKey())) {
-                    LOG.warn("[CodexSettingsManager] Skipping invalid TOML section key: " + entry.getKey());
-                    continue;
-                }
-                @SuppressWarnings("unchecked")
-                Map<String, Object> nestedSection = (Map<String, Object>) entry.getValue();
-                writeTomlSection(sb, sectionPath + "." + entry.getKey(), nestedSection);
-            }
-        }
-
-        // Write array of tables (List<Map> values) as [[section.key]]
-        // Note: empty lists (isArrayOfTables returns false) are intentionally skipped
-        // because empty array of tables have no valid TOML representation.
-        for (Map.Entry<String, Object> entry : section.entrySet()) {
-            Object entryVal = entry.getValue();
-            // Skip empty lists - they cannot be represented as array of tables in TOML
-            if (entryVal instanceof List && ((List<?>) entryVal).isEmpty()) {
-                continue;
-            }
-            if (isArrayOfTables(entryVal)) {
-                if (!isValidTomlKey(entry.getKey())) {
-                    LOG.warn("[CodexSettingsManager] Skipping invalid TOML array key: " + entry.getKey());
-                    continue;
-                }
-                @SuppressWarnings("unchecked")
-                List<Map<String, Object>> tableList = (List<Map<String, Object>>) entry.getValue();
-                String arrayPath = sectionPath + "." + entry.getKey();
-                for (Map<String, Object> tableEntry : tableList) {
-                    sb.append("\n[[").append(arrayPath).append("]]\n");
-                    for (Map.Entry<String, Object> kv : tableEntry.entrySet()) {
-                        if (!isValidTomlKey(kv.getKey())) {
-                            LOG.warn("[CodexSettingsManager] Skipping invalid TOML key in array entry: " + kv.getKey());
-                            continue;
-                        }
-                        sb.append(kv.getKey()).append(" = ").append(toTomlValue(kv.getValue())).append("\n");
-                    }
-                }
-            }
-        }
-    }
-
-    /**
-     * Validates that a key is a valid TOML bare key.
-     */
-    private boolean isValidTomlKey(String key) {
-        return key != null && !key.isEmpty() && TOML_KEY_PATTERN.matcher(key).matches();
-    }
-
-    /**
-     * Checks if a value is an array of tables (List where elements are Maps).
-     */
-    private boolean isArrayOfTables(Object value) {
-        if (!(value instanceof List<?> list)) {
-            return false;
-        }
-        if (list.isEmpty()) {
-            return false;
-        }
-        for (Object item : list) {
-            if (!(item instanceof Map)) {
-                return false;
-            }
-        }
-        return true;
-    }
-
-    /**
-     * Convert Java object to TOML value string
-     */
-    private String toTomlValue(Object value) {
-        if (value == null) {
-            return "\"\"";
-        }
-        if (value instanceof Boolean) {
-            return value.toString();
-        }
-        if (value instanceof Number) {
-            return value.toString();
-        }
-        // List -> TOML array
-        if (value instanceof List) {
-            @SuppressWarnings("unchecked")
-            List<Object> list = (List<Object>) value;
-            StringBuilder sb = new StringBuilder("[");
-            for (int i = 0; i < list.size(); i++) {
-                if (i > 0) sb.append(", ");
-                sb.append(toTomlValue(list.get(i)));
-            }
-            sb.append("]");
-            return sb.toString();
-        }
-        // Map -> TOML inline table
-        if (value instanceof Map) {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> map = (Map<String, Object>) value;
-            StringBuilder sb = new StringBuilder("{ ");
-            boolean first = true;
-            for (Map.Entry<String, Object> entry : map.entrySet()) {
-                if (!first) sb.append(", ");
-                first = false;
-                sb.append("\"").append(escapeTomlString(entry.getKey())).append("\" = ");
-                sb.append(toTomlValue(entry.getValue()));
-            }
-            sb.append(" }");
-            return sb.toString();
-        }
-        // String: quote it
-        String str = value.toString();
-        return "\"" + escapeTomlString(str) + "\"";
-    }
-
-    /**
-     * Escape special characters in TOML string
-     */
-    private String escapeTomlString(String str) {
-        return str.replace("\\", "\\\\")
-                       .replace("\"", "\\\"")
-                       .replace("\n", "\\n")
-                       .replace("\t", "\\t")
-                       .replace("\r", "\\r");
-    }
-
-
     /**
      * Convert Map to JsonObject
      */
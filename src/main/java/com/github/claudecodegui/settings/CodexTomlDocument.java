@@ -0,0 +1,938 @@
+package com.github.claudecodegui.settings;
+
+import com.intellij.openapi.diagnostic.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Parsed {@code ~/.codex/config.toml} that keeps the original text.
+ *
+ * <p>A document is immutable: the source lines, the position of every table header and the
+ * parsed values are computed once. {@link #load} shares documents per file and only parses again
+ * when the file's modification time or size changed.</p>
+ *
+ * <p>{@link #withTable} and {@link #withoutTable} rewrite just the lines of one table (and its
+ * sub-tables), so comments, ordering and formatting elsewhere in the file are kept. When a table
+ * cannot be edited in place, for example because it is defined as an inline table, they return
+ * null and callers fall back to {@link #generate}.</p>
+ */
+final class CodexTomlDocument {
+
+    private static final Logger LOG = Logger.getInstance(CodexTomlDocument.class);
+
+    static final long RACY_WINDOW_MS = 2000;
+    private static final int MAX_ENTRIES = 16;
+
+    // Pattern to validate TOML bare keys (letters, digits, hyphens, underscores)
+    private static final Pattern BARE_KEY_PATTERN = Pattern.compile("^[a-zA-Z0-9_-]+$");
+
+    private static final Map<Path, Entry> CACHE = new ConcurrentHashMap<>();
+
+    private final String text;
+    private final String lineSeparator;
+    // Source lines including their line terminators
+    private final String[] lines;
+    private final List<Header> headers;
+    private final Map<String, Object> values;
+
+    /**
+     * @param path          dotted table name as written in the header
+     * @param arrayOfTables true for {@code [[path]]}
+     * @param line          index of the header line
+     */
+    private record Header(String path, boolean arrayOfTables, int line) {
+    }
+
+    private record Stamp(long modified, long size) {
+    }
+
+    private record Entry(Stamp stamp, CodexTomlDocument document) {
+    }
+
+    private CodexTomlDocument(String text) {
+        this.text = text;
+        this.lines = splitLines(text);
+        int newline = text.indexOf('\n');
+        this.lineSeparator = newline > 0 && text.charAt(newline - 1) == '\r' ? "\r\n" : "\n";
+        List<Header> parsedHeaders = new ArrayList<>();
+        this.values = parseValues(lines, parsedHeaders);
+        this.headers = Collections.unmodifiableList(parsedHeaders);
+    }
+
+    static CodexTomlDocument parse(String text) {
+        return new CodexTomlDocument(text);
+    }
+
+    /**
+     * Returns the document for the given file, reusing the last parse while the file is unchanged.
+     *
+     * @return the document, or null if the file does not exist
+     */
+    static CodexTomlDocument load(Path file) throws IOException {
+        Path key = file.toAbsolutePath().normalize();
+        Stamp stamp = stat(key);
+        if (stamp == null) {
+            CACHE.remove(key);
+            return null;
+        }
+        Entry cached = CACHE.get(key);
+        if (cached != null && cached.stamp().equals(stamp)) {
+            return cached.document();
+        }
+
+        CodexTomlDocument document = parse(Files.readString(key, StandardCharsets.UTF_8));
+        // A second write within the timestamp granularity could otherwise go unnoticed
+        if (System.currentTimeMillis() - stamp.modified() >= RACY_WINDOW_MS) {
+            if (CACHE.size() >= MAX_ENTRIES && !CACHE.containsKey(key)) {
+                CACHE.clear();
+            }
+            CACHE.put(key, new Entry(stamp, document));
+        }
+        return document;
+    }
+
+    /**
+     * Drops the cached document of a file that was just written.
+     */
+    static void invalidate(Path file) {
+        CACHE.remove(file.toAbsolutePath().normalize());
+    }
+
+    /**
+     * The source text, unchanged.
+     */
+    String text() {
+        return text;
+    }
+
+    /**
+     * Returns a mutable deep copy of the parsed values.
+     */
+    Map<String, Object> toMap() {
+        return copyMap(values);
+    }
+
+    /**
+     * Returns the document with the table at {@code path} replaced by {@code table}, or added if it
+     * does not exist yet. Existing sub-tables of {@code path} are replaced as well. A new table is
+     * placed after the last table of its parent, or at the end of the file.
+     *
+     * @param path dotted path of bare keys, e.g. {@code mcp_servers.github}
+     * @return the new document, or null if the table cannot be edited in place
+     */
+    CodexTomlDocument withTable(String path, Map<String, Object> table) {
+        return edit(path, table);
+    }
+
+    /**
+     * Returns the document without the table at {@code path} and its sub-tables.
+     *
+     * @return the new document (this one if the table does not exist), or null if the table cannot
+     * be removed in place
+     */
+    CodexTomlDocument withoutTable(String path) {
+        return edit(path, null);
+    }
+
+    private CodexTomlDocument edit(String path, Map<String, Object> table) {
+        String[] keys = path.split("\\.", -1);
+        for (String key : keys) {
+            if (!isValidTomlKey(key)) {
+                return null;
+            }
+        }
+
+        List<Header> owned = new ArrayList<>();
+        for (Header header : headers) {
+            if (header.path().equals(path) || header.path().startsWith(path + ".")) {
+                owned.add(header);
+            } else if (header.arrayOfTables() && path.startsWith(header.path() + ".")) {
+                // The table belongs to an element of an array of tables
+                return null;
+            }
+        }
+
+        Object current = valueAt(keys);
+        if (owned.isEmpty() && current != null) {
+            // Defined by an inline table or a key in the parent table
+            return null;
+        }
+        if (!owned.isEmpty() && !(current instanceof Map)) {
+            return null;
+        }
+        if (table == null && owned.isEmpty()) {
+            return this;
+        }
+
+        boolean[] removed = new boolean[lines.length];
+        int insertAt = -1;
+        for (Header header : owned) {
+            int end = contentEnd(header);
+            for (int i = header.line(); i < end; i++) {
+                removed[i] = true;
+            }
+            if (insertAt < 0) {
+                insertAt = header.line();
+            }
+        }
+
+        mergeRemovedRuns(removed);
+
+        String replacement = null;
+        if (table != null) {
+            replacement = generateTable(path, table);
+            if (owned.isEmpty()) {
+                insertAt = insertionLine(keys);
+                if (insertAt < 0) {
+                    return null;
+                }
+                replacement = separate(insertAt, replacement);
+            }
+        } else {
+            for (Header header : owned) {
+                // Comment lines directly above a removed header describe that table
+                for (int i = header.line() - 1; i >= 0 && !removed[i] && lines[i].trim().startsWith("#"); i--) {
+                    removed[i] = true;
+                }
+            }
+            dropBlankLinesAroundRemoved(removed);
+        }
+
+        StringBuilder sb = new StringBuilder(text.length() + (replacement != null ? replacement.length() : 0));
+        for (int i = 0; i <= lines.length; i++) {
+            if (i == insertAt && replacement != null) {
+                if (sb.length() > 0 && sb.charAt(sb.length() - 1) != '\n') {
+                    sb.append(lineSeparator);
+                }
+                sb.append(replacement);
+            }
+            if (i < lines.length && !removed[i]) {
+                sb.append(lines[i]);
+            }
+        }
+        return new CodexTomlDocument(sb.toString());
+    }
+
+    /**
+     * Line after the last content line of a table. Blank and comment lines right before the next
+     * header usually describe that header, so they are not part of the table.
+     */
+    private int contentEnd(Header header) {
+        int end = lines.length;
+        for (Header other : headers) {
+            if (other.line() > header.line()) {
+                end = other.line();
+                break;
+            }
+        }
+        while (end > header.line() + 1 && isBlankOrComment(lines[end - 1])) {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * Also removes blank lines that only separate two removed tables, such as a table and its
+     * sub-table, so they are replaced or removed as one block.
+     */
+    private void mergeRemovedRuns(boolean[] removed) {
+        for (int i = 0; i + 1 < lines.length; i++) {
+            if (!removed[i] || removed[i + 1]) {
+                continue;
+            }
+            int next = i + 1;
+            while (next < lines.length && lines[next].isBlank()) {
+                next++;
+            }
+            if (next < lines.length && removed[next]) {
+                for (int j = i + 1; j < next; j++) {
+                    removed[j] = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * After a removal, keeps a single blank line between the surrounding tables instead of two,
+     * and no trailing blank lines at the end of the file.
+     */
+    private void dropBlankLinesAroundRemoved(boolean[] removed) {
+        for (int i = 0; i < lines.length; i++) {
+            if (!removed[i] || i + 1 < lines.length && removed[i + 1]) {
+                continue;
+            }
+            int next = i + 1;
+            while (next < lines.length && lines[next].isBlank()) {
+                next++;
+            }
+            int start = i;
+            while (start > 0 && removed[start - 1]) {
+                start--;
+            }
+            boolean blankBefore = start == 0 || lines[start - 1].isBlank();
+            if (blankBefore || next == lines.length) {
+                for (int j = i + 1; j < next; j++) {
+                    removed[j] = true;
+                }
+            }
+            if (next == lines.length) {
+                for (int j = start - 1; j >= 0 && lines[j].isBlank(); j--) {
+                    removed[j] = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Line before which a new table at {@code keys} is inserted: after the last table that belongs
+     * to its parent, or at the end of the file.
+     *
+     * @return the line index, or -1 if the parent is not defined by table headers
+     */
+    private int insertionLine(String[] keys) {
+        if (keys.length == 1) {
+            return lines.length;
+        }
+        String parent = String.join(".", Arrays.copyOf(keys, keys.length - 1));
+        Header last = null;
+        for (Header header : headers) {
+            if (header.path().equals(parent) || header.path().startsWith(parent + ".")) {
+                last = header;
+            }
+        }
+        if (last == null) {
+            // An inline parent table cannot be extended with a header
+            return valueAt(Arrays.copyOf(keys, keys.length - 1)) == null ? lines.length : -1;
+        }
+        return contentEnd(last);
+    }
+
+    /**
+     * Surrounds an inserted table with blank lines where it would otherwise touch other content.
+     */
+    private String separate(int insertAt, String table) {
+        StringBuilder sb = new StringBuilder();
+        if (insertAt > 0 && !lines[insertAt - 1].isBlank()) {
+            sb.append(lineSeparator);
+        }
+        sb.append(table);
+        if (insertAt < lines.length && !lines[insertAt].isBlank()) {
+            sb.append(lineSeparator);
+        }
+        return sb.toString();
+    }
+
+    private String generateTable(String path, Map<String, Object> table) {
+        StringBuilder sb = new StringBuilder();
+        writeTomlSection(sb, path, table);
+        String generated = sb.toString();
+        // A table with only sub-tables has no header of its own; keep it so the table still exists
+        if (generated.isEmpty() || generated.startsWith("\n")) {
+            generated = "[" + path + "]\n" + generated.stripLeading();
+        }
+        return "\n".equals(lineSeparator) ? generated : generated.replace("\n", lineSeparator);
+    }
+
+    private Object valueAt(String[] keys) {
+        Object current = values;
+        for (String key : keys) {
+            if (!(current instanceof Map<?, ?> map)) {
+                return null;
+            }
+            current = map.get(key);
+        }
+        return current;
+    }
+
+    private static boolean isBlankOrComment(String line) {
+        String trimmed = line.trim();
+        return trimmed.isEmpty() || trimmed.startsWith("#");
+    }
+
+    private static String[] splitLines(String text) {
+        List<String> result = new ArrayList<>();
+        int start = 0;
+        while (start < text.length()) {
+            int newline = text.indexOf('\n', start);
+            int end = newline < 0 ? text.length() : newline + 1;
+            result.add(text.substring(start, end));
+            start = end;
+        }
+        return result.toArray(new String[0]);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> copyMap(Map<String, Object> map) {
+        Map<String, Object> copy = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            copy.put(entry.getKey(), copyValue(entry.getValue()));
+        }
+        return copy;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object copyValue(Object value) {
+        if (value instanceof Map) {
+            return copyMap((Map<String, Object>) value);
+        }
+        if (value instanceof List<?> list) {
+            List<Object> copy = new ArrayList<>(list.size());
+            for (Object item : list) {
+                copy.add(copyValue(item));
+            }
+            return copy;
+        }
+        return value;
+    }
+
+    private static Stamp stat(Path file) throws IOException {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return attributes.isRegularFile() ? new Stamp(attributes.lastModifiedTime().toMillis(), attributes.size()) : null;
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    // ==================== TOML Parsing Utilities ====================
+
+    /**
+     * Simple TOML parser (handles basic key=value and [section] syntax).
+     * Table headers are collected into {@code headers} with their line index.
+     */
+    private static Map<String, Object> parseValues(String[] lines, List<Header> headers) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        Map<String, Object> currentSection = result;
+
+        for (int index = 0; index < lines.length; index++) {
+            String line = lines[index].trim();
+
+            // Skip empty lines and comments
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            // Array of tables header [[section.subsection]]
+            if (line.startsWith("[[") && line.endsWith("]]")) {
+                String sectionName = line.substring(2, line.length() - 2).trim();
+                headers.add(new Header(sectionName, true, index));
+
+                // Navigate to parent, then append a new map to the List at the leaf key
+                String[] parts = sectionName.split("\\.");
+                Map<String, Object> nav = result;
+                boolean navFailed = false;
+                for (int i = 0; i < parts.length - 1; i++) {
+                    if (!nav.containsKey(parts[i])) {
+                        nav.put(parts[i], new LinkedHashMap<String, Object>());
+                    }
+                    Object next = nav.get(parts[i]);
+                    if (next instanceof Map) {
+                        @SuppressWarnings("unchecked")
+                        Map<String, Object> nextMap = (Map<String, Object>) next;
+                        nav = nextMap;
+                    } else {
+                        // Type conflict: intermediate node is not a Map
+                        LOG.warn("[CodexTomlDocument] Type conflict at key '" + parts[i] + "' in [[" + sectionName + "]], skipping");
+                        navFailed = true;
+                        break;
+                    }
+                }
+
+                if (navFailed) {
+                    // Use a throwaway map so subsequent key=value lines don't corrupt other sections
+                    currentSection = new LinkedHashMap<>();
+                    continue;
+                }
+                currentSection = nav;
+
+                // At the leaf key, create or get a List<Map> and append a new entry
+                String leafKey = parts[parts.length - 1];
+                if (!nav.containsKey(leafKey)) {
+                    nav.put(leafKey, new ArrayList<Map<String, Object>>());
+                }
+                Object leafVal = nav.get(leafKey);
+                if (leafVal instanceof List) {
+                    @SuppressWarnings("unchecked")
+                    List<Map<String, Object>> tableList = (List<Map<String, Object>>) leafVal;
+                    Map<String, Object> newEntry = new LinkedHashMap<>();
+                    tableList.add(newEntry);
+                    currentSection = newEntry;
+                } else {
+                    LOG.warn("[CodexTomlDocument] Type conflict at leaf key '" + leafKey + "' in [[" + sectionName + "]], expected List");
+                    currentSection = new LinkedHashMap<>();
+                }
+                continue;
+            }
+
+            // Section header [section] or [section.subsection]
+            if (line.startsWith("[") && line.endsWith("]")) {
+                String sectionName = line.substring(1, line.length() - 1).trim();
+                headers.add(new Header(sectionName, false, index));
+
+                // Navigate/create nested sections
+                String[] parts = sectionName.split("\\.");
+                Map<String, Object> nav = result;
+                boolean navFailed = false;
+                for (String part : parts) {
+                    if (!nav.containsKey(part)) {
+                        nav.put(part, new LinkedHashMap<String, Object>());
+                    }
+                    Object next = nav.get(part);
+                    if (next instanceof Map) {
+                        @SuppressWarnings("unchecked")
+                        Map<String, Object> nextMap = (Map<String, Object>) next;
+                        nav = nextMap;
+                    } else {
+                        // Type conflict: node is not a Map (could be a List or simple value)
+                        LOG.warn("[CodexTomlDocument] Type conflict at key '" + part + "' in [" + sectionName + "], skipping");
+                        navFailed = true;
+                        break;
+                    }
+                }
+
+                currentSection = navFailed ? new LinkedHashMap<>() : nav;
+                continue;
+            }
+
+            // Key = value
+            int eqIndex = line.indexOf('=');
+            if (eqIndex > 0) {
+                String key = line.substring(0, eqIndex).trim();
+                String valueStr = line.substring(eqIndex + 1).trim();
+                Object value = parseTomlValue(valueStr);
+                currentSection.put(key, value);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Parse a TOML value string
+     */
+    private static Object parseTomlValue(String valueStr) {
+        if (valueStr.isEmpty()) {
+            return "";
+        }
+
+        // Boolean
+        if (valueStr.equals("true")) {
+            return true;
+        }
+        if (valueStr.equals("false")) {
+            return false;
+        }
+
+        // Array: [value1, value2, ...]
+        if (valueStr.startsWith("[") && valueStr.endsWith("]")) {
+            return parseTomlArray(valueStr);
+        }
+
+        // Inline table: { key = "value", ... }
+        if (valueStr.startsWith("{") && valueStr.endsWith("}")) {
+            return parseTomlInlineTable(valueStr);
+        }
+
+        // String (quoted)
+        if ((valueStr.startsWith("\"") && valueStr.endsWith("\"")) ||
+                    (valueStr.startsWith("'") && valueStr.endsWith("'"))) {
+            return unescapeTomlString(valueStr.substring(1, valueStr.length() - 1));
+        }
+
+        // Number
+        try {
+            if (valueStr.contains(".")) {
+                return Double.parseDouble(valueStr);
+            } else {
+                return Long.parseLong(valueStr);
+            }
+        } catch (NumberFormatException ignored) {
+        }
+
+        // Default: treat as unquoted string
+        return valueStr;
+    }
+
+    /**
+     * Parse a TOML array: [value1, value2, ...]
+     */
+    private static List<Object> parseTomlArray(String arrayStr) {
+        List<Object> result = new ArrayList<>();
+        String content = arrayStr.substring(1, arrayStr.length() - 1).trim();
+
+        if (content.isEmpty()) {
+            return result;
+        }
+
+        // Split by comma, respecting quotes and nested structures
+        List<String> elements = splitTomlElements(content, ',');
+        for (String element : elements) {
+            element = element.trim();
+            if (!element.isEmpty()) {
+                result.add(parseTomlValue(element));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Parse a TOML inline table: { key = "value", ... }
+     */
+    private static Map<String, Object> parseTomlInlineTable(String tableStr) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        String content = tableStr.substring(1, tableStr.length() - 1).trim();
+
+        if (content.isEmpty()) {
+            return result;
+        }
+
+        // Split by comma, respecting quotes and nested structures
+        List<String> pairs = splitTomlElements(content, ',');
+        for (String pair : pairs) {
+            pair = pair.trim();
+            int eqIndex = pair.indexOf('=');
+            if (eqIndex > 0) {
+                String key = pair.substring(0, eqIndex).trim();
+                String valueStr = pair.substring(eqIndex + 1).trim();
+                // Remove quotes from key if present
+                if ((key.startsWith("\"") && key.endsWith("\"")) ||
+                            (key.startsWith("'") && key.endsWith("'"))) {
+                    key = key.substring(1, key.length() - 1);
+                }
+                result.put(key, parseTomlValue(valueStr));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Split TOML elements by delimiter, respecting quotes and nested structures
+     */
+    private static List<String> splitTomlElements(String content, char delimiter) {
+        List<String> result = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        int depth = 0;
+        boolean inDoubleQuote = false;
+        boolean inSingleQuote = false;
+        boolean escaped = false;
+
+        for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+
+            if (escaped) {
+                current.append(c);
+                escaped = false;
+                continue;
+            }
+
+            if (c == '\\') {
+                current.append(c);
+                escaped = true;
+                continue;
+            }
+
+            if (c == '"' && !inSingleQuote) {
+                inDoubleQuote = !inDoubleQuote;
+                current.append(c);
+                continue;
+            }
+
+            if (c == '\'' && !inDoubleQuote) {
+                inSingleQuote = !inSingleQuote;
+                current.append(c);
+                continue;
+            }
+
+            if (!inDoubleQuote && !inSingleQuote) {
+                if (c == '[' || c == '{') {
+                    depth++;
+                } else if (c == ']' || c == '}') {
+                    depth--;
+                } else if (c == delimiter && depth == 0) {
+                    result.add(current.toString());
+                    current = new StringBuilder();
+                    continue;
+                }
+            }
+
+            current.append(c);
+        }
+
+        if (current.length() > 0) {
+            result.add(current.toString());
+        }
+
+        return result;
+    }
+
+    /**
+     * Unescape TOML string (handle \n, \t, \\, \", etc.)
+     */
+    private static String unescapeTomlString(String str) {
+        StringBuilder result = new StringBuilder();
+        boolean escaped = false;
+
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            if (escaped) {
+                switch (c) {
+                    case 'n':
+                        result.append('\n');
+                        break;
+                    case 't':
+                        result.append('\t');
+                        break;
+                    case 'r':
+                        result.append('\r');
+                        break;
+                    case '\\':
+                        result.append('\\');
+                        break;
+                    case '"':
+                        result.append('"');
+                        break;
+                    case '\'':
+                        result.append('\'');
+                        break;
+                    default:
+                        result.append('\\').append(c);
+                        break;
+                }
+                escaped = false;
+            } else if (c == '\\') {
+                escaped = true;
+            } else {
+                result.append(c);
+            }
+        }
+
+        if (escaped) {
+            result.append('\\');
+        }
+
+        return result.toString();
+    }
+
+    /**
+     * Generate TOML string from map
+     */
+    static String generate(Map<String, Object> config) {
+        StringBuilder sb = new StringBuilder();
+
+        // First, write top-level key=value pairs (exclude Map sections and array of tables)
+        for (Map.Entry<String, Object> entry : config.entrySet()) {
+            Object val = entry.getValue();
+            if (!(val instanceof Map) && !isArrayOfTables(val)) {
+                if (!isValidTomlKey(entry.getKey())) {
+                    LOG.warn("[CodexTomlDocument] Skipping invalid TOML key: " + entry.getKey());
+                    continue;
+                }
+                sb.append(entry.getKey()).append(" = ").append(toTomlValue(val)).append("\n");
+            }
+        }
+
+        // Then write Map sections
+        for (Map.Entry<String, Object> entry : config.entrySet()) {
+            if (entry.getValue() instanceof Map) {
+                if (!isValidTomlKey(entry.getKey())) {
+                    LOG.warn("[CodexTomlDocument] Skipping invalid TOML section key: " + entry.getKey());
+                    continue;
+                }
+                @SuppressWarnings("unchecked")
+                Map<String, Object> section = (Map<String, Object>) entry.getValue();
+                writeTomlSection(sb, entry.getKey(), section);
+            }
+        }
+
+        // Finally, write top-level array of tables ([[key]])
+        for (Map.Entry<String, Object> entry : config.entrySet()) {
+            if (isArrayOfTables(entry.getValue())) {
+                if (!isValidTomlKey(entry.getKey())) {
+                    LOG.warn("[CodexTomlDocument] Skipping invalid TOML array key: " + entry.getKey());
+                    continue;
+                }
+                @SuppressWarnings("unchecked")
+                List<Map<String, Object>> tableList = (List<Map<String, Object>>) entry.getValue();
+                for (Map<String, Object> tableEntry : tableList) {
+                    sb.append("\n[[").append(entry.getKey()).append("]]\n");
+                    for (Map.Entry<String, Object> kv : tableEntry.entrySet()) {
+                        if (!isValidTomlKey(kv.getKey())) {
+                            LOG.warn("[CodexTomlDocument] Skipping invalid TOML key in array entry: " + kv.getKey());
+                            continue;
+                        }
+                        sb.append(kv.getKey()).append(" = ").append(toTomlValue(kv.getValue())).append("\n");
+                    }
+                }
+            }
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Write a TOML section recursively.
+     * Handles nested Map sections and List&lt;Map&gt; array of tables.
+     */
+    private static void writeTomlSection(StringBuilder sb, String sectionPath, Map<String, Object> section) {
+        // A "simple value" is anything that is NOT a nested Map, NOT an array of tables (List<Map>),
+        // and NOT an empty list (which would be an empty array of tables with no TOML representation).
+        boolean hasSimpleValues = section.values().stream()
+                                          .anyMatch(v -> !(v instanceof Map) && !isArrayOfTables(v)
+                                                                 && !(v instanceof List && ((List<?>) v).isEmpty()));
+
+        // Write section header and simple values
+        if (hasSimpleValues) {
+            sb.append("[").append(sectionPath).append("]\n");
+            for (Map.Entry<String, Object> entry : section.entrySet()) {
+                Object val = entry.getValue();
+                // Skip Maps, array of tables, and empty lists
+                if (val instanceof Map || isArrayOfTables(val)
+                            || (val instanceof List && ((List<?>) val).isEmpty())) {
+                    continue;
+                }
+                if (!isValidTomlKey(entry.getKey())) {
+                    LOG.warn("[CodexTomlDocument] Skipping invalid TOML key in section: " + entry.getKey());
+                    continue;
+                }
+                sb.append(entry.getKey()).append(" = ").append(toTomlValue(val)).append("\n");
+            }
+        }
+
+        // Write nested sections (Map values)
+        for (Map.Entry<String, Object> entry : section.entrySet()) {
+            if (entry.getValue() instanceof Map) {
+                if (!isValidTomlKey(entry.getKey())) {
+                    LOG.warn("[CodexTomlDocument] Skipping invalid TOML section key: " + entry.getKey());
+                    continue;
+                }
+                @SuppressWarnings("unchecked")
+                Map<String, Object> nestedSection = (Map<String, Object>) entry.getValue();
+                writeTomlSection(sb, sectionPath + "." + entry.getKey(), nestedSection);
+            }
+        }
+
+        // Write array of tables (List<Map> values) as [[section.key]]
+        // Note: empty lists (isArrayOfTables returns false) are intentionally skipped
+        // because empty array of tables have no valid TOML representation.
+        for (Map.Entry<String, Object> entry : section.entrySet()) {
+            Object entryVal = entry.getValue();
+            // Skip empty lists - they cannot be represented as array of tables in TOML
+            if (entryVal instanceof List && ((List<?>) entryVal).isEmpty()) {
+                continue;
+            }
+            if (isArrayOfTables(entryVal)) {
+                if (!isValidTomlKey(entry.getKey())) {
+                    LOG.warn("[CodexTomlDocument] Skipping invalid TOML array key: " + entry.getKey());
+                    continue;
+                }
+                @SuppressWarnings("unchecked")
+                List<Map<String, Object>> tableList = (List<Map<String, Object>>) entry.getValue();
+                String arrayPath = sectionPath + "." + entry.getKey();
+                for (Map<String, Object> tableEntry : tableList) {
+                    sb.append("\n[[").append(arrayPath).append("]]\n");
+                    for (Map.Entry<String, Object> kv : tableEntry.entrySet()) {
+                        if (!isValidTomlKey(kv.getKey())) {
+                            LOG.warn("[CodexTomlDocument] Skipping invalid TOML key in array entry: " + kv.getKey());
+                            continue;
+                        }
+                        sb.append(kv.getKey()).append(" = ").append(toTomlValue(kv.getValue())).append("\n");
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Validates that a key is a valid TOML bare key.
+     */
+    private static boolean isValidTomlKey(String key) {
+        return key != null && !key.isEmpty() && BARE_KEY_PATTERN.matcher(key).matches();
+    }
+
+    /**
+     * Checks if a value is an array of tables (List where elements are Maps).
+     */
+    private static boolean isArrayOfTables(Object value) {
+        if (!(value instanceof List<?> list)) {
+            return false;
+        }
+        if (list.isEmpty()) {
+            return false;
+        }
+        for (Object item : list) {
+            if (!(item instanceof Map)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Convert Java object to TOML value string
+     */
+    private static String toTomlValue(Object value) {
+        if (value == null) {
+            return "\"\"";
+        }
+        if (value instanceof Boolean) {
+            return value.toString();
+        }
+        if (value instanceof Number) {
+            return value.toString();
+        }
+        // List -> TOML array
+        if (value instanceof List) {
+            @SuppressWarnings("unchecked")
+            List<Object> list = (List<Object>) value;
+            StringBuilder sb = new StringBuilder("[");
+            for (int i = 0; i < list.size(); i++) {
+                if (i > 0) sb.append(", ");
+                sb.append(toTomlValue(list.get(i)));
+            }
+            sb.append("]");
+            return sb.toString();
+        }
+        // Map -> TOML inline table
+        if (value instanceof Map) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> map = (Map<String, Object>) value;
+            StringBuilder sb = new StringBuilder("{ ");
+            boolean first = true;
+            for (Map.Entry<String, Object> entry : map.entrySet()) {
+                if (!first) sb.append(", ");
+                first = false;
+                sb.append("\"").append(escapeTomlString(entry.getKey())).append("\" = ");
+                sb.append(toTomlValue(entry.getValue()));
+            }
+            sb.append(" }");
+            return sb.toString();
+        }
+        // String: quote it
+        String str = value.toString();
+        return "\"" + escapeTomlString(str) + "\"";
+    }
+
+    /**
+     * Escape special characters in TOML string
+     */
+    private static String escapeTomlString(String str) {
+        return str.replace("\\", "\\\\")
+                       .replace("\"", "\\\"")
+                       .replace("\n", "\\n")
+                       .replace("\t", "\\t")
+                       .replace("\r", "\\r");
+    }
+}
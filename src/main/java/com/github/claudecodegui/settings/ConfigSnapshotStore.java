@@ -0,0 +1,333 @@
+package com.github.claudecodegui.settings;
+
+import com.github.claudecodegui.i18n.ClaudeCodeGuiBundle;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.intellij.notification.NotificationGroupManager;
+import com.intellij.notification.NotificationType;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.util.concurrency.AppExecutorUtil;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * In-memory snapshot of a JSON config file with coalesced write-behind.
+ *
+ * <p>Reads return the current snapshot after a single stat: the file is only parsed again when
+ * its modification time or size changed, or when the stamp is younger than
+ * {@link #RACY_WINDOW_MS}. Writes replace the snapshot immediately and are written to disk after
+ * {@link #WRITE_DELAY_MS}, so a burst of setter calls results in one backup copy and one
+ * temp-file-and-rename. While a write is pending, reads are served from memory, since the file on
+ * disk is older.</p>
+ *
+ * <p>The Node.js bridge reads the same file, so callers that are about to hand work to it call
+ * {@link #flushAll()} first. Pending writes are also flushed on JVM shutdown.</p>
+ *
+ * <p>A delayed write that fails stays pending and is retried with exponential backoff. After
+ * {@link #NOTIFY_AFTER_FAILURES} failures in a row the user is notified once, since the changes
+ * only exist in memory until a write succeeds.</p>
+ */
+final class ConfigSnapshotStore {
+
+    private static final Logger LOG = Logger.getInstance(ConfigSnapshotStore.class);
+
+    static final long WRITE_DELAY_MS = 300;
+    static final long RACY_WINDOW_MS = 2000;
+    static final long RETRY_BASE_DELAY_MS = 1000;
+    static final long RETRY_MAX_DELAY_MS = 60_000;
+    static final int NOTIFY_AFTER_FAILURES = 3;
+
+    private static final Map<Path, ConfigSnapshotStore> STORES = new ConcurrentHashMap<>();
+    private static volatile boolean shutdownHookRegistered = false;
+
+    private final Path file;
+    private final Path backupFile;
+    private final Gson gson;
+    private final ScheduledExecutorService scheduler;
+    private final long writeDelayMs;
+    private final Consumer<String> failureNotifier;
+
+    private final Object lock = new Object();
+    private final Object flushLock = new Object();
+    private volatile Snapshot snapshot;
+    // Guarded by lock
+    private ScheduledFuture<?> scheduledFlush;
+    private long nextVersion = 1;
+    private int failedCommits;
+
+    private record Stamp(long modified, long size) {
+    }
+
+    /**
+     * @param config  parsed content, or null if the file is missing or unreadable; never mutated
+     * @param stamp   stamp of the file the content was read from or written to, null if missing
+     * @param pending true while the content has not been written to disk yet
+     */
+    private record Snapshot(long version, JsonObject config, Stamp stamp, boolean pending) {
+    }
+
+    /**
+     * @param scheduler executor for delayed writes, or null to write synchronously
+     */
+    ConfigSnapshotStore(Path file, Path backupFile, Gson gson, ScheduledExecutorService scheduler, long writeDelayMs) {
+        this(file, backupFile, gson, scheduler, writeDelayMs, message -> { });
+    }
+
+    /**
+     * @param failureNotifier shows a message to the user when delayed writes keep failing
+     */
+    ConfigSnapshotStore(Path file, Path backupFile, Gson gson, ScheduledExecutorService scheduler, long writeDelayMs,
+                        Consumer<String> failureNotifier) {
+        this.file = file;
+        this.backupFile = backupFile;
+        this.gson = gson;
+        this.scheduler = scheduler;
+        this.writeDelayMs = writeDelayMs;
+        this.failureNotifier = failureNotifier;
+    }
+
+    /**
+     * Returns the store shared by every service instance that uses the given file.
+     */
+    static ConfigSnapshotStore forFile(Path file, Path backupFile, Gson gson) {
+        return STORES.computeIfAbsent(file.toAbsolutePath().normalize(), key -> {
+            registerShutdownHook();
+            // Without an application (unit tests) there is no shared scheduler; write through instead
+            ScheduledExecutorService scheduler = ApplicationManager.getApplication() != null
+                    ? AppExecutorUtil.getAppScheduledExecutorService()
+                    : null;
+            return new ConfigSnapshotStore(key, backupFile, gson, scheduler, WRITE_DELAY_MS,
+                    ConfigSnapshotStore::notifyWriteFailure);
+        });
+    }
+
+    private static void notifyWriteFailure(String message) {
+        if (ApplicationManager.getApplication() == null) {
+            return;
+        }
+        NotificationGroupManager.getInstance()
+                .getNotificationGroup("CC GUI Notifications")
+                .createNotification(message, NotificationType.ERROR)
+                .notify(null);
+    }
+
+    /**
+     * Writes the pending changes of every store to disk.
+     */
+    static void flushAll() {
+        for (ConfigSnapshotStore store : STORES.values()) {
+            store.flush();
+        }
+    }
+
+    /**
+     * Returns the current config. The returned object is shared and must not be modified.
+     *
+     * @return the config, or null if the file does not exist or cannot be parsed
+     */
+    JsonObject read() {
+        Snapshot current = snapshot;
+        if (current != null && isFresh(current, stat())) {
+            return current.config();
+        }
+        synchronized (lock) {
+            current = snapshot;
+            Stamp stamp = stat();
+            if (current != null && isFresh(current, stamp)) {
+                return current.config();
+            }
+            JsonObject config = parse();
+            snapshot = new Snapshot(nextVersion++, config, stamp, false);
+            return config;
+        }
+    }
+
+    /**
+     * Replaces the config. The change is visible to {@link #read()} immediately and reaches the
+     * file after the write delay, together with any other change made in the meantime.
+     */
+    void write(JsonObject config) throws IOException {
+        JsonObject copy = config.deepCopy();
+        synchronized (lock) {
+            Snapshot current = snapshot;
+            snapshot = new Snapshot(nextVersion++, copy, current != null ? current.stamp() : null, true);
+            if (scheduler != null) {
+                if (scheduledFlush == null) {
+                    scheduledFlush = scheduler.schedule(this::flush, writeDelayMs, TimeUnit.MILLISECONDS);
+                }
+                return;
+            }
+        }
+        try {
+            commit();
+        } catch (IOException e) {
+            throw new IOException("Failed to write config to " + file, e);
+        }
+    }
+
+    /**
+     * Writes the pending snapshot, if any, to disk. On failure the snapshot stays pending and a
+     * retry is scheduled.
+     */
+    void flush() {
+        try {
+            commit();
+        } catch (IOException e) {
+            onFlushFailed(e);
+        }
+    }
+
+    private void onFlushFailed(IOException e) {
+        int attempts;
+        long retryDelayMs = -1;
+        synchronized (lock) {
+            attempts = ++failedCommits;
+            if (scheduler != null && scheduledFlush == null) {
+                retryDelayMs = Math.min(RETRY_BASE_DELAY_MS << Math.min(attempts - 1, 16), RETRY_MAX_DELAY_MS);
+                scheduledFlush = scheduler.schedule(this::flush, retryDelayMs, TimeUnit.MILLISECONDS);
+            }
+        }
+        LOG.warn("[ConfigSnapshotStore] Failed to write config to " + file + " (attempt " + attempts + ")"
+                + (retryDelayMs >= 0 ? ", retrying in " + retryDelayMs + "ms" : "") + ": " + e.getMessage());
+        if (attempts == NOTIFY_AFTER_FAILURES) {
+            failureNotifier.accept(ClaudeCodeGuiBundle.message("config.writeFailed", file, e.getMessage()));
+        }
+    }
+
+    /**
+     * Writes the pending snapshot, if any, to disk.
+     */
+    private void commit() throws IOException {
+        synchronized (flushLock) {
+            Snapshot pending;
+            synchronized (lock) {
+                scheduledFlush = null;
+                pending = snapshot;
+                if (pending == null || !pending.pending()) {
+                    return;
+                }
+            }
+
+            Path temp = null;
+            try {
+                Files.createDirectories(file.getParent());
+                // One backup per batch of coalesced writes
+                if (backupFile != null && Files.exists(file)) {
+                    try {
+                        Files.copy(file, backupFile, StandardCopyOption.REPLACE_EXISTING);
+                    } catch (IOException e) {
+                        LOG.warn("[ConfigSnapshotStore] Failed to backup config: " + e.getMessage());
+                    }
+                }
+
+                temp = Files.createTempFile(file.getParent(), "." + file.getFileName() + "-", ".tmp");
+                try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                    gson.toJson(pending.config(), writer);
+                }
+                try {
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+                temp = null;
+                LOG.info("[ConfigSnapshotStore] Successfully wrote config to: " + file);
+            } finally {
+                if (temp != null) {
+                    try {
+                        Files.deleteIfExists(temp);
+                    } catch (IOException ignored) {
+                        // Best effort
+                    }
+                }
+            }
+
+            Stamp stamp = stat();
+            synchronized (lock) {
+                // A newer write arrived meanwhile: it stays pending and has its own flush scheduled
+                if (snapshot == pending) {
+                    snapshot = new Snapshot(pending.version(), pending.config(), stamp, false);
+                }
+                if (failedCommits > 0) {
+                    LOG.info("[ConfigSnapshotStore] Config written after " + failedCommits + " failed attempts");
+                    failedCommits = 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * Version of the current snapshot; changes whenever the content is replaced or re-read.
+     */
+    long version() {
+        Snapshot current = snapshot;
+        return current != null ? current.version() : 0;
+    }
+
+    private JsonObject parse() {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            JsonObject config = JsonParser.parseReader(reader).getAsJsonObject();
+            LOG.info("[ConfigSnapshotStore] Successfully read config from: " + file);
+            return config;
+        } catch (Exception e) {
+            LOG.warn("[ConfigSnapshotStore] Failed to read config: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private Stamp stat() {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return new Stamp(attributes.lastModifiedTime().toMillis(), attributes.size());
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | UnsupportedOperationException e) {
+            // Unknown state: force a re-read
+            return new Stamp(-1, -1);
+        }
+    }
+
+    private static boolean isFresh(Snapshot snapshot, Stamp current) {
+        if (snapshot.pending()) {
+            return true;
+        }
+        Stamp stamp = snapshot.stamp();
+        if (stamp == null) {
+            return current == null;
+        }
+        // A second write within the timestamp granularity of a young file could go unnoticed
+        return stamp.equals(current) && System.currentTimeMillis() - stamp.modified() >= RACY_WINDOW_MS;
+    }
+
+    private static void registerShutdownHook() {
+        if (shutdownHookRegistered) {
+            return;
+        }
+        synchronized (ConfigSnapshotStore.class) {
+            if (shutdownHookRegistered) {
+                return;
+            }
+            shutdownHookRegistered = true;
+            Runtime.getRuntime().addShutdownHook(new Thread(ConfigSnapshotStore::flushAll, "CCG-Config-Flush-Hook"));
+        }
+    }
+}
@@ -1,23 +1,17 @@
 package com.github.claudecodegui.settings;
 
-import com.github.claudecodegui.util.PlatformUtils;
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 import com.intellij.openapi.diagnostic.Logger;
 
-import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -68,13 +62,13 @@ public class McpServerManager {
 
         // 1. Try to read from ~/.claude.json (standard Claude CLI location)
         try {
-            String homeDir = PlatformUtils.getHomeDirectory();
-            Path claudeJsonPath = Paths.get(homeDir, ".claude.json");
-            File claudeJsonFile = claudeJsonPath.toFile();
+            // Only the MCP members are extracted; the cached extract is shared, so copy before modifying
+            ClaudeJsonFile.Extract extract = ClaudeJsonFile.getInstance().read(ClaudeJsonFile.defaultPath(), projectPath);
 
-            if (claudeJsonFile.exists()) {
-                try (FileReader reader = new FileReader(claudeJsonFile, StandardCharsets.UTF_8)) {
-                    JsonObject claudeJson = JsonParser.parseReader(reader).getAsJsonObject();
+            if (extract != null) {
+                try {
+                    JsonObject claudeJson = extract.topLevel();
+                    JsonObject projectConfig = extract.project();
 
                     if (claudeJson.has("mcpServers") && claudeJson.get("mcpServers").isJsonObject()) {
                         JsonObject globalMcpServers = claudeJson.getAsJsonObject("mcpServers");
@@ -82,21 +76,17 @@ public class McpServerManager {
                         // Merge global and project mcpServers (project config overrides servers with the same name)
                         JsonObject mergedServers = new JsonObject();
                         for (String key : globalMcpServers.keySet()) {
-                            mergedServers.add(key, globalMcpServers.get(key));
+                            mergedServers.add(key, globalMcpServers.get(key).deepCopy());
                         }
 
-                        if (projectPath != null && claudeJson.has("projects")) {
-                            JsonObject projects = claudeJson.getAsJsonObject("projects");
-                            if (projects.has(projectPath)) {
-                                JsonObject projectConfig = projects.getAsJsonObject(projectPath);
-                                if (projectConfig.has("mcpServers")
-                                            && projectConfig.get("mcpServers").isJsonObject()) {
-                                    JsonObject projectMcpServers = projectConfig.getAsJsonObject("mcpServers");
-                                    for (String key : projectMcpServers.keySet()) {
-                                        mergedServers.add(key, projectMcpServers.get(key));
-                                    }
-                                    LOG.info("[McpServerManager] Merged project-level MCP servers from: " + projectPath);
+                        if (projectConfig != null) {
+                            if (projectConfig.has("mcpServers")
+                                        && projectConfig.get("mcpServers").isJsonObject()) {
+                                JsonObject projectMcpServers = projectConfig.getAsJsonObject("mcpServers");
+                                for (String key : projectMcpServers.keySet()) {
+                                    mergedServers.add(key, projectMcpServers.get(key).deepCopy());
                                 }
+                                LOG.info("[McpServerManager] Merged project-level MCP servers from: " + projectPath);
                             }
                         }
 
@@ -112,20 +102,16 @@ public class McpServerManager {
                         }
 
                         // Read project-level disabled servers list (if project path is provided)
-                        if (projectPath != null && claudeJson.has("projects")) {
-                            JsonObject projects = claudeJson.getAsJsonObject("projects");
-                            if (projects.has(projectPath)) {
-                                JsonObject projectConfig = projects.getAsJsonObject(projectPath);
-                                if (projectConfig.has("disabledMcpServers")
-                                            && projectConfig.get("disabledMcpServers").isJsonArray()) {
-                                    JsonArray projectDisabledArray = projectConfig.getAsJsonArray("disabledMcpServers");
-                                    for (JsonElement elem : projectDisabledArray) {
-                                        if (elem.isJsonPrimitive()) {
-                                            disabledServers.add(elem.getAsString());
-                                        }
+                        if (projectConfig != null) {
+                            if (projectConfig.has("disabledMcpServers")
+                                        && projectConfig.get("disabledMcpServers").isJsonArray()) {
+                                JsonArray projectDisabledArray = projectConfig.getAsJsonArray("disabledMcpServers");
+                                for (JsonElement elem : projectDisabledArray) {
+                                    if (elem.isJsonPrimitive()) {
+                                        disabledServers.add(elem.getAsString());
                                     }
-                                    LOG.info("[McpServerManager] Merged project-level disabled servers from: " + projectPath);
                                 }
+                                LOG.info("[McpServerManager] Merged project-level disabled servers from: " + projectPath);
                             }
                         }
 
@@ -223,113 +209,108 @@ public class McpServerManager {
 
         // 1. Try to update ~/.claude.json
         try {
-            String homeDir = PlatformUtils.getHomeDirectory();
-            Path claudeJsonPath = Paths.get(homeDir, ".claude.json");
-            File claudeJsonFile = claudeJsonPath.toFile();
+            Path claudeJsonPath = ClaudeJsonFile.defaultPath();
+            ClaudeJsonFile claudeJsonFile = ClaudeJsonFile.getInstance();
+            ClaudeJsonFile.Extract extract = claudeJsonFile.read(claudeJsonPath, projectPath);
 
-            if (claudeJsonFile.exists()) {
-                try (FileReader reader = new FileReader(claudeJsonFile, StandardCharsets.UTF_8)) {
-                    JsonObject claudeJson = JsonParser.parseReader(reader).getAsJsonObject();
+            if (extract != null) {
+                JsonObject claudeJson = extract.topLevel().deepCopy();
 
-                    // Ensure mcpServers object exists
-                    if (!claudeJson.has("mcpServers") || !claudeJson.get("mcpServers").isJsonObject()) {
-                        claudeJson.add("mcpServers", new JsonObject());
-                    }
-                    JsonObject mcpServers = claudeJson.getAsJsonObject("mcpServers");
+                // Ensure mcpServers object exists
+                if (!claudeJson.has("mcpServers") || !claudeJson.get("mcpServers").isJsonObject()) {
+                    claudeJson.add("mcpServers", new JsonObject());
+                }
+                JsonObject mcpServers = claudeJson.getAsJsonObject("mcpServers");
 
-                    // Extract server spec
-                    JsonObject serverSpec;
-                    if (server.has("server") && server.get("server").isJsonObject()) {
-                        serverSpec = server.getAsJsonObject("server").deepCopy();
-                    } else {
-                        serverSpec = new JsonObject();
-                    }
+                // Extract server spec
+                JsonObject serverSpec;
+                if (server.has("server") && server.get("server").isJsonObject()) {
+                    serverSpec = server.getAsJsonObject("server").deepCopy();
+                } else {
+                    serverSpec = new JsonObject();
+                }
 
-                    // If the server already exists, merge with existing config (preserve fields not specified in new config)
-                    if (mcpServers.has(serverId) && mcpServers.get(serverId).isJsonObject()) {
-                        JsonObject existingSpec = mcpServers.getAsJsonObject(serverId).deepCopy();
-                        // Merge new config onto existing config (new values override matching fields)
-                        for (String key : serverSpec.keySet()) {
-                            existingSpec.add(key, serverSpec.get(key));
-                        }
-                        serverSpec = existingSpec;
+                // If the server already exists, merge with existing config (preserve fields not specified in new config)
+                if (mcpServers.has(serverId) && mcpServers.get(serverId).isJsonObject()) {
+                    JsonObject existingSpec = mcpServers.getAsJsonObject(serverId).deepCopy();
+                    // Merge new config onto existing config (new values override matching fields)
+                    for (String key : serverSpec.keySet()) {
+                        existingSpec.add(key, serverSpec.get(key));
                     }
+                    serverSpec = existingSpec;
+                }
 
-                    // Update or add the server
-                    mcpServers.add(serverId, serverSpec);
+                // Update or add the server
+                mcpServers.add(serverId, serverSpec);
 
-                    // Update the disabledMcpServers list
-                    if (!claudeJson.has("disabledMcpServers") || !claudeJson.get("disabledMcpServers").isJsonArray()) {
-                        claudeJson.add("disabledMcpServers", new JsonArray());
-                    }
-                    JsonArray disabledArray = claudeJson.getAsJsonArray("disabledMcpServers");
+                // Update the disabledMcpServers list
+                if (!claudeJson.has("disabledMcpServers") || !claudeJson.get("disabledMcpServers").isJsonArray()) {
+                    claudeJson.add("disabledMcpServers", new JsonArray());
+                }
+                JsonArray disabledArray = claudeJson.getAsJsonArray("disabledMcpServers");
 
-                    if (projectPath == null) {
-                        JsonArray newDisabled = new JsonArray();
-                        for (JsonElement elem : disabledArray) {
-                            if (!elem.getAsString().equals(serverId)) {
-                                newDisabled.add(elem);
-                            }
-                        }
-                        if (!isEnabled) {
-                            newDisabled.add(serverId);
+                if (projectPath == null) {
+                    JsonArray newDisabled = new JsonArray();
+                    for (JsonElement elem : disabledArray) {
+                        if (!elem.getAsString().equals(serverId)) {
+                            newDisabled.add(elem);
                         }
-                        claudeJson.add("disabledMcpServers", newDisabled);
-                    } else if (isEnabled) {
-                        JsonArray newDisabled = new JsonArray();
-                        for (JsonElement elem : disabledArray) {
-                            if (!elem.getAsString().equals(serverId)) {
-                                newDisabled.add(elem);
-                            }
-                        }
-                        claudeJson.add("disabledMcpServers", newDisabled);
                     }
-
-                    if (projectPath != null) {
-                        if (!claudeJson.has("projects") || !claudeJson.get("projects").isJsonObject()) {
-                            claudeJson.add("projects", new JsonObject());
-                        }
-                        JsonObject projects = claudeJson.getAsJsonObject("projects");
-                        if (!projects.has(projectPath) || !projects.get(projectPath).isJsonObject()) {
-                            projects.add(projectPath, new JsonObject());
-                        }
-                        JsonObject projectConfig = projects.getAsJsonObject(projectPath);
-                        if (!projectConfig.has("disabledMcpServers") || !projectConfig.get("disabledMcpServers").isJsonArray()) {
-                            projectConfig.add("disabledMcpServers", new JsonArray());
-                        }
-                        JsonArray projectDisabledArray = projectConfig.getAsJsonArray("disabledMcpServers");
-
-                        JsonArray newProjectDisabled = new JsonArray();
-                        for (JsonElement elem : projectDisabledArray) {
-                            if (!elem.getAsString().equals(serverId)) {
-                                newProjectDisabled.add(elem);
-                            }
-                        }
-                        if (!isEnabled) {
-                            newProjectDisabled.add(serverId);
+                    if (!isEnabled) {
+                        newDisabled.add(serverId);
+                    }
+                    claudeJson.add("disabledMcpServers", newDisabled);
+                } else if (isEnabled) {
+                    JsonArray newDisabled = new JsonArray();
+                    for (JsonElement elem : disabledArray) {
+                        if (!elem.getAsString().equals(serverId)) {
+                            newDisabled.add(elem);
                         }
-                        projectConfig.add("disabledMcpServers", newProjectDisabled);
                     }
+                    claudeJson.add("disabledMcpServers", newDisabled);
+                }
 
-                    // Write back to file
-                    try (FileWriter writer = new FileWriter(claudeJsonFile, StandardCharsets.UTF_8)) {
-                        gson.toJson(claudeJson, writer);
-                        writer.flush();  // Ensure data is fully flushed to disk
+                JsonObject projectConfig = null;
+                if (projectPath != null) {
+                    projectConfig = extract.project() != null ? extract.project().deepCopy() : new JsonObject();
+                    if (!projectConfig.has("disabledMcpServers") || !projectConfig.get("disabledMcpServers").isJsonArray()) {
+                        projectConfig.add("disabledMcpServers", new JsonArray());
                     }
+                    JsonArray projectDisabledArray = projectConfig.getAsJsonArray("disabledMcpServers");
 
-                    LOG.info("[McpServerManager] Upserted MCP server in ~/.claude.json: " + serverId
-                                     + " (enabled: " + isEnabled + ", projectPath: " + (projectPath != null ? projectPath : "(global)") + ")");
-
-                    // Sync to settings.json (after file write is complete)
-                    try {
-                        claudeSettingsManager.syncMcpToClaudeSettings();
-                    } catch (Exception syncError) {
-                        LOG.warn("[McpServerManager] Failed to sync MCP to settings.json: " + syncError.getMessage());
-                        // Sync failure should not affect the main operation
+                    JsonArray newProjectDisabled = new JsonArray();
+                    for (JsonElement elem : projectDisabledArray) {
+                        if (!elem.getAsString().equals(serverId)) {
+                            newProjectDisabled.add(elem);
+                        }
                     }
+                    if (!isEnabled) {
+                        newProjectDisabled.add(serverId);
+                    }
+                    projectConfig.add("disabledMcpServers", newProjectDisabled);
+                }
 
-                    return;
+                // Write back to file, replacing only the MCP members
+                Map<String, JsonElement> replacements = new LinkedHashMap<>();
+                replacements.put("mcpServers", claudeJson.get("mcpServers"));
+                replacements.put("disabledMcpServers", claudeJson.get("disabledMcpServers"));
+                claudeJsonFile.splice(claudeJsonPath, replacements, projectPath,
+                        projectConfig != null
+                                ? Map.of("disabledMcpServers", projectConfig.get("disabledMcpServers"))
+                                : null);
+
+                LOG.info("[McpServerManager] Upserted MCP server in ~/.claude.json: " + serverId
+                                 + " (enabled: " + isEnabled + ", projectPath: " + (projectPath != null ? projectPath : "(global)") + ")");
+
+                // Sync to settings.json (after file write is complete)
+                try {
+                    claudeSettingsManager.syncMcpToClaudeSettings();
+                } catch (Exception syncError) {
+                    LOG.warn("[McpServerManager] Failed to sync MCP to settings.json: " + syncError.getMessage());
+                    // Sync failure should not affect the main operation
                 }
+
+                return;
             }
         } catch (Exception e) {
             LOG.warn("[McpServerManager] Error updating ~/.claude.json: " + e.getMessage());
@@ -376,51 +357,51 @@ public class McpServerManager {
 
         // 1. Try to delete from ~/.claude.json
         try {
-            String homeDir = PlatformUtils.getHomeDirectory();
-            Path claudeJsonPath = Paths.get(homeDir, ".claude.json");
-            File claudeJsonFile = claudeJsonPath.toFile();
+            Path claudeJsonPath = ClaudeJsonFile.defaultPath();
+            ClaudeJsonFile claudeJsonFile = ClaudeJsonFile.getInstance();
+            ClaudeJsonFile.Extract extract = claudeJsonFile.read(claudeJsonPath, null);
 
-            if (claudeJsonFile.exists()) {
-                try (FileReader reader = new FileReader(claudeJsonFile, StandardCharsets.UTF_8)) {
-                    JsonObject claudeJson = JsonParser.parseReader(reader).getAsJsonObject();
+            if (extract != null) {
+                JsonObject claudeJson = extract.topLevel().deepCopy();
 
-                    if (claudeJson.has("mcpServers") && claudeJson.get("mcpServers").isJsonObject()) {
-                        JsonObject mcpServers = claudeJson.getAsJsonObject("mcpServers");
-
-                        if (mcpServers.has(serverId)) {
-                            // Delete the server
-                            mcpServers.remove(serverId);
-
-                            // Also remove from disabledMcpServers (if present)
-                            if (claudeJson.has("disabledMcpServers") && claudeJson.get("disabledMcpServers").isJsonArray()) {
-                                JsonArray disabledServers = claudeJson.getAsJsonArray("disabledMcpServers");
-                                JsonArray newDisabled = new JsonArray();
-                                for (JsonElement elem : disabledServers) {
-                                    if (!elem.getAsString().equals(serverId)) {
-                                        newDisabled.add(elem);
-                                    }
-                                }
-                                claudeJson.add("disabledMcpServers", newDisabled);
-                            }
+                if (claudeJson.has("mcpServers") && claudeJson.get("mcpServers").isJsonObject()) {
+                    JsonObject mcpServers = claudeJson.getAsJsonObject("mcpServers");
 
-                            // Write back to file
-                            try (FileWriter writer = new FileWriter(claudeJsonFile, StandardCharsets.UTF_8)) {
-                                gson.toJson(claudeJson, writer);
-                                writer.flush();  // Ensure data is fully flushed to disk
+                    if (mcpServers.has(serverId)) {
+                        // Delete the server
+                        mcpServers.remove(serverId);
+
+                        // Also remove from disabledMcpServers (if present)
+                        if (claudeJson.has("disabledMcpServers") && claudeJson.get("disabledMcpServers").isJsonArray()) {
+                            JsonArray disabledServers = claudeJson.getAsJsonArray("disabledMcpServers");
+                            JsonArray newDisabled = new JsonArray();
+                            for (JsonElement elem : disabledServers) {
+                                if (!elem.getAsString().equals(serverId)) {
+                                    newDisabled.add(elem);
+                                }
                             }
+                            claudeJson.add("disabledMcpServers", newDisabled);
+                        }
 
-                            LOG.info("[McpServerManager] Deleted MCP server from ~/.claude.json: " + serverId);
+                        // Write back to file, replacing only the MCP members
+                        Map<String, JsonElement> replacements = new LinkedHashMap<>();
+                        replacements.put("mcpServers", mcpServers);
+                        if (claudeJson.has("disabledMcpServers")) {
+                            replacements.put("disabledMcpServers", claudeJson.get("disabledMcpServers"));
+                        }
+                        claudeJsonFile.splice(claudeJsonPath, replacements, null, null);
 
-                            // Sync to settings.json (after file write is complete)
-                            try {
-                                claudeSettingsManager.syncMcpToClaudeSettings();
-                            } catch (Exception syncError) {
-                                LOG.warn("[McpServerManager] Failed to sync MCP to settings.json: " + syncError.getMessage());
-                            }
+                        LOG.info("[McpServerManager] Deleted MCP server from ~/.claude.json: " + serverId);
 
-                            removed = true;
-                            return true;
+                        // Sync to settings.json (after file write is complete)
+                        try {
+                            claudeSettingsManager.syncMcpToClaudeSettings();
+                        } catch (Exception syncError) {
+                            LOG.warn("[McpServerManager] Failed to sync MCP to settings.json: " + syncError.getMessage());
                         }
+
+                        removed = true;
+                        return true;
                     }
                 }
             }
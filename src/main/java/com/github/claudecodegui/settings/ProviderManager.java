@@ -13,9 +13,7 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Function;
@@ -26,7 +24,6 @@ import java.util.function.Function;
  */
 public class ProviderManager {
     private static final Logger LOG = Logger.getInstance(ProviderManager.class);
-    private static final String BACKUP_FILE_NAME = "config.json.bak";
     public static final String DISABLED_PROVIDER_ID = "__disabled__";
     public static final String LOCAL_SETTINGS_PROVIDER_ID = "__local_settings_json__";
     public static final String CLI_LOGIN_PROVIDER_ID = "__cli_login__";
@@ -271,12 +268,14 @@ public class ProviderManager {
      */
     public DeleteResult deleteClaudeProvider(String id) {
         Path configFilePath = null;
-        Path backupFilePath = null;
+        JsonObject original = null;
 
         try {
+            // Write earlier changes out first, so the config store's backup of this write holds
+            // exactly the state before the delete
+            ConfigSnapshotStore.flushAll();
             JsonObject config = configReader.apply(null);
             configFilePath = pathManager.getConfigFilePath();
-            backupFilePath = pathManager.getConfigDir().resolve(BACKUP_FILE_NAME);
 
             if (!config.has("claude")) {
                 return DeleteResult.failure(
@@ -299,14 +298,9 @@ public class ProviderManager {
                 );
             }
 
-            // Create a config backup (for rollback)
-            try {
-                Files.copy(configFilePath, backupFilePath, StandardCopyOption.REPLACE_EXISTING);
-                LOG.info("[ProviderManager] Created backup: " + backupFilePath);
-            } catch (IOException e) {
-                LOG.warn("[ProviderManager] Warning: Failed to create backup: " + e.getMessage());
-                // Backup failure doesn't block the delete operation, but log a warning
-            }
+            // Keep the current config for rollback. The file on disk can lag behind the config
+            // store, so the rollback goes through the store as well.
+            original = config.deepCopy();
 
             // Delete the provider
             providers.remove(id);
@@ -331,25 +325,15 @@ public class ProviderManager {
             configWriter.accept(config);
             LOG.info("[ProviderManager] Deleted provider: " + id);
 
-            // Remove backup after successful deletion
-            try {
-                Files.deleteIfExists(backupFilePath);
-            } catch (IOException e) {
-                // Ignore backup file deletion failure
-            }
-
             return DeleteResult.success(id);
 
         } catch (Exception e) {
-            // Attempt to restore from backup
-            if (backupFilePath != null && configFilePath != null) {
+            if (original != null) {
                 try {
-                    if (Files.exists(backupFilePath)) {
-                        Files.copy(backupFilePath, configFilePath, StandardCopyOption.REPLACE_EXISTING);
-                        LOG.info("[ProviderManager] Restored from backup after failure");
-                    }
-                } catch (IOException restoreEx) {
-                    LOG.warn("[ProviderManager] Failed to restore backup: " + restoreEx.getMessage());
+                    configWriter.accept(original);
+                    LOG.info("[ProviderManager] Restored config after failure");
+                } catch (RuntimeException restoreEx) {
+                    LOG.warn("[ProviderManager] Failed to restore config: " + restoreEx.getMessage());
                 }
             }
 
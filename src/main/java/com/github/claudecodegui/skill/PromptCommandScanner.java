@@ -1,6 +1,7 @@
 package com.github.claudecodegui.skill;
 
-import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -13,24 +14,17 @@ final class PromptCommandScanner {
         if (dirPath == null || dirPath.isEmpty()) {
             return List.of();
         }
-        File dir = new File(dirPath);
-        if (!dir.isDirectory()) {
-            return List.of();
-        }
-
-        File[] entries = dir.listFiles();
-        if (entries == null) {
-            return List.of();
-        }
+        Path dir = Paths.get(dirPath).toAbsolutePath().normalize();
+        SlashCommandSourceCache cache = SlashCommandSourceCache.getInstance();
 
         List<SlashCommandRegistry.SlashCommand> commands = new ArrayList<>();
-        for (File entry : entries) {
-            if (!entry.isFile() || !entry.getName().endsWith(".md")
-                    || entry.getName().startsWith(".")) {
+        for (SlashCommandSourceCache.Child entry : cache.list(dir)) {
+            if (!entry.file() || !entry.name().endsWith(".md")
+                    || entry.name().startsWith(".")) {
                 continue;
             }
-            String baseName = entry.getName().replaceFirst("\\.md$", "");
-            String description = SlashCommandJsonReader.extractCommandDescription(entry.toPath());
+            String baseName = entry.name().replaceFirst("\\.md$", "");
+            String description = cache.commandDescription(dir.resolve(entry.name()));
             commands.add(new SlashCommandRegistry.SlashCommand(
                     "/prompts:" + baseName,
                     description != null ? description : "",
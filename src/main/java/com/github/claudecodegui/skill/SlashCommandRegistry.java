@@ -350,7 +350,8 @@ public final class SlashCommandRegistry {
 
     /**
      * Scans a skills directory for valid skill subdirectories and converts them to slash commands.
-     * Skips plain files and hidden directories.
+     * Skips plain files and hidden directories. Listings and parsed metadata come from
+     * {@link SlashCommandSourceCache}, so only the conditional path filter runs on every call.
      * <p>
      * Package-private: intentionally shared with {@link ManagedSkillScanner} and
      * {@link PluginCommandScanner} which delegate skill scanning back to this central method.
@@ -364,26 +365,18 @@ public final class SlashCommandRegistry {
         if (dirPath == null || dirPath.isEmpty()) {
             return List.of();
         }
-        File dir = new File(dirPath);
-        if (!dir.isDirectory()) {
-            return List.of();
-        }
-
-        File[] entries = dir.listFiles();
-        if (entries == null) {
-            return List.of();
-        }
+        Path dir = Paths.get(dirPath).toAbsolutePath().normalize();
+        SlashCommandSourceCache cache = SlashCommandSourceCache.getInstance();
 
         List<SlashCommand> commands = new ArrayList<>();
-        for (File entry : entries) {
-            if (!entry.isDirectory() || entry.getName().startsWith(".")) {
+        for (SlashCommandSourceCache.Child entry : cache.list(dir)) {
+            if (!entry.directory() || entry.name().startsWith(".")) {
                 continue;
             }
 
-            SkillFrontmatterParser.SkillMetadata metadata =
-                    SkillFrontmatterParser.parse(entry.toPath());
+            SkillFrontmatterParser.SkillMetadata metadata = cache.skillMetadata(dir.resolve(entry.name()));
             if (metadata == null) {
-                LOG.debug("Skipping skill directory with invalid metadata: " + entry.getName());
+                LOG.debug("Skipping skill directory with invalid metadata: " + entry.name());
                 continue;
             }
 
@@ -424,7 +417,7 @@ public final class SlashCommandRegistry {
         }
 
         List<SlashCommand> commands = new ArrayList<>();
-        scanCommandsRecursive(baseDir.toFile(), baseDir, source, commands, 0);
+        scanCommandsRecursive(SlashCommandSourceCache.getInstance(), baseDir, baseDir, source, commands, 0);
         return commands;
     }
 
@@ -435,7 +428,8 @@ public final class SlashCommandRegistry {
      * Recursively scans a directory for command .md files.
      */
     private static void scanCommandsRecursive(
-            File dir,
+            SlashCommandSourceCache cache,
+            Path dir,
             Path baseDir,
             String source,
             List<SlashCommand> commands,
@@ -445,41 +439,35 @@ public final class SlashCommandRegistry {
             LOG.warn("Max command scan depth exceeded, skipping: " + dir);
             return;
         }
-        File[] entries = dir.listFiles();
-        if (entries == null) {
-            return;
-        }
+        List<SlashCommandSourceCache.Child> entries = cache.list(dir);
 
         boolean hasSkillMd = false;
-        for (File entry : entries) {
-            if (entry.isFile() && "skill.md".equalsIgnoreCase(entry.getName())) {
+        for (SlashCommandSourceCache.Child entry : entries) {
+            if (entry.file() && "skill.md".equalsIgnoreCase(entry.name())) {
                 hasSkillMd = true;
                 break;
             }
         }
 
-        for (File entry : entries) {
-            if (entry.getName().startsWith(".")) {
+        for (SlashCommandSourceCache.Child entry : entries) {
+            if (entry.name().startsWith(".")) {
                 continue;
             }
 
-            if (entry.isFile() && entry.getName().toLowerCase().endsWith(".md")) {
-                String namespace = deriveCommandNamespace(entry, baseDir);
-                SlashCommand cmd = parseCommandFile(entry, namespace, source);
-                if (cmd != null) {
-                    commands.add(cmd);
-                }
-            } else if (entry.isDirectory() && !hasSkillMd) {
-                scanCommandsRecursive(entry, baseDir, source, commands, depth + 1);
+            if (entry.file() && entry.name().toLowerCase().endsWith(".md")) {
+                String namespace = deriveCommandNamespace(dir, baseDir);
+                commands.add(parseCommandFile(cache, dir.resolve(entry.name()), namespace, source));
+            } else if (entry.directory() && !hasSkillMd) {
+                scanCommandsRecursive(cache, dir.resolve(entry.name()), baseDir, source, commands, depth + 1);
             }
         }
     }
 
     /**
-     * Derives the colon-separated namespace from a command file's relative path.
+     * Derives the colon-separated namespace from a command file's parent directory.
      */
-    private static String deriveCommandNamespace(File mdFile, Path baseDir) {
-        Path parent = mdFile.getParentFile().toPath().toAbsolutePath().normalize();
+    private static String deriveCommandNamespace(Path parentDir, Path baseDir) {
+        Path parent = parentDir.toAbsolutePath().normalize();
         Path base = baseDir.toAbsolutePath().normalize();
         if (parent.equals(base)) {
             return null;
@@ -498,13 +486,18 @@ public final class SlashCommandRegistry {
     /**
      * Parses a single command .md file to extract name and description from frontmatter.
      */
-    private static SlashCommand parseCommandFile(File mdFile, String namespace, String source) {
-        String baseName = mdFile.getName().replaceFirst("\\.md$", "");
+    private static SlashCommand parseCommandFile(
+            SlashCommandSourceCache cache,
+            Path mdFile,
+            String namespace,
+            String source
+    ) {
+        String baseName = mdFile.getFileName().toString().replaceFirst("\\.md$", "");
         String commandName = namespace != null
                 ? "/" + namespace + ":" + baseName
                 : "/" + baseName;
 
-        String description = SlashCommandJsonReader.extractCommandDescription(mdFile.toPath());
+        String description = cache.commandDescription(mdFile);
         if (description == null) {
             description = "";
         }
@@ -0,0 +1,238 @@
+package com.github.claudecodegui.skill;
+
+import com.github.claudecodegui.service.PluginLifecycleDisposableService;
+import com.intellij.openapi.application.Application;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared cache of directory listings and parsed skill/command markdown for slash command scanning.
+ *
+ * <p>Every entry is stamped with the modification time and size of what it was built from and is
+ * revalidated with a single stat on lookup, so repeated {@code /} popups only re-read files that
+ * actually changed. Stamps younger than {@link #RACY_WINDOW_MS} are not trusted, since a second
+ * write within the file system's timestamp granularity would go unnoticed.</p>
+ *
+ * <p>VFS events drop the affected entries eagerly, which covers edits saved from the IDE even when
+ * the timestamp does not move. Directories outside the VFS roots (such as {@code ~/.claude}) are
+ * still kept correct by the stamps.</p>
+ */
+final class SlashCommandSourceCache implements BulkFileListener {
+
+    private static final Logger LOG = Logger.getInstance(SlashCommandSourceCache.class);
+
+    static final long RACY_WINDOW_MS = 2000;
+    // Entries of deleted files are only dropped by VFS events; start over rather than grow unbounded
+    private static final int MAX_ENTRIES = 8192;
+
+    private static volatile SlashCommandSourceCache instance;
+
+    private final Map<Path, Listing> listings = new ConcurrentHashMap<>();
+    private final Map<Path, SkillEntry> skills = new ConcurrentHashMap<>();
+    private final Map<Path, DescriptionEntry> descriptions = new ConcurrentHashMap<>();
+
+    /**
+     * A directory child as seen when its parent was listed.
+     */
+    record Child(String name, boolean directory, boolean file) {
+    }
+
+    private record Stamp(long modified, long size) {
+    }
+
+    private record Listing(Stamp stamp, List<Child> children) {
+    }
+
+    private record SkillEntry(Path skillMd, Stamp stamp, SkillFrontmatterParser.SkillMetadata metadata) {
+    }
+
+    private record DescriptionEntry(Stamp stamp, String description) {
+    }
+
+    SlashCommandSourceCache() {
+    }
+
+    static SlashCommandSourceCache getInstance() {
+        if (instance == null) {
+            synchronized (SlashCommandSourceCache.class) {
+                if (instance == null) {
+                    SlashCommandSourceCache created = new SlashCommandSourceCache();
+                    Application application = ApplicationManager.getApplication();
+                    if (application != null) {
+                        application.getMessageBus().connect(PluginLifecycleDisposableService.getInstance())
+                                .subscribe(VirtualFileManager.VFS_CHANGES, created);
+                    }
+                    instance = created;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Lists a directory, reusing the previous listing while the directory's timestamp is unchanged.
+     *
+     * @return the children, or an empty list if the directory does not exist or cannot be read
+     */
+    List<Child> list(Path dir) {
+        Stamp stamp = stat(dir);
+        if (stamp == null) {
+            listings.remove(dir);
+            return List.of();
+        }
+        Listing cached = listings.get(dir);
+        if (cached != null && cached.stamp().equals(stamp)) {
+            return cached.children();
+        }
+
+        File[] entries = dir.toFile().listFiles();
+        if (entries == null) {
+            listings.remove(dir);
+            return List.of();
+        }
+        List<Child> children = new ArrayList<>(entries.length);
+        for (File entry : entries) {
+            children.add(new Child(entry.getName(), entry.isDirectory(), entry.isFile()));
+        }
+        List<Child> result = List.copyOf(children);
+        if (isTrusted(stamp)) {
+            put(listings, dir, new Listing(stamp, result));
+        }
+        return result;
+    }
+
+    /**
+     * Returns parsed metadata for a skill directory, re-parsing SKILL.md only when it changed.
+     *
+     * @return the metadata, or null if the skill has no valid SKILL.md
+     */
+    SkillFrontmatterParser.SkillMetadata skillMetadata(Path skillDir) {
+        Path skillMd = SkillFrontmatterParser.locateSkillMd(skillDir);
+        if (skillMd == null) {
+            skills.remove(skillDir);
+            return null;
+        }
+        Stamp stamp = stat(skillMd);
+        SkillEntry cached = skills.get(skillDir);
+        if (stamp != null && cached != null && cached.skillMd().equals(skillMd) && cached.stamp().equals(stamp)) {
+            return cached.metadata();
+        }
+
+        SkillFrontmatterParser.SkillMetadata metadata = SkillFrontmatterParser.parse(skillDir);
+        if (stamp != null && isTrusted(stamp)) {
+            put(skills, skillDir, new SkillEntry(skillMd, stamp, metadata));
+        } else {
+            skills.remove(skillDir);
+        }
+        return metadata;
+    }
+
+    /**
+     * Returns the frontmatter description of a command markdown file, re-reading it only when it changed.
+     *
+     * @return the description, or null if the file has none
+     */
+    String commandDescription(Path mdFile) {
+        Stamp stamp = stat(mdFile);
+        DescriptionEntry cached = descriptions.get(mdFile);
+        if (stamp != null && cached != null && cached.stamp().equals(stamp)) {
+            return cached.description();
+        }
+
+        String description = SlashCommandJsonReader.extractCommandDescription(mdFile);
+        if (stamp != null && isTrusted(stamp)) {
+            put(descriptions, mdFile, new DescriptionEntry(stamp, description));
+        } else {
+            descriptions.remove(mdFile);
+        }
+        return description;
+    }
+
+    /**
+     * Drops the entries for a changed path: its own entry, the skill it belongs to, the listing of its
+     * parent and, when it is a directory that was listed, everything below it.
+     */
+    void invalidate(Path path) {
+        descriptions.remove(path);
+        skills.remove(path);
+        Path parent = path.getParent();
+        if (parent != null) {
+            listings.remove(parent);
+            skills.remove(parent);
+        }
+        if (listings.remove(path) != null) {
+            listings.keySet().removeIf(key -> key.startsWith(path));
+            skills.keySet().removeIf(key -> key.startsWith(path));
+            descriptions.keySet().removeIf(key -> key.startsWith(path));
+        }
+    }
+
+    void clear() {
+        listings.clear();
+        skills.clear();
+        descriptions.clear();
+    }
+
+    @Override
+    public void after(@NotNull List<? extends VFileEvent> events) {
+        if (listings.isEmpty() && skills.isEmpty() && descriptions.isEmpty()) {
+            return;
+        }
+        for (VFileEvent event : events) {
+            invalidatePath(event.getPath());
+            if (event instanceof VFileMoveEvent move) {
+                invalidatePath(move.getOldPath());
+            } else if (event instanceof VFilePropertyChangeEvent property && property.isRename()) {
+                invalidatePath(property.getOldPath());
+            }
+        }
+    }
+
+    private void invalidatePath(String path) {
+        if (path == null || path.isEmpty()) {
+            return;
+        }
+        try {
+            invalidate(Paths.get(path).toAbsolutePath().normalize());
+        } catch (Exception e) {
+            LOG.debug("Ignoring VFS event for unparseable path: " + path);
+        }
+    }
+
+    private static <V> void put(Map<Path, V> map, Path key, V value) {
+        if (map.size() >= MAX_ENTRIES && !map.containsKey(key)) {
+            map.clear();
+        }
+        map.put(key, value);
+    }
+
+    private static boolean isTrusted(Stamp stamp) {
+        return System.currentTimeMillis() - stamp.modified() >= RACY_WINDOW_MS;
+    }
+
+    private static Stamp stat(Path path) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return new Stamp(attributes.lastModifiedTime().toMillis(), attributes.size());
+        } catch (IOException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+}
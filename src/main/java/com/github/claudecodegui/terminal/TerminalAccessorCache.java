@@ -0,0 +1,304 @@
+package com.github.claudecodegui.terminal;
+
+import com.intellij.openapi.diagnostic.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-class cache of {@link MethodHandle}s used to scrape terminal screens.
+ *
+ * <p>Terminal internals are only reachable via reflection and their method names differ between
+ * IDE versions. Resolving them (including {@code getMethods()} scans) is done once per concrete
+ * class; subsequent calls go straight through pre-adapted handles. Missing accessors are cached as
+ * {@link Optional#empty()} so unsupported versions degrade to an empty scrape without re-probing.</p>
+ */
+final class TerminalAccessorCache {
+
+    private static final Logger LOG = Logger.getInstance(TerminalAccessorCache.class);
+
+    private static final MethodType GETTER = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType INT_GETTER = MethodType.methodType(int.class, Object.class);
+    private static final MethodType INDEXED_GETTER = MethodType.methodType(Object.class, Object.class, int.class);
+    private static final MethodType STRING_GETTER = MethodType.methodType(String.class, Object.class);
+
+    private static final String[] BUFFER_METHODS = {"getTextBuffer", "getTerminalTextBuffer"};
+    private static final String[] LINE_COUNT_METHODS = {"getLineCount", "getLinesCount", "getHeight", "getBufferHeight"};
+    private static final String[] LINE_TEXT_METHODS = {"getText", "getLineText", "getLine", "getString"};
+
+    private static final Map<Class<?>, Optional<MethodHandle>> DIRECT_TERMINAL_CACHE = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, Optional<MethodHandle>> TERMINAL_PANEL_CACHE = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, List<MethodHandle>> TEXT_BUFFER_CACHE = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, Optional<BufferAccessor>> BUFFER_ACCESSOR_CACHE = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, LineTextAccessor> LINE_TEXT_CACHE = new ConcurrentHashMap<>();
+
+    private TerminalAccessorCache() {
+    }
+
+    /**
+     * Line count and line lookup handles for a terminal text buffer class.
+     */
+    static final class BufferAccessor {
+        private final MethodHandle lineCount;
+        private final MethodHandle getLine;
+
+        private BufferAccessor(@NotNull MethodHandle lineCount, @NotNull MethodHandle getLine) {
+            this.lineCount = lineCount;
+            this.getLine = getLine;
+        }
+
+        int lineCount(@NotNull Object buffer) throws Throwable {
+            return (int) lineCount.invokeExact(buffer);
+        }
+
+        @Nullable
+        Object line(@NotNull Object buffer, int index) throws Throwable {
+            return (Object) getLine.invokeExact(buffer, index);
+        }
+    }
+
+    /**
+     * Ordered text extractors for a terminal line class. Named candidates accept any non-null
+     * value; the generic String-getter fallbacks require non-empty text.
+     */
+    private static final class LineTextAccessor {
+        private final List<MethodHandle> named;
+        private final List<MethodHandle> fallbacks;
+
+        private LineTextAccessor(@NotNull List<MethodHandle> named, @NotNull List<MethodHandle> fallbacks) {
+            this.named = named;
+            this.fallbacks = fallbacks;
+        }
+    }
+
+    /**
+     * Resolve the Terminal object of a widget: {@code getTerminal()} first, then
+     * {@code getTerminalPanel().getTerminal()}.
+     */
+    @Nullable
+    static Object getTerminal(@NotNull Object widget) {
+        Object terminal = invokeGetter(directTerminalHandle(widget.getClass()), widget);
+        if (terminal != null) {
+            return terminal;
+        }
+
+        Object panel = invokeGetter(
+                TERMINAL_PANEL_CACHE.computeIfAbsent(widget.getClass(), cls -> findGetter(cls, "getTerminalPanel")),
+                widget
+        );
+        if (panel != null) {
+            return invokeGetter(directTerminalHandle(panel.getClass()), panel);
+        }
+        return null;
+    }
+
+    @Nullable
+    static Object getTextBuffer(@NotNull Object terminal) {
+        List<MethodHandle> candidates = TEXT_BUFFER_CACHE.computeIfAbsent(terminal.getClass(), cls -> {
+            List<MethodHandle> handles = new ArrayList<>();
+            for (String name : BUFFER_METHODS) {
+                findGetter(cls, name).ifPresent(handles::add);
+            }
+            return handles;
+        });
+        for (MethodHandle handle : candidates) {
+            Object buffer = invokeGetter(Optional.of(handle), terminal);
+            if (buffer != null) {
+                return buffer;
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    static BufferAccessor getBufferAccessor(@NotNull Object buffer) {
+        return BUFFER_ACCESSOR_CACHE.computeIfAbsent(buffer.getClass(), TerminalAccessorCache::resolveBufferAccessor)
+                .orElse(null);
+    }
+
+    /**
+     * Extract the text of a terminal line object, or {@code null} when no accessor yields text.
+     */
+    @Nullable
+    static String getLineText(@NotNull Object line) {
+        LineTextAccessor accessor = LINE_TEXT_CACHE.computeIfAbsent(line.getClass(), TerminalAccessorCache::resolveLineText);
+        for (MethodHandle handle : accessor.named) {
+            String text = invokeStringGetter(handle, line);
+            if (text != null) {
+                return text;
+            }
+        }
+        for (MethodHandle handle : accessor.fallbacks) {
+            String text = invokeStringGetter(handle, line);
+            if (text != null && !text.isEmpty()) {
+                return text;
+            }
+        }
+        return null;
+    }
+
+    private static Optional<MethodHandle> directTerminalHandle(@NotNull Class<?> cls) {
+        return DIRECT_TERMINAL_CACHE.computeIfAbsent(cls, c -> findGetter(c, "getTerminal"));
+    }
+
+    private static Optional<BufferAccessor> resolveBufferAccessor(@NotNull Class<?> cls) {
+        Method lineCountMethod = findLineCountMethod(cls);
+        Method getLineMethod = findGetLineMethod(cls);
+        if (lineCountMethod == null || getLineMethod == null) {
+            LOG.debug("[Terminal] No line accessors on " + cls.getName()
+                    + " (lineCount=" + (lineCountMethod != null) + ", getLine=" + (getLineMethod != null) + ")");
+            return Optional.empty();
+        }
+        MethodHandle lineCount = unreflect(lineCountMethod, INT_GETTER);
+        MethodHandle getLine = unreflect(getLineMethod, INDEXED_GETTER);
+        if (lineCount == null || getLine == null) {
+            return Optional.empty();
+        }
+        LOG.debug("[Terminal] Resolved buffer accessors for " + cls.getName() + ": "
+                + lineCountMethod.getName() + "/" + getLineMethod.getName());
+        return Optional.of(new BufferAccessor(lineCount, getLine));
+    }
+
+    @Nullable
+    private static Method findLineCountMethod(@NotNull Class<?> cls) {
+        for (String name : LINE_COUNT_METHODS) {
+            try {
+                Method m = cls.getMethod(name);
+                if (m.getReturnType() == int.class) {
+                    return m;
+                }
+            } catch (NoSuchMethodException e) {
+                // continue
+            }
+        }
+
+        // Fallback: search all methods
+        for (Method m : cls.getMethods()) {
+            String name = m.getName().toLowerCase();
+            if ((name.contains("linecount") || name.contains("height"))
+                    && m.getParameterCount() == 0 && m.getReturnType() == int.class) {
+                return m;
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    private static Method findGetLineMethod(@NotNull Class<?> cls) {
+        try {
+            return cls.getMethod("getLine", int.class);
+        } catch (NoSuchMethodException e) {
+            // Fallback: search methods
+            for (Method m : cls.getMethods()) {
+                if (m.getName().toLowerCase().contains("getline")
+                        && m.getParameterCount() == 1
+                        && m.getParameterTypes()[0] == int.class) {
+                    return m;
+                }
+            }
+        }
+        return null;
+    }
+
+    @NotNull
+    private static LineTextAccessor resolveLineText(@NotNull Class<?> cls) {
+        List<MethodHandle> named = new ArrayList<>();
+        for (String name : LINE_TEXT_METHODS) {
+            try {
+                Method m = cls.getMethod(name);
+                if (m.getReturnType() == String.class) {
+                    MethodHandle handle = unreflect(m, STRING_GETTER);
+                    if (handle != null) {
+                        named.add(handle);
+                    }
+                }
+            } catch (NoSuchMethodException e) {
+                // continue
+            }
+        }
+
+        List<MethodHandle> fallbacks = new ArrayList<>();
+        for (Method m : cls.getMethods()) {
+            if (m.getReturnType() == String.class
+                    && m.getParameterCount() == 0
+                    && !m.getName().equals("toString")) {
+                MethodHandle handle = unreflect(m, STRING_GETTER);
+                if (handle != null) {
+                    fallbacks.add(handle);
+                }
+            }
+        }
+        return new LineTextAccessor(named, fallbacks);
+    }
+
+    private static Optional<MethodHandle> findGetter(@NotNull Class<?> cls, @NotNull String name) {
+        try {
+            Method m = cls.getMethod(name);
+            if (m.getReturnType() == void.class) {
+                return Optional.empty();
+            }
+            return Optional.ofNullable(unreflect(m, GETTER));
+        } catch (NoSuchMethodException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Convert a reflective method into a handle adapted to {@code type}. Public methods declared on
+     * non-public implementation classes need {@code setAccessible}, mirroring {@link Method#invoke}.
+     */
+    @Nullable
+    private static MethodHandle unreflect(@NotNull Method method, @NotNull MethodType type) {
+        try {
+            MethodHandle handle;
+            try {
+                handle = MethodHandles.publicLookup().unreflect(method);
+            } catch (IllegalAccessException e) {
+                method.setAccessible(true);
+                handle = MethodHandles.lookup().unreflect(method);
+            }
+            return handle.asType(type);
+        } catch (IllegalAccessException | RuntimeException e) {
+            LOG.debug("[Terminal] Failed to create handle for " + method, e);
+            return null;
+        }
+    }
+
+    @Nullable
+    private static Object invokeGetter(@NotNull Optional<MethodHandle> handle, @NotNull Object target) {
+        if (handle.isEmpty()) {
+            return null;
+        }
+        try {
+            return (Object) handle.get().invokeExact(target);
+        } catch (Throwable t) {
+            rethrowIfFatal(t);
+            return null;
+        }
+    }
+
+    @Nullable
+    private static String invokeStringGetter(@NotNull MethodHandle handle, @NotNull Object target) {
+        try {
+            return (String) handle.invokeExact(target);
+        } catch (Throwable t) {
+            rethrowIfFatal(t);
+            return null;
+        }
+    }
+
+    static void rethrowIfFatal(@NotNull Throwable t) {
+        if (t instanceof Error && !(t instanceof LinkageError)) {
+            throw (Error) t;
+        }
+    }
+}
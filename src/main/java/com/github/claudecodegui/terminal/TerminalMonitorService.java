@@ -3,6 +3,7 @@ package com.github.claudecodegui.terminal;
 import com.intellij.execution.process.ProcessEvent;
 import com.intellij.execution.process.ProcessHandler;
 import com.intellij.execution.process.ProcessListener;
+import com.github.claudecodegui.util.ChunkedTextBuffer;
 import com.intellij.openapi.Disposable;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.actionSystem.ActionGroup;
@@ -61,6 +62,9 @@ import java.util.stream.Collectors;
  *   <li>{@code TerminalWidget} - Individual terminal tab widget</li>
  *   <li>{@code Terminal/TerminalTextBuffer} - Terminal content buffer for screen scraping</li>
  * </ul>
+ *
+ * <p>Screen-scraping accessors are resolved once per concrete class and cached as method handles
+ * in {@link TerminalAccessorCache}.</p>
  */
 public class TerminalMonitorService implements ProjectActivity {
 
@@ -81,9 +85,11 @@ public class TerminalMonitorService implements ProjectActivity {
      * Buffer storage for terminal output using WeakHashMap.
      * Buffers are automatically cleaned up when the associated widget is garbage collected.
      */
-    private static final Map<Object, StringBuilder> buffers = Collections.synchronizedMap(new WeakHashMap<>());
+    private static final Map<Object, ChunkedTextBuffer> buffers = Collections.synchronizedMap(new WeakHashMap<>());
 
     private static final int MAX_BUFFER_SIZE = 100000; // Keep last 100k chars
+    /** Lines of terminal output returned as content, from either the capture or the screen. */
+    private static final int MAX_CONTENT_LINES = 500;
 
     private static final class ProjectMonitorState {
         private final CheckedDisposable listenerDisposable;
@@ -278,16 +284,11 @@ public class TerminalMonitorService implements ProjectActivity {
             return;
         }
 
-        StringBuilder sb;
+        ChunkedTextBuffer buffer;
         synchronized (buffers) {
-            sb = buffers.computeIfAbsent(widget, k -> new StringBuilder());
-        }
-        synchronized (sb) {
-            sb.append(text);
-            if (sb.length() > MAX_BUFFER_SIZE) {
-                sb.delete(0, sb.length() - MAX_BUFFER_SIZE);
-            }
+            buffer = buffers.computeIfAbsent(widget, k -> new ChunkedTextBuffer(MAX_BUFFER_SIZE));
         }
+        buffer.append(text);
     }
 
     /**
@@ -381,7 +382,7 @@ public class TerminalMonitorService implements ProjectActivity {
     }
 
     /**
-     * Get the captured content of a terminal widget.
+     * Get the last {@value #MAX_CONTENT_LINES} lines of a terminal widget.
      * Selects the more complete data source between dynamic capture (ProcessListener) and screen scrape.
      */
     public static String getWidgetContent(@NotNull Object widget) {
@@ -404,14 +405,19 @@ public class TerminalMonitorService implements ProjectActivity {
     }
 
     /**
-     * Get cached content from process listener buffer.
+     * Get cached content from process listener buffer, limited like the screen scrape.
      */
     private static String getCapturedContent(@NotNull Object widget) {
-        StringBuilder sb = buffers.get(widget);
-        if (sb == null) return "";
-        synchronized (sb) {
-            return sb.toString();
-        }
+        return getCapturedTail(widget, MAX_CONTENT_LINES);
+    }
+
+    /**
+     * Get the last {@code maxLines} lines captured from a terminal widget's process output.
+     * Only the requested suffix is copied out of the capture buffer.
+     */
+    public static String getCapturedTail(@NotNull Object widget, int maxLines) {
+        ChunkedTextBuffer buffer = buffers.get(widget);
+        return buffer != null ? buffer.tailLines(maxLines) : "";
     }
 
     /**
@@ -431,7 +437,7 @@ public class TerminalMonitorService implements ProjectActivity {
             if (buffer == null) return "";
 
             // Step 3: Scrape lines
-            return scrapeBufferLines(buffer, 500);
+            return scrapeBufferLines(buffer, MAX_CONTENT_LINES);
         } catch (Exception e) {
             LOG.debug("[Terminal] Screen scrape failed: " + e.getMessage());
             return "";
@@ -439,58 +445,26 @@ public class TerminalMonitorService implements ProjectActivity {
     }
 
     /**
-     * Get Terminal object from widget via reflection.
+     * Get Terminal object from widget via cached method handles.
      * Tries direct getTerminal() first, then falls back to getTerminalPanel().getTerminal()
      */
     private static Object getTerminalObject(@NotNull Object widget) {
-        // Try direct method first
-        try {
-            Object terminal = widget.getClass().getMethod("getTerminal").invoke(widget);
-            if (terminal != null) {
-                LOG.debug("[Terminal] Found terminal via getTerminal()");
-                return terminal;
-            }
-        } catch (Exception e) {
-            LOG.debug("[Terminal] getTerminal() failed: " + e.getMessage());
-        }
-
-        // Try via panel
-        try {
-            Method getPanelMethod = widget.getClass().getMethod("getTerminalPanel");
-            Object panel = getPanelMethod.invoke(widget);
-            if (panel != null) {
-                Object terminal = panel.getClass().getMethod("getTerminal").invoke(panel);
-                if (terminal != null) {
-                    LOG.debug("[Terminal] Found terminal via panel.getTerminal()");
-                    return terminal;
-                }
-            }
-        } catch (Exception e) {
-            LOG.debug("[Terminal] getTerminalPanel().getTerminal() failed: " + e.getMessage());
+        Object terminal = TerminalAccessorCache.getTerminal(widget);
+        if (terminal == null) {
+            LOG.debug("[Terminal] Could not find Terminal object");
         }
-
-        LOG.debug("[Terminal] Could not find Terminal object");
-        return null;
+        return terminal;
     }
 
     /**
-     * Get TextBuffer from Terminal object via reflection.
+     * Get TextBuffer from Terminal object via cached method handles.
      */
     private static Object getTextBuffer(@NotNull Object terminal) {
-        String[] bufferMethods = {"getTextBuffer", "getTerminalTextBuffer"};
-        for (String methodName : bufferMethods) {
-            try {
-                Object buffer = terminal.getClass().getMethod(methodName).invoke(terminal);
-                if (buffer != null) {
-                    LOG.debug("[Terminal] Found buffer via " + methodName + "()");
-                    return buffer;
-                }
-            } catch (Exception e) {
-                LOG.debug("[Terminal] " + methodName + "() failed");
-            }
+        Object buffer = TerminalAccessorCache.getTextBuffer(terminal);
+        if (buffer == null) {
+            LOG.debug("[Terminal] Could not find TextBuffer object");
         }
-        LOG.debug("[Terminal] Could not find TextBuffer object");
-        return null;
+        return buffer;
     }
 
     /**
@@ -500,22 +474,14 @@ public class TerminalMonitorService implements ProjectActivity {
      * @return Scraped content as string
      */
     private static String scrapeBufferLines(@NotNull Object buffer, int maxLines) {
-        try {
-            // Find line count method
-            Method getLineCountMethod = findLineCountMethod(buffer);
-            if (getLineCountMethod == null) {
-                LOG.debug("[Terminal] Could not find line count method");
-                return "";
-            }
-
-            // Find getLine method
-            Method getLineMethod = findGetLineMethod(buffer);
-            if (getLineMethod == null) {
-                LOG.debug("[Terminal] Could not find getLine method");
-                return "";
-            }
+        TerminalAccessorCache.BufferAccessor accessor = TerminalAccessorCache.getBufferAccessor(buffer);
+        if (accessor == null) {
+            LOG.debug("[Terminal] Could not find line accessors");
+            return "";
+        }
 
-            int totalLines = (int) getLineCountMethod.invoke(buffer);
+        try {
+            int totalLines = accessor.lineCount(buffer);
             int start = Math.max(0, totalLines - maxLines);
             LOG.debug("[Terminal] Scraping lines " + start + " to " + totalLines);
 
@@ -523,7 +489,7 @@ public class TerminalMonitorService implements ProjectActivity {
             int successCount = 0;
 
             for (int i = start; i < totalLines; i++) {
-                String lineText = extractLineText(buffer, getLineMethod, i);
+                String lineText = extractLineText(buffer, accessor, i);
                 if (lineText != null && !lineText.trim().isEmpty()) {
                     scraped.append(lineText).append("\n");
                     successCount++;
@@ -532,87 +498,31 @@ public class TerminalMonitorService implements ProjectActivity {
 
             LOG.debug("[Terminal] Scraped " + successCount + " non-empty lines");
             return scraped.toString().trim();
-        } catch (Exception e) {
-            LOG.debug("[Terminal] Failed to scrape buffer lines: " + e.getMessage());
+        } catch (ProcessCanceledException e) {
+            throw e;
+        } catch (Throwable t) {
+            TerminalAccessorCache.rethrowIfFatal(t);
+            LOG.debug("[Terminal] Failed to scrape buffer lines: " + t.getMessage());
             return "";
         }
     }
 
-    /**
-     * Find method to get line count from buffer.
-     */
-    private static Method findLineCountMethod(@NotNull Object buffer) {
-        String[] methodNames = {"getLineCount", "getLinesCount", "getHeight", "getBufferHeight"};
-        for (String name : methodNames) {
-            try {
-                return buffer.getClass().getMethod(name);
-            } catch (NoSuchMethodException e) {
-                // continue
-            }
-        }
-
-        // Fallback: search all methods
-        for (Method m : buffer.getClass().getMethods()) {
-            String name = m.getName().toLowerCase();
-            if ((name.contains("linecount") || name.contains("height"))
-                    && m.getParameterCount() == 0 && m.getReturnType() == int.class) {
-                return m;
-            }
-        }
-        return null;
-    }
-
-    /**
-     * Find method to get a line from buffer.
-     */
-    private static Method findGetLineMethod(@NotNull Object buffer) {
-        try {
-            return buffer.getClass().getMethod("getLine", int.class);
-        } catch (NoSuchMethodException e) {
-            // Fallback: search methods
-            for (Method m : buffer.getClass().getMethods()) {
-                if (m.getName().toLowerCase().contains("getline")
-                        && m.getParameterCount() == 1
-                        && m.getParameterTypes()[0] == int.class) {
-                    return m;
-                }
-            }
-        }
-        return null;
-    }
-
     /**
      * Extract text from a single line object.
      */
-    private static String extractLineText(@NotNull Object buffer, @NotNull Method getLineMethod, int lineIndex) {
+    private static String extractLineText(
+            @NotNull Object buffer,
+            @NotNull TerminalAccessorCache.BufferAccessor accessor,
+            int lineIndex
+    ) {
         try {
-            Object line = getLineMethod.invoke(buffer, lineIndex);
-            if (line == null) return null;
-
-            // Try common method names
-            String[] textMethods = {"getText", "getLineText", "getLine", "getString"};
-            for (String methodName : textMethods) {
-                try {
-                    Method m = line.getClass().getMethod(methodName);
-                    String text = (String) m.invoke(line);
-                    if (text != null) return text;
-                } catch (Exception e) {
-                    // continue
-                }
-            }
-
-            // Fallback: find any String-returning method
-            for (Method m : line.getClass().getMethods()) {
-                if (m.getReturnType() == String.class
-                        && m.getParameterCount() == 0
-                        && !m.getName().equals("toString")
-                        && !m.getName().equals("getClass")) {
-                    String text = (String) m.invoke(line);
-                    if (text != null && !text.isEmpty()) return text;
-                }
-            }
-        } catch (Exception e) {
-            LOG.debug("Failed to extract text from line " + lineIndex, e);
+            Object line = accessor.line(buffer, lineIndex);
+            return line != null ? TerminalAccessorCache.getLineText(line) : null;
+        } catch (ProcessCanceledException e) {
+            throw e;
+        } catch (Throwable t) {
+            TerminalAccessorCache.rethrowIfFatal(t);
+            LOG.debug("Failed to extract text from line " + lineIndex, t);
         }
         return null;
     }
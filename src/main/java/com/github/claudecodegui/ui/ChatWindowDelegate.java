@@ -75,6 +75,7 @@ public class ChatWindowDelegate {
         JBCefBrowser getBrowser();
         boolean isDisposed();
         void callJavaScript(String fn, String... args);
+        void executeJavaScriptCode(String jsCode);
         Content getParentContent();
         String getOriginalTabName();
         void setOriginalTabName(String name);
@@ -234,6 +235,10 @@ public class ChatWindowDelegate {
             public String escapeJs(String str) {
                 return JsUtils.escapeJs(str);
             }
+            @Override
+            public void executeScript(String jsCode) {
+                host.executeJavaScriptCode(jsCode);
+            }
         };
 
         HandlerContext handlerContext = new HandlerContext(project, claudeSDKBridge, codexSDKBridge, settingsService, jsCallback);
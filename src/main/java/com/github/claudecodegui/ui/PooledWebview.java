@@ -0,0 +1,230 @@
+package com.github.claudecodegui.ui;
+
+import com.github.claudecodegui.util.JBCefBrowserFactory;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.ui.jcef.JBCefBrowser;
+import com.intellij.ui.jcef.JBCefJSQuery;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.cef.browser.CefBrowser;
+import org.cef.browser.CefFrame;
+import org.cef.handler.CefLoadHandlerAdapter;
+
+import java.awt.*;
+import java.awt.datatransfer.Clipboard;
+import java.awt.datatransfer.DataFlavor;
+import java.awt.datatransfer.Transferable;
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * A chat browser together with its JS bridge, which can be created before the window that will
+ * show it.
+ *
+ * <p>The {@code sendToJava} and {@code getClipboardFilePath} queries are created with the browser
+ * and injected on every page load. Page messages are forwarded to the current {@link Binding};
+ * until one is attached, messages (such as {@code frontend_ready}) are buffered and the
+ * window-specific part of the page-load setup is deferred. {@link #bind} replays both in order, so
+ * a pre-warmed page behaves exactly as if it had been loaded for the window.</p>
+ *
+ * <p>The replay runs on a background thread, like live messages, which arrive on the CEF query
+ * thread; neither is delivered on the EDT or under the lock. Events that arrive during the replay
+ * queue up behind it, so the binding sees them in order.</p>
+ */
+final class PooledWebview {
+
+    private static final Logger LOG = Logger.getInstance(PooledWebview.class);
+
+    // The page only sends a handful of messages before it is handed to a window
+    private static final int MAX_PENDING_EVENTS = 256;
+
+    /**
+     * Window-side receiver of a pooled browser.
+     */
+    interface Binding {
+        /**
+         * Called for every message the page sends through {@code window.sendToJava}.
+         */
+        void onMessage(String message);
+
+        /**
+         * Called after each main-frame load, once the JS bridge has been injected.
+         */
+        void onPageLoaded(CefBrowser cefBrowser);
+    }
+
+    private final JBCefBrowser browser;
+    private final String themeKey;
+
+    private final Executor replayExecutor =
+            AppExecutorUtil.createBoundedApplicationPoolExecutor("CCG Webview Replay", 1);
+
+    private final Object lock = new Object();
+    // Guarded by lock
+    private Binding binding;
+    private final Deque<Consumer<Binding>> pendingEvents = new ArrayDeque<>();
+    private boolean replaying;
+
+    /**
+     * @param themeKey identifies the IDE theme the page was rendered for
+     */
+    PooledWebview(boolean createImmediately, String themeKey) {
+        this.browser = JBCefBrowserFactory.create(createImmediately);
+        this.themeKey = themeKey;
+
+        JBCefJSQuery jsQuery = JBCefJSQuery.create(browser);
+        jsQuery.addHandler((msg) -> {
+            dispatchMessage(msg);
+            return new JBCefJSQuery.Response("ok");
+        });
+
+        // Create a dedicated JSQuery for getting clipboard file paths
+        JBCefJSQuery getClipboardPathQuery = JBCefJSQuery.create(browser);
+        getClipboardPathQuery.addHandler((msg) -> {
+            try {
+                LOG.debug("Clipboard path request received");
+                Clipboard clipboard = Toolkit.getDefaultToolkit().getSystemClipboard();
+                Transferable contents = clipboard.getContents(null);
+
+                if (contents != null && contents.isDataFlavorSupported(DataFlavor.javaFileListFlavor)) {
+                    @SuppressWarnings("unchecked")
+                    List<File> files = (List<File>) contents.getTransferData(DataFlavor.javaFileListFlavor);
+
+                    if (!files.isEmpty()) {
+                        File file = files.get(0);
+                        String filePath = file.getAbsolutePath();
+                        LOG.debug("Returning file path from clipboard: " + filePath);
+                        return new JBCefJSQuery.Response(filePath);
+                    }
+                }
+                LOG.debug("No file in clipboard");
+                return new JBCefJSQuery.Response("");
+            } catch (Exception ex) {
+                LOG.warn("Error getting clipboard path: " + ex.getMessage());
+                return new JBCefJSQuery.Response("");
+            }
+        });
+
+        browser.getJBCefClient().addLoadHandler(new CefLoadHandlerAdapter() {
+            @Override
+            public void onLoadEnd(CefBrowser cefBrowser, CefFrame frame, int httpStatusCode) {
+                LOG.debug("onLoadEnd called, isMain=" + frame.isMain() + ", url=" + cefBrowser.getURL());
+
+                if (!frame.isMain()) {
+                    return;
+                }
+
+                String injection = "window.sendToJava = function(msg) { " + jsQuery.inject("msg") + " };";
+                cefBrowser.executeJavaScript(injection, cefBrowser.getURL(), 0);
+
+                // Inject clipboard path retrieval function
+                String clipboardPathInjection =
+                    "window.getClipboardFilePath = function() {" +
+                    "  return new Promise((resolve) => {" +
+                    "    " + getClipboardPathQuery.inject("''",
+                        "function(response) { resolve(response); }",
+                        "function(error_code, error_message) { console.error('Failed to get clipboard path:', error_message); resolve(''); }") +
+                    "  });" +
+                    "};";
+                cefBrowser.executeJavaScript(clipboardPathInjection, cefBrowser.getURL(), 0);
+
+                deliver(current -> current.onPageLoaded(cefBrowser), true);
+            }
+        }, browser.getCefBrowser());
+    }
+
+    JBCefBrowser getBrowser() {
+        return browser;
+    }
+
+    String getThemeKey() {
+        return themeKey;
+    }
+
+    /**
+     * Hands the browser to a window. Buffered messages and a page load that happened before are
+     * delivered to the binding, in the background, before any new message.
+     */
+    void bind(Binding newBinding) {
+        synchronized (lock) {
+            binding = newBinding;
+            if (pendingEvents.isEmpty()) {
+                return;
+            }
+            replaying = true;
+        }
+        replayExecutor.execute(() -> replay(newBinding));
+    }
+
+    /**
+     * Delivers buffered events until none are left, including those that arrived meanwhile.
+     */
+    private void replay(Binding target) {
+        while (true) {
+            List<Consumer<Binding>> batch;
+            synchronized (lock) {
+                if (pendingEvents.isEmpty()) {
+                    replaying = false;
+                    return;
+                }
+                batch = new ArrayList<>(pendingEvents);
+                pendingEvents.clear();
+            }
+            for (Consumer<Binding> event : batch) {
+                try {
+                    event.accept(target);
+                } catch (RuntimeException e) {
+                    LOG.warn("[WebviewPool] Failed to replay webview event: " + e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    boolean isBound() {
+        synchronized (lock) {
+            return binding != null;
+        }
+    }
+
+    void dispose() {
+        try {
+            browser.dispose();
+        } catch (Exception e) {
+            LOG.debug("[WebviewPool] Failed to dispose pooled browser: " + e.getMessage(), e);
+        }
+    }
+
+    private void dispatchMessage(String message) {
+        deliver(current -> current.onMessage(message), false);
+    }
+
+    /**
+     * Delivers an event on the calling thread, or buffers it while there is no binding or a
+     * replay is still running.
+     */
+    private void deliver(Consumer<Binding> event, boolean pageLoad) {
+        Binding current;
+        synchronized (lock) {
+            current = binding;
+            if (current == null) {
+                if (pageLoad) {
+                    // Anything the previous page sent is stale; the new page announces itself again
+                    pendingEvents.clear();
+                } else if (pendingEvents.size() >= MAX_PENDING_EVENTS) {
+                    pendingEvents.pollFirst();
+                }
+                pendingEvents.addLast(event);
+                return;
+            }
+            if (replaying) {
+                pendingEvents.addLast(event);
+                return;
+            }
+        }
+        event.accept(current);
+    }
+}
@@ -0,0 +1,258 @@
+package com.github.claudecodegui.ui;
+
+import com.github.claudecodegui.util.JsUtils;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.util.concurrency.AppExecutorUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Outbound Java-to-webview script queue for one chat window.
+ *
+ * <p>Scripts queued on the {@link Lane#FRAME} lane are collected for one frame (~16ms) and sent
+ * to the browser as a single {@code executeJavaScript} call, so bursts of streaming callbacks
+ * (content/thinking deltas, usage, heartbeats, status) cost one JCEF round trip instead of one
+ * each. The {@link Lane#IMMEDIATE} lane flushes right away, together with anything still pending
+ * ahead of it, so invocation order is always preserved.</p>
+ *
+ * <p>Every script for a chat page goes through this queue. The only direct
+ * {@code executeJavaScript} calls are the bridge and config injections run from the page's
+ * load handler (see {@link PooledWebview} and {@link WebviewInitializer}), which must be in
+ * place before the page processes any queued call, and the permission dialog, which owns its
+ * own browser.</p>
+ *
+ * <p>Queue depth and flush sizes are also recorded in {@link WebviewCallQueueMetrics#global()}.</p>
+ */
+public final class WebviewCallQueue {
+
+    private static final Logger LOG = Logger.getInstance(WebviewCallQueue.class);
+
+    /** One frame at 60fps. */
+    static final int FRAME_INTERVAL_MS = 16;
+
+    /**
+     * Runs each string as an inline script element. The page CSP allows inline scripts but not
+     * {@code eval}, and an element is parsed and run on its own, with errors reported to the console.
+     */
+    private static final String BATCH_PREFIX = "(function(c){var p=document.head||document.documentElement;"
+            + "for(var i=0;i<c.length;i++){var s=document.createElement('script');s.text=c[i];p.appendChild(s);s.remove();}})([";
+    private static final String BATCH_SUFFIX = "]);";
+
+    public enum Lane {
+        /** Coalesced with other calls made within the same frame. */
+        FRAME,
+        /** Flushed on the next EDT turn, e.g. stream end and errors. */
+        IMMEDIATE
+    }
+
+    public interface Scheduler {
+        void schedule(Runnable runnable, long delayMs);
+
+        void cancel();
+    }
+
+    private final Object lock = new Object();
+    private final Consumer<String> scriptSink;
+    private final Scheduler scheduler;
+    private final WebviewCallQueueMetrics metrics;
+
+    private List<String> pending = new ArrayList<>();
+    private boolean frameScheduled;
+    private boolean immediateScheduled;
+    private volatile boolean disposed;
+
+    private long flushCount;
+    private long flushedCalls;
+    private int maxFlushSize;
+    private int maxQueueDepth;
+
+    /**
+     * @param scriptSink executes a combined script; invoked on the EDT
+     */
+    public WebviewCallQueue(Consumer<String> scriptSink) {
+        this(scriptSink, new EdtScheduler(), WebviewCallQueueMetrics.global());
+    }
+
+    WebviewCallQueue(Consumer<String> scriptSink, Scheduler scheduler, WebviewCallQueueMetrics metrics) {
+        this.scriptSink = scriptSink;
+        this.scheduler = scheduler;
+        this.metrics = metrics;
+    }
+
+    public void enqueue(String script, Lane lane) {
+        if (disposed || script == null || script.isEmpty()) {
+            return;
+        }
+
+        boolean scheduleImmediate = false;
+        boolean scheduleFrame = false;
+        synchronized (lock) {
+            pending.add(script);
+            maxQueueDepth = Math.max(maxQueueDepth, pending.size());
+            metrics.recordDepth(pending.size());
+            if (lane == Lane.IMMEDIATE) {
+                if (!immediateScheduled) {
+                    immediateScheduled = true;
+                    scheduleImmediate = true;
+                }
+            } else if (!frameScheduled && !immediateScheduled) {
+                frameScheduled = true;
+                scheduleFrame = true;
+            }
+        }
+
+        if (scheduleImmediate) {
+            scheduler.cancel();
+            scheduler.schedule(this::flush, 0);
+        } else if (scheduleFrame) {
+            scheduler.schedule(this::flush, FRAME_INTERVAL_MS);
+        }
+    }
+
+    /**
+     * Send every pending call to the webview now. Must be called on the EDT.
+     */
+    public void flush() {
+        final List<String> batch;
+        synchronized (lock) {
+            frameScheduled = false;
+            immediateScheduled = false;
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new ArrayList<>();
+            flushCount++;
+            flushedCalls += batch.size();
+            maxFlushSize = Math.max(maxFlushSize, batch.size());
+        }
+        metrics.recordFlush(batch.size());
+        if (disposed) {
+            return;
+        }
+
+        String script = batch.size() == 1 ? batch.get(0) : combine(batch);
+
+        try {
+            scriptSink.accept(script);
+        } catch (Exception e) {
+            LOG.warn("Failed to flush " + batch.size() + " webview call(s): " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Joins calls into one script. Each call is passed as a string literal and run as its own
+     * global script, so it is parsed on its own: a syntax error, a missing semicolon or a trailing
+     * line comment stays inside that call, and a call that throws does not abort the rest of the
+     * batch.
+     */
+    static String combine(List<String> batch) {
+        int length = BATCH_PREFIX.length() + BATCH_SUFFIX.length();
+        for (String call : batch) {
+            length += call.length() + 3;
+        }
+        StringBuilder combined = new StringBuilder(length).append(BATCH_PREFIX);
+        for (int i = 0; i < batch.size(); i++) {
+            if (i > 0) {
+                combined.append(',');
+            }
+            combined.append('\'').append(JsUtils.escapeJs(batch.get(i))).append('\'');
+        }
+        return combined.append(BATCH_SUFFIX).toString();
+    }
+
+    public int getQueueDepth() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    public int getMaxQueueDepth() {
+        synchronized (lock) {
+            return maxQueueDepth;
+        }
+    }
+
+    public long getFlushCount() {
+        synchronized (lock) {
+            return flushCount;
+        }
+    }
+
+    public int getMaxFlushSize() {
+        synchronized (lock) {
+            return maxFlushSize;
+        }
+    }
+
+    public double getAverageFlushSize() {
+        synchronized (lock) {
+            return flushCount == 0 ? 0.0 : (double) flushedCalls / flushCount;
+        }
+    }
+
+    public String describeMetrics() {
+        synchronized (lock) {
+            return "flushes=" + flushCount
+                    + ", calls=" + flushedCalls
+                    + ", avgFlushSize=" + String.format(Locale.ROOT, "%.2f",
+                    flushCount == 0 ? 0.0 : (double) flushedCalls / flushCount)
+                    + ", maxFlushSize=" + maxFlushSize
+                    + ", depth=" + pending.size()
+                    + ", maxDepth=" + maxQueueDepth;
+        }
+    }
+
+    /**
+     * Drop pending calls and stop scheduling flushes.
+     */
+    public void dispose() {
+        disposed = true;
+        scheduler.cancel();
+        synchronized (lock) {
+            pending = new ArrayList<>();
+            frameScheduled = false;
+            immediateScheduled = false;
+        }
+    }
+
+    /**
+     * Runs flushes through {@code invokeLater}, like the per-call path it replaces, so modality
+     * behaviour is unchanged. Frame flushes hop through the shared scheduled executor first.
+     */
+    private static final class EdtScheduler implements Scheduler {
+        private final AtomicReference<ScheduledFuture<?>> futureRef = new AtomicReference<>();
+
+        @Override
+        public void schedule(Runnable runnable, long delayMs) {
+            if (delayMs <= 0) {
+                ApplicationManager.getApplication().invokeLater(runnable);
+                return;
+            }
+            ScheduledFuture<?> future = AppExecutorUtil.getAppScheduledExecutorService().schedule(
+                    () -> ApplicationManager.getApplication().invokeLater(runnable),
+                    delayMs,
+                    TimeUnit.MILLISECONDS
+            );
+            ScheduledFuture<?> previous = futureRef.getAndSet(future);
+            if (previous != null) {
+                previous.cancel(false);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            ScheduledFuture<?> future = futureRef.getAndSet(null);
+            if (future != null) {
+                future.cancel(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.github.claudecodegui.ui;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for {@link WebviewCallQueue}: how many scripts were queued, how many
+ * {@code executeJavaScript} calls they were flushed in, and the deepest queue seen.
+ *
+ * <p>Flush sizes are bucketed by powers of two. One application-wide instance aggregates all chat
+ * windows and is included in the DevTools metrics dump.</p>
+ */
+public final class WebviewCallQueueMetrics {
+
+    /** Bucket {@code i} holds flush sizes in {@code [2^(i-1), 2^i)}; the last bucket is open-ended. */
+    static final int BUCKET_COUNT = 12;
+
+    private static final WebviewCallQueueMetrics GLOBAL = new WebviewCallQueueMetrics();
+
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder calls = new LongAdder();
+    private final LongAccumulator maxFlushSize = new LongAccumulator(Math::max, 0L);
+    private final LongAccumulator maxDepth = new LongAccumulator(Math::max, 0L);
+    private final AtomicLongArray flushSizeBuckets = new AtomicLongArray(BUCKET_COUNT);
+
+    public static WebviewCallQueueMetrics global() {
+        return GLOBAL;
+    }
+
+    void recordDepth(int depth) {
+        maxDepth.accumulate(depth);
+    }
+
+    void recordFlush(int size) {
+        flushes.increment();
+        calls.add(size);
+        maxFlushSize.accumulate(size);
+        flushSizeBuckets.incrementAndGet(bucketFor(size));
+    }
+
+    public long getFlushCount() {
+        return flushes.sum();
+    }
+
+    public long getCallCount() {
+        return calls.sum();
+    }
+
+    public long getMaxFlushSize() {
+        return maxFlushSize.get();
+    }
+
+    public long getMaxDepth() {
+        return maxDepth.get();
+    }
+
+    public boolean isEmpty() {
+        return flushes.sum() == 0L;
+    }
+
+    public void reset() {
+        flushes.reset();
+        calls.reset();
+        maxFlushSize.reset();
+        maxDepth.reset();
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            flushSizeBuckets.set(i, 0L);
+        }
+    }
+
+    /**
+     * Render a plain-text summary.
+     */
+    public String dump() {
+        long flushCount = flushes.sum();
+        long callCount = calls.sum();
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%-10s %-10s %-10s %-8s %-8s %-10s %-10s%n",
+                "flushes", "calls", "avg size", "p50", "p95", "max size", "max depth"));
+        sb.append(String.format(Locale.ROOT, "%-10d %-10d %-10.2f %-8s %-8s %-10d %-10d%n",
+                flushCount,
+                callCount,
+                flushCount == 0 ? 0.0 : (double) callCount / flushCount,
+                formatBound(percentileBucket(0.50)),
+                formatBound(percentileBucket(0.95)),
+                maxFlushSize.get(),
+                maxDepth.get()));
+        return sb.toString();
+    }
+
+    static int bucketFor(int size) {
+        int bucket = 32 - Integer.numberOfLeadingZeros(Math.max(0, size));
+        return Math.min(bucket, BUCKET_COUNT - 1);
+    }
+
+    private int percentileBucket(double percentile) {
+        long total = 0L;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += flushSizeBuckets.get(i);
+        }
+        if (total == 0L) {
+            return -1;
+        }
+        long threshold = (long) Math.ceil(total * percentile);
+        long seen = 0L;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += flushSizeBuckets.get(i);
+            if (seen >= threshold) {
+                return i;
+            }
+        }
+        return BUCKET_COUNT - 1;
+    }
+
+    private static String formatBound(int bucket) {
+        if (bucket < 0) {
+            return "-";
+        }
+        if (bucket == BUCKET_COUNT - 1) {
+            return ">" + (1L << (bucket - 1));
+        }
+        return "<" + (1L << bucket);
+    }
+}
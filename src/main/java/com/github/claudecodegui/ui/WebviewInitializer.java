@@ -21,16 +21,11 @@ import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.wm.ToolWindowManager;
 import com.intellij.ui.jcef.JBCefBrowser;
-import com.intellij.ui.jcef.JBCefBrowserBase;
-import com.intellij.ui.jcef.JBCefJSQuery;
 import org.cef.browser.CefBrowser;
-import org.cef.browser.CefFrame;
-import org.cef.handler.CefLoadHandlerAdapter;
 import org.jetbrains.annotations.NotNull;
 
 import javax.swing.*;
 import java.awt.*;
-import java.awt.datatransfer.Clipboard;
 import java.awt.datatransfer.DataFlavor;
 import java.awt.datatransfer.Transferable;
 import java.awt.dnd.DnDConstants;
@@ -175,131 +170,24 @@ public class WebviewInitializer {
         }
 
         try {
-            JBCefBrowser browser = JBCefBrowserFactory.create();
+            PooledWebview webview = WebviewPool.getInstance().acquire(host.getHtmlLoader());
+            JBCefBrowser browser = webview.getBrowser();
             host.setBrowser(browser);
             host.getHandlerContext().setBrowser(browser);
 
-            JBCefBrowserBase browserBase = browser;
-            JBCefJSQuery jsQuery = JBCefJSQuery.create(browserBase);
-            jsQuery.addHandler((msg) -> {
-                host.handleJavaScriptMessage(msg);
-                return new JBCefJSQuery.Response("ok");
-            });
-
-            // Create a dedicated JSQuery for getting clipboard file paths
-            JBCefJSQuery getClipboardPathQuery = JBCefJSQuery.create(browserBase);
-            getClipboardPathQuery.addHandler((msg) -> {
-                try {
-                    LOG.debug("Clipboard path request received");
-                    Clipboard clipboard = Toolkit.getDefaultToolkit().getSystemClipboard();
-                    Transferable contents = clipboard.getContents(null);
-
-                    if (contents != null && contents.isDataFlavorSupported(DataFlavor.javaFileListFlavor)) {
-                        @SuppressWarnings("unchecked")
-                        List<File> files = (List<File>) contents.getTransferData(DataFlavor.javaFileListFlavor);
-
-                        if (!files.isEmpty()) {
-                            File file = files.get(0);
-                            String filePath = file.getAbsolutePath();
-                            LOG.debug("Returning file path from clipboard: " + filePath);
-                            return new JBCefJSQuery.Response(filePath);
-                        }
-                    }
-                    LOG.debug("No file in clipboard");
-                    return new JBCefJSQuery.Response("");
-                } catch (Exception ex) {
-                    LOG.warn("Error getting clipboard path: " + ex.getMessage());
-                    return new JBCefJSQuery.Response("");
+            // Rebind the pooled JS bridge to this window; messages the page sent while it was
+            // waiting in the pool (e.g. frontend_ready) are replayed off the EDT, like live ones
+            webview.bind(new PooledWebview.Binding() {
+                @Override
+                public void onMessage(String message) {
+                    host.handleJavaScriptMessage(message);
                 }
-            });
 
-            HtmlLoader htmlLoader = host.getHtmlLoader();
-            String htmlContent = htmlLoader.loadChatHtml();
-
-            browser.getJBCefClient().addLoadHandler(new CefLoadHandlerAdapter() {
                 @Override
-                public void onLoadEnd(CefBrowser cefBrowser, CefFrame frame, int httpStatusCode) {
-                    LOG.debug("onLoadEnd called, isMain=" + frame.isMain() + ", url=" + cefBrowser.getURL());
-
-                    if (!frame.isMain()) {
-                        return;
-                    }
-
-                    String injection = "window.sendToJava = function(msg) { " + jsQuery.inject("msg") + " };";
-                    cefBrowser.executeJavaScript(injection, cefBrowser.getURL(), 0);
-
-                    // Inject clipboard path retrieval function
-                    String clipboardPathInjection =
-                        "window.getClipboardFilePath = function() {" +
-                        "  return new Promise((resolve) => {" +
-                        "    " + getClipboardPathQuery.inject("''",
-                            "function(response) { resolve(response); }",
-                            "function(error_code, error_message) { console.error('Failed to get clipboard path:', error_message); resolve(''); }") +
-                        "  });" +
-                        "};";
-                    cefBrowser.executeJavaScript(clipboardPathInjection, cefBrowser.getURL(), 0);
-
-                    // Forward console logs to IDEA console (dev mode only — IPC overhead hurts scroll FPS in production)
-                    if (PlatformUtils.isPluginDevMode()) {
-                        String consoleForward =
-                            "const originalLog = console.log;" +
-                            "const originalError = console.error;" +
-                            "const originalWarn = console.warn;" +
-                            "console.log = function(...args) {" +
-                            "  originalLog.apply(console, args);" +
-                            "  window.sendToJava(JSON.stringify({type: 'console.log', args: args}));" +
-                            "};" +
-                            "console.error = function(...args) {" +
-                            "  originalError.apply(console, args);" +
-                            "  window.sendToJava(JSON.stringify({type: 'console.error', args: args}));" +
-                            "};" +
-                            "console.warn = function(...args) {" +
-                            "  originalWarn.apply(console, args);" +
-                            "  window.sendToJava(JSON.stringify({type: 'console.warn', args: args}));" +
-                            "};";
-                        cefBrowser.executeJavaScript(consoleForward, cefBrowser.getURL(), 0);
-                    }
-
-                    // Pass IDEA editor font configuration to the frontend
-                    String fontConfig = FontConfigService.getEditorFontConfigJson();
-                    LOG.info("[FontSync] Retrieved font config: " + fontConfig);
-                    String fontConfigInjection = String.format(
-                        "if (window.applyIdeaFontConfig) { window.applyIdeaFontConfig(%s); } " +
-                        "else { window.__pendingFontConfig = %s; }",
-                        fontConfig, fontConfig
-                    );
-                    cefBrowser.executeJavaScript(fontConfigInjection, cefBrowser.getURL(), 0);
-                    LOG.info("[FontSync] Font config injected into frontend");
-
-                    // Pass effective plugin UI font configuration to the frontend
-                    String uiFontConfig = FontConfigService.getResolvedUiFontConfigJson(host.getHandlerContext().getSettingsService());
-                    LOG.info("[UiFontSync] Retrieved UI font config");
-                    String escapedUiFontConfig = JsUtils.escapeJs(uiFontConfig);
-                    String uiFontConfigInjection = String.format(
-                        "(function(){ var c = JSON.parse('%s'); " +
-                        "if (window.applyUiFontConfig) { window.applyUiFontConfig(c); } " +
-                        "else { window.__pendingUiFontConfig = c; } })()",
-                        escapedUiFontConfig
-                    );
-                    cefBrowser.executeJavaScript(uiFontConfigInjection, cefBrowser.getURL(), 0);
-                    LOG.info("[UiFontSync] UI font config injected into frontend");
-
-                    // Pass IDEA language configuration to the frontend
-                    String languageConfig = LanguageConfigService.getLanguageConfigJson();
-                    LOG.info("[LanguageSync] Retrieved language config: " + languageConfig);
-                    String languageConfigInjection = String.format(
-                        "if (window.applyIdeaLanguageConfig) { window.applyIdeaLanguageConfig(%s); } " +
-                        "else { window.__pendingLanguageConfig = %s; }",
-                        languageConfig, languageConfig
-                    );
-                    cefBrowser.executeJavaScript(languageConfigInjection, cefBrowser.getURL(), 0);
-                    LOG.info("[LanguageSync] Language config injected into frontend");
-
-                    LOG.debug("onLoadEnd completed, waiting for frontend_ready signal");
+                public void onPageLoaded(CefBrowser cefBrowser) {
+                    injectWindowConfig(cefBrowser);
                 }
-            }, browser.getCefBrowser());
-
-            browser.loadHTML(htmlContent);
+            });
 
             // Reset webview health markers and start watchdog once the browser is created.
             host.getWebviewWatchdog().resetTimestamps();
@@ -334,7 +222,7 @@ public class WebviewInitializer {
                                     "if (window.handleFilePathFromJava) { window.handleFilePathFromJava(%s); }",
                                     jsonArray.toString()
                                 );
-                                browser.getCefBrowser().executeJavaScript(jsCode, browser.getCefBrowser().getURL(), 0);
+                                host.getHandlerContext().executeJavaScriptOnEDT(jsCode);
                             }
                             dtde.dropComplete(true);
                             return;
@@ -371,6 +259,90 @@ public class WebviewInitializer {
         }
     }
 
+    /**
+     * Window-specific setup after each main-frame load, once the JS bridge has been injected.
+     */
+    private void injectWindowConfig(CefBrowser cefBrowser) {
+        // Forward console logs to IDEA console (dev mode only — IPC overhead hurts scroll FPS in production)
+        if (PlatformUtils.isPluginDevMode()) {
+            // Identical consecutive calls are folded into one entry with a repeat count,
+            // entries are flushed as one batch every 250ms, and anything beyond 50 entries
+            // per second is dropped and summarized.
+            String consoleForward =
+                "(function() {" +
+                "  var queue = [], last = null, timer = null;" +
+                "  var windowStart = 0, sentInWindow = 0, dropped = 0;" +
+                "  function flush() {" +
+                "    timer = null; last = null;" +
+                "    if (dropped > 0) {" +
+                "      queue.push({type: 'console.warn', payload: {args: ['[console] dropped ' + dropped + ' message(s)'], repeat: 1}});" +
+                "      dropped = 0;" +
+                "    }" +
+                "    if (queue.length === 0) return;" +
+                "    var batch = queue; queue = [];" +
+                "    try { window.sendToJava(JSON.stringify(batch)); } catch (e) {}" +
+                "  }" +
+                "  ['log', 'warn', 'error'].forEach(function(level) {" +
+                "    var original = console[level];" +
+                "    console[level] = function() {" +
+                "      var args = Array.prototype.slice.call(arguments);" +
+                "      original.apply(console, args);" +
+                "      var key;" +
+                "      try { key = JSON.stringify(args); } catch (e) { key = String(args); args = [key]; }" +
+                "      if (last && last.level === level && last.key === key) { last.entry.payload.repeat++; return; }" +
+                "      var now = Date.now();" +
+                "      if (now - windowStart >= 1000) { windowStart = now; sentInWindow = 0; }" +
+                "      if (sentInWindow >= 50) { dropped++; } else {" +
+                "        sentInWindow++;" +
+                "        var entry = {type: 'console.' + level, payload: {args: args, repeat: 1}};" +
+                "        queue.push(entry);" +
+                "        last = {level: level, key: key, entry: entry};" +
+                "      }" +
+                "      if (!timer) timer = setTimeout(flush, 250);" +
+                "    };" +
+                "  });" +
+                "})();";
+            cefBrowser.executeJavaScript(consoleForward, cefBrowser.getURL(), 0);
+        }
+
+        // Pass IDEA editor font configuration to the frontend
+        String fontConfig = FontConfigService.getEditorFontConfigJson();
+        LOG.info("[FontSync] Retrieved font config: " + fontConfig);
+        String fontConfigInjection = String.format(
+            "if (window.applyIdeaFontConfig) { window.applyIdeaFontConfig(%s); } " +
+            "else { window.__pendingFontConfig = %s; }",
+            fontConfig, fontConfig
+        );
+        cefBrowser.executeJavaScript(fontConfigInjection, cefBrowser.getURL(), 0);
+        LOG.info("[FontSync] Font config injected into frontend");
+
+        // Pass effective plugin UI font configuration to the frontend
+        String uiFontConfig = FontConfigService.getResolvedUiFontConfigJson(host.getHandlerContext().getSettingsService());
+        LOG.info("[UiFontSync] Retrieved UI font config");
+        String escapedUiFontConfig = JsUtils.escapeJs(uiFontConfig);
+        String uiFontConfigInjection = String.format(
+            "(function(){ var c = JSON.parse('%s'); " +
+            "if (window.applyUiFontConfig) { window.applyUiFontConfig(c); } " +
+            "else { window.__pendingUiFontConfig = c; } })()",
+            escapedUiFontConfig
+        );
+        cefBrowser.executeJavaScript(uiFontConfigInjection, cefBrowser.getURL(), 0);
+        LOG.info("[UiFontSync] UI font config injected into frontend");
+
+        // Pass IDEA language configuration to the frontend
+        String languageConfig = LanguageConfigService.getLanguageConfigJson();
+        LOG.info("[LanguageSync] Retrieved language config: " + languageConfig);
+        String languageConfigInjection = String.format(
+            "if (window.applyIdeaLanguageConfig) { window.applyIdeaLanguageConfig(%s); } " +
+            "else { window.__pendingLanguageConfig = %s; }",
+            languageConfig, languageConfig
+        );
+        cefBrowser.executeJavaScript(languageConfigInjection, cefBrowser.getURL(), 0);
+        LOG.info("[LanguageSync] Language config injected into frontend");
+
+        LOG.debug("onLoadEnd completed, waiting for frontend_ready signal");
+    }
+
     /**
      * Replace the main panel's CENTER content, then force a layout refresh.
      * All show*Panel helpers must go through this to avoid stale loading/error panels
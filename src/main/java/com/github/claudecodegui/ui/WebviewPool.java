@@ -0,0 +1,143 @@
+package com.github.claudecodegui.ui;
+
+import com.github.claudecodegui.util.HtmlLoader;
+import com.github.claudecodegui.util.JBCefBrowserFactory;
+import com.github.claudecodegui.util.ThemeConfigService;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.util.concurrency.AppExecutorUtil;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Application-level pool that keeps one spare chat browser with the chat page already loading.
+ *
+ * <p>Building the chat HTML and creating the browser and its JS queries are the expensive part of
+ * opening a chat tab or a detached window. After a browser is handed out, the pool prepares the
+ * next one in the background: the HTML is built on a pooled thread, and the browser is created on
+ * the EDT with the page loaded. With off-screen rendering the native browser is created right
+ * away, so the page is fully initialized while hidden; otherwise the native browser is created
+ * once the component is first shown, as for a regular tab.</p>
+ *
+ * <p>A spare rendered for a different IDE theme is discarded instead of handed out, since the
+ * theme is part of the initial HTML.</p>
+ */
+@Service(Service.Level.APP)
+public final class WebviewPool implements Disposable {
+
+    private static final Logger LOG = Logger.getInstance(WebviewPool.class);
+
+    // Leave the first tab's page load alone before preparing the next browser
+    private static final long REFILL_DELAY_MS = 3000;
+
+    private final Object lock = new Object();
+    // Guarded by lock
+    private PooledWebview spare;
+    private boolean refillScheduled;
+    private boolean disposed;
+
+    public static WebviewPool getInstance() {
+        return ApplicationManager.getApplication().getService(WebviewPool.class);
+    }
+
+    /**
+     * Returns a browser with the chat page loaded or loading, preferring the pre-warmed spare, and
+     * schedules preparation of the next one. Must be called on the EDT.
+     */
+    PooledWebview acquire(HtmlLoader htmlLoader) {
+        String themeKey = currentThemeKey();
+        PooledWebview webview;
+        synchronized (lock) {
+            webview = spare;
+            spare = null;
+        }
+        if (webview != null && !themeKey.equals(webview.getThemeKey())) {
+            LOG.info("[WebviewPool] Discarding spare browser rendered for another theme");
+            webview.dispose();
+            webview = null;
+        }
+        if (webview != null) {
+            LOG.info("[WebviewPool] Handing out pre-warmed browser");
+        } else {
+            webview = new PooledWebview(false, themeKey);
+            webview.getBrowser().loadHTML(htmlLoader.loadChatHtml());
+        }
+        scheduleRefill(htmlLoader);
+        return webview;
+    }
+
+    private void scheduleRefill(HtmlLoader htmlLoader) {
+        synchronized (lock) {
+            if (disposed || refillScheduled || spare != null) {
+                return;
+            }
+            refillScheduled = true;
+        }
+        AppExecutorUtil.getAppScheduledExecutorService().schedule(() -> {
+            String themeKey = currentThemeKey();
+            String html;
+            try {
+                html = htmlLoader.loadChatHtml();
+            } catch (Exception e) {
+                LOG.warn("[WebviewPool] Failed to prepare chat HTML: " + e.getMessage(), e);
+                clearRefillScheduled();
+                return;
+            }
+            ApplicationManager.getApplication().invokeLater(
+                    () -> createSpare(html, themeKey), ModalityState.nonModal());
+        }, REFILL_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private void createSpare(String html, String themeKey) {
+        synchronized (lock) {
+            if (disposed || spare != null) {
+                refillScheduled = false;
+                return;
+            }
+        }
+        PooledWebview webview;
+        try {
+            webview = new PooledWebview(JBCefBrowserFactory.isOffScreenRenderingEnabled(), themeKey);
+            webview.getBrowser().loadHTML(html);
+        } catch (Exception e) {
+            LOG.warn("[WebviewPool] Failed to create spare browser: " + e.getMessage(), e);
+            clearRefillScheduled();
+            return;
+        }
+        synchronized (lock) {
+            refillScheduled = false;
+            if (!disposed && spare == null) {
+                spare = webview;
+                LOG.info("[WebviewPool] Spare browser ready");
+                return;
+            }
+        }
+        webview.dispose();
+    }
+
+    private void clearRefillScheduled() {
+        synchronized (lock) {
+            refillScheduled = false;
+        }
+    }
+
+    private static String currentThemeKey() {
+        return ThemeConfigService.getBackgroundColorHex();
+    }
+
+    @Override
+    public void dispose() {
+        PooledWebview webview;
+        synchronized (lock) {
+            disposed = true;
+            webview = spare;
+            spare = null;
+        }
+        if (webview != null) {
+            webview.dispose();
+        }
+    }
+}
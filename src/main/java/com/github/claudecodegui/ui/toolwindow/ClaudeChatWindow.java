@@ -1,6 +1,7 @@
 package com.github.claudecodegui.ui.toolwindow;
 
 import com.github.claudecodegui.action.SendShortcutSync;
+import com.github.claudecodegui.handler.core.BatchEnvelopeDispatcher;
 import com.github.claudecodegui.handler.core.HandlerContext;
 import com.github.claudecodegui.handler.history.HistoryHandler;
 import com.github.claudecodegui.handler.core.MessageDispatcher;
@@ -18,6 +19,7 @@ import com.github.claudecodegui.settings.CodemossSettingsService;
 import com.github.claudecodegui.settings.TabStateService;
 import com.github.claudecodegui.ui.ChatWindowDelegate;
 import com.github.claudecodegui.ui.EditorContextTracker;
+import com.github.claudecodegui.ui.WebviewCallQueue;
 import com.github.claudecodegui.ui.WebviewInitializer;
 import com.github.claudecodegui.ui.WebviewWatchdog;
 import com.github.claudecodegui.util.HtmlLoader;
@@ -35,6 +37,7 @@ import com.intellij.ui.jcef.JBCefBrowser;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.HierarchyEvent;
 
 /**
  * Chat window instance. Coordinates UI components, session management,
@@ -59,6 +62,7 @@ public class ClaudeChatWindow {
     private ClaudeSession session;
     private final WebviewWatchdog webviewWatchdog;
     private final StreamMessageCoalescer streamCoalescer;
+    private final WebviewCallQueue jsCallQueue;
 
     private volatile boolean disposed = false;
     private volatile boolean initialized = false;
@@ -68,6 +72,7 @@ public class ClaudeChatWindow {
 
     private HandlerContext handlerContext;
     private MessageDispatcher messageDispatcher;
+    private BatchEnvelopeDispatcher batchDispatcher;
     private PermissionHandler permissionHandler;
     private HistoryHandler historyHandler;
     private final SessionLifecycleManager sessionLifecycleManager;
@@ -92,6 +97,12 @@ public class ClaudeChatWindow {
 
         this.mainPanel.setBackground(com.github.claudecodegui.util.ThemeConfigService.getBackgroundColor());
 
+        this.jsCallQueue = new WebviewCallQueue(script -> {
+            if (!disposed && browser != null) {
+                browser.getCefBrowser().executeJavaScript(script, browser.getCefBrowser().getURL(), 0);
+            }
+        });
+
         this.streamCoalescer = new StreamMessageCoalescer(new StreamMessageCoalescer.JsCallbackTarget() {
             @Override
             public void callJavaScript(String functionName, String... args) {
@@ -112,6 +123,12 @@ public class ClaudeChatWindow {
             public HandlerContext getHandlerContext() {
                 return handlerContext;
             }
+
+            @Override
+            public void onBackgroundActivityChanged(boolean active) {
+                com.github.claudecodegui.notifications.ClaudeNotifier.setBackgroundActivity(
+                        project, ClaudeChatWindow.this, active);
+            }
         });
 
         this.webviewWatchdog = new WebviewWatchdog(
@@ -242,6 +259,13 @@ public class ClaudeChatWindow {
         setupSessionCallbacks();
         initializeSessionInfo();
 
+        // Hidden tabs (and a hidden tool window) get no webview pushes until shown again
+        this.mainPanel.addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0) {
+                updateWebviewVisibility();
+            }
+        });
+
         // Delay JCEF browser creation to avoid service initialization conflicts
         // during JBCefApp$Holder class init (ProxyMigrationService dependency).
         // Operations that depend on browser readiness are also deferred.
@@ -249,6 +273,7 @@ public class ClaudeChatWindow {
             if (!this.disposed) {
                 this.webviewInitializer.createUIComponents();
                 registerSessionLoadListener();
+                updateWebviewVisibility();
                 this.initialized = true;
                 LOG.info("Window instance fully initialized, project: " + this.project.getName());
             }
@@ -382,11 +407,8 @@ public class ClaudeChatWindow {
         if (this.disposed || this.browser == null) {
             return;
         }
-        ApplicationManager.getApplication().invokeLater(() -> {
-            if (!this.disposed && this.browser != null) {
-                this.browser.getCefBrowser().executeJavaScript(jsCode, this.browser.getCefBrowser().getURL(), 0);
-            }
-        });
+        // Goes through the call queue so it runs after any batched calls issued before it.
+        jsCallQueue.enqueue(jsCode, WebviewCallQueue.Lane.IMMEDIATE);
     }
 
     // ==================== JavaScript Bridge ====================
@@ -405,63 +427,63 @@ public class ClaudeChatWindow {
             return;
         }
 
-        ApplicationManager.getApplication().invokeLater(() -> {
-            if (disposed || browser == null) {
-                return;
+        String callee = functionName;
+        if (!functionName.contains(".")) {
+            callee = "window." + functionName;
+        }
+
+        StringBuilder argsJs = new StringBuilder();
+        if (args != null) {
+            for (int i = 0; i < args.length; i++) {
+                if (i > 0) argsJs.append(", ");
+                String arg = args[i] == null ? "" : args[i];
+                argsJs.append("'").append(arg).append("'");
             }
-            try {
-                String callee = functionName;
-                if (!functionName.contains(".")) {
-                    callee = "window." + functionName;
-                }
+        }
 
-                StringBuilder argsJs = new StringBuilder();
-                if (args != null) {
-                    for (int i = 0; i < args.length; i++) {
-                        if (i > 0) argsJs.append(", ");
-                        String arg = args[i] == null ? "" : args[i];
-                        argsJs.append("'").append(arg).append("'");
-                    }
-                }
+        String checkAndCall =
+                "(function() {" +
+                        "  try {" +
+                        "    if (typeof " + callee + " === 'function') {" +
+                        "      " + callee + "(" + argsJs + ");" +
+                        "    }" +
+                        "  } catch (e) {" +
+                        "    console.error('[Backend->Frontend] Failed to call " + functionName + ":', e);" +
+                        "  }" +
+                        "})();";
 
-                String checkAndCall =
-                        "(function() {" +
-                                "  try {" +
-                                "    if (typeof " + callee + " === 'function') {" +
-                                "      " + callee + "(" + argsJs + ");" +
-                                "    }" +
-                                "  } catch (e) {" +
-                                "    console.error('[Backend->Frontend] Failed to call " + functionName + ":', e);" +
-                                "  }" +
-                                "})();";
-
-                browser.getCefBrowser().executeJavaScript(checkAndCall, browser.getCefBrowser().getURL(), 0);
-            } catch (Exception e) {
-                LOG.warn("Failed to call JS function: " + functionName + ", error: " + e.getMessage(), e);
-            }
-        });
+        jsCallQueue.enqueue(checkAndCall, laneFor(functionName));
+    }
+
+    /**
+     * Stream end and error reporting must not wait for the next frame; everything else
+     * (deltas, heartbeats, usage, status) is batched per frame.
+     */
+    private static WebviewCallQueue.Lane laneFor(String functionName) {
+        switch (functionName) {
+            case "onStreamEnd":
+            case "addErrorMessage":
+            case "showError":
+            case "window.showError":
+                return WebviewCallQueue.Lane.IMMEDIATE;
+            default:
+                return WebviewCallQueue.Lane.FRAME;
+        }
     }
 
     void handleJavaScriptMessage(String message) {
+        if (BatchEnvelopeDispatcher.isBatch(message)) {
+            if (batchDispatcher != null) {
+                batchDispatcher.dispatch(message);
+            }
+            return;
+        }
+
         if (message.startsWith("{\"type\":\"console.")) {
             try {
                 JsonObject json = new Gson().fromJson(message, JsonObject.class);
                 String logType = json.get("type").getAsString();
-                JsonArray args = json.getAsJsonArray("args");
-
-                StringBuilder logMessage = new StringBuilder("[Webview] ");
-                for (int i = 0; i < args.size(); i++) {
-                    if (i > 0) logMessage.append(" ");
-                    logMessage.append(args.get(i).toString());
-                }
-
-                if ("console.error".equals(logType)) {
-                    LOG.warn(logMessage.toString());
-                } else if ("console.warn".equals(logType)) {
-                    LOG.info(logMessage.toString());
-                } else {
-                    LOG.debug(logMessage.toString());
-                }
+                logWebviewConsole(logType.substring("console.".length()), json.getAsJsonArray("args"), 1);
             } catch (Exception e) {
                 LOG.warn("Failed to parse console log: " + e.getMessage());
             }
@@ -484,6 +506,25 @@ public class ClaudeChatWindow {
         LOG.warn("Unknown message type: " + type);
     }
 
+    private void logWebviewConsole(String level, JsonArray args, int repeat) {
+        StringBuilder logMessage = new StringBuilder("[Webview] ");
+        for (int i = 0; i < args.size(); i++) {
+            if (i > 0) logMessage.append(" ");
+            logMessage.append(args.get(i).toString());
+        }
+        if (repeat > 1) {
+            logMessage.append(" (x").append(repeat).append(")");
+        }
+
+        if ("error".equals(level)) {
+            LOG.warn(logMessage.toString());
+        } else if ("warn".equals(level)) {
+            LOG.info(logMessage.toString());
+        } else {
+            LOG.debug(logMessage.toString());
+        }
+    }
+
     // ==================== Session Delegates ====================
 
     private void setupSessionCallbacks() {
@@ -509,10 +550,20 @@ public class ClaudeChatWindow {
                 persistTabSessionState();
             }
         };
+        if (!streamCoalescer.isVisible()) {
+            sessionCallbackAdapter.setVisible(false);
+        }
         session.setCallback(sessionCallbackAdapter);
         persistTabSessionState();
     }
 
+    private void updateWebviewVisibility() {
+        if (disposed || sessionCallbackAdapter == null) {
+            return;
+        }
+        sessionCallbackAdapter.setVisible(mainPanel.isShowing());
+    }
+
     private void onStreamEnded() {
         if (session == null) {
             return;
@@ -603,6 +654,8 @@ public class ClaudeChatWindow {
         chatWindowDelegate.dispose();
         editorContextTracker.dispose();
         streamCoalescer.dispose();
+        LOG.debug("[WebviewCallQueue] " + jsCallQueue.describeMetrics());
+        jsCallQueue.dispose();
         if (sessionCallbackAdapter != null) {
             sessionCallbackAdapter.dispose();
         }
@@ -819,6 +872,14 @@ public class ClaudeChatWindow {
             @Override
             public void setMessageDispatcher(MessageDispatcher d) {
                 messageDispatcher = d;
+                batchDispatcher = d == null ? null : new BatchEnvelopeDispatcher(
+                        d,
+                        (requestId, error) -> {
+                            if (handlerContext != null) {
+                                handlerContext.rejectRequest(requestId, error);
+                            }
+                        },
+                        ClaudeChatWindow.this::logWebviewConsole);
             }
 
             @Override
@@ -856,6 +917,11 @@ public class ClaudeChatWindow {
                 ClaudeChatWindow.this.callJavaScript(fn, args);
             }
 
+            @Override
+            public void executeJavaScriptCode(String jsCode) {
+                ClaudeChatWindow.this.executeJavaScriptCode(jsCode);
+            }
+
             @Override
             public void interruptDueToPermissionDenial() {
                 ClaudeChatWindow.this.interruptDueToPermissionDenial();
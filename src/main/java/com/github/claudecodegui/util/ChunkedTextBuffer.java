@@ -0,0 +1,222 @@
+package com.github.claudecodegui.util;
+
+/**
+ * Bounded text buffer that keeps only the most recent {@code capacity} characters.
+ *
+ * <p>Text is stored in a ring of fixed-size {@code char[]} chunks, so appending never shifts
+ * previously captured text: once the capacity is exceeded the read cursor simply advances and
+ * fully consumed chunks are recycled. A ring of absolute line-start positions allows
+ * {@link #tailLines(int)} to copy only the requested suffix instead of the whole buffer.</p>
+ *
+ * <p>All methods are thread-safe.</p>
+ */
+public final class ChunkedTextBuffer {
+
+    static final int DEFAULT_CHUNK_SIZE = 8192;
+
+    private final int capacity;
+    private final int chunkSize;
+    private final char[][] chunks;
+
+    /** Ring index of the oldest chunk in use. */
+    private int headChunk;
+    /** Number of chunks in use; every chunk except the newest one is full. */
+    private int chunkCount;
+    /** Characters written into the newest chunk. */
+    private int tailFill;
+    /** Absolute position of index 0 of the head chunk. */
+    private long headChunkBase;
+    /** Absolute position of the first retained character. */
+    private long startPos;
+    /** Absolute position just after the last retained character. */
+    private long endPos;
+
+    /** Ring of absolute positions that directly follow a '\n', in ascending order. */
+    private long[] lineStarts = new long[64];
+    private int lineHead;
+    private int lineCount;
+
+    public ChunkedTextBuffer(int capacity) {
+        this(capacity, DEFAULT_CHUNK_SIZE);
+    }
+
+    ChunkedTextBuffer(int capacity, int chunkSize) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+        this.capacity = capacity;
+        this.chunkSize = Math.min(chunkSize, capacity);
+        // Retained text may straddle two partial chunks, plus one chunk being opened.
+        this.chunks = new char[capacity / this.chunkSize + 3][];
+    }
+
+    /**
+     * Append text, evicting the oldest characters once the capacity is exceeded.
+     */
+    public synchronized void append(String text) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+
+        int from = 0;
+        int length = text.length();
+        if (length >= capacity) {
+            // Everything currently retained would be evicted anyway.
+            from = length - capacity;
+            resetAt(endPos + from);
+        }
+
+        while (from < length) {
+            if (chunkCount == 0 || tailFill == chunkSize) {
+                openChunk();
+            }
+            char[] tail = chunks[(headChunk + chunkCount - 1) % chunks.length];
+            int count = Math.min(chunkSize - tailFill, length - from);
+            text.getChars(from, from + count, tail, tailFill);
+            for (int i = 0; i < count; i++) {
+                if (tail[tailFill + i] == '\n') {
+                    addLineStart(endPos + i + 1);
+                }
+            }
+            tailFill += count;
+            endPos += count;
+            from += count;
+            trimToCapacity();
+        }
+    }
+
+    /**
+     * @return number of characters currently retained
+     */
+    public synchronized int length() {
+        return (int) (endPos - startPos);
+    }
+
+    public synchronized boolean isEmpty() {
+        return endPos == startPos;
+    }
+
+    /**
+     * @return number of lines currently retained; a trailing newline does not start a new line
+     */
+    public synchronized int lineCount() {
+        if (endPos == startPos) {
+            return 0;
+        }
+        return countInteriorLineStarts() + 1;
+    }
+
+    /**
+     * Copy the last {@code maxLines} lines without materializing the rest of the buffer.
+     * A trailing newline is preserved but does not count as an extra (empty) line.
+     */
+    public synchronized String tailLines(int maxLines) {
+        if (maxLines <= 0 || endPos == startPos) {
+            return "";
+        }
+        int interior = countInteriorLineStarts();
+        if (maxLines > interior) {
+            return copyRange(startPos, endPos);
+        }
+        long from = lineStarts[(lineHead + interior - maxLines) % lineStarts.length];
+        return copyRange(from, endPos);
+    }
+
+    public synchronized void clear() {
+        resetAt(endPos);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return copyRange(startPos, endPos);
+    }
+
+    private void openChunk() {
+        if (chunkCount == 0) {
+            headChunkBase = endPos;
+            headChunk = 0;
+        }
+        int slot = (headChunk + chunkCount) % chunks.length;
+        if (chunks[slot] == null) {
+            chunks[slot] = new char[chunkSize];
+        }
+        chunkCount++;
+        tailFill = 0;
+    }
+
+    private void trimToCapacity() {
+        long excess = (endPos - startPos) - capacity;
+        if (excess <= 0) {
+            return;
+        }
+        startPos += excess;
+        while (chunkCount > 1 && startPos - headChunkBase >= chunkSize) {
+            headChunk = (headChunk + 1) % chunks.length;
+            headChunkBase += chunkSize;
+            chunkCount--;
+        }
+        while (lineCount > 0 && lineStarts[lineHead] <= startPos) {
+            lineHead = (lineHead + 1) % lineStarts.length;
+            lineCount--;
+        }
+    }
+
+    private void resetAt(long position) {
+        startPos = position;
+        endPos = position;
+        headChunkBase = position;
+        headChunk = 0;
+        chunkCount = 0;
+        tailFill = 0;
+        lineHead = 0;
+        lineCount = 0;
+    }
+
+    private void addLineStart(long position) {
+        if (lineCount == lineStarts.length) {
+            long[] grown = new long[lineStarts.length * 2];
+            for (int i = 0; i < lineCount; i++) {
+                grown[i] = lineStarts[(lineHead + i) % lineStarts.length];
+            }
+            lineStarts = grown;
+            lineHead = 0;
+        }
+        lineStarts[(lineHead + lineCount) % lineStarts.length] = position;
+        lineCount++;
+    }
+
+    /**
+     * Line starts strictly inside (startPos, endPos); a start at endPos is a trailing newline.
+     */
+    private int countInteriorLineStarts() {
+        int count = lineCount;
+        if (count > 0 && lineStarts[(lineHead + count - 1) % lineStarts.length] >= endPos) {
+            count--;
+        }
+        return count;
+    }
+
+    private String copyRange(long from, long to) {
+        int length = (int) (to - from);
+        if (length <= 0) {
+            return "";
+        }
+        char[] out = new char[length];
+        int written = 0;
+        long position = from;
+        while (written < length) {
+            long offsetFromHead = position - headChunkBase;
+            int chunkIndex = (int) (offsetFromHead / chunkSize);
+            int offset = (int) (offsetFromHead % chunkSize);
+            char[] chunk = chunks[(headChunk + chunkIndex) % chunks.length];
+            int count = Math.min(chunkSize - offset, length - written);
+            System.arraycopy(chunk, offset, out, written, count);
+            written += count;
+            position += count;
+        }
+        return new String(out);
+    }
+}
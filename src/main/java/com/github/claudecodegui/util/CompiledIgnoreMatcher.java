@@ -0,0 +1,351 @@
+package com.github.claudecodegui.util;
+
+import com.github.claudecodegui.util.IgnoreRuleParser.IgnoreRule;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.SystemInfo;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Ignore matcher for directory walks, honouring nested .gitignore files.
+ *
+ * <p>Unlike {@link IgnoreRuleMatcher}, which runs every rule's regex against every path, each
+ * .gitignore is compiled once into a {@link RuleSet}: literal name rules go into a hash table,
+ * literal anchored paths into a segment trie, and all glob rules into one combined alternation
+ * whose first matching group identifies the winning rule. Decisions for directories are cached, and
+ * once a directory is ignored its whole subtree is answered from the cache without looking at any
+ * rule, which matches git's behaviour of never re-including files below an excluded directory.</p>
+ *
+ * <p>Precedence follows git: rules in a deeper .gitignore win over rules from its ancestors, and
+ * within one file the last matching rule wins.</p>
+ */
+public final class CompiledIgnoreMatcher {
+
+    private static final Logger LOG = Logger.getInstance(CompiledIgnoreMatcher.class);
+
+    /** Directory decisions kept before the cache is reset, to bound memory on huge trees. */
+    private static final int MAX_CACHED_DIRECTORIES = 100_000;
+
+    private static final int NO_MATCH = -1;
+
+    private final String basePath;
+    private final Function<String, List<IgnoreRule>> rulesLoader;
+    private final boolean caseInsensitive;
+    private final Map<String, DirectoryState> directories = new ConcurrentHashMap<>();
+
+    /**
+     * @param basePath root directory; paths are matched relative to it
+     * @param rulesLoader returns the rules of the .gitignore in a directory given its relative path
+     *                    ({@code ""} for the root), or an empty list
+     * @param caseInsensitive whether names compare case-insensitively
+     */
+    CompiledIgnoreMatcher(String basePath, Function<String, List<IgnoreRule>> rulesLoader, boolean caseInsensitive) {
+        this.basePath = normalizePath(basePath);
+        this.rulesLoader = rulesLoader;
+        this.caseInsensitive = caseInsensitive;
+    }
+
+    /**
+     * Create a matcher that reads .gitignore files from disk as directories are first visited.
+     */
+    public static CompiledIgnoreMatcher forProject(String projectBasePath) {
+        String base = normalizePath(projectBasePath);
+        return new CompiledIgnoreMatcher(base, relativeDir -> {
+            File gitignore = relativeDir.isEmpty()
+                    ? new File(base, ".gitignore")
+                    : new File(base, relativeDir + "/.gitignore");
+            if (!gitignore.isFile()) {
+                return Collections.emptyList();
+            }
+            try {
+                return IgnoreRuleParser.parse(gitignore);
+            } catch (IOException e) {
+                LOG.warn("[CompiledIgnoreMatcher] Failed to read " + gitignore.getPath() + ": " + e.getMessage());
+                return Collections.emptyList();
+            }
+        }, SystemInfo.isWindows || SystemInfo.isMac);
+    }
+
+    /**
+     * Create a matcher from in-memory .gitignore contents keyed by relative directory.
+     */
+    public static CompiledIgnoreMatcher fromContents(String basePath, Map<String, String> contentsByDirectory) {
+        return new CompiledIgnoreMatcher(basePath,
+                dir -> IgnoreRuleParser.parseContent(contentsByDirectory.get(dir)),
+                SystemInfo.isWindows || SystemInfo.isMac);
+    }
+
+    /**
+     * Determine whether a path (absolute below the base path, or relative to it) is ignored.
+     */
+    public boolean isIgnored(String path, boolean isDirectory) {
+        String relativePath = relativize(path);
+        if (relativePath.isEmpty()) {
+            return false;
+        }
+        if (isDirectory) {
+            return directoryState(relativePath).ignored;
+        }
+        int slash = relativePath.lastIndexOf('/');
+        DirectoryState parent = directoryState(slash < 0 ? "" : relativePath.substring(0, slash));
+        return parent.ignored || parent.decide(relativePath, false);
+    }
+
+    /**
+     * Drop cached rules and decisions, e.g. after a .gitignore changed.
+     */
+    public void invalidate() {
+        directories.clear();
+    }
+
+    int getCachedDirectoryCount() {
+        return directories.size();
+    }
+
+    private DirectoryState directoryState(String relativeDir) {
+        DirectoryState cached = directories.get(relativeDir);
+        if (cached != null) {
+            return cached;
+        }
+
+        DirectoryState state;
+        if (relativeDir.isEmpty()) {
+            state = new DirectoryState(null, "", false, compile(rulesLoader.apply("")));
+        } else {
+            int slash = relativeDir.lastIndexOf('/');
+            DirectoryState parent = directoryState(slash < 0 ? "" : relativeDir.substring(0, slash));
+            boolean ignored = parent.ignored || parent.decide(relativeDir, true);
+            // Rules inside an ignored directory can never take effect, so don't even read them
+            RuleSet rules = ignored ? null : compile(rulesLoader.apply(relativeDir));
+            state = new DirectoryState(parent, relativeDir, ignored, rules);
+        }
+
+        if (directories.size() >= MAX_CACHED_DIRECTORIES) {
+            directories.clear();
+        }
+        DirectoryState raced = directories.putIfAbsent(relativeDir, state);
+        return raced != null ? raced : state;
+    }
+
+    private RuleSet compile(List<IgnoreRule> rules) {
+        if (rules == null || rules.isEmpty()) {
+            return null;
+        }
+        return new RuleSet(rules, caseInsensitive);
+    }
+
+    private String relativize(String path) {
+        String normalized = normalizePath(path);
+        if (!basePath.isEmpty() && normalized.startsWith(basePath)
+                && (normalized.length() == basePath.length() || normalized.charAt(basePath.length()) == '/')) {
+            normalized = normalized.substring(basePath.length());
+        }
+        while (normalized.startsWith("/")) {
+            normalized = normalized.substring(1);
+        }
+        while (normalized.endsWith("/")) {
+            normalized = normalized.substring(0, normalized.length() - 1);
+        }
+        return normalized;
+    }
+
+    private static String normalizePath(String path) {
+        return path == null ? "" : path.replace('\\', '/');
+    }
+
+    /**
+     * Cached state of one visited directory: whether it is ignored, and the rules of its own
+     * .gitignore (inherited by everything below it).
+     */
+    private static final class DirectoryState {
+        final DirectoryState parent;
+        final String relativeDir;
+        final boolean ignored;
+        final RuleSet rules;
+
+        DirectoryState(DirectoryState parent, String relativeDir, boolean ignored, RuleSet rules) {
+            this.parent = parent;
+            this.relativeDir = relativeDir;
+            this.ignored = ignored;
+            this.rules = rules;
+        }
+
+        /**
+         * Decide a direct or indirect child of this directory, consulting the deepest .gitignore first.
+         */
+        boolean decide(String relativePath, boolean isDirectory) {
+            for (DirectoryState state = this; state != null; state = state.parent) {
+                if (state.rules == null) {
+                    continue;
+                }
+                String localPath = state.relativeDir.isEmpty()
+                        ? relativePath
+                        : relativePath.substring(state.relativeDir.length() + 1);
+                int rule = state.rules.match(localPath, isDirectory);
+                if (rule != NO_MATCH) {
+                    return !state.rules.rules.get(rule).isNegated();
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * The rules of one .gitignore, compiled for lookup.
+     */
+    static final class RuleSet {
+        final List<IgnoreRule> rules;
+        private final boolean caseInsensitive;
+
+        /** Unanchored literal names: name -> highest rule index, for any entry / directories only. */
+        private final Map<String, Integer> names = new HashMap<>();
+        private final Map<String, Integer> directoryNames = new HashMap<>();
+        /** Anchored literal paths, one trie level per path segment. */
+        private final TrieNode anchored = new TrieNode();
+
+        private final Pattern fileGlobs;
+        private final int[] fileGlobRules;
+        private final Pattern directoryGlobs;
+        private final int[] directoryGlobRules;
+
+        RuleSet(List<IgnoreRule> rules, boolean caseInsensitive) {
+            this.rules = rules;
+            this.caseInsensitive = caseInsensitive;
+
+            List<Integer> fileGlobIndexes = new ArrayList<>();
+            List<Integer> directoryGlobIndexes = new ArrayList<>();
+            for (int i = 0; i < rules.size(); i++) {
+                IgnoreRule rule = rules.get(i);
+                String pattern = rule.getPattern();
+                if (pattern.isEmpty()) {
+                    continue;
+                }
+                if (isLiteral(pattern)) {
+                    String key = fold(pattern);
+                    if (rule.isAnchored()) {
+                        TrieNode node = anchored;
+                        for (String segment : key.split("/")) {
+                            node = node.children.computeIfAbsent(segment, k -> new TrieNode());
+                        }
+                        if (rule.isDirectoryOnly()) {
+                            node.directoryRule = i;
+                        } else {
+                            node.rule = i;
+                        }
+                    } else {
+                        (rule.isDirectoryOnly() ? directoryNames : names).put(key, i);
+                    }
+                } else {
+                    directoryGlobIndexes.add(i);
+                    if (!rule.isDirectoryOnly()) {
+                        fileGlobIndexes.add(i);
+                    }
+                }
+            }
+
+            this.fileGlobRules = toArray(fileGlobIndexes);
+            this.fileGlobs = combine(rules, fileGlobRules, caseInsensitive);
+            this.directoryGlobRules = toArray(directoryGlobIndexes);
+            this.directoryGlobs = combine(rules, directoryGlobRules, caseInsensitive);
+        }
+
+        /**
+         * @return the index of the highest-priority rule matching the path, or {@link #NO_MATCH}
+         */
+        int match(String localPath, boolean isDirectory) {
+            int best = NO_MATCH;
+            String key = fold(localPath);
+            String name = key.substring(key.lastIndexOf('/') + 1);
+
+            best = Math.max(best, names.getOrDefault(name, NO_MATCH));
+            if (isDirectory) {
+                best = Math.max(best, directoryNames.getOrDefault(name, NO_MATCH));
+            }
+
+            TrieNode node = anchored;
+            int start = 0;
+            while (node != null && start <= key.length()) {
+                int end = key.indexOf('/', start);
+                if (end < 0) {
+                    end = key.length();
+                }
+                node = node.children.get(key.substring(start, end));
+                start = end + 1;
+            }
+            if (node != null) {
+                best = Math.max(best, node.rule);
+                if (isDirectory) {
+                    best = Math.max(best, node.directoryRule);
+                }
+            }
+
+            Pattern globs = isDirectory ? directoryGlobs : fileGlobs;
+            if (globs != null) {
+                int[] globRules = isDirectory ? directoryGlobRules : fileGlobRules;
+                Matcher matcher = globs.matcher(localPath);
+                if (matcher.matches()) {
+                    // Alternatives are ordered last rule first, so the first group that matched wins
+                    for (int group = 1; group <= globRules.length; group++) {
+                        if (matcher.start(group) >= 0) {
+                            best = Math.max(best, globRules[globRules.length - group]);
+                            break;
+                        }
+                    }
+                }
+            }
+            return best;
+        }
+
+        private String fold(String value) {
+            return caseInsensitive ? value.toLowerCase(Locale.ROOT) : value;
+        }
+
+        private static boolean isLiteral(String pattern) {
+            return pattern.indexOf('*') < 0 && pattern.indexOf('?') < 0;
+        }
+
+        private static int[] toArray(List<Integer> values) {
+            int[] result = new int[values.size()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = values.get(i);
+            }
+            return result;
+        }
+
+        private static Pattern combine(List<IgnoreRule> rules, int[] indexes, boolean caseInsensitive) {
+            if (indexes.length == 0) {
+                return null;
+            }
+            StringBuilder regex = new StringBuilder();
+            for (int i = indexes.length - 1; i >= 0; i--) {
+                IgnoreRule rule = rules.get(indexes[i]);
+                if (regex.length() > 0) {
+                    regex.append('|');
+                }
+                regex.append('(');
+                if (!rule.isAnchored()) {
+                    regex.append("(?:.*/)?");
+                }
+                regex.append(rule.getRegexPattern()).append(')');
+            }
+            return Pattern.compile(regex.toString(), caseInsensitive ? Pattern.CASE_INSENSITIVE : 0);
+        }
+    }
+
+    private static final class TrieNode {
+        final Map<String, TrieNode> children = new HashMap<>();
+        int rule = NO_MATCH;
+        int directoryRule = NO_MATCH;
+    }
+}
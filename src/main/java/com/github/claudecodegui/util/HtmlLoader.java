@@ -5,6 +5,8 @@ import com.intellij.openapi.diagnostic.Logger;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * HTML loader.
@@ -13,6 +15,15 @@ import java.util.Base64;
 public class HtmlLoader {
 
     private static final Logger LOG = Logger.getInstance(HtmlLoader.class);
+    private static final String LOCAL_LIBRARY_INJECTION_POINT = "<!-- LOCAL_LIBRARY_INJECTION_POINT -->";
+
+    // Tags and CSS urls the frontend build emits for its assets (see webview/vite.config.ts)
+    private static final Pattern ASSET_SCRIPT = Pattern.compile(
+        "<script\\b[^>]*\\bsrc=\"" + Pattern.quote(WebviewAssets.ORIGIN) + "([^\"]+)\"[^>]*></script>");
+    private static final Pattern ASSET_STYLESHEET = Pattern.compile(
+        "<link\\b[^>]*\\bhref=\"" + Pattern.quote(WebviewAssets.ORIGIN) + "([^\"]+\\.css)\"[^>]*>");
+    private static final Pattern ASSET_URL = Pattern.compile(
+        Pattern.quote(WebviewAssets.ORIGIN) + "([^)\"'\\s]+)");
     private final Class<?> resourceClass;
 
     public HtmlLoader(Class<?> resourceClass) {
@@ -30,8 +41,10 @@ public class HtmlLoader {
                 String html = new String(is.readAllBytes(), StandardCharsets.UTF_8);
                 is.close();
 
-                if (html.contains("<!-- LOCAL_LIBRARY_INJECTION_POINT -->")) {
-                    html = injectLocalLibraries(html);
+                if (html.contains(LOCAL_LIBRARY_INJECTION_POINT)) {
+                    html = WebviewAssets.ensureRegistered() ? linkLocalLibraries(html) : injectLocalLibraries(html);
+                } else if (html.contains(WebviewAssets.ORIGIN) && !WebviewAssets.ensureRegistered()) {
+                    html = inlineBundledAssets(html);
                 } else {
                     LOG.info("Detected bundled modern frontend assets; no additional library injection needed");
                 }
@@ -121,6 +134,74 @@ public class HtmlLoader {
             "</html>";
     }
 
+    /**
+     * Reference the local libraries by URL; they are served by {@link WebviewAssets}.
+     */
+    private String linkLocalLibraries(String html) {
+        String libs = WebviewAssets.ORIGIN + "libs/";
+        String linkedLibs = "\n    <!-- React and related libraries (local versions) -->\n" +
+            "    <script src=\"" + libs + "react.production.min.js\"></script>\n" +
+            "    <script src=\"" + libs + "react-dom.production.min.js\"></script>\n" +
+            "    <script src=\"" + libs + "babel.min.js\"></script>\n" +
+            "    <script src=\"" + libs + "marked.min.js\"></script>\n" +
+            "    <link rel=\"stylesheet\" href=\"" + libs + "codicon.css\">";
+        LOG.info("Linked local libraries from " + WebviewAssets.ORIGIN);
+        return html.replace(LOCAL_LIBRARY_INJECTION_POINT, linkedLibs);
+    }
+
+    /**
+     * Inline the bundled scripts and stylesheets (and the files the stylesheets reference) into
+     * the HTML. Only used when the asset handler cannot be registered.
+     */
+    private String inlineBundledAssets(String html) {
+        try {
+            Matcher scripts = ASSET_SCRIPT.matcher(html);
+            StringBuilder sb = new StringBuilder();
+            while (scripts.find()) {
+                String js = loadResourceAsString(assetResource(scripts.group(1)));
+                // Keep the inline script element from being closed early
+                js = js.replace("</script", "<\\/script");
+                scripts.appendReplacement(sb, Matcher.quoteReplacement("<script type=\"module\">" + js + "</script>"));
+            }
+            scripts.appendTail(sb);
+            html = sb.toString();
+
+            Matcher stylesheets = ASSET_STYLESHEET.matcher(html);
+            sb = new StringBuilder();
+            while (stylesheets.find()) {
+                String css = inlineAssetUrls(loadResourceAsString(assetResource(stylesheets.group(1))));
+                stylesheets.appendReplacement(sb, Matcher.quoteReplacement("<style>" + css + "</style>"));
+            }
+            stylesheets.appendTail(sb);
+            html = sb.toString();
+
+            LOG.info("Inlined bundled frontend assets");
+        } catch (Exception e) {
+            LOG.error("Failed to inline bundled frontend assets: " + e.getMessage());
+        }
+        return html;
+    }
+
+    private String inlineAssetUrls(String css) throws Exception {
+        Matcher urls = ASSET_URL.matcher(css);
+        StringBuilder sb = new StringBuilder();
+        while (urls.find()) {
+            String resource = assetResource(urls.group(1));
+            String dataUri = "data:" + WebviewAssets.mimeType(resource) + ";base64," + loadResourceAsBase64(resource);
+            urls.appendReplacement(sb, Matcher.quoteReplacement(dataUri));
+        }
+        urls.appendTail(sb);
+        return sb.toString();
+    }
+
+    private static String assetResource(String path) throws Exception {
+        String resource = WebviewAssets.resolveResource(WebviewAssets.ORIGIN + path);
+        if (resource == null) {
+            throw new Exception("Not an asset path: " + path);
+        }
+        return resource;
+    }
+
     /**
      * Inject local library file contents into the HTML.
      */
@@ -146,7 +227,7 @@ public class HtmlLoader {
             injectedLibs.append("    <script>/* Marked */\n").append(markedJs).append("\n    </script>\n");
             injectedLibs.append("    <style>/* VS Code Codicons (with embedded font) */\n").append(codiconCss).append("\n    </style>");
 
-            html = html.replace("<!-- LOCAL_LIBRARY_INJECTION_POINT -->", injectedLibs.toString());
+            html = html.replace(LOCAL_LIBRARY_INJECTION_POINT, injectedLibs.toString());
 
             LOG.info("Successfully injected local libraries (React + ReactDOM + Babel + Codicons)");
         } catch (Exception e) {
@@ -39,17 +39,31 @@ public final class JBCefBrowserFactory {
      * @return a JBCefBrowser instance
      */
     public static JBCefBrowser create() {
+        return create(false);
+    }
+
+    /**
+     * Create a JBCefBrowser instance, optionally creating the native browser right away.
+     * Immediate creation is only meant for browsers that are prepared while hidden (see
+     * {@code WebviewPool}); tabs use the default lazy mode, in which the native browser is created
+     * when the component is first shown.
+     *
+     * @param createImmediately whether to create the native browser before the component is shown
+     * @return a JBCefBrowser instance
+     */
+    public static JBCefBrowser create(boolean createImmediately) {
         boolean isOffScreenRendering = determineOsrMode();
         boolean isDevMode = PlatformUtils.isPluginDevMode();
         LOG.info("Creating JBCefBrowser with OSR=" + isOffScreenRendering
                 + " (platform=" + getPlatformName() + ", ideaVersion=" + getIdeaMajorVersion()
-                + ", devMode=" + isDevMode + ")");
+                + ", devMode=" + isDevMode + ", createImmediately=" + createImmediately + ")");
 
         try {
             JBCefBrowserBuilder builder = JBCefBrowser.createBuilder()
                     .setOffScreenRendering(isOffScreenRendering)
-                    .setEnableOpenDevToolsMenuItem(isDevMode);
-                    // .setCreateImmediately(true) // Causes new tabs to permanently stall on "Checking SDK status..." - commented out; using default lazy-load mode instead
+                    .setEnableOpenDevToolsMenuItem(isDevMode)
+                    // Immediate creation made new tabs permanently stall on "Checking SDK status..." - tabs use lazy mode
+                    .setCreateImmediately(createImmediately);
             configureKeyboardWorkaround(builder);
             JBCefBrowser browser = builder.build();
             configureContextMenu(browser, isDevMode);
@@ -98,6 +112,13 @@ public final class JBCefBrowserFactory {
         }
     }
 
+    /**
+     * Whether browsers are created with off-screen rendering on this platform and IDEA version.
+     */
+    public static boolean isOffScreenRenderingEnabled() {
+        return determineOsrMode();
+    }
+
     /**
      * Determine whether to enable OSR mode based on platform and IDEA version.
      *
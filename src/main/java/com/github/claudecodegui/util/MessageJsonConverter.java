@@ -7,11 +7,13 @@ import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.ui.jcef.JBCefBrowser;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 /**
  * Converts session messages to JSON for webview transport.
@@ -27,23 +29,65 @@ public class MessageJsonConverter {
     };
     private static final int MAX_TOOL_RESULT_CHARS = 20000;
 
+    private static final Gson GSON = new Gson();
+
+    /**
+     * Serialized transport fragment of each message, valid while the message version is unchanged.
+     * Weak keys (identity, since Message does not override equals) drop entries with the session.
+     */
+    private static final Map<ClaudeSession.Message, Fragment> FRAGMENT_CACHE =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private static final class Fragment {
+        final long version;
+        final String json;
+
+        Fragment(long version, String json) {
+            this.version = version;
+            this.json = json;
+        }
+    }
+
     /**
      * Convert a list of session messages to JSON string for webview transport.
+     * Only messages whose version changed since the last call are serialized again; during
+     * streaming that is the tail message, and the rest is concatenated from cached fragments.
      */
     public static String convertMessagesToJson(List<ClaudeSession.Message> messages) {
-        Gson gson = new Gson();
-        JsonArray messagesArray = new JsonArray();
+        StringBuilder sb = new StringBuilder(Math.max(16, messages.size() * 256));
+        sb.append('[');
+        boolean first = true;
         for (ClaudeSession.Message msg : messages) {
-            JsonObject msgObj = new JsonObject();
-            msgObj.addProperty("type", msg.type.toString().toLowerCase());
-            msgObj.addProperty("timestamp", msg.timestamp);
-            msgObj.addProperty("content", truncateErrorContent(msg.content != null ? msg.content : ""));
-            if (msg.raw != null) {
-                msgObj.add("raw", truncateRawForTransport(msg.raw));
+            if (!first) {
+                sb.append(',');
             }
-            messagesArray.add(msgObj);
+            first = false;
+            sb.append(messageFragment(msg));
         }
-        return gson.toJson(messagesArray);
+        return sb.append(']').toString();
+    }
+
+    private static String messageFragment(ClaudeSession.Message msg) {
+        // Read the version before the fields: a concurrent mutation then leaves a stale version behind
+        long version = msg.getVersion();
+        Fragment cached = FRAGMENT_CACHE.get(msg);
+        if (cached != null && cached.version == version) {
+            return cached.json;
+        }
+        String json = GSON.toJson(toTransportJson(msg));
+        FRAGMENT_CACHE.put(msg, new Fragment(version, json));
+        return json;
+    }
+
+    private static JsonObject toTransportJson(ClaudeSession.Message msg) {
+        JsonObject msgObj = new JsonObject();
+        msgObj.addProperty("type", msg.type.toString().toLowerCase());
+        msgObj.addProperty("timestamp", msg.timestamp);
+        msgObj.addProperty("content", truncateErrorContent(msg.content != null ? msg.content : ""));
+        if (msg.raw != null) {
+            msgObj.add("raw", truncateRawForTransport(msg.raw));
+        }
+        return msgObj;
     }
 
     /**
@@ -268,20 +312,19 @@ public class MessageJsonConverter {
             usageUpdate.addProperty("maxTokens", maxTokens);
 
             String usageJson = new Gson().toJson(usageUpdate);
-            ApplicationManager.getApplication().invokeLater(() -> {
-                if (browser != null && !disposed) {
-                    // Use safe call pattern, check if function exists
-                    String js = "(function() {" +
-                            "  if (typeof window.onUsageUpdate === 'function') {" +
-                            "    window.onUsageUpdate('" + JsUtils.escapeJs(usageJson) + "');" +
-                            "    console.log('[Backend->Frontend] Usage update sent successfully');" +
-                            "  } else {" +
-                            "    console.warn('[Backend->Frontend] window.onUsageUpdate not found');" +
-                            "  }" +
-                            "})();";
-                    browser.getCefBrowser().executeJavaScript(js, browser.getCefBrowser().getURL(), 0);
-                }
-            });
+            if (browser != null && !disposed) {
+                // Use safe call pattern, check if function exists
+                String js = "(function() {" +
+                        "  if (typeof window.onUsageUpdate === 'function') {" +
+                        "    window.onUsageUpdate('" + JsUtils.escapeJs(usageJson) + "');" +
+                        "    console.log('[Backend->Frontend] Usage update sent successfully');" +
+                        "  } else {" +
+                        "    console.warn('[Backend->Frontend] window.onUsageUpdate not found');" +
+                        "  }" +
+                        "})();";
+                // Queued behind the updateMessages call it belongs to
+                handlerContext.executeJavaScriptOnEDT(js);
+            }
         } catch (Exception e) {
             LOG.warn("Failed to push usage update: " + e.getMessage(), e);
         }
@@ -0,0 +1,98 @@
+package com.github.claudecodegui.util;
+
+import com.intellij.openapi.diagnostic.Logger;
+import org.cef.callback.CefCallback;
+import org.cef.handler.CefResourceHandlerAdapter;
+import org.cef.misc.IntRef;
+import org.cef.misc.StringRef;
+import org.cef.network.CefRequest;
+import org.cef.network.CefResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Streams one {@link WebviewAssets} resource from the plugin jar. Nothing is buffered beyond the
+ * chunk CEF asks for.
+ */
+final class WebviewAssetResourceHandler extends CefResourceHandlerAdapter {
+
+    private static final Logger LOG = Logger.getInstance(WebviewAssetResourceHandler.class);
+
+    private String resource;
+    private InputStream in;
+
+    @Override
+    public boolean processRequest(CefRequest request, CefCallback callback) {
+        resource = WebviewAssets.resolveResource(request.getURL());
+        if (resource != null && "GET".equalsIgnoreCase(request.getMethod())) {
+            in = WebviewAssets.class.getResourceAsStream(resource);
+        }
+        if (in == null) {
+            LOG.debug("[WebviewAssets] Not found: " + request.getURL());
+        }
+        callback.Continue();
+        return true;
+    }
+
+    @Override
+    public void getResponseHeaders(CefResponse response, IntRef responseLength, StringRef redirectUrl) {
+        Map<String, String> headers = new HashMap<>();
+        // The chat document is loaded from a file:// URL, so its origin is opaque
+        headers.put("Access-Control-Allow-Origin", "*");
+        if (in == null) {
+            response.setStatus(404);
+            response.setStatusText("Not Found");
+            response.setMimeType("text/plain");
+            response.setHeaderMap(headers);
+            responseLength.set(0);
+            return;
+        }
+        headers.put("Cache-Control", WebviewAssets.cacheControl(resource));
+        response.setStatus(200);
+        response.setStatusText("OK");
+        response.setMimeType(WebviewAssets.mimeType(resource));
+        response.setHeaderMap(headers);
+        // Unknown length: read until the stream ends
+        responseLength.set(-1);
+    }
+
+    @Override
+    public boolean readResponse(byte[] dataOut, int bytesToRead, IntRef bytesRead, CefCallback callback) {
+        if (in == null) {
+            bytesRead.set(0);
+            return false;
+        }
+        try {
+            int read = in.read(dataOut, 0, bytesToRead);
+            if (read > 0) {
+                bytesRead.set(read);
+                return true;
+            }
+        } catch (IOException e) {
+            LOG.warn("[WebviewAssets] Failed to read " + resource + ": " + e.getMessage());
+        }
+        bytesRead.set(0);
+        close();
+        return false;
+    }
+
+    @Override
+    public void cancel() {
+        close();
+    }
+
+    private void close() {
+        InputStream stream = in;
+        in = null;
+        if (stream != null) {
+            try {
+                stream.close();
+            } catch (IOException ignored) {
+                // Best effort
+            }
+        }
+    }
+}
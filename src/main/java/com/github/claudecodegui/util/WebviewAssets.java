@@ -0,0 +1,135 @@
+package com.github.claudecodegui.util;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.ui.jcef.JBCefApp;
+import org.cef.CefApp;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Serves the webview's static assets from the plugin jar under {@link #ORIGIN}.
+ *
+ * <p>The chat document references its scripts, styles and fonts by URL instead of carrying them
+ * inline, so every browser instance only holds a small HTML string. The assets are streamed by
+ * {@link WebviewAssetResourceHandler}; hashed build output is served as immutable, which lets
+ * the JCEF HTTP cache and the V8 code cache reuse them across reloads and tabs.</p>
+ *
+ * <p>A custom scheme such as {@code codemoss://} would have to be registered before CEF is
+ * initialized, which the IDE does; the handler is therefore registered for a reserved
+ * {@code .localhost} domain on the standard https scheme.</p>
+ */
+public final class WebviewAssets {
+
+    private static final Logger LOG = Logger.getInstance(WebviewAssets.class);
+
+    static final String SCHEME = "https";
+    static final String DOMAIN = "codemoss.localhost";
+    public static final String ORIGIN = SCHEME + "://" + DOMAIN + "/";
+
+    // Hashed build output (webview/dist/assets) and the legacy local libraries
+    private static final String ASSETS_PREFIX = "assets/";
+    private static final String LIBS_PREFIX = "libs/";
+    private static final Pattern SAFE_PATH = Pattern.compile("[A-Za-z0-9._-]+(/[A-Za-z0-9._-]+)*");
+
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final String REVALIDATE = "no-cache";
+
+    private static volatile Boolean registered;
+
+    private WebviewAssets() {
+    }
+
+    /**
+     * Registers the asset handler with CEF once.
+     *
+     * @return whether assets can be loaded from {@link #ORIGIN}; if not, callers must inline them
+     */
+    public static boolean ensureRegistered() {
+        Boolean result = registered;
+        if (result != null) {
+            return result;
+        }
+        synchronized (WebviewAssets.class) {
+            if (registered == null) {
+                boolean success;
+                try {
+                    // Make sure CEF is initialized before registering with it
+                    JBCefApp.getInstance();
+                    success = CefApp.getInstance().registerSchemeHandlerFactory(SCHEME, DOMAIN,
+                            (browser, frame, schemeName, request) -> new WebviewAssetResourceHandler());
+                } catch (Exception | LinkageError e) {
+                    LOG.warn("[WebviewAssets] Failed to register asset handler: " + e.getMessage(), e);
+                    success = false;
+                }
+                LOG.info("[WebviewAssets] Asset handler for " + ORIGIN + (success ? " registered" : " unavailable"));
+                registered = success;
+            }
+            return registered;
+        }
+    }
+
+    /**
+     * Maps a request URL to the classpath resource it serves.
+     *
+     * @return the resource path, or null if the URL is not an asset URL
+     */
+    static String resolveResource(String url) {
+        if (url == null || !url.startsWith(ORIGIN)) {
+            return null;
+        }
+        String path = url.substring(ORIGIN.length());
+        int end = indexOfAny(path, '?', '#');
+        if (end >= 0) {
+            path = path.substring(0, end);
+        }
+        if (!SAFE_PATH.matcher(path).matches() || path.contains("..")) {
+            return null;
+        }
+        if (path.startsWith(ASSETS_PREFIX)) {
+            return "/html/" + path;
+        }
+        if (path.startsWith(LIBS_PREFIX)) {
+            return "/" + path;
+        }
+        return null;
+    }
+
+    /**
+     * Cache-Control value for a resource. Hashed build output never changes under the same name;
+     * everything else may change with a plugin update.
+     */
+    static String cacheControl(String resource) {
+        return resource.startsWith("/html/" + ASSETS_PREFIX) ? IMMUTABLE : REVALIDATE;
+    }
+
+    static String mimeType(String resource) {
+        String name = resource.substring(resource.lastIndexOf('/') + 1);
+        String extension = name.substring(name.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+        return switch (extension) {
+            case "js", "mjs" -> "text/javascript";
+            case "css" -> "text/css";
+            case "html" -> "text/html";
+            case "json", "map" -> "application/json";
+            case "svg" -> "image/svg+xml";
+            case "png" -> "image/png";
+            case "jpg", "jpeg" -> "image/jpeg";
+            case "gif" -> "image/gif";
+            case "webp" -> "image/webp";
+            case "ttf" -> "font/ttf";
+            case "woff" -> "font/woff";
+            case "woff2" -> "font/woff2";
+            case "wasm" -> "application/wasm";
+            default -> "application/octet-stream";
+        };
+    }
+
+    private static int indexOfAny(String value, char first, char second) {
+        int a = value.indexOf(first);
+        int b = value.indexOf(second);
+        if (a < 0) {
+            return b;
+        }
+        return b < 0 ? a : Math.min(a, b);
+    }
+}
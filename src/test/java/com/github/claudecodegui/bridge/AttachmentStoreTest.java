@@ -0,0 +1,96 @@
+package com.github.claudecodegui.bridge;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AttachmentStoreTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void sameContentSharesOneHashNamedFile() throws Exception {
+        AttachmentStore store = new AttachmentStore(temp.getRoot().toPath(), 1024);
+
+        AttachmentStore.Ref first = store.acquire(base64("screenshot"), "image/png");
+        AttachmentStore.Ref second = store.acquire(base64("screenshot"), "image/png");
+
+        assertEquals(first.getDigest(), second.getDigest());
+        assertEquals(first.getPath(), second.getPath());
+        assertEquals(first.getDigest() + ".png", first.getPath().getFileName().toString());
+        assertArrayEquals("screenshot".getBytes(StandardCharsets.UTF_8), Files.readAllBytes(first.getPath()));
+        assertEquals(2, store.refCount(first.getDigest()));
+    }
+
+    @Test
+    public void differentContentGetsDifferentDigest() throws Exception {
+        AttachmentStore store = new AttachmentStore(temp.getRoot().toPath(), 1024);
+
+        AttachmentStore.Ref a = store.acquire(base64("a"), "image/png");
+        AttachmentStore.Ref b = store.acquire(base64("b"), "image/png");
+
+        assertNotEquals(a.getDigest(), b.getDigest());
+    }
+
+    @Test
+    public void releasedFilesStayCachedWithinLimit() throws Exception {
+        AttachmentStore store = new AttachmentStore(temp.getRoot().toPath(), 1024);
+
+        AttachmentStore.Ref ref = store.acquire(base64("cached"), "image/png");
+        store.release(ref.getDigest());
+
+        assertTrue(Files.exists(ref.getPath()));
+        assertEquals(0, store.refCount(ref.getDigest()));
+        assertEquals(6, store.getUnpinnedBytes());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedUnpinnedFiles() throws Exception {
+        AttachmentStore store = new AttachmentStore(temp.getRoot().toPath(), 10);
+
+        AttachmentStore.Ref oldest = store.acquire(base64("111111"), "image/png");
+        AttachmentStore.Ref pinned = store.acquire(base64("222222"), "image/png");
+        AttachmentStore.Ref newest = store.acquire(base64("333333"), "image/png");
+        store.release(oldest.getDigest());
+        store.release(newest.getDigest());
+
+        assertFalse(Files.exists(oldest.getPath()));
+        assertTrue(Files.exists(pinned.getPath()));
+        assertTrue(Files.exists(newest.getPath()));
+        assertEquals(6, store.getUnpinnedBytes());
+    }
+
+    @Test
+    public void rewritesFileDeletedWhileCached() throws Exception {
+        AttachmentStore store = new AttachmentStore(temp.getRoot().toPath(), 1024);
+
+        AttachmentStore.Ref ref = store.acquire(base64("gone"), "image/jpeg");
+        store.release(ref.getDigest());
+        Files.delete(ref.getPath());
+
+        Path path = store.acquire(base64("gone"), "image/jpeg").getPath();
+        assertTrue(Files.exists(path));
+        assertEquals(0, store.getUnpinnedBytes());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInvalidBase64() throws Exception {
+        new AttachmentStore(temp.getRoot().toPath(), 1024).acquire("not base64!", "image/png");
+    }
+
+    private static String base64(String text) {
+        return Base64.getEncoder().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,247 @@
+package com.github.claudecodegui.bridge;
+
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BridgeArchiveExtractorTest {
+
+    private static final FileTime OLD = FileTime.fromMillis(System.currentTimeMillis() - 60_000);
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void priorityEntriesFollowImportsFromEntryScripts() throws IOException {
+        File archive = zip(bridgeEntries());
+
+        try (ZipFile zip = new ZipFile(archive)) {
+            Map<String, ZipEntry> files = new HashMap<>();
+            zip.stream().filter(entry -> !entry.isDirectory()).forEach(entry -> files.put(entry.getName(), entry));
+
+            Set<String> priority = BridgeArchiveExtractor.collectPriorityEntries(zip, files);
+
+            assertEquals(Set.of(
+                    "daemon.js", "channel-manager.js", "channels/claude.js", "services/util.js",
+                    "config/index.js", "node_modules/tiny/index.js"), priority);
+        }
+    }
+
+    @Test
+    public void backgroundEntriesWaitForTheExecutor() throws Exception {
+        File archive = zip(bridgeEntries());
+        File target = temp.newFolder("ai-bridge");
+        QueuedExecutor executor = new QueuedExecutor();
+
+        CompletableFuture<Void> remaining = new BridgeArchiveExtractor(executor, 2).extract(archive, target, null);
+
+        assertTrue(new File(target, "daemon.js").isFile());
+        assertTrue(new File(target, "node_modules/tiny/index.js").isFile());
+        assertFalse(new File(target, "node_modules/sql.js/dist/sql-wasm.js").exists());
+        assertFalse(new File(target, BridgeArchiveExtractor.MANIFEST_FILE_NAME).exists());
+
+        executor.runAll();
+        remaining.get(5, TimeUnit.SECONDS);
+        assertTrue(new File(target, "node_modules/sql.js/dist/sql-wasm.js").isFile());
+        assertTrue(new File(target, BridgeArchiveExtractor.MANIFEST_FILE_NAME).isFile());
+    }
+
+    @Test
+    public void onlyChangedEntriesAreRewritten() throws Exception {
+        Map<String, String> entries = bridgeEntries();
+        File target = temp.newFolder("ai-bridge");
+        extract(zip(entries), target);
+
+        Path unchanged = target.toPath().resolve("services/util.js");
+        Path changed = target.toPath().resolve("config/index.js");
+        Files.setLastModifiedTime(unchanged, OLD);
+        Files.setLastModifiedTime(changed, OLD);
+
+        entries.put("config/index.js", "export const config = { debug: true };\n");
+        entries.remove("scripts/read-cc-switch-db.js");
+        extract(zip(entries), target);
+
+        assertEquals(OLD, Files.getLastModifiedTime(unchanged));
+        assertNotEquals(OLD, Files.getLastModifiedTime(changed));
+        assertEquals(entries.get("config/index.js"), Files.readString(changed, StandardCharsets.UTF_8));
+        assertFalse(new File(target, "scripts/read-cc-switch-db.js").exists());
+    }
+
+    @Test
+    public void missingFilesAreRestoredEvenIfManifestMatches() throws Exception {
+        Map<String, String> entries = bridgeEntries();
+        File archive = zip(entries);
+        File target = temp.newFolder("ai-bridge");
+        extract(archive, target);
+
+        Files.delete(target.toPath().resolve("node_modules/sql.js/dist/sql-wasm.js"));
+        extract(archive, target);
+
+        assertEquals(entries.get("node_modules/sql.js/dist/sql-wasm.js"),
+                Files.readString(target.toPath().resolve("node_modules/sql.js/dist/sql-wasm.js"), StandardCharsets.UTF_8));
+    }
+
+    @Test(expected = IOException.class)
+    public void entriesOutsideTargetAreRejected() throws Exception {
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("../escape.js", "boom");
+        extract(zip(entries), temp.newFolder("ai-bridge"));
+    }
+
+    @Test
+    public void contentHashTracksEntryChanges() throws IOException {
+        Map<String, String> entries = bridgeEntries();
+        String first = BridgeArchiveExtractor.contentHash(zip(entries));
+        assertEquals(first, BridgeArchiveExtractor.contentHash(zip(entries)));
+
+        entries.put("daemon.js", entries.get("daemon.js") + "// changed\n");
+        assertNotEquals(first, BridgeArchiveExtractor.contentHash(zip(entries)));
+    }
+
+    @Test
+    public void unixModesAndSymlinksAreRestored() throws Exception {
+        Map<String, String> entries = bridgeEntries();
+        entries.put("node_modules/tiny/cli.js", "#!/usr/bin/env node\n");
+        entries.put("node_modules/.bin/tiny", "../tiny/cli.js");
+        File archive = zip(entries);
+        setUnixModes(archive, Map.of(
+                "node_modules/tiny/cli.js", 0100755,
+                "node_modules/.bin/tiny", 0120777,
+                "daemon.js", 0100600));
+        File target = temp.newFolder("ai-bridge");
+        Assume.assumeTrue(target.toPath().getFileSystem().supportedFileAttributeViews().contains("posix"));
+
+        extract(archive, target);
+
+        Path cli = target.toPath().resolve("node_modules/tiny/cli.js");
+        Path link = target.toPath().resolve("node_modules/.bin/tiny");
+        assertEquals(PosixFilePermissions.fromString("rwxr-xr-x"), Files.getPosixFilePermissions(cli));
+        assertEquals(PosixFilePermissions.fromString("rw-------"),
+                Files.getPosixFilePermissions(target.toPath().resolve("daemon.js")));
+        assertTrue(Files.isSymbolicLink(link));
+        assertEquals(Path.of("../tiny/cli.js"), Files.readSymbolicLink(link));
+        assertTrue(Files.isSameFile(cli, link));
+
+        // Extracting the same archive again leaves the link in place
+        Files.setLastModifiedTime(cli, OLD);
+        extract(archive, target);
+        assertTrue(Files.isSymbolicLink(link));
+        assertEquals(OLD, Files.getLastModifiedTime(cli));
+    }
+
+    // Not an entry script import, so it fails in the background phase
+    @Test(expected = ExecutionException.class)
+    public void symlinksOutsideTargetAreRejected() throws Exception {
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("node_modules/.bin/escape", "../../../outside");
+        File archive = zip(entries);
+        setUnixModes(archive, Map.of("node_modules/.bin/escape", 0120777));
+        extract(archive, temp.newFolder("ai-bridge"));
+    }
+
+    private static void extract(File archive, File target) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            new BridgeArchiveExtractor(executor, 2).extract(archive, target, null).get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Map<String, String> bridgeEntries() {
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("daemon.js", "import readline from 'readline';\n"
+                + "import { run } from './channels/claude.js';\n"
+                + "const { config } = await import('./config/index.js');\n");
+        entries.put("channel-manager.js", "import { run } from './channels/claude.js';\n");
+        entries.put("channels/claude.js", "import { helper } from '../services/util.js';\n"
+                + "import tiny from 'tiny';\nexport function run() {}\n");
+        entries.put("services/util.js", "export function helper() {}\n");
+        entries.put("config/index.js", "export const config = {};\n");
+        entries.put("scripts/read-cc-switch-db.js", "import initSqlJs from 'sql.js';\n");
+        entries.put("node_modules/tiny/index.js", "module.exports = {};\n");
+        entries.put("node_modules/sql.js/dist/sql-wasm.js", "/* sql.js */\n");
+        return entries;
+    }
+
+    private File zip(Map<String, String> entries) throws IOException {
+        File archive = temp.newFile();
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(archive))) {
+            out.putNextEntry(new ZipEntry("node_modules/"));
+            out.closeEntry();
+            for (Map.Entry<String, String> entry : entries.entrySet()) {
+                out.putNextEntry(new ZipEntry(entry.getKey()));
+                out.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+                out.closeEntry();
+            }
+        }
+        return archive;
+    }
+
+    /**
+     * Marks entries as written on Unix with the given modes, as {@code zip} does; ZipOutputStream
+     * cannot set external attributes itself.
+     */
+    private static void setUnixModes(File archive, Map<String, Integer> modes) throws IOException {
+        byte[] bytes = Files.readAllBytes(archive.toPath());
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i + 46 <= bytes.length; i++) {
+            if (buffer.getInt(i) != 0x02014b50) {
+                continue;
+            }
+            int nameLength = Short.toUnsignedInt(buffer.getShort(i + 28));
+            String name = new String(bytes, i + 46, nameLength, StandardCharsets.UTF_8);
+            Integer mode = modes.get(name);
+            if (mode != null) {
+                buffer.put(i + 5, (byte) 3);
+                buffer.putInt(i + 38, mode << 16);
+            }
+        }
+        Files.write(archive.toPath(), bytes);
+    }
+
+    private static final class QueuedExecutor implements Executor {
+        private final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        void runAll() {
+            tasks.forEach(Runnable::run);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.github.claudecodegui.bridge;
+
+import com.github.claudecodegui.model.NodeDetectionResult;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class NodeDetectionCacheTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void autoDetectedRecordIsTrustedWhileBinaryAndPathAreUnchanged() throws IOException {
+        NodeDetectionCache cache = newCache();
+        String node = fakeNode("v20.10.0");
+        cache.store(NodeDetectionResult.success(node, "v20.10.0", NodeDetectionResult.DetectionMethod.WHICH_COMMAND),
+                true, "/usr/bin");
+
+        NodeDetectionResult result = cache.lookup(null, "/usr/bin");
+        assertNotNull(result);
+        assertEquals(node, result.getNodePath());
+        assertEquals("v20.10.0", result.getNodeVersion());
+        assertEquals(NodeDetectionResult.DetectionMethod.WHICH_COMMAND, result.getMethod());
+
+        assertNull(cache.lookup(null, "/opt/bin:/usr/bin"));
+    }
+
+    @Test
+    public void recordIsDroppedWhenBinaryChanges() throws IOException {
+        NodeDetectionCache cache = newCache();
+        String node = fakeNode("v20.10.0");
+        cache.store(NodeDetectionResult.success(node, "v20.10.0", NodeDetectionResult.DetectionMethod.KNOWN_PATH),
+                false, "/usr/bin");
+
+        assertNotNull(cache.lookup(node, null));
+
+        Files.setLastModifiedTime(new File(node).toPath(), FileTime.fromMillis(1_000_000));
+        assertNull(cache.lookup(node, null));
+    }
+
+    @Test
+    public void manuallyVerifiedRecordOnlyMatchesItsOwnPath() throws IOException {
+        NodeDetectionCache cache = newCache();
+        String node = fakeNode("v22.0.0");
+        cache.store(NodeDetectionResult.success(node, "v22.0.0", NodeDetectionResult.DetectionMethod.KNOWN_PATH),
+                false, "/usr/bin");
+
+        assertNull(cache.lookup(null, "/usr/bin"));
+        assertNull(cache.lookup("/usr/local/bin/node", null));
+        assertNotNull(cache.lookup(node, null));
+
+        cache.forget(node);
+        assertNull(cache.lookup(node, null));
+    }
+
+    @Test
+    public void bareNodeCommandIsNotPersisted() {
+        NodeDetectionCache cache = newCache();
+        cache.store(NodeDetectionResult.success("node", "v20.10.0", NodeDetectionResult.DetectionMethod.FALLBACK),
+                true, "/usr/bin");
+
+        assertNull(cache.lookup(null, "/usr/bin"));
+    }
+
+    private NodeDetectionCache newCache() {
+        return new NodeDetectionCache(temp.getRoot().toPath().resolve("cache").resolve(NodeDetectionCache.CACHE_FILE_NAME));
+    }
+
+    private String fakeNode(String version) throws IOException {
+        Path node = temp.newFolder().toPath().resolve("node");
+        Files.writeString(node, "#!/bin/sh\necho " + version + "\n");
+        return node.toString();
+    }
+}
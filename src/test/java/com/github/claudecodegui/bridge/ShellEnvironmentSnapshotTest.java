@@ -0,0 +1,161 @@
+package com.github.claudecodegui.bridge;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ShellEnvironmentSnapshotTest {
+
+    private static final Executor DIRECT = Runnable::run;
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void parsesNulSeparatedOutputAfterMarker() throws IOException {
+        byte[] output = "motd noise\n__CCG_ENV_BEGIN__A=1\0MULTI=line1\nline2\0EMPTY=\0"
+                .getBytes(StandardCharsets.UTF_8);
+
+        Map<String, String> env = ShellEnvironmentSnapshot.parseEnvOutput(output);
+
+        assertEquals("1", env.get("A"));
+        assertEquals("line1\nline2", env.get("MULTI"));
+        assertEquals("", env.get("EMPTY"));
+    }
+
+    @Test
+    public void fallsBackToNewlineSeparatedOutput() throws IOException {
+        byte[] output = "__CCG_ENV_BEGIN__A=1\nB=x=y\n".getBytes(StandardCharsets.UTF_8);
+
+        Map<String, String> env = ShellEnvironmentSnapshot.parseEnvOutput(output);
+
+        assertEquals("1", env.get("A"));
+        assertEquals("x=y", env.get("B"));
+    }
+
+    @Test
+    public void capturesOnceForAllLookups() throws IOException {
+        FakeSnapshot snapshot = newSnapshot(Map.of("PATH", "/usr/bin"));
+        snapshot.output = "__CCG_ENV_BEGIN__API_KEY=secret\0PATH=/usr/bin\0SHLVL=2\0";
+
+        assertEquals("secret", snapshot.get("API_KEY"));
+        assertEquals("/usr/bin", snapshot.get("PATH"));
+        assertNull(snapshot.get("MISSING"));
+        assertEquals(1, snapshot.runs.size());
+        // Only variables differing from the IDE environment are kept
+        assertEquals(Map.of("API_KEY", "secret"), snapshot.getEnvironment());
+    }
+
+    @Test
+    public void persistedSnapshotIsReusedAndRefreshedInBackground() throws IOException {
+        FakeSnapshot first = newSnapshot(Map.of());
+        first.output = "__CCG_ENV_BEGIN__API_KEY=old\0";
+        assertEquals("old", first.get("API_KEY"));
+
+        List<Runnable> background = new ArrayList<>();
+        FakeSnapshot second = newSnapshot(Map.of(), background::add);
+        second.output = "__CCG_ENV_BEGIN__API_KEY=new\0";
+
+        assertEquals("old", second.get("API_KEY"));
+        assertEquals(0, second.runs.size());
+        assertEquals(1, background.size());
+
+        background.get(0).run();
+        assertEquals("new", second.get("API_KEY"));
+        assertEquals(1, second.runs.size());
+    }
+
+    @Test
+    public void rcFileChangeTriggersRecapture() throws IOException {
+        Path zshrc = Files.writeString(temp.getRoot().toPath().resolve(".zshrc"), "export A=1");
+        Files.setLastModifiedTime(zshrc, FileTime.fromMillis(1_000_000));
+        FakeSnapshot snapshot = newSnapshot(Map.of());
+        snapshot.output = "__CCG_ENV_BEGIN__A=1\0";
+        assertEquals("1", snapshot.get("A"));
+
+        Files.setLastModifiedTime(zshrc, FileTime.fromMillis(2_000_000));
+        snapshot.output = "__CCG_ENV_BEGIN__A=2\0";
+
+        assertEquals("2", snapshot.get("A"));
+        assertEquals(2, snapshot.runs.size());
+    }
+
+    @Test
+    public void persistsOnlyPathAndRequestedVariables() throws IOException {
+        FakeSnapshot first = newSnapshot(Map.of());
+        first.output = "__CCG_ENV_BEGIN__PATH=/opt/bin\0API_KEY=secret\0OTHER_TOKEN=hidden\0";
+        assertEquals("secret", first.get("API_KEY"));
+
+        String stored = Files.readString(cacheFile());
+        assertTrue(stored.contains("/opt/bin"));
+        assertTrue(stored.contains("secret"));
+        assertFalse(stored.contains("hidden"));
+        if (cacheFile().getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            assertEquals(PosixFilePermissions.fromString("rw-------"), Files.getPosixFilePermissions(cacheFile()));
+        }
+
+        // A variable that was not persisted needs a capture in the next session
+        FakeSnapshot second = newSnapshot(Map.of(), runnable -> { });
+        second.output = first.output;
+        assertEquals("secret", second.get("API_KEY"));
+        assertEquals("/opt/bin", second.peek().get("PATH"));
+        assertEquals(0, second.runs.size());
+        assertEquals("hidden", second.get("OTHER_TOKEN"));
+        assertEquals(1, second.runs.size());
+    }
+
+    @Test
+    public void failedCaptureIsCachedForPeek() {
+        FakeSnapshot snapshot = newSnapshot(Map.of());
+        snapshot.output = "rc file error, no environment";
+
+        assertNull(snapshot.peek());
+        assertEquals(Map.of(), snapshot.peek());
+        assertEquals(Map.of(), snapshot.peek());
+        assertEquals(1, snapshot.runs.size());
+    }
+
+    private Path cacheFile() {
+        return temp.getRoot().toPath().resolve("cache").resolve(ShellEnvironmentSnapshot.CACHE_FILE_NAME);
+    }
+
+    private FakeSnapshot newSnapshot(Map<String, String> baseEnv) {
+        return newSnapshot(baseEnv, DIRECT);
+    }
+
+    private FakeSnapshot newSnapshot(Map<String, String> baseEnv, Executor executor) {
+        Path home = temp.getRoot().toPath();
+        return new FakeSnapshot(home, baseEnv, executor);
+    }
+
+    private static final class FakeSnapshot extends ShellEnvironmentSnapshot {
+        final List<List<String>> runs = new ArrayList<>();
+        volatile String output = "";
+
+        FakeSnapshot(Path home, Map<String, String> baseEnv, Executor executor) {
+            super("/bin/zsh", home, home.resolve("cache").resolve(CACHE_FILE_NAME), baseEnv, executor);
+        }
+
+        @Override
+        byte[] runShell(List<String> command) {
+            runs.add(command);
+            return output.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+}
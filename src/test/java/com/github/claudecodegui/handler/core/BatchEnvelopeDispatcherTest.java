@@ -0,0 +1,104 @@
+package com.github.claudecodegui.handler.core;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BatchEnvelopeDispatcherTest {
+
+    private final List<String> received = new ArrayList<>();
+    private final List<String> rejected = new ArrayList<>();
+    private final List<String> logged = new ArrayList<>();
+
+    @Test
+    public void recognizesBatchMessages() {
+        assertTrue(BatchEnvelopeDispatcher.isBatch("[{\"type\":\"a\"}]"));
+        assertFalse(BatchEnvelopeDispatcher.isBatch("open_file:[x]"));
+        assertFalse(BatchEnvelopeDispatcher.isBatch("{\"type\":\"console.log\"}"));
+        assertFalse(BatchEnvelopeDispatcher.isBatch(""));
+    }
+
+    @Test
+    public void dispatchesEntriesInOrder() {
+        BatchEnvelopeDispatcher batch = newDispatcher("open_file", "refresh_file");
+
+        int handled = batch.dispatch("[{\"type\":\"open_file\",\"payload\":\"a.ts\"},"
+                + "{\"type\":\"refresh_file\",\"payload\":{\"filePath\":\"b.ts\"}},"
+                + "{\"type\":\"open_file\"}]");
+
+        assertEquals(3, handled);
+        assertEquals(List.of("open_file:a.ts", "refresh_file:{\"filePath\":\"b.ts\"}", "open_file:"), received);
+    }
+
+    @Test
+    public void copiesRequestIdIntoObjectPayloads() {
+        BatchEnvelopeDispatcher batch = newDispatcher("list_files");
+
+        batch.dispatch("[{\"type\":\"list_files\",\"id\":\"r7\",\"payload\":{\"query\":\"foo\"}}]");
+
+        JsonObject content = JsonParser.parseString(received.get(0).substring("list_files:".length()))
+                .getAsJsonObject();
+        assertEquals("foo", content.get("query").getAsString());
+        assertEquals("r7", content.get(BatchEnvelopeDispatcher.REQUEST_ID_KEY).getAsString());
+    }
+
+    @Test
+    public void rejectsUnhandledRequestsOnly() {
+        BatchEnvelopeDispatcher batch = newDispatcher("known");
+
+        int handled = batch.dispatch("[{\"type\":\"missing\",\"id\":\"r1\"},{\"type\":\"missing\"}]");
+
+        assertEquals(0, handled);
+        assertEquals(List.of("r1"), rejected);
+    }
+
+    @Test
+    public void routesConsoleEntriesToSink() {
+        BatchEnvelopeDispatcher batch = newDispatcher("known");
+
+        batch.dispatch("[{\"type\":\"console.warn\",\"payload\":{\"args\":[\"slow\",3],\"repeat\":4}},"
+                + "{\"type\":\"console.log\"}]");
+
+        assertEquals(List.of("warn [\"slow\",3] x4", "log [] x1"), logged);
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    public void malformedBatchIsIgnored() {
+        BatchEnvelopeDispatcher batch = newDispatcher("known");
+
+        assertEquals(0, batch.dispatch("[{\"type\":"));
+        assertEquals(0, batch.dispatch("[1, null, {\"id\":\"x\"}]"));
+        assertTrue(rejected.isEmpty());
+    }
+
+    private BatchEnvelopeDispatcher newDispatcher(String... types) {
+        MessageDispatcher dispatcher = new MessageDispatcher(new MessageDispatchMetrics());
+        dispatcher.registerHandler(new MessageHandler() {
+            @Override
+            public boolean handle(String type, String content) {
+                if (!List.of(types).contains(type)) {
+                    return false;
+                }
+                received.add(type + ":" + content);
+                return true;
+            }
+
+            @Override
+            public String[] getSupportedTypes() {
+                return types;
+            }
+        });
+        return new BatchEnvelopeDispatcher(
+                dispatcher,
+                (requestId, error) -> rejected.add(requestId),
+                (level, args, repeat) -> logged.add(level + " " + args + " x" + repeat));
+    }
+}
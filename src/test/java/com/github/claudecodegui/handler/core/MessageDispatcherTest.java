@@ -0,0 +1,123 @@
+package com.github.claudecodegui.handler.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MessageDispatcherTest {
+
+    @Test
+    public void routesToHandlerAdvertisingType() {
+        MessageDispatchMetrics metrics = new MessageDispatchMetrics();
+        MessageDispatcher dispatcher = new MessageDispatcher(metrics);
+        RecordingHandler first = new RecordingHandler("a", "b");
+        RecordingHandler second = new RecordingHandler("c");
+        dispatcher.registerHandler(first);
+        dispatcher.registerHandler(second);
+
+        assertTrue(dispatcher.dispatch("c", "payload"));
+
+        assertEquals(List.of(), first.received);
+        assertEquals(List.of("c:payload"), second.received);
+        assertEquals(1L, metrics.getCount("c"));
+    }
+
+    @Test
+    public void firstRegisteredHandlerWinsForSharedType() {
+        MessageDispatcher dispatcher = new MessageDispatcher(new MessageDispatchMetrics());
+        RecordingHandler first = new RecordingHandler("shared");
+        RecordingHandler second = new RecordingHandler("shared");
+        dispatcher.registerHandler(first);
+        dispatcher.registerHandler(second);
+
+        assertTrue(dispatcher.dispatch("shared", ""));
+
+        assertEquals(1, first.received.size());
+        assertEquals(0, second.received.size());
+    }
+
+    @Test
+    public void fallsBackToOtherHandlersWhenRoutedHandlerDeclines() {
+        MessageDispatcher dispatcher = new MessageDispatcher(new MessageDispatchMetrics());
+        RecordingHandler declining = new RecordingHandler("shared");
+        declining.accept = false;
+        RecordingHandler accepting = new RecordingHandler("shared");
+        dispatcher.registerHandler(declining);
+        dispatcher.registerHandler(accepting);
+
+        assertTrue(dispatcher.dispatch("shared", "x"));
+        assertEquals(List.of("shared:x"), accepting.received);
+    }
+
+    @Test
+    public void unknownTypeIsReportedAndCounted() {
+        MessageDispatchMetrics metrics = new MessageDispatchMetrics();
+        MessageDispatcher dispatcher = new MessageDispatcher(metrics);
+        RecordingHandler handler = new RecordingHandler("known");
+        handler.acceptOnlyAdvertised = true;
+        dispatcher.registerHandler(handler);
+
+        assertFalse(dispatcher.dispatch("unknown", ""));
+        assertFalse(dispatcher.hasHandlerFor("unknown"));
+        assertTrue(dispatcher.hasHandlerFor("known"));
+        assertEquals(1L, metrics.getCount("unknown"));
+    }
+
+    @Test
+    public void clearRemovesRoutes() {
+        MessageDispatcher dispatcher = new MessageDispatcher(new MessageDispatchMetrics());
+        dispatcher.registerHandler(new RecordingHandler("a"));
+
+        dispatcher.clear();
+
+        assertFalse(dispatcher.hasHandlerFor("a"));
+        assertEquals(0, dispatcher.getHandlerCount());
+    }
+
+    @Test
+    public void metricsBucketsAndDump() {
+        assertEquals(0, MessageDispatchMetrics.bucketFor(500L));
+        assertEquals(1, MessageDispatchMetrics.bucketFor(1_500L));
+        assertEquals(11, MessageDispatchMetrics.bucketFor(1_500_000L));
+        assertEquals(MessageDispatchMetrics.BUCKET_COUNT - 1, MessageDispatchMetrics.bucketFor(Long.MAX_VALUE));
+
+        MessageDispatchMetrics metrics = new MessageDispatchMetrics();
+        metrics.record("list_files", new RecordingHandler("list_files"), 2_000_000L);
+        String dump = metrics.dump();
+        assertTrue(dump.contains("list_files"));
+        assertTrue(dump.contains("RecordingHandler"));
+    }
+
+    private static final class RecordingHandler implements MessageHandler {
+        private final String[] types;
+        private final List<String> received = new ArrayList<>();
+        private boolean accept = true;
+        private boolean acceptOnlyAdvertised;
+
+        private RecordingHandler(String... types) {
+            this.types = types;
+        }
+
+        @Override
+        public boolean handle(String type, String content) {
+            if (!accept) {
+                return false;
+            }
+            if (acceptOnlyAdvertised && !List.of(types).contains(type)) {
+                return false;
+            }
+            received.add(type + ":" + content);
+            return true;
+        }
+
+        @Override
+        public String[] getSupportedTypes() {
+            return types;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.github.claudecodegui.handler.file;
+
+import com.google.gson.JsonObject;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class FileListReplyTest {
+
+    private final List<List<JsonObject>> sent = new ArrayList<>();
+    private final List<String> rejected = new ArrayList<>();
+
+    @Test
+    public void sendsCollectedFiles() throws Exception {
+        List<JsonObject> files = List.of(new JsonObject());
+
+        FileListReply.run("req-1", () -> files, sent::add, this::reject);
+
+        assertEquals(List.of(files), sent);
+        assertTrue(rejected.isEmpty());
+    }
+
+    @Test
+    public void failedBatchedRequestIsRejectedAndFailureRethrown() {
+        IllegalStateException failure = new IllegalStateException("disk gone");
+        try {
+            FileListReply.run("req-2", () -> {
+                throw failure;
+            }, sent::add, this::reject);
+            fail("expected the failure to propagate");
+        } catch (Exception e) {
+            assertSame(failure, e);
+        }
+
+        assertTrue(sent.isEmpty());
+        assertEquals(List.of("req-2:Failed to list files: disk gone"), rejected);
+    }
+
+    @Test
+    public void supersededBatchedRequestIsRejected() throws Exception {
+        FileListReply.run("req-3", () -> null, sent::add, this::reject);
+
+        assertTrue(sent.isEmpty());
+        assertEquals(List.of("req-3:" + FileListReply.SUPERSEDED), rejected);
+    }
+
+    @Test
+    public void cancelledBatchedRequestIsRejectedAsSuperseded() {
+        for (Exception cancellation : List.of(new ProcessCanceledException(), new CancellationException())) {
+            try {
+                FileListReply.run("req-4", () -> {
+                    throw cancellation;
+                }, sent::add, this::reject);
+                fail("expected the cancellation to propagate");
+            } catch (Exception e) {
+                assertSame(cancellation, e);
+            }
+        }
+
+        assertEquals(List.of("req-4:" + FileListReply.SUPERSEDED, "req-4:" + FileListReply.SUPERSEDED), rejected);
+    }
+
+    @Test
+    public void legacyRequestIsNeverRejected() throws Exception {
+        FileListReply.run(null, () -> null, sent::add, this::reject);
+        try {
+            FileListReply.run(null, () -> {
+                throw new IllegalStateException("boom");
+            }, sent::add, this::reject);
+        } catch (IllegalStateException expected) {
+            // rethrown for logging by the caller
+        }
+
+        assertTrue(sent.isEmpty());
+        assertTrue(rejected.isEmpty());
+    }
+
+    private void reject(String requestId, String error) {
+        rejected.add(requestId + ":" + error);
+    }
+}
@@ -0,0 +1,156 @@
+package com.github.claudecodegui.handler.file;
+
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FilePathIndexTest {
+
+    @Test
+    public void scorerRequiresOrderedSubsequence() {
+        assertTrue(score("fhd", "src/FileHandler.java") > FuzzyPathScorer.NO_MATCH);
+        assertEquals(FuzzyPathScorer.NO_MATCH, score("dhf", "src/FileHandler.java"));
+        assertEquals(FuzzyPathScorer.NO_MATCH, score("xyz", "src/FileHandler.java"));
+    }
+
+    @Test
+    public void scorerPrefersNameCamelCaseAndSegmentStarts() {
+        // Exact file name beats a match spread across directories
+        assertTrue(score("readme", "docs/README.md") > score("readme", "src/read/me/Other.java"));
+        // Camel-case humps beat scattered letters
+        assertTrue(score("fh", "src/FileHandler.java") > score("fh", "src/fish.java"));
+        // Segment starts beat mid-word matches
+        assertTrue(score("ut", "src/util/Paths.java") > score("ut", "src/cutter/Paths.java"));
+        // Shallower path wins among equal matches
+        assertTrue(score("index.ts", "index.ts") > score("index.ts", "a/b/c/d/e/f/g/h/index.ts"));
+    }
+
+    @Test
+    public void indexesDeepTreesWithoutCap() throws Exception {
+        Path root = Files.createTempDirectory("file-path-index");
+        Path deep = root;
+        for (int i = 0; i < 20; i++) {
+            deep = deep.resolve("level" + i);
+        }
+        Files.createDirectories(deep);
+        Files.writeString(deep.resolve("DeepTarget.java"), "");
+        for (int i = 0; i < 300; i++) {
+            Files.writeString(root.resolve("file" + i + ".txt"), "");
+        }
+        Files.createDirectories(root.resolve("node_modules/pkg"));
+        Files.writeString(root.resolve("node_modules/pkg/DeepTarget.java"), "");
+
+        FilePathIndex index = new FilePathIndex(root.toString());
+        assertFalse(index.isReady());
+        index.rebuild();
+
+        assertTrue(index.isReady());
+        List<FilePathIndex.Match> matches = index.search("deeptarget", 10);
+        assertEquals(1, matches.size());
+        assertTrue(matches.get(0).entry.relativePath.endsWith("level19/DeepTarget.java"));
+        assertEquals(300, index.search("file", 1000).stream().filter(m -> !m.entry.directory).count());
+    }
+
+    @Test
+    public void appliesCreateAndDeleteEvents() throws Exception {
+        Path root = Files.createTempDirectory("file-path-index");
+        Files.createDirectories(root.resolve("src"));
+        FilePathIndex index = new FilePathIndex(root.toString());
+        index.rebuild();
+
+        Path pkg = Files.createDirectories(root.resolve("src/pkg"));
+        Files.writeString(pkg.resolve("Added.java"), "");
+        index.onCreated(pkg.toString());
+        assertEquals(List.of("src/pkg/Added.java"), paths(index.search("added", 10)));
+
+        index.onDeleted(pkg.toString());
+        assertTrue(index.search("added", 10).isEmpty());
+        assertTrue(paths(index.search("pkg", 10)).isEmpty());
+
+        index.onCreated("/somewhere/else/Added.java");
+        assertTrue(index.search("added", 10).isEmpty());
+    }
+
+    @Test
+    public void replaysEventsReceivedWhileBuildIsPending() throws Exception {
+        Path root = Files.createTempDirectory("file-path-index");
+        Path stale = Files.writeString(root.resolve("Stale.java"), "");
+        FilePathIndex index = new FilePathIndex(root.toString());
+        index.invalidate();
+
+        // Deleted after the walk saw it: the event arrives before the build finishes
+        index.onDeleted(stale.toString());
+        Path created = Files.writeString(root.resolve("Created.java"), "");
+        index.onCreated(created.toString());
+        assertFalse(index.isReady());
+
+        index.rebuild();
+
+        assertTrue(index.isReady());
+        assertTrue(index.search("stale", 10).isEmpty());
+        assertEquals(List.of("Created.java"), paths(index.search("created", 10)));
+
+        // Events apply directly again once built
+        Files.writeString(root.resolve("Later.java"), "");
+        index.onCreated(root.resolve("Later.java").toString());
+        assertEquals(List.of("Later.java"), paths(index.search("later", 10)));
+    }
+
+    @Test
+    public void searchReturnsBestHitsFirst() throws Exception {
+        Path root = Files.createTempDirectory("file-path-index");
+        Files.createDirectories(root.resolve("a/b"));
+        Files.writeString(root.resolve("a/b/main.ts"), "");
+        Files.writeString(root.resolve("main.ts"), "");
+        Files.writeString(root.resolve("domain.ts"), "");
+        FilePathIndex index = new FilePathIndex(root.toString());
+        index.rebuild();
+
+        List<String> ranked = paths(index.search("main.ts", 2));
+
+        assertEquals(List.of("main.ts", "a/b/main.ts"), ranked);
+    }
+
+    @Test
+    public void cancelledSearchReturnsNothing() throws Exception {
+        Path root = Files.createTempDirectory("file-path-index");
+        Files.writeString(root.resolve("main.ts"), "");
+        FilePathIndex index = new FilePathIndex(root.toString());
+        index.rebuild();
+
+        assertTrue(index.search("main", 10, () -> true).isEmpty());
+        assertEquals(1, index.search("main", 10, () -> false).size());
+    }
+
+    @Test
+    public void keepsOriginalPathWhenCaseFoldingChangesLength() {
+        FilePathIndex.Entry entry = new FilePathIndex.Entry("docs/\u0130stanbul.md", false);
+
+        assertEquals("docs/\u0130stanbul.md", entry.relativePath);
+        assertEquals("\u0130stanbul.md", entry.name());
+        assertEquals(entry.lowerPath.length(), entry.matchPath.length());
+        assertTrue(FuzzyPathScorer.score("stanbul", entry.matchPath, entry.lowerPath, entry.nameStart)
+                > FuzzyPathScorer.NO_MATCH);
+    }
+
+    private static int score(String query, String path) {
+        String lower = path.toLowerCase(Locale.ROOT);
+        return FuzzyPathScorer.score(query.toLowerCase(Locale.ROOT), path, lower, lower.lastIndexOf('/') + 1);
+    }
+
+    private static List<String> paths(List<FilePathIndex.Match> matches) {
+        List<String> result = new ArrayList<>();
+        for (FilePathIndex.Match match : matches) {
+            result.add(match.entry.relativePath);
+        }
+        return result;
+    }
+}
@@ -1,6 +1,7 @@
 package com.github.claudecodegui.provider.claude;
 
 import com.github.claudecodegui.session.ClaudeSession;
+import com.github.claudecodegui.provider.common.DaemonEvent;
 import com.github.claudecodegui.provider.common.MessageCallback;
 import com.github.claudecodegui.provider.common.SDKResult;
 import com.google.gson.Gson;
@@ -120,6 +121,41 @@ public class ClaudeSDKBridgeRefactorTest {
         assertEquals(null, lastNodeError[0]);
     }
 
+    @Test
+    public void streamAdapterRoutesStructuredDaemonEventsLikeTaggedLines() {
+        ClaudeStreamAdapter adapter = new ClaudeStreamAdapter(new Gson());
+        RecordingCallback callback = new RecordingCallback();
+        SDKResult result = new SDKResult();
+        StringBuilder assistantContent = new StringBuilder();
+        boolean[] hadSendError = {false};
+        String[] lastNodeError = {null};
+
+        adapter.processEvent(new DaemonEvent(DaemonEvent.TAG, "MESSAGE", "{\"type\":\"assistant\"}"), callback, result, assistantContent, hadSendError, lastNodeError);
+        adapter.processEvent(new DaemonEvent(DaemonEvent.DELTA, null, "Hello \"quoted\""), callback, result, assistantContent, hadSendError, lastNodeError);
+        adapter.processEvent(new DaemonEvent(DaemonEvent.THINKING_DELTA, null, "reasoning"), callback, result, assistantContent, hadSendError, lastNodeError);
+        adapter.processEvent(new DaemonEvent(DaemonEvent.TAG, "STREAM_END", ""), callback, result, assistantContent, hadSendError, lastNodeError);
+        adapter.processEvent(new DaemonEvent(DaemonEvent.TAG, "PERSIST_ERROR", "disk full"), callback, result, assistantContent, hadSendError, lastNodeError);
+        adapter.processEvent(new DaemonEvent(DaemonEvent.LINE, null, "[USAGE] {\"input\":1}"), callback, result, assistantContent, hadSendError, lastNodeError);
+
+        assertEquals(1, result.messages.size());
+        assertEquals("assistant", callback.events.get(0).type);
+        assertEquals("content_delta", callback.events.get(1).type);
+        assertEquals("Hello \"quoted\"", callback.events.get(1).payload);
+        assertEquals("thinking_delta", callback.events.get(2).type);
+        assertEquals("stream_end", callback.events.get(3).type);
+        assertEquals("usage", callback.events.get(4).type);
+        assertEquals("Hello \"quoted\"", assistantContent.toString());
+        assertEquals("[PERSIST_ERROR] disk full", lastNodeError[0]);
+    }
+
+    @Test
+    public void daemonEventRebuildsEquivalentTaggedLine() {
+        assertEquals("[CONTENT_DELTA] \"a\\nb\"", new DaemonEvent(DaemonEvent.DELTA, null, "a\nb").toLine());
+        assertEquals("[STREAM_START]", new DaemonEvent(DaemonEvent.TAG, "STREAM_START", "").toLine());
+        assertEquals("[SESSION_ID] s-1", new DaemonEvent(DaemonEvent.TAG, "SESSION_ID", "s-1").toLine());
+        assertEquals("plain", new DaemonEvent(DaemonEvent.LINE, null, "plain").toLine());
+    }
+
     @Test
     public void streamAdapterMarksSendErrorsAndPreservesParsedMessage() {
         ClaudeStreamAdapter adapter = new ClaudeStreamAdapter(new Gson());
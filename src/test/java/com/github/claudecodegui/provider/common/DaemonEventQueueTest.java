@@ -0,0 +1,166 @@
+package com.github.claudecodegui.provider.common;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DaemonEventQueueTest {
+
+    @Test
+    public void coalescesConsecutiveDeltasOfTheSameKind() {
+        ManualExecutor executor = new ManualExecutor();
+        RecordingSink sink = new RecordingSink();
+        DaemonEventQueueMetrics metrics = new DaemonEventQueueMetrics();
+        DaemonEventQueue queue = new DaemonEventQueue(sink, executor, 16, metrics);
+
+        queue.offerEvent(new DaemonEvent(DaemonEvent.DELTA, null, "Hel"));
+        queue.offerEvent(new DaemonEvent(DaemonEvent.DELTA, null, "lo"));
+        queue.offerEvent(new DaemonEvent(DaemonEvent.THINKING_DELTA, null, "hmm"));
+        queue.offerEvent(new DaemonEvent(DaemonEvent.DELTA, null, " world"));
+        queue.offerEvent(new DaemonEvent(DaemonEvent.DELTA, null, "!"));
+        queue.offerDone(true, null);
+        executor.runAll();
+
+        assertEquals(List.of("delta:Hello", "thinking_delta:hmm", "delta: world!", "done:true"), sink.received);
+        assertEquals(2, metrics.getCoalescedCount());
+        assertEquals(1, executor.submitted);
+    }
+
+    @Test
+    public void dropsOldestDiagnosticsAtCapacityButKeepsEssentialOutput() {
+        ManualExecutor executor = new ManualExecutor();
+        RecordingSink sink = new RecordingSink();
+        DaemonEventQueueMetrics metrics = new DaemonEventQueueMetrics();
+        DaemonEventQueue queue = new DaemonEventQueue(sink, executor, 2, metrics);
+
+        queue.offerStderr("debug 1");
+        queue.offerStderr("debug 2");
+        queue.offerStderr("debug 3");
+        queue.offerEvent(new DaemonEvent(DaemonEvent.TAG, "MESSAGE", "{}"));
+        queue.offerEvent(new DaemonEvent(DaemonEvent.TAG, "MESSAGE_END", ""));
+        queue.offerStderr("[SEND_ERROR] {}");
+        queue.offerStderr("debug 4");
+        executor.runAll();
+
+        assertEquals(List.of("tag:{}", "tag:", "stderr:[SEND_ERROR] {}"), sink.received);
+        assertEquals(4, metrics.getDroppedCount());
+        assertTrue(metrics.getMaxDepth() > 2);
+    }
+
+    @Test
+    public void deliversInBatchesWithoutConcurrentDrains() {
+        ManualExecutor executor = new ManualExecutor();
+        RecordingSink sink = new RecordingSink();
+        DaemonEventQueue queue = new DaemonEventQueue(sink, executor, 1000, new DaemonEventQueueMetrics());
+
+        for (int i = 0; i < 150; i++) {
+            queue.offerEvent(new DaemonEvent(DaemonEvent.TAG, "USAGE", String.valueOf(i)));
+        }
+        assertEquals(1, executor.submitted);
+        executor.runAll();
+
+        assertEquals(150, sink.received.size());
+        assertEquals("tag:149", sink.received.get(149));
+        assertEquals(3, executor.submitted);
+    }
+
+    @Test
+    public void failDiscardsPendingEntriesAndIsDeliveredByTheDrainTask() {
+        ManualExecutor executor = new ManualExecutor();
+        RecordingSink sink = new RecordingSink();
+        DaemonEventQueue queue = new DaemonEventQueue(sink, executor, 16, new DaemonEventQueueMetrics());
+
+        queue.offerEvent(new DaemonEvent(DaemonEvent.DELTA, null, "lost"));
+        queue.fail("Daemon stopped");
+        queue.offerDone(true, null);
+        queue.fail("again");
+        assertTrue(sink.received.isEmpty());
+        executor.runAll();
+
+        assertEquals(List.of("failed:Daemon stopped"), sink.received);
+        assertEquals(1, executor.submitted);
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void failAfterDoneIsIgnored() {
+        ManualExecutor executor = new ManualExecutor();
+        RecordingSink sink = new RecordingSink();
+        DaemonEventQueue queue = new DaemonEventQueue(sink, executor, 16, new DaemonEventQueueMetrics());
+
+        queue.offerEvent(new DaemonEvent(DaemonEvent.DELTA, null, "kept"));
+        queue.offerDone(true, null);
+        queue.fail("Daemon stopped");
+        executor.runAll();
+
+        assertEquals(List.of("delta:kept", "done:true"), sink.received);
+    }
+
+    @Test
+    public void failsTheRequestWhenEssentialEntriesReachTheHardLimit() {
+        ManualExecutor executor = new ManualExecutor();
+        RecordingSink sink = new RecordingSink();
+        DaemonEventQueueMetrics metrics = new DaemonEventQueueMetrics();
+        DaemonEventQueue queue = new DaemonEventQueue(sink, executor, 2, metrics);
+
+        int limit = 2 * DaemonEventQueue.OVERFLOW_FACTOR;
+        for (int i = 0; i < limit + 5; i++) {
+            queue.offerEvent(new DaemonEvent(DaemonEvent.TAG, "USAGE", String.valueOf(i)));
+        }
+        assertEquals(1, queue.size());
+        executor.runAll();
+
+        assertEquals(1, sink.received.size());
+        assertTrue(sink.received.get(0).startsWith("failed:"));
+        assertEquals(1, metrics.getOverflowCount());
+        assertEquals(limit, metrics.getMaxDepth());
+    }
+
+    private static final class ManualExecutor implements Executor {
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+        private int submitted;
+
+        @Override
+        public void execute(Runnable command) {
+            submitted++;
+            tasks.add(command);
+        }
+
+        void runAll() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+    }
+
+    private static final class RecordingSink implements DaemonEventQueue.Sink {
+        private final List<String> received = new ArrayList<>();
+
+        @Override
+        public void onEvent(DaemonEvent event) {
+            received.add(event.getType() + ":" + event.getText());
+        }
+
+        @Override
+        public void onStderr(String text) {
+            received.add("stderr:" + text);
+        }
+
+        @Override
+        public void onDone(boolean success, String error) {
+            received.add("done:" + success);
+        }
+
+        @Override
+        public void onFailed(String error) {
+            received.add("failed:" + error);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.github.claudecodegui.provider.common;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DaemonFrameTest {
+
+    @Test
+    public void decodesDeltaFrameWithEscapes() throws Exception {
+        DaemonFrame frame = DaemonFrame.parse("{\"id\":\"7\",\"ev\":\"delta\",\"text\":\"line\\n\\\"q\\\" \\u00e9\"}");
+
+        assertEquals("7", frame.id);
+        assertFalse(frame.isDone());
+        assertNull(frame.stderrText());
+        DaemonEvent event = frame.toEvent();
+        assertEquals(DaemonEvent.DELTA, event.getType());
+        assertEquals("line\n\"q\" \u00e9", event.getText());
+    }
+
+    @Test
+    public void decodesTaggedAndUntaggedOutput() throws Exception {
+        DaemonEvent tagged = DaemonFrame.parse("{\"id\":\"1\",\"ev\":\"tag\",\"tag\":\"MESSAGE\",\"text\":\"{\\\"type\\\":\\\"user\\\"}\"}").toEvent();
+        assertEquals(DaemonEvent.TAG, tagged.getType());
+        assertEquals("MESSAGE", tagged.getTag());
+        assertEquals("{\"type\":\"user\"}", tagged.getText());
+
+        DaemonEvent line = DaemonFrame.parse("{\"id\":\"1\",\"ev\":\"line\",\"text\":\"hello\"}").toEvent();
+        assertEquals(DaemonEvent.LINE, line.getType());
+        assertEquals("hello", line.getText());
+    }
+
+    @Test
+    public void decodesCompletionAndStderrFrames() throws Exception {
+        DaemonFrame ok = DaemonFrame.parse("{\"id\":\"1\",\"ev\":\"done\",\"success\":true}");
+        assertTrue(ok.isDone());
+        assertTrue(ok.success);
+
+        DaemonFrame failed = DaemonFrame.parse("{\"id\":\"2\",\"ev\":\"done\",\"success\":false,\"error\":\"boom\",\"code\":{\"n\":1}}");
+        assertTrue(failed.isDone());
+        assertFalse(failed.success);
+        assertEquals("boom", failed.error);
+
+        assertEquals("warn", DaemonFrame.parse("{\"id\":\"3\",\"ev\":\"stderr\",\"text\":\"warn\"}").stderrText());
+    }
+
+    @Test
+    public void acceptsLegacyEnvelope() throws Exception {
+        DaemonEvent event = DaemonFrame.parse("{\"id\":\"1\",\"line\":\"[CONTENT_DELTA] \\\"hi\\\"\"}").toEvent();
+        assertEquals(DaemonEvent.LINE, event.getType());
+        assertEquals("[CONTENT_DELTA] \"hi\"", event.toLine());
+
+        assertTrue(DaemonFrame.parse("{\"id\":\"1\",\"done\":true,\"success\":true}").isDone());
+        assertEquals("err", DaemonFrame.parse("{\"id\":\"1\",\"stderr\":\"err\"}").stderrText());
+    }
+
+    @Test
+    public void capturesTypeOfLifecycleFramesAndSkipsNestedValues() throws Exception {
+        DaemonFrame frame = DaemonFrame.parse("{\"type\":\"daemon\",\"event\":\"ready\",\"memoryUsage\":{\"rss\":1,\"list\":[1,2]},\"pid\":42}");
+
+        assertEquals("daemon", frame.type);
+        assertNull(frame.id);
+        assertNull(frame.toEvent());
+    }
+}
@@ -0,0 +1,118 @@
+package com.github.claudecodegui.provider.common;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class StandbyDaemonTest {
+
+    private static final Executor DIRECT = Runnable::run;
+
+    @Test
+    public void takeHandsOverReadySpareOnce() {
+        List<FakeDaemon> created = new ArrayList<>();
+        StandbyDaemon standby = new StandbyDaemon(() -> add(created, new FakeDaemon(true)), DIRECT);
+
+        standby.replenishAsync();
+        assertTrue(standby.hasSpare());
+
+        DaemonBridge taken = standby.take();
+        assertSame(created.get(0), taken);
+        assertNull(standby.take());
+        assertFalse(created.get(0).stopped);
+    }
+
+    @Test
+    public void replenishKeepsSingleLiveSpare() {
+        List<FakeDaemon> created = new ArrayList<>();
+        StandbyDaemon standby = new StandbyDaemon(() -> add(created, new FakeDaemon(true)), DIRECT);
+
+        standby.replenishAsync();
+        standby.replenishAsync();
+
+        assertEquals(1, created.size());
+    }
+
+    @Test
+    public void deadSpareIsDiscardedAndReplaced() {
+        List<FakeDaemon> created = new ArrayList<>();
+        StandbyDaemon standby = new StandbyDaemon(() -> add(created, new FakeDaemon(true)), DIRECT);
+
+        standby.replenishAsync();
+        created.get(0).alive = false;
+        assertNull(standby.take());
+        assertTrue(created.get(0).stopped);
+
+        standby.replenishAsync();
+        created.get(1).alive = false;
+        standby.replenishAsync();
+        assertTrue(created.get(1).stopped);
+        assertSame(created.get(2), standby.take());
+    }
+
+    @Test
+    public void failedStartLeavesNoSpare() {
+        List<FakeDaemon> created = new ArrayList<>();
+        StandbyDaemon standby = new StandbyDaemon(() -> add(created, new FakeDaemon(false)), DIRECT);
+
+        standby.replenishAsync();
+
+        assertFalse(standby.hasSpare());
+        assertTrue(created.get(0).stopped);
+    }
+
+    @Test
+    public void spareFinishingAfterShutdownIsStopped() {
+        List<Runnable> tasks = new ArrayList<>();
+        List<FakeDaemon> created = new ArrayList<>();
+        StandbyDaemon standby = new StandbyDaemon(() -> add(created, new FakeDaemon(true)), tasks::add);
+
+        standby.replenishAsync();
+        standby.shutdown();
+        tasks.get(0).run();
+
+        assertFalse(standby.hasSpare());
+        assertTrue(created.get(0).stopped);
+    }
+
+    private static FakeDaemon add(List<FakeDaemon> created, FakeDaemon daemon) {
+        created.add(daemon);
+        return daemon;
+    }
+
+    private static final class FakeDaemon extends DaemonBridge {
+        private final boolean startSucceeds;
+        volatile boolean alive;
+        volatile boolean stopped;
+
+        FakeDaemon(boolean startSucceeds) {
+            super(null, null, null);
+            this.startSucceeds = startSucceeds;
+        }
+
+        @Override
+        public boolean start() {
+            alive = startSucceeds;
+            return startSucceeds;
+        }
+
+        @Override
+        public void stop() {
+            alive = false;
+            stopped = true;
+        }
+
+        @Override
+        public boolean isAlive() {
+            return alive;
+        }
+    }
+}
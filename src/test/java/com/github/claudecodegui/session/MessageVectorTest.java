@@ -0,0 +1,68 @@
+package com.github.claudecodegui.session;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MessageVectorTest {
+
+    @Test
+    public void snapshotKeepsItsContentsAcrossLaterAppends() {
+        MessageVector<Integer> vector = new MessageVector<>();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 70; i++) {
+            vector.add(i);
+            expected.add(i);
+        }
+        List<Integer> snapshot = vector.snapshot();
+
+        // Cross several chunk boundaries and force the spine to grow
+        for (int i = 70; i < 1000; i++) {
+            vector.add(i);
+        }
+
+        assertEquals(expected, snapshot);
+        assertEquals(1000, vector.size());
+        assertEquals(999, (int) vector.snapshot().get(999));
+    }
+
+    @Test
+    public void clearDoesNotAffectExistingSnapshots() {
+        MessageVector<String> vector = new MessageVector<>();
+        vector.add("a");
+        vector.add("b");
+        List<String> snapshot = vector.snapshot();
+
+        vector.clear();
+        vector.add("c");
+
+        assertEquals(List.of("a", "b"), snapshot);
+        assertEquals(List.of("c"), vector.snapshot());
+    }
+
+    @Test
+    public void snapshotIsImmutableAndBoundsChecked() {
+        MessageVector<String> vector = new MessageVector<>();
+        vector.add("a");
+        List<String> snapshot = vector.snapshot();
+
+        try {
+            snapshot.add("b");
+            fail("snapshot should be read-only");
+        } catch (UnsupportedOperationException expected) {
+            // expected
+        }
+        try {
+            snapshot.get(1);
+            fail("index beyond snapshot size should be rejected");
+        } catch (IndexOutOfBoundsException expected) {
+            // expected
+        }
+        assertTrue(new MessageVector<String>().snapshot().isEmpty());
+    }
+}
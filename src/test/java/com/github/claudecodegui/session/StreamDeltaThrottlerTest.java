@@ -154,6 +154,56 @@ public class StreamDeltaThrottlerTest {
         assertTrue(flushed.isEmpty());
     }
 
+    @Test
+    public void suspendedThrottlerHoldsDeltasUntilResumed() {
+        AtomicLong now = new AtomicLong(0);
+        RecordingScheduler scheduler = new RecordingScheduler();
+        List<String> flushed = new ArrayList<>();
+        StreamDeltaThrottler throttler = new StreamDeltaThrottler(
+                50,
+                flushed::add,
+                scheduler,
+                now::get
+        );
+
+        throttler.append("Hel");
+        throttler.setSuspended(true);
+        throttler.append("lo");
+        now.set(50);
+        scheduler.runScheduled();
+        throttler.flushNow();
+
+        assertTrue(flushed.isEmpty());
+        assertEquals(1, scheduler.scheduleCount);
+
+        throttler.setSuspended(false);
+
+        assertEquals(List.of("Hello"), flushed);
+    }
+
+    @Test
+    public void resetWhileSuspendedDiscardsHeldDeltas() {
+        AtomicLong now = new AtomicLong(0);
+        RecordingScheduler scheduler = new RecordingScheduler();
+        List<String> flushed = new ArrayList<>();
+        StreamDeltaThrottler throttler = new StreamDeltaThrottler(
+                50,
+                flushed::add,
+                scheduler,
+                now::get
+        );
+
+        throttler.setSuspended(true);
+        throttler.append("stale");
+        throttler.reset();
+        throttler.setSuspended(false);
+        throttler.append("fresh");
+        now.set(50);
+        scheduler.runScheduled();
+
+        assertEquals(List.of("fresh"), flushed);
+    }
+
     private static final class RecordingScheduler implements StreamDeltaThrottler.Scheduler {
         private Runnable scheduled;
         private int scheduleCount;
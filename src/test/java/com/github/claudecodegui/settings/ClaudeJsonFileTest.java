@@ -0,0 +1,155 @@
+package com.github.claudecodegui.settings;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ClaudeJsonFileTest {
+
+    private static final FileTime OLD = FileTime.fromMillis(System.currentTimeMillis() - 60_000);
+
+    private static final String CLAUDE_JSON = "{\n"
+            + "  \"numStartups\": 12,\n"
+            + "  \"ratio\": 1.50,\n"
+            + "  \"mcpServers\": {\n"
+            + "    \"fs\": {\n"
+            + "      \"command\": \"npx\"\n"
+            + "    }\n"
+            + "  },\n"
+            + "  \"projects\": {\n"
+            + "    \"/work/other\": {\n"
+            + "      \"history\": [\n"
+            + "        \"a <b> & c\",\n"
+            + "        null\n"
+            + "      ]\n"
+            + "    },\n"
+            + "    \"/work/app\": {\n"
+            + "      \"history\": [],\n"
+            + "      \"mcpServers\": {\n"
+            + "        \"db\": {\n"
+            + "          \"command\": \"psql\"\n"
+            + "        }\n"
+            + "      },\n"
+            + "      \"disabledMcpServers\": [\n"
+            + "        \"fs\"\n"
+            + "      ]\n"
+            + "    }\n"
+            + "  },\n"
+            + "  \"oauthAccount\": {\n"
+            + "    \"emailAddress\": \"dev@example.com\"\n"
+            + "  }\n"
+            + "}";
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void readExtractsOnlyMcpMembersAndRequestedProject() throws IOException {
+        Path file = write(CLAUDE_JSON);
+
+        ClaudeJsonFile.Extract extract = new ClaudeJsonFile().read(file, "/work/app");
+
+        assertEquals(ClaudeJsonFile.TOP_LEVEL_MEMBERS.size() - 1, extract.topLevel().size());
+        assertTrue(extract.topLevel().getAsJsonObject("mcpServers").has("fs"));
+        assertEquals("dev@example.com",
+                extract.topLevel().getAsJsonObject("oauthAccount").get("emailAddress").getAsString());
+        assertFalse(extract.project().has("history"));
+        assertTrue(extract.project().getAsJsonObject("mcpServers").has("db"));
+        assertEquals("fs", extract.project().getAsJsonArray("disabledMcpServers").get(0).getAsString());
+
+        assertNull(new ClaudeJsonFile().read(file, "/work/missing").project());
+        assertNull(new ClaudeJsonFile().read(temp.getRoot().toPath().resolve("absent.json"), null));
+    }
+
+    @Test
+    public void readIsCachedUntilFileChanges() throws IOException {
+        Path file = write(CLAUDE_JSON);
+        ClaudeJsonFile claudeJson = new ClaudeJsonFile();
+
+        ClaudeJsonFile.Extract first = claudeJson.read(file, "/work/app");
+        assertSame(first, claudeJson.read(file, "/work/app"));
+
+        Files.setLastModifiedTime(file, FileTime.fromMillis(OLD.toMillis() + 1000));
+        assertFalse(first == claudeJson.read(file, "/work/app"));
+    }
+
+    @Test
+    public void spliceReplacesOnlyGivenMembers() throws IOException {
+        Path file = write(CLAUDE_JSON);
+        ClaudeJsonFile claudeJson = new ClaudeJsonFile();
+        claudeJson.read(file, null);
+
+        JsonObject servers = new JsonObject();
+        JsonObject git = new JsonObject();
+        git.addProperty("command", "git-mcp");
+        servers.add("git", git);
+        JsonArray disabled = new JsonArray();
+        disabled.add("git");
+        claudeJson.splice(file, Map.of("mcpServers", servers), "/work/app", Map.of("disabledMcpServers", disabled));
+
+        String expected = CLAUDE_JSON
+                .replace("\"fs\": {\n      \"command\": \"npx\"", "\"git\": {\n      \"command\": \"git-mcp\"")
+                .replace("\"disabledMcpServers\": [\n        \"fs\"", "\"disabledMcpServers\": [\n        \"git\"");
+        assertEquals(expected, Files.readString(file, StandardCharsets.UTF_8));
+        assertTrue(claudeJson.read(file, null).topLevel().getAsJsonObject("mcpServers").has("git"));
+    }
+
+    @Test
+    public void spliceAppendsMissingMembersAndProject() throws IOException {
+        Path file = write("{\"numStartups\": 1}");
+
+        JsonArray disabled = new JsonArray();
+        disabled.add("fs");
+        new ClaudeJsonFile().splice(file, Map.of("disabledMcpServers", new JsonArray()),
+                "/work/new", Map.of("disabledMcpServers", disabled));
+
+        JsonObject result = JsonParser.parseString(Files.readString(file, StandardCharsets.UTF_8)).getAsJsonObject();
+        assertEquals(1, result.get("numStartups").getAsInt());
+        assertEquals(0, result.getAsJsonArray("disabledMcpServers").size());
+        JsonElement project = result.getAsJsonObject("projects").get("/work/new");
+        assertEquals("fs", project.getAsJsonObject().getAsJsonArray("disabledMcpServers").get(0).getAsString());
+    }
+
+    @Test
+    public void spliceKeepsSymlinkAndWritesItsTarget() throws IOException {
+        Path target = write(CLAUDE_JSON);
+        Path link = temp.newFolder("home").toPath().resolve(".claude.json");
+        try {
+            Files.createSymbolicLink(link, target);
+        } catch (UnsupportedOperationException | IOException e) {
+            Assume.assumeNoException(e);
+        }
+
+        new ClaudeJsonFile().splice(link, Map.of("mcpServers", new JsonObject()), null, Map.of());
+
+        assertTrue(Files.isSymbolicLink(link));
+        JsonObject result = JsonParser.parseString(Files.readString(target, StandardCharsets.UTF_8)).getAsJsonObject();
+        assertEquals(0, result.getAsJsonObject("mcpServers").size());
+        assertEquals(12, result.get("numStartups").getAsInt());
+    }
+
+    private Path write(String content) throws IOException {
+        Path file = temp.getRoot().toPath().resolve(".claude.json");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(file, OLD);
+        return file;
+    }
+}
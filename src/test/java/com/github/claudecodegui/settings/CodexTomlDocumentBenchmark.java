@@ -0,0 +1,72 @@
+package com.github.claudecodegui.settings;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares the MCP server list/upsert flow before and after {@link CodexTomlDocument}.
+ *
+ * <p>Not a unit test; run {@code main} manually, optionally with the path of a real config.toml
+ * as the first argument. Without an argument a config with 300 servers is generated.</p>
+ *
+ * <ul>
+ *   <li>full: parse the text into a map for every list call, and regenerate the whole file for
+ *   every upsert</li>
+ *   <li>document: load the cached document for list calls, and rewrite a single table for
+ *   upserts</li>
+ * </ul>
+ */
+public final class CodexTomlDocumentBenchmark {
+
+    private static final int WARMUP = 2_000;
+    private static final int ITERATIONS = 10_000;
+
+    private CodexTomlDocumentBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String config = args.length > 0
+                ? Files.readString(Path.of(args[0]), StandardCharsets.UTF_8)
+                : CodexTomlDocumentTest.largeConfig(300);
+        Path file = Files.createTempFile("codex-config", ".toml");
+        Files.writeString(file, config, StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() - 60_000));
+        Map<String, Object> server = Map.of("command", "npx", "args", List.of("-y", "changed"));
+
+        System.out.printf("config: %d bytes%n", config.length());
+        run("list (full)", () -> CodexTomlDocument.parse(Files.readString(file, StandardCharsets.UTF_8)).toMap());
+        run("list (document)", () -> CodexTomlDocument.load(file).toMap());
+        run("upsert (full)", () -> {
+            Map<String, Object> map = CodexTomlDocument.parse(config).toMap();
+            @SuppressWarnings("unchecked")
+            Map<String, Object> servers = (Map<String, Object>) map.get("mcp_servers");
+            servers.put("filesystem", server);
+            return CodexTomlDocument.generate(map);
+        });
+        CodexTomlDocument document = CodexTomlDocument.parse(config);
+        run("upsert (document)", () -> document.withTable("mcp_servers.filesystem", server).text());
+        Files.deleteIfExists(file);
+    }
+
+    private static void run(String name, Operation operation) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            operation.run();
+        }
+        long start = System.nanoTime();
+        int checksum = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            checksum += operation.run().hashCode() & 1;
+        }
+        double micros = (System.nanoTime() - start) / 1000.0 / ITERATIONS;
+        System.out.printf("%-20s %10.1f us/op  (%d)%n", name, micros, checksum);
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        Object run() throws Exception;
+    }
+}
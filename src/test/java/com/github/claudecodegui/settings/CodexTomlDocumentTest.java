@@ -0,0 +1,246 @@
+package com.github.claudecodegui.settings;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CodexTomlDocumentTest {
+
+    private static final FileTime OLD = FileTime.fromMillis(System.currentTimeMillis() - 60_000);
+
+    static final String CONFIG = "# Codex configuration\n"
+            + "model = \"gpt-5-codex\"\n"
+            + "model_provider = \"packycode\"\n"
+            + "model_reasoning_effort = \"high\"\n"
+            + "disable_response_storage = true\n"
+            + "\n"
+            + "[model_providers.packycode]\n"
+            + "name = \"packycode\"\n"
+            + "base_url = \"https://codex-api.packycode.com/v1\"\n"
+            + "wire_api = \"responses\"\n"
+            + "requires_openai_auth = true\n"
+            + "\n"
+            + "[projects.\"/home/dev/work\"]\n"
+            + "trust_level = \"trusted\"\n"
+            + "\n"
+            + "# Filesystem access for the agent\n"
+            + "[mcp_servers.filesystem]\n"
+            + "command = \"npx\"\n"
+            + "args = [\"-y\", \"@modelcontextprotocol/server-filesystem\", \"/home/dev\"]\n"
+            + "startup_timeout_sec = 20\n"
+            + "\n"
+            + "[mcp_servers.filesystem.env]\n"
+            + "NODE_OPTIONS = \"--max-old-space-size=4096\"\n"
+            + "\n"
+            + "# Remote docs server\n"
+            + "[mcp_servers.context7]\n"
+            + "url = \"https://mcp.context7.com/mcp\"\n"
+            + "bearer_token_env_var = \"CONTEXT7_TOKEN\"\n"
+            + "enabled_tools = [\"resolve-library-id\", \"get-library-docs\"]\n"
+            + "\n"
+            + "[tui]\n"
+            + "notifications = true\n"
+            + "\n"
+            + "[[skills.config]]\n"
+            + "path = \"/home/dev/.codex/skills/review\"\n"
+            + "enabled = false\n";
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void parsesValuesAndKeepsText() {
+        CodexTomlDocument document = CodexTomlDocument.parse(CONFIG);
+
+        assertEquals(CONFIG, document.text());
+        Map<String, Object> config = document.toMap();
+        assertEquals("gpt-5-codex", config.get("model"));
+        assertEquals(true, config.get("disable_response_storage"));
+        Map<?, ?> filesystem = (Map<?, ?>) ((Map<?, ?>) config.get("mcp_servers")).get("filesystem");
+        assertEquals(20L, filesystem.get("startup_timeout_sec"));
+        assertEquals(List.of("-y", "@modelcontextprotocol/server-filesystem", "/home/dev"), filesystem.get("args"));
+        assertEquals("--max-old-space-size=4096", ((Map<?, ?>) filesystem.get("env")).get("NODE_OPTIONS"));
+        assertEquals(1, ((List<?>) ((Map<?, ?>) config.get("skills")).get("config")).size());
+    }
+
+    @Test
+    public void toMapReturnsIndependentCopies() {
+        CodexTomlDocument document = CodexTomlDocument.parse(CONFIG);
+
+        Map<String, Object> first = document.toMap();
+        ((Map<?, ?>) first.get("mcp_servers")).clear();
+
+        assertEquals(2, ((Map<?, ?>) document.toMap().get("mcp_servers")).size());
+    }
+
+    @Test
+    public void generatedTomlParsesBackToSameValues() {
+        Map<String, Object> config = CodexTomlDocument.parse(CONFIG).toMap();
+        // Quoted table names are not representable by the generator
+        config.remove("projects");
+
+        String generated = CodexTomlDocument.generate(config);
+
+        assertEquals(config, CodexTomlDocument.parse(generated).toMap());
+    }
+
+    @Test
+    public void withTableReplacesOnlyTheTargetTable() {
+        Map<String, Object> server = new LinkedHashMap<>();
+        server.put("command", "uvx");
+        server.put("args", List.of("mcp-server-fs"));
+
+        CodexTomlDocument updated = CodexTomlDocument.parse(CONFIG).withTable("mcp_servers.filesystem", server);
+
+        String expected = CONFIG.replace("[mcp_servers.filesystem]\n"
+                + "command = \"npx\"\n"
+                + "args = [\"-y\", \"@modelcontextprotocol/server-filesystem\", \"/home/dev\"]\n"
+                + "startup_timeout_sec = 20\n"
+                + "\n"
+                + "[mcp_servers.filesystem.env]\n"
+                + "NODE_OPTIONS = \"--max-old-space-size=4096\"\n"
+                + "\n", "[mcp_servers.filesystem]\n"
+                + "command = \"uvx\"\n"
+                + "args = [\"mcp-server-fs\"]\n"
+                + "\n");
+        assertEquals(expected, updated.text());
+        assertEquals(server, ((Map<?, ?>) updated.toMap().get("mcp_servers")).get("filesystem"));
+    }
+
+    @Test
+    public void withTableAppendsNewTableAfterItsSiblings() {
+        CodexTomlDocument updated = CodexTomlDocument.parse(CONFIG)
+                .withTable("mcp_servers.github", Map.of("command", "github-mcp"));
+
+        String expected = CONFIG.replace("\"get-library-docs\"]\n",
+                "\"get-library-docs\"]\n\n[mcp_servers.github]\ncommand = \"github-mcp\"\n");
+        assertEquals(expected, updated.text());
+    }
+
+    @Test
+    public void withTableCreatesFileContent() {
+        CodexTomlDocument updated = CodexTomlDocument.parse("model = \"o3\"")
+                .withTable("mcp_servers.github", Map.of("command", "github-mcp"));
+
+        assertEquals("model = \"o3\"\n\n[mcp_servers.github]\ncommand = \"github-mcp\"\n", updated.text());
+        assertEquals("[mcp_servers.github]\ncommand = \"github-mcp\"\n",
+                CodexTomlDocument.parse("").withTable("mcp_servers.github", Map.of("command", "github-mcp")).text());
+    }
+
+    @Test
+    public void withoutTableRemovesTableWithItsSubTablesAndComment() {
+        CodexTomlDocument updated = CodexTomlDocument.parse(CONFIG).withoutTable("mcp_servers.filesystem");
+
+        String expected = CONFIG.replace("# Filesystem access for the agent\n"
+                + "[mcp_servers.filesystem]\n"
+                + "command = \"npx\"\n"
+                + "args = [\"-y\", \"@modelcontextprotocol/server-filesystem\", \"/home/dev\"]\n"
+                + "startup_timeout_sec = 20\n"
+                + "\n"
+                + "[mcp_servers.filesystem.env]\n"
+                + "NODE_OPTIONS = \"--max-old-space-size=4096\"\n"
+                + "\n", "");
+        assertEquals(expected, updated.text());
+        assertFalse(((Map<?, ?>) updated.toMap().get("mcp_servers")).containsKey("filesystem"));
+    }
+
+    @Test
+    public void withoutTableAtEndOfFileLeavesNoTrailingBlankLines() {
+        String config = "model = \"o3\"\n\n[mcp_servers.github]\ncommand = \"github-mcp\"\n";
+
+        assertEquals("model = \"o3\"\n", CodexTomlDocument.parse(config).withoutTable("mcp_servers.github").text());
+    }
+
+    @Test
+    public void inlineTablesAreNotEditedInPlace() {
+        CodexTomlDocument document = CodexTomlDocument.parse("[mcp_servers]\ngithub = { command = \"github-mcp\" }\n");
+
+        assertNull(document.withTable("mcp_servers.github", Map.of("command", "other")));
+        assertNull(document.withoutTable("mcp_servers.github"));
+        assertNull(CodexTomlDocument.parse("mcp_servers = { github = { command = \"x\" } }\n")
+                .withTable("mcp_servers.other", Map.of("command", "y")));
+        assertNull(CodexTomlDocument.parse(CONFIG).withTable("mcp_servers.bad key", Map.of("command", "y")));
+    }
+
+    @Test
+    public void lineSeparatorsArePreserved() {
+        String config = CONFIG.replace("\n", "\r\n");
+
+        CodexTomlDocument updated = CodexTomlDocument.parse(config)
+                .withTable("mcp_servers.context7", Map.of("url", "https://example.com/mcp"));
+
+        assertFalse(updated.text().replace("\r\n", "").contains("\n"));
+        assertTrue(updated.text().contains("[mcp_servers.context7]\r\nurl = \"https://example.com/mcp\"\r\n\r\n[tui]"));
+    }
+
+    @Test
+    public void largeConfigRoundTripsUnchangedOutsideTheEditedTable() {
+        String config = largeConfig(500);
+        CodexTomlDocument document = CodexTomlDocument.parse(config);
+        assertEquals(502, ((Map<?, ?>) document.toMap().get("mcp_servers")).size());
+
+        CodexTomlDocument updated = document.withTable("mcp_servers.server-250", Map.of("command", "changed"));
+
+        String before = "[mcp_servers.server-250]\n";
+        int start = config.indexOf(before);
+        int end = config.indexOf("[mcp_servers.server-251]");
+        String expected = config.substring(0, start) + before + "command = \"changed\"\n\n" + config.substring(end);
+        assertEquals(expected, updated.text());
+        Map<?, ?> servers = (Map<?, ?>) document.toMap().get("mcp_servers");
+        assertEquals(config, updated.withTable("mcp_servers.server-250", asStringMap((Map<?, ?>) servers.get("server-250"))).text());
+    }
+
+    @Test
+    public void loadIsCachedUntilFileChanges() throws IOException {
+        Path file = temp.getRoot().toPath().resolve("config.toml");
+        Files.writeString(file, CONFIG, StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(file, OLD);
+
+        CodexTomlDocument first = CodexTomlDocument.load(file);
+        assertSame(first, CodexTomlDocument.load(file));
+
+        Files.setLastModifiedTime(file, FileTime.fromMillis(OLD.toMillis() + 1000));
+        assertNotSame(first, CodexTomlDocument.load(file));
+
+        Files.delete(file);
+        assertNull(CodexTomlDocument.load(file));
+    }
+
+    /**
+     * A config with the tables of {@link #CONFIG} followed by {@code servers} stdio servers in the
+     * layout the Codex CLI and this plugin write.
+     */
+    static String largeConfig(int servers) {
+        StringBuilder sb = new StringBuilder(CONFIG);
+        for (int i = 0; i < servers; i++) {
+            sb.append("\n[mcp_servers.server-").append(i).append("]\n")
+                    .append("command = \"npx\"\n")
+                    .append("args = [\"-y\", \"@scope/mcp-server-").append(i).append("\", \"--port\", \"")
+                    .append(3000 + i).append("\"]\n")
+                    .append("enabled = ").append(i % 3 != 0).append('\n')
+                    .append("tool_timeout_sec = 60\n");
+        }
+        return sb.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asStringMap(Map<?, ?> map) {
+        return (Map<String, Object>) map;
+    }
+}
@@ -0,0 +1,135 @@
+package com.github.claudecodegui.settings;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+public class ConfigSnapshotStoreTest {
+
+    private static final FileTime OLD = FileTime.fromMillis(System.currentTimeMillis() - 60_000);
+    private static final FileTime CHANGED = FileTime.fromMillis(System.currentTimeMillis() - 30_000);
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void readsAreServedFromSnapshotUntilFileChanges() throws IOException {
+        Path file = temp.getRoot().toPath().resolve("config.json");
+        writeFile(file, "{\"value\":\"aaa\"}", OLD);
+        ConfigSnapshotStore store = new ConfigSnapshotStore(file, null, new Gson(), null, 0);
+
+        assertEquals("aaa", store.read().get("value").getAsString());
+        long version = store.version();
+
+        // Same size and timestamp: the snapshot is reused without parsing
+        writeFile(file, "{\"value\":\"bbb\"}", OLD);
+        assertEquals("aaa", store.read().get("value").getAsString());
+        assertEquals(version, store.version());
+
+        Files.setLastModifiedTime(file, CHANGED);
+        assertEquals("bbb", store.read().get("value").getAsString());
+    }
+
+    @Test
+    public void missingFileReadsAsNull() {
+        ConfigSnapshotStore store = new ConfigSnapshotStore(
+                temp.getRoot().toPath().resolve("config.json"), null, new Gson(), null, 0);
+
+        assertNull(store.read());
+    }
+
+    @Test
+    public void writesAreCoalescedIntoOneCommitWithOneBackup() throws IOException {
+        Path file = temp.getRoot().toPath().resolve("config.json");
+        Path backup = temp.getRoot().toPath().resolve("config.json.bak");
+        writeFile(file, "{\"count\":0}", OLD);
+        ConfigSnapshotStore store = new ConfigSnapshotStore(file, backup, new Gson(), scheduler, 3_600_000);
+
+        for (int i = 1; i <= 3; i++) {
+            JsonObject config = store.read().deepCopy();
+            config.addProperty("count", i);
+            store.write(config);
+        }
+
+        // Pending changes are visible in memory but not yet on disk
+        assertEquals(3, store.read().get("count").getAsInt());
+        assertEquals("{\"count\":0}", Files.readString(file, StandardCharsets.UTF_8));
+        assertFalse(Files.exists(backup));
+
+        store.flush();
+        assertEquals(3, new Gson().fromJson(Files.readString(file, StandardCharsets.UTF_8), JsonObject.class)
+                .get("count").getAsInt());
+        assertEquals("{\"count\":0}", Files.readString(backup, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void writtenObjectIsCopied() throws IOException {
+        Path file = temp.getRoot().toPath().resolve("config.json");
+        ConfigSnapshotStore store = new ConfigSnapshotStore(file, null, new Gson(), null, 0);
+
+        JsonObject config = new JsonObject();
+        config.addProperty("value", "saved");
+        store.write(config);
+        config.addProperty("value", "changed after write");
+
+        assertEquals("saved", store.read().get("value").getAsString());
+        assertEquals("saved", new Gson().fromJson(Files.readString(file, StandardCharsets.UTF_8), JsonObject.class)
+                .get("value").getAsString());
+    }
+
+    @Test
+    public void failedDelayedWriteIsRetriedAndReportedOnce() throws IOException {
+        // A non-empty directory in place of the file makes every commit fail
+        Path file = temp.getRoot().toPath().resolve("config.json");
+        Files.createDirectories(file.resolve("blocker"));
+        List<String> notifications = new ArrayList<>();
+        ConfigSnapshotStore store = new ConfigSnapshotStore(
+                file, null, new Gson(), scheduler, 3_600_000, notifications::add);
+
+        JsonObject config = new JsonObject();
+        config.addProperty("value", "unsaved");
+        store.write(config);
+        for (int i = 0; i < ConfigSnapshotStore.NOTIFY_AFTER_FAILURES + 2; i++) {
+            store.flush();
+        }
+
+        // Still pending in memory, and the user heard about it once
+        assertEquals("unsaved", store.read().get("value").getAsString());
+        assertEquals(1, notifications.size());
+
+        Files.delete(file.resolve("blocker"));
+        Files.delete(file);
+        store.flush();
+        assertEquals("unsaved", new Gson().fromJson(Files.readString(file, StandardCharsets.UTF_8), JsonObject.class)
+                .get("value").getAsString());
+    }
+
+    private static void writeFile(Path file, String content, FileTime modified) throws IOException {
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(file, modified);
+    }
+}
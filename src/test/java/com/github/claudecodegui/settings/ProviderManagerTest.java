@@ -1,11 +1,15 @@
 package com.github.claudecodegui.settings;
 
+import com.github.claudecodegui.model.DeleteResult;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import org.junit.Test;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.Assert.assertEquals;
@@ -90,6 +94,44 @@ public class ProviderManagerTest {
         assertNull(manager.getActiveClaudeProvider());
     }
 
+    /**
+     * A failed delete should restore the previous config through the config writer.
+     */
+    @Test
+    public void shouldRestoreConfigWhenDeleteFails() {
+        JsonObject config = createConfigWithCurrent("provider-a");
+        config.getAsJsonObject("claude")
+                .getAsJsonObject("providers")
+                .add("provider-a", createProvider("Provider A"));
+        AtomicReference<JsonObject> configRef = new AtomicReference<>(config);
+        AtomicInteger writes = new AtomicInteger();
+        ConfigPathManager pathManager = new ConfigPathManager() {
+            @Override
+            public Path getConfigFilePath() {
+                return Paths.get("config.json");
+            }
+        };
+        ProviderManager manager = new ProviderManager(
+                new Gson(),
+                ignored -> configRef.get().deepCopy(),
+                updated -> {
+                    configRef.set(updated.deepCopy());
+                    if (writes.incrementAndGet() == 1) {
+                        throw new IllegalStateException("disk full");
+                    }
+                },
+                pathManager,
+                null
+        );
+
+        DeleteResult result = manager.deleteClaudeProvider("provider-a");
+
+        assertFalse(result.isSuccess());
+        assertEquals(2, writes.get());
+        assertTrue(configRef.get().getAsJsonObject("claude").getAsJsonObject("providers").has("provider-a"));
+        assertEquals("provider-a", configRef.get().getAsJsonObject("claude").get("current").getAsString());
+    }
+
     /**
      * Build a ProviderManager backed only by in-memory config to avoid depending on the real filesystem in tests.
      */
@@ -0,0 +1,103 @@
+package com.github.claudecodegui.skill;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class SlashCommandSourceCacheTest {
+
+    private static final FileTime OLD = FileTime.fromMillis(System.currentTimeMillis() - 60_000);
+    private static final FileTime CHANGED = FileTime.fromMillis(System.currentTimeMillis() - 30_000);
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void commandDescriptionIsReusedUntilTimestampChanges() throws IOException {
+        SlashCommandSourceCache cache = new SlashCommandSourceCache();
+        Path md = temp.getRoot().toPath().resolve("fix.md");
+        writeCommand(md, "first", OLD);
+
+        assertEquals("first", cache.commandDescription(md));
+
+        // Same size and timestamp: the cached description is served without re-reading
+        writeCommand(md, "other", OLD);
+        assertEquals("first", cache.commandDescription(md));
+
+        Files.setLastModifiedTime(md, CHANGED);
+        assertEquals("other", cache.commandDescription(md));
+    }
+
+    @Test
+    public void recentlyModifiedFilesAreNotCached() throws IOException {
+        SlashCommandSourceCache cache = new SlashCommandSourceCache();
+        Path md = temp.getRoot().toPath().resolve("fix.md");
+        writeCommand(md, "first", null);
+        FileTime modified = Files.getLastModifiedTime(md);
+
+        assertEquals("first", cache.commandDescription(md));
+
+        writeCommand(md, "other", null);
+        Files.setLastModifiedTime(md, modified);
+        assertEquals("other", cache.commandDescription(md));
+    }
+
+    @Test
+    public void listingIsRefreshedWhenDirectoryChanges() throws IOException {
+        SlashCommandSourceCache cache = new SlashCommandSourceCache();
+        Path dir = temp.newFolder("commands").toPath();
+        Files.writeString(dir.resolve("a.md"), "a");
+        Files.setLastModifiedTime(dir, OLD);
+
+        assertEquals(List.of("a.md"), names(cache.list(dir)));
+
+        Files.writeString(dir.resolve("b.md"), "b");
+        Files.setLastModifiedTime(dir, OLD);
+        assertEquals(List.of("a.md"), names(cache.list(dir)));
+
+        Files.setLastModifiedTime(dir, CHANGED);
+        assertEquals(List.of("a.md", "b.md"), names(cache.list(dir)));
+    }
+
+    @Test
+    public void invalidateDropsEntriesBelowListedDirectory() throws IOException {
+        SlashCommandSourceCache cache = new SlashCommandSourceCache();
+        Path skills = temp.newFolder("skills").toPath();
+        Path skillDir = Files.createDirectories(skills.resolve("review"));
+        Path skillMd = skillDir.resolve("SKILL.md");
+        writeCommand(skillMd, "first", OLD);
+        Files.setLastModifiedTime(skills, OLD);
+
+        assertEquals(List.of("review"), names(cache.list(skills)));
+        assertEquals("first", cache.skillMetadata(skillDir).description());
+
+        writeCommand(skillMd, "other", OLD);
+        assertEquals("first", cache.skillMetadata(skillDir).description());
+
+        cache.invalidate(skills);
+        assertEquals("other", cache.skillMetadata(skillDir).description());
+
+        Files.delete(skillMd);
+        assertNull(cache.skillMetadata(skillDir));
+    }
+
+    private static void writeCommand(Path md, String description, FileTime modified) throws IOException {
+        Files.writeString(md, "---\ndescription: " + description + "\n---\n\nBody.\n");
+        if (modified != null) {
+            Files.setLastModifiedTime(md, modified);
+        }
+    }
+
+    private static List<String> names(List<SlashCommandSourceCache.Child> children) {
+        return children.stream().map(SlashCommandSourceCache.Child::name).sorted().toList();
+    }
+}
@@ -0,0 +1,170 @@
+package com.github.claudecodegui.terminal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TerminalAccessorCacheTest {
+
+    @Test
+    public void resolvesTerminalDirectlyAndScrapesLines() throws Throwable {
+        FakeBuffer buffer = new FakeBuffer("first", "second");
+        DirectWidget widget = new DirectWidget(new FakeTerminal(buffer));
+
+        Object terminal = TerminalAccessorCache.getTerminal(widget);
+        Object resolvedBuffer = TerminalAccessorCache.getTextBuffer(terminal);
+        TerminalAccessorCache.BufferAccessor accessor = TerminalAccessorCache.getBufferAccessor(resolvedBuffer);
+
+        Assert.assertSame(buffer, resolvedBuffer);
+        Assert.assertNotNull(accessor);
+        Assert.assertEquals(2, accessor.lineCount(resolvedBuffer));
+        Assert.assertEquals("second", TerminalAccessorCache.getLineText(accessor.line(resolvedBuffer, 1)));
+    }
+
+    @Test
+    public void fallsBackToTerminalPanel() {
+        FakeTerminal terminal = new FakeTerminal(new FakeBuffer());
+        PanelWidget widget = new PanelWidget(new FakePanel(terminal));
+
+        Assert.assertSame(terminal, TerminalAccessorCache.getTerminal(widget));
+    }
+
+    @Test
+    public void fallsBackToPanelWhenDirectAccessorReturnsNull() {
+        FakeTerminal terminal = new FakeTerminal(new FakeBuffer());
+        HybridWidget widget = new HybridWidget(new FakePanel(terminal));
+
+        Assert.assertSame(terminal, TerminalAccessorCache.getTerminal(widget));
+    }
+
+    @Test
+    public void missingAccessorsDegradeToNull() {
+        Object unrelated = new Object();
+
+        Assert.assertNull(TerminalAccessorCache.getTerminal(unrelated));
+        Assert.assertNull(TerminalAccessorCache.getTextBuffer(unrelated));
+        Assert.assertNull(TerminalAccessorCache.getBufferAccessor(unrelated));
+    }
+
+    @Test
+    public void lineTextUsesStringFallbackForUnknownLineClass() {
+        Assert.assertEquals("custom", TerminalAccessorCache.getLineText(new CustomLine()));
+        Assert.assertNull(TerminalAccessorCache.getLineText(new Object()));
+    }
+
+    @Test
+    public void handlesPublicMethodsOnNonPublicClasses() {
+        Object widget = new HiddenWidget(new FakeTerminal(new FakeBuffer()));
+
+        Assert.assertNotNull(TerminalAccessorCache.getTerminal(widget));
+    }
+
+    public static final class DirectWidget {
+        private final FakeTerminal terminal;
+
+        public DirectWidget(FakeTerminal terminal) {
+            this.terminal = terminal;
+        }
+
+        public FakeTerminal getTerminal() {
+            return terminal;
+        }
+    }
+
+    public static final class PanelWidget {
+        private final FakePanel panel;
+
+        public PanelWidget(FakePanel panel) {
+            this.panel = panel;
+        }
+
+        public FakePanel getTerminalPanel() {
+            return panel;
+        }
+    }
+
+    public static final class HybridWidget {
+        private final FakePanel panel;
+
+        public HybridWidget(FakePanel panel) {
+            this.panel = panel;
+        }
+
+        public Object getTerminal() {
+            return null;
+        }
+
+        public FakePanel getTerminalPanel() {
+            return panel;
+        }
+    }
+
+    public static final class FakePanel {
+        private final FakeTerminal terminal;
+
+        public FakePanel(FakeTerminal terminal) {
+            this.terminal = terminal;
+        }
+
+        public FakeTerminal getTerminal() {
+            return terminal;
+        }
+    }
+
+    public static final class FakeTerminal {
+        private final FakeBuffer buffer;
+
+        public FakeTerminal(FakeBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        public FakeBuffer getTextBuffer() {
+            return buffer;
+        }
+    }
+
+    public static final class FakeBuffer {
+        private final String[] lines;
+
+        public FakeBuffer(String... lines) {
+            this.lines = lines;
+        }
+
+        public int getLineCount() {
+            return lines.length;
+        }
+
+        public FakeLine getLine(int index) {
+            return new FakeLine(lines[index]);
+        }
+    }
+
+    public static final class FakeLine {
+        private final String text;
+
+        public FakeLine(String text) {
+            this.text = text;
+        }
+
+        public String getText() {
+            return text;
+        }
+    }
+
+    public static final class CustomLine {
+        public String render() {
+            return "custom";
+        }
+    }
+
+    private static final class HiddenWidget {
+        private final FakeTerminal terminal;
+
+        private HiddenWidget(FakeTerminal terminal) {
+            this.terminal = terminal;
+        }
+
+        public FakeTerminal getTerminal() {
+            return terminal;
+        }
+    }
+}
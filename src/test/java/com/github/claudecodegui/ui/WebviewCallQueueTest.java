@@ -0,0 +1,169 @@
+package com.github.claudecodegui.ui;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class WebviewCallQueueTest {
+
+    @Test
+    public void frameCallsAreFlushedAsSingleOrderedScript() {
+        RecordingScheduler scheduler = new RecordingScheduler();
+        List<String> executed = new ArrayList<>();
+        WebviewCallQueue queue = new WebviewCallQueue(executed::add, scheduler, new WebviewCallQueueMetrics());
+
+        queue.enqueue("a();", WebviewCallQueue.Lane.FRAME);
+        queue.enqueue("b();", WebviewCallQueue.Lane.FRAME);
+        queue.enqueue("c();", WebviewCallQueue.Lane.FRAME);
+
+        assertEquals(1, scheduler.scheduled.size());
+        assertEquals(WebviewCallQueue.FRAME_INTERVAL_MS, (long) scheduler.delays.get(0));
+        assertEquals(3, queue.getQueueDepth());
+
+        scheduler.runAll();
+
+        assertEquals(List.of(batched("a();", "b();", "c();")), executed);
+        assertEquals(0, queue.getQueueDepth());
+        assertEquals(1L, queue.getFlushCount());
+        assertEquals(3, queue.getMaxFlushSize());
+    }
+
+    @Test
+    public void immediateCallFlushesPendingFrameCallsFirst() {
+        RecordingScheduler scheduler = new RecordingScheduler();
+        List<String> executed = new ArrayList<>();
+        WebviewCallQueue queue = new WebviewCallQueue(executed::add, scheduler, new WebviewCallQueueMetrics());
+
+        queue.enqueue("delta();", WebviewCallQueue.Lane.FRAME);
+        queue.enqueue("end();", WebviewCallQueue.Lane.IMMEDIATE);
+
+        assertEquals(1, scheduler.cancelCount);
+        assertEquals(0L, (long) scheduler.delays.get(scheduler.delays.size() - 1));
+
+        scheduler.runAll();
+
+        assertEquals(List.of(batched("delta();", "end();")), executed);
+    }
+
+    @Test
+    public void singleCallIsSentUnchanged() {
+        RecordingScheduler scheduler = new RecordingScheduler();
+        List<String> executed = new ArrayList<>();
+        WebviewCallQueue queue = new WebviewCallQueue(executed::add, scheduler, new WebviewCallQueueMetrics());
+
+        queue.enqueue("only();", WebviewCallQueue.Lane.FRAME);
+        scheduler.runAll();
+
+        assertEquals(List.of("only();"), executed);
+    }
+
+    @Test
+    public void disposeDropsPendingCalls() {
+        RecordingScheduler scheduler = new RecordingScheduler();
+        List<String> executed = new ArrayList<>();
+        WebviewCallQueue queue = new WebviewCallQueue(executed::add, scheduler, new WebviewCallQueueMetrics());
+
+        queue.enqueue("late();", WebviewCallQueue.Lane.FRAME);
+        queue.dispose();
+        queue.enqueue("later();", WebviewCallQueue.Lane.IMMEDIATE);
+        scheduler.runAll();
+
+        assertTrue(executed.isEmpty());
+    }
+
+    @Test
+    public void sinkFailureDoesNotBlockLaterFlushes() {
+        RecordingScheduler scheduler = new RecordingScheduler();
+        List<String> executed = new ArrayList<>();
+        WebviewCallQueue queue = new WebviewCallQueue(script -> {
+            if (script.startsWith("bad")) {
+                throw new IllegalStateException("boom");
+            }
+            executed.add(script);
+        }, scheduler, new WebviewCallQueueMetrics());
+
+        queue.enqueue("bad();", WebviewCallQueue.Lane.IMMEDIATE);
+        scheduler.runAll();
+        queue.enqueue("good();", WebviewCallQueue.Lane.FRAME);
+        scheduler.runAll();
+
+        assertEquals(List.of("good();"), executed);
+    }
+
+    @Test
+    public void callWithoutSemicolonStaysSeparateFromFollowingIife() {
+        RecordingScheduler scheduler = new RecordingScheduler();
+        List<String> executed = new ArrayList<>();
+        WebviewCallQueue queue = new WebviewCallQueue(executed::add, scheduler, new WebviewCallQueueMetrics());
+
+        queue.enqueue("if(window.execContextAction) window.execContextAction('cut')", WebviewCallQueue.Lane.FRAME);
+        queue.enqueue("(function(){ next(); })();", WebviewCallQueue.Lane.FRAME);
+        scheduler.runAll();
+
+        String script = executed.get(0);
+        assertEquals(batched("if(window.execContextAction) window.execContextAction('cut')",
+                "(function(){ next(); })();"), script);
+        // Each call is its own string, so the two can never run together
+        assertTrue(script.endsWith("(['if(window.execContextAction) window.execContextAction(\\'cut\\')',"
+                + "'(function(){ next(); })();']);"));
+    }
+
+    @Test
+    public void callsAreQuotedSoSyntaxErrorsStayIsolated() {
+        String script = WebviewCallQueue.combine(List.of("a() // done", "broken('\n", "b();"));
+
+        assertTrue(script.endsWith("(['a() // done','broken(\\'\\n','b();']);"));
+    }
+
+    @Test
+    public void flushesAreRecordedInMetrics() {
+        RecordingScheduler scheduler = new RecordingScheduler();
+        WebviewCallQueueMetrics metrics = new WebviewCallQueueMetrics();
+        WebviewCallQueue queue = new WebviewCallQueue(script -> { }, scheduler, metrics);
+
+        queue.enqueue("a();", WebviewCallQueue.Lane.FRAME);
+        queue.enqueue("b();", WebviewCallQueue.Lane.FRAME);
+        scheduler.runAll();
+        queue.enqueue("c();", WebviewCallQueue.Lane.IMMEDIATE);
+        scheduler.runAll();
+
+        assertEquals(2L, metrics.getFlushCount());
+        assertEquals(3L, metrics.getCallCount());
+        assertEquals(2L, metrics.getMaxFlushSize());
+        assertEquals(2L, metrics.getMaxDepth());
+        assertTrue(metrics.dump().contains("1.50"));
+    }
+
+    private static String batched(String... calls) {
+        return WebviewCallQueue.combine(List.of(calls));
+    }
+
+    private static final class RecordingScheduler implements WebviewCallQueue.Scheduler {
+        private final List<Runnable> scheduled = new ArrayList<>();
+        private final List<Long> delays = new ArrayList<>();
+        private int cancelCount;
+
+        @Override
+        public void schedule(Runnable runnable, long delayMs) {
+            scheduled.add(runnable);
+            delays.add(delayMs);
+        }
+
+        @Override
+        public void cancel() {
+            cancelCount++;
+        }
+
+        private void runAll() {
+            List<Runnable> toRun = new ArrayList<>(scheduled);
+            scheduled.clear();
+            for (Runnable runnable : toRun) {
+                runnable.run();
+            }
+        }
+    }
+}
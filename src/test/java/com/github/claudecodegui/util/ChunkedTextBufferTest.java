@@ -0,0 +1,122 @@
+package com.github.claudecodegui.util;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class ChunkedTextBufferTest {
+
+    @Test
+    public void keepsOnlyMostRecentCharacters() {
+        ChunkedTextBuffer buffer = new ChunkedTextBuffer(10, 4);
+
+        buffer.append("hello ");
+        buffer.append("world!");
+
+        assertEquals("llo world!", buffer.toString());
+        assertEquals(10, buffer.length());
+    }
+
+    @Test
+    public void oversizedAppendKeepsItsTail() {
+        ChunkedTextBuffer buffer = new ChunkedTextBuffer(5, 2);
+
+        buffer.append("abc");
+        buffer.append("0123456789");
+
+        assertEquals("56789", buffer.toString());
+    }
+
+    @Test
+    public void tailLinesReturnsRequestedSuffix() {
+        ChunkedTextBuffer buffer = new ChunkedTextBuffer(1000, 8);
+
+        buffer.append("one\ntwo\nthree\nfour");
+
+        assertEquals(4, buffer.lineCount());
+        assertEquals("four", buffer.tailLines(1));
+        assertEquals("three\nfour", buffer.tailLines(2));
+        assertEquals("one\ntwo\nthree\nfour", buffer.tailLines(10));
+        assertEquals("", buffer.tailLines(0));
+    }
+
+    @Test
+    public void trailingNewlineDoesNotCountAsLine() {
+        ChunkedTextBuffer buffer = new ChunkedTextBuffer(1000, 8);
+
+        buffer.append("a\nb\n");
+
+        assertEquals(2, buffer.lineCount());
+        assertEquals("b\n", buffer.tailLines(1));
+    }
+
+    @Test
+    public void tailLinesAfterEvictionStartsAtRetainedText() {
+        ChunkedTextBuffer buffer = new ChunkedTextBuffer(6, 4);
+
+        buffer.append("line1\nline2\n");
+
+        assertEquals("line2\n", buffer.toString());
+        assertEquals(1, buffer.lineCount());
+        assertEquals("line2\n", buffer.tailLines(3));
+    }
+
+    @Test
+    public void clearDropsContent() {
+        ChunkedTextBuffer buffer = new ChunkedTextBuffer(16, 4);
+        buffer.append("abc\ndef");
+
+        buffer.clear();
+        buffer.append("x");
+
+        assertEquals("x", buffer.tailLines(5));
+        assertEquals(1, buffer.lineCount());
+    }
+
+    @Test
+    public void matchesStringBuilderReferenceUnderRandomAppends() {
+        Random random = new Random(42);
+        int capacity = 97;
+        ChunkedTextBuffer buffer = new ChunkedTextBuffer(capacity, 16);
+        StringBuilder reference = new StringBuilder();
+
+        for (int round = 0; round < 2000; round++) {
+            StringBuilder piece = new StringBuilder();
+            int length = random.nextInt(40);
+            for (int i = 0; i < length; i++) {
+                piece.append(random.nextInt(6) == 0 ? '\n' : (char) ('a' + random.nextInt(26)));
+            }
+            buffer.append(piece.toString());
+            reference.append(piece);
+            if (reference.length() > capacity) {
+                reference.delete(0, reference.length() - capacity);
+            }
+
+            String expected = reference.toString();
+            assertEquals(expected, buffer.toString());
+            int lines = 1 + random.nextInt(5);
+            assertEquals(referenceTail(expected, lines), buffer.tailLines(lines));
+        }
+    }
+
+    private static String referenceTail(String text, int maxLines) {
+        if (text.isEmpty()) {
+            return "";
+        }
+        int end = text.endsWith("\n") ? text.length() - 1 : text.length();
+        int from = end;
+        int seen = 0;
+        while (from > 0) {
+            if (text.charAt(from - 1) == '\n') {
+                seen++;
+                if (seen == maxLines) {
+                    break;
+                }
+            }
+            from--;
+        }
+        return text.substring(from);
+    }
+}
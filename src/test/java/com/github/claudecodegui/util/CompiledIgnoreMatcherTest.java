@@ -0,0 +1,118 @@
+package com.github.claudecodegui.util;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CompiledIgnoreMatcherTest {
+
+    private static final String ROOT_RULES = String.join("\n",
+            "# comment",
+            "node_modules",
+            "build/",
+            "/dist",
+            "docs/generated",
+            "*.log",
+            "!keep.log",
+            "src/**/*.gen.ts",
+            "tmp?");
+
+    @Test
+    public void matchesLiteralGlobAnchoredAndDirectoryRules() {
+        CompiledIgnoreMatcher matcher = matcher(Map.of("", ROOT_RULES));
+
+        assertTrue(matcher.isIgnored("node_modules", true));
+        assertTrue(matcher.isIgnored("web/node_modules", true));
+        assertTrue(matcher.isIgnored("web/node_modules/pkg/index.js", false));
+        assertTrue(matcher.isIgnored("build", true));
+        assertFalse(matcher.isIgnored("build", false));
+        assertTrue(matcher.isIgnored("dist", true));
+        assertFalse(matcher.isIgnored("web/dist", true));
+        assertTrue(matcher.isIgnored("docs/generated/api.md", false));
+        assertFalse(matcher.isIgnored("docs/generated2/api.md", false));
+        assertTrue(matcher.isIgnored("a/b/trace.log", false));
+        assertFalse(matcher.isIgnored("a/b/keep.log", false));
+        assertTrue(matcher.isIgnored("src/a/b/model.gen.ts", false));
+        assertFalse(matcher.isIgnored("lib/model.gen.ts", false));
+        assertTrue(matcher.isIgnored("tmp1", true));
+        assertFalse(matcher.isIgnored("src/Main.java", false));
+    }
+
+    @Test
+    public void agreesWithRegexMatcherOnRootRules() {
+        CompiledIgnoreMatcher compiled = matcher(Map.of("", ROOT_RULES));
+        IgnoreRuleMatcher regex = new IgnoreRuleMatcher("/repo");
+        regex.loadRulesFromContent(ROOT_RULES);
+
+        String[][] cases = {
+                {"node_modules", "d"}, {"a/node_modules", "d"}, {"build", "d"}, {"build", "f"},
+                {"dist", "d"}, {"x/dist", "d"}, {"docs/generated", "d"}, {"x.log", "f"},
+                {"keep.log", "f"}, {"src/x/y.gen.ts", "f"}, {"tmpA", "f"}, {"src/App.tsx", "f"},
+        };
+        for (String[] c : cases) {
+            boolean directory = "d".equals(c[1]);
+            assertEquals(c[0], regex.isIgnored(c[0], directory), compiled.isIgnored(c[0], directory));
+        }
+    }
+
+    @Test
+    public void nestedGitignoreOverridesAndIsScopedToItsDirectory() {
+        Map<String, String> contents = new HashMap<>();
+        contents.put("", "*.txt\n");
+        contents.put("pkg", "!notes.txt\n/local\n");
+        CompiledIgnoreMatcher matcher = matcher(contents);
+
+        assertTrue(matcher.isIgnored("notes.txt", false));
+        assertFalse(matcher.isIgnored("pkg/notes.txt", false));
+        assertFalse(matcher.isIgnored("pkg/sub/notes.txt", false));
+        assertTrue(matcher.isIgnored("pkg/other.txt", false));
+        assertTrue(matcher.isIgnored("pkg/local", true));
+        assertFalse(matcher.isIgnored("local", true));
+        assertFalse(matcher.isIgnored("pkg/sub/local", true));
+    }
+
+    @Test
+    public void ignoredDirectoryPrunesSubtreeWithoutReadingRules() {
+        AtomicInteger loads = new AtomicInteger();
+        Map<String, String> contents = Map.of("", "vendor/\n", "vendor/lib", "!*\n");
+        CompiledIgnoreMatcher matcher = new CompiledIgnoreMatcher("/repo", dir -> {
+            loads.incrementAndGet();
+            return IgnoreRuleParser.parseContent(contents.get(dir));
+        }, false);
+
+        // Negations below an excluded directory cannot re-include anything
+        assertTrue(matcher.isIgnored("vendor/lib/a.js", false));
+        assertTrue(matcher.isIgnored("vendor/lib/deep/b.js", false));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void cachesDirectoryDecisionsAndAcceptsAbsolutePaths() {
+        AtomicInteger loads = new AtomicInteger();
+        CompiledIgnoreMatcher matcher = new CompiledIgnoreMatcher("/repo", dir -> {
+            loads.incrementAndGet();
+            return List.of();
+        }, false);
+
+        matcher.isIgnored("/repo/a/b/c.txt", false);
+        matcher.isIgnored("a/b/d.txt", false);
+        assertEquals(3, loads.get());
+        assertEquals(3, matcher.getCachedDirectoryCount());
+
+        matcher.invalidate();
+        assertEquals(0, matcher.getCachedDirectoryCount());
+        assertFalse(matcher.isIgnored("/repo", true));
+    }
+
+    private static CompiledIgnoreMatcher matcher(Map<String, String> contents) {
+        return new CompiledIgnoreMatcher("/repo",
+                dir -> IgnoreRuleParser.parseContent(contents.get(dir)), false);
+    }
+}
@@ -1,6 +1,7 @@
 package com.github.claudecodegui.util;
 
 import com.github.claudecodegui.session.ClaudeSession;
+import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
@@ -95,4 +96,56 @@ public class MessageJsonConverterTest {
         assertEquals("tool-1", transportToolResult.get("tool_use_id").getAsString());
         assertTrue(transportToolResult.get("content").getAsString().contains("truncated"));
     }
+
+    @Test
+    public void convertMessagesToJsonMatchesArraySerialization() {
+        ClaudeSession.Message user = new ClaudeSession.Message(ClaudeSession.Message.Type.USER, "Fix <this> & that");
+        ClaudeSession.Message assistant = new ClaudeSession.Message(
+                ClaudeSession.Message.Type.ASSISTANT, "Done", assistantRaw("Done"));
+
+        String json = MessageJsonConverter.convertMessagesToJson(List.of(user, assistant));
+
+        JsonArray expected = new JsonArray();
+        for (ClaudeSession.Message msg : List.of(user, assistant)) {
+            JsonObject obj = new JsonObject();
+            obj.addProperty("type", msg.type.toString().toLowerCase());
+            obj.addProperty("timestamp", msg.timestamp);
+            obj.addProperty("content", msg.content);
+            if (msg.raw != null) {
+                obj.add("raw", MessageJsonConverter.truncateRawForTransport(msg.raw));
+            }
+            expected.add(obj);
+        }
+        assertEquals(new Gson().toJson(expected), json);
+        assertEquals("[]", MessageJsonConverter.convertMessagesToJson(List.of()));
+    }
+
+    @Test
+    public void convertMessagesToJsonReusesFragmentUntilMessageIsTouched() {
+        JsonObject raw = assistantRaw("partial");
+        ClaudeSession.Message assistant = new ClaudeSession.Message(
+                ClaudeSession.Message.Type.ASSISTANT, "partial", raw);
+        String before = MessageJsonConverter.convertMessagesToJson(List.of(assistant));
+
+        assistant.content = "partial answer";
+        assertEquals(before, MessageJsonConverter.convertMessagesToJson(List.of(assistant)));
+
+        assistant.touch();
+        String after = MessageJsonConverter.convertMessagesToJson(List.of(assistant));
+        assertTrue(after.contains("partial answer"));
+    }
+
+    private static JsonObject assistantRaw(String text) {
+        JsonObject textBlock = new JsonObject();
+        textBlock.addProperty("type", "text");
+        textBlock.addProperty("text", text);
+        JsonArray content = new JsonArray();
+        content.add(textBlock);
+        JsonObject message = new JsonObject();
+        message.add("content", content);
+        JsonObject raw = new JsonObject();
+        raw.addProperty("type", "assistant");
+        raw.add("message", message);
+        return raw;
+    }
 }
@@ -0,0 +1,49 @@
+package com.github.claudecodegui.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WebviewAssetsTest {
+
+    @Test
+    public void mapsBuildAssetsToHtmlResources() {
+        Assert.assertEquals("/html/assets/index-3f2a9c.js",
+                WebviewAssets.resolveResource(WebviewAssets.ORIGIN + "assets/index-3f2a9c.js"));
+    }
+
+    @Test
+    public void mapsLocalLibrariesToLibsResources() {
+        Assert.assertEquals("/libs/codicon.css",
+                WebviewAssets.resolveResource(WebviewAssets.ORIGIN + "libs/codicon.css"));
+    }
+
+    @Test
+    public void ignoresQueryAndFragment() {
+        Assert.assertEquals("/libs/codicon.ttf",
+                WebviewAssets.resolveResource(WebviewAssets.ORIGIN + "libs/codicon.ttf?5d4d76ab#iefix"));
+    }
+
+    @Test
+    public void rejectsPathsOutsideTheAssetDirectories() {
+        Assert.assertNull(WebviewAssets.resolveResource(WebviewAssets.ORIGIN + "assets/../../META-INF/plugin.xml"));
+        Assert.assertNull(WebviewAssets.resolveResource(WebviewAssets.ORIGIN + "assets/%2e%2e/plugin.xml"));
+        Assert.assertNull(WebviewAssets.resolveResource(WebviewAssets.ORIGIN + "html/claude-chat.html"));
+        Assert.assertNull(WebviewAssets.resolveResource(WebviewAssets.ORIGIN + "assets//index.js"));
+        Assert.assertNull(WebviewAssets.resolveResource("https://example.com/assets/index.js"));
+        Assert.assertNull(WebviewAssets.resolveResource(null));
+    }
+
+    @Test
+    public void servesOnlyHashedBuildOutputAsImmutable() {
+        Assert.assertTrue(WebviewAssets.cacheControl("/html/assets/index-3f2a9c.js").contains("immutable"));
+        Assert.assertEquals("no-cache", WebviewAssets.cacheControl("/libs/react.production.min.js"));
+    }
+
+    @Test
+    public void detectsMimeTypes() {
+        Assert.assertEquals("text/javascript", WebviewAssets.mimeType("/html/assets/index.js"));
+        Assert.assertEquals("text/css", WebviewAssets.mimeType("/libs/codicon.css"));
+        Assert.assertEquals("font/woff2", WebviewAssets.mimeType("/html/assets/font.WOFF2"));
+        Assert.assertEquals("application/octet-stream", WebviewAssets.mimeType("/libs/LICENSE"));
+    }
+}
@@ -1,19 +1,25 @@
-import { mkdir, readFile, writeFile } from 'node:fs/promises';
+import { cp, mkdir, readFile, rm, writeFile } from 'node:fs/promises';
 import path from 'node:path';
 
 const cwd = process.cwd();
 const distFile = path.resolve(cwd, 'dist/index.html');
+const distAssetsDir = path.resolve(cwd, 'dist/assets');
 const targetFile = path.resolve(cwd, '../src/main/resources/html/claude-chat.html');
+const targetAssetsDir = path.resolve(cwd, '../src/main/resources/html/assets');
 
 const main = async () => {
   const html = await readFile(distFile, 'utf-8');
   await mkdir(path.dirname(targetFile), { recursive: true });
   await writeFile(targetFile, html, 'utf-8');
   console.log(`[copy-dist] 已同步 ${distFile} -> ${targetFile}`);
+
+  // Hashed asset names change on every build; drop the previous ones so the jar only carries the current build
+  await rm(targetAssetsDir, { recursive: true, force: true });
+  await cp(distAssetsDir, targetAssetsDir, { recursive: true });
+  console.log(`[copy-dist] 已同步 ${distAssetsDir} -> ${targetAssetsDir}`);
 };
 
 main().catch((error) => {
   console.error('[copy-dist] 复制构建产物失败', error);
   process.exit(1);
 });
-
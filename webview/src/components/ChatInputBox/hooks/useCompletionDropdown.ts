@@ -5,8 +5,8 @@ import { debugError, debugLog } from '../../../utils/debug.js';
 interface CompletionDropdownOptions<T> {
   /** Trigger symbol */
   trigger: string;
-  /** Data provider */
-  provider: (query: string, signal: AbortSignal) => Promise<T[]>;
+  /** Data provider; may report partial results through onPartial before resolving */
+  provider: (query: string, signal: AbortSignal, onPartial?: (items: T[]) => void) => Promise<T[]>;
   /** Convert to dropdown item */
   toDropdownItem: (item: T) => DropdownItemData;
   /** Selection callback */
@@ -132,7 +132,15 @@ export function useCompletionDropdown<T>({
     setState(prev => ({ ...prev, loading: true }));
 
     try {
-      const results = await provider(query, controller.signal);
+      const results = await provider(query, controller.signal, (partial) => {
+        if (controller.signal.aborted || partial.length === 0) return;
+        setState(prev => ({
+          ...prev,
+          items: partial.map(toDropdownItem),
+          rawItems: partial as unknown[],
+          activeIndex: 0,
+        }));
+      });
 
       // Check if aborted
       if (controller.signal.aborted) return;
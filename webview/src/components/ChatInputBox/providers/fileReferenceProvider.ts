@@ -1,61 +1,23 @@
 import type { FileItem, DropdownItemData } from '../types';
 import { getFileIcon, getFolderIcon } from '../../../utils/fileIcons';
 import { icon_terminal, icon_server } from '../../../utils/icons';
-import { debugError, debugLog, debugWarn } from '../../../utils/debug.js';
+import { debugLog, debugWarn } from '../../../utils/debug.js';
+import { isBridgeAvailable, requestFromJava } from '../../../utils/bridge';
 
-// Request queue management
-let pendingResolve: ((files: FileItem[]) => void) | null = null;
-let pendingReject: ((error: Error) => void) | null = null;
 let lastQuery: string = '';
 
+/** Same fallback window as before: slow scans degrade to the default list */
+const FILE_LIST_TIMEOUT_MS = 3000;
+
 /**
  * Reset file reference provider state
  * Called during component initialization to ensure clean state
  */
 export function resetFileReferenceState() {
   debugLog('[fileReferenceProvider] Resetting file reference state');
-  pendingResolve = null;
-  pendingReject = null;
   lastQuery = '';
 }
 
-/**
- * Register Java callback
- */
-function setupFileListCallback() {
-  if (typeof window !== 'undefined' && !window.onFileListResult) {
-    window.onFileListResult = (json: string) => {
-      try {
-        const data = JSON.parse(json);
-        let files: FileItem[] = data.files || data || [];
-
-        // Filter out files that should be hidden
-        files = files.filter(file => !shouldHideFile(file.name));
-
-        const result = files.length > 0 ? files : filterFiles(DEFAULT_FILES, lastQuery);
-        pendingResolve?.(result);
-      } catch (error) {
-        debugError('[fileReferenceProvider] Parse error:', error);
-        pendingReject?.(error as Error);
-      } finally {
-        pendingResolve = null;
-        pendingReject = null;
-      }
-    };
-  }
-}
-
-/**
- * Send request to Java
- */
-function sendToJava(event: string, payload: Record<string, unknown>) {
-  if (window.sendToJava) {
-    window.sendToJava(`${event}:${JSON.stringify(payload)}`);
-  } else {
-    debugWarn('[fileReferenceProvider] sendToJava not available');
-  }
-}
-
 /**
  * Check if a file should be hidden (not displayed in the list)
  */
@@ -123,69 +85,70 @@ function parseQuery(query: string): { currentPath: string; searchQuery: string }
   return { currentPath, searchQuery };
 }
 
+type FileListReply = { files?: FileItem[] } | FileItem[];
+
+/**
+ * Normalize a Java file list reply and drop hidden entries
+ */
+function toVisibleFiles(data: FileListReply | undefined): FileItem[] {
+  const files: FileItem[] = (Array.isArray(data) ? data : data?.files) || [];
+  return files.filter(file => !shouldHideFile(file.name));
+}
+
 /**
  * File reference data provider
+ * Requests go through the batched bridge channel and resolve with Java's reply directly.
+ * Java sends open/recent files first via onPartial, then the complete list including disk matches.
  */
 export async function fileReferenceProvider(
   query: string,
-  signal: AbortSignal
+  signal: AbortSignal,
+  onPartial?: (files: FileItem[]) => void
 ): Promise<FileItem[]> {
   // Check if aborted
   if (signal.aborted) {
     throw new DOMException('Aborted', 'AbortError');
   }
 
-  // Set up callback
-  setupFileListCallback();
-
-  return new Promise((resolve, reject) => {
-    // Check if aborted
-    if (signal.aborted) {
-      reject(new DOMException('Aborted', 'AbortError'));
-      return;
-    }
+  // Parse query: separate path and search keyword
+  const { currentPath, searchQuery } = parseQuery(query);
+  lastQuery = query;
 
-    // Parse query: separate path and search keyword
-    const { currentPath, searchQuery } = parseQuery(query);
-
-    // Save callbacks
-    pendingResolve = resolve;
-    pendingReject = reject;
-    lastQuery = query;
-
-    // Listen for abort signal
-    signal.addEventListener('abort', () => {
-      pendingResolve = null;
-      pendingReject = null;
-      reject(new DOMException('Aborted', 'AbortError'));
-    });
-
-    // Check if sendToJava is available
-    if (!window.sendToJava) {
-      // Use default file list for local filtering
-      const filtered = filterFiles(DEFAULT_FILES, searchQuery);
-      pendingResolve = null;
-      pendingReject = null;
-      resolve(filtered);
-      return;
-    }
+  if (!isBridgeAvailable()) {
+    // Use default file list for local filtering
+    return filterFiles(DEFAULT_FILES, searchQuery);
+  }
 
-    // Send request with current path and search keyword
-    sendToJava('list_files', {
-      query: searchQuery,        // Search keyword
-      currentPath: currentPath,  // Current path
-    });
-
-    // Timeout handling (3 seconds), fall back to default file list on timeout
-    setTimeout(() => {
-      if (pendingResolve === resolve) {
-        pendingResolve = null;
-        pendingReject = null;
-        // Return filtered default file list on timeout
-        resolve(filterFiles(DEFAULT_FILES, searchQuery));
+  try {
+    const data = await requestFromJava<FileListReply>(
+      'list_files',
+      {
+        query: searchQuery,        // Search keyword
+        currentPath: currentPath,  // Current path
+      },
+      {
+        signal,
+        timeoutMs: FILE_LIST_TIMEOUT_MS,
+        onProgress: onPartial
+          ? (partial) => {
+            if (!signal.aborted) {
+              onPartial(toVisibleFiles(partial as FileListReply));
+            }
+          }
+          : undefined,
       }
-    }, 3000);
-  });
+    );
+    const files = toVisibleFiles(data);
+
+    return files.length > 0 ? files : filterFiles(DEFAULT_FILES, lastQuery);
+  } catch (error) {
+    if ((error as Error)?.name === 'AbortError') {
+      throw error;
+    }
+    debugWarn('[fileReferenceProvider] File list request failed:', error);
+    // Return filtered default file list on timeout or error
+    return filterFiles(DEFAULT_FILES, searchQuery);
+  }
 }
 
 /**
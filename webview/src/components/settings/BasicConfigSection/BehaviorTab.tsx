@@ -85,6 +85,8 @@ export interface BehaviorTabProps {
   onCommitGenerationEnabledChange?: (enabled: boolean) => void;
   statusBarWidgetEnabled?: boolean;
   onStatusBarWidgetEnabledChange?: (enabled: boolean) => void;
+  standbyDaemonEnabled?: boolean;
+  onStandbyDaemonEnabledChange?: (enabled: boolean) => void;
   soundNotificationEnabled?: boolean;
   onSoundNotificationEnabledChange?: (enabled: boolean) => void;
   soundOnlyWhenUnfocused?: boolean;
@@ -111,6 +113,8 @@ const BehaviorTab = ({
   onCommitGenerationEnabledChange = () => {},
   statusBarWidgetEnabled = true,
   onStatusBarWidgetEnabledChange = () => {},
+  standbyDaemonEnabled = false,
+  onStandbyDaemonEnabledChange = () => {},
   soundNotificationEnabled = false,
   onSoundNotificationEnabledChange = () => {},
   soundOnlyWhenUnfocused = false,
@@ -301,6 +305,32 @@ const BehaviorTab = ({
         </small>
       </div>
 
+      {/* Standby daemon toggle */}
+      <div className={styles.streamingSection}>
+        <div className={styles.fieldHeader}>
+          <span className="codicon codicon-server-process" />
+          <span className={styles.fieldLabel}>{t('settings.basic.standbyDaemon.label')}</span>
+        </div>
+        <label className={styles.toggleWrapper}>
+          <input
+            type="checkbox"
+            className={styles.toggleInput}
+            checked={standbyDaemonEnabled}
+            onChange={(e) => onStandbyDaemonEnabledChange(e.target.checked)}
+          />
+          <span className={styles.toggleSlider} />
+          <span className={styles.toggleLabel}>
+            {standbyDaemonEnabled
+              ? t('settings.basic.standbyDaemon.enabled')
+              : t('settings.basic.standbyDaemon.disabled')}
+          </span>
+        </label>
+        <small className={styles.formHint}>
+          <span className="codicon codicon-info" />
+          <span>{t('settings.basic.standbyDaemon.hint')}</span>
+        </small>
+      </div>
+
       {/* Sound notification */}
       <div className={styles.streamingSection}>
         <div className={styles.fieldHeader}>
@@ -56,6 +56,7 @@ export interface UseSettingsBasicActionsReturn {
   historyCompletionEnabled: boolean;
   commitGenerationEnabled: boolean;
   statusBarWidgetEnabled: boolean;
+  standbyDaemonEnabled: boolean;
 
   // =========================================================================
   // Handler functions (public API for components)
@@ -79,6 +80,7 @@ export interface UseSettingsBasicActionsReturn {
   handleSaveCommitPrompt: () => void;
   handleCommitGenerationEnabledChange: (enabled: boolean) => void;
   handleStatusBarWidgetEnabledChange: (enabled: boolean) => void;
+  handleStandbyDaemonEnabledChange: (enabled: boolean) => void;
 
   // =========================================================================
   // @internal — State setters used only by useSettingsWindowCallbacks.
@@ -114,6 +116,7 @@ export interface UseSettingsBasicActionsReturn {
   /** @internal */ setHistoryCompletionEnabled: (enabled: boolean) => void;
   /** @internal */ setCommitGenerationEnabled: (enabled: boolean) => void;
   /** @internal */ setStatusBarWidgetEnabled: (enabled: boolean) => void;
+  /** @internal */ setStandbyDaemonEnabled: (enabled: boolean) => void;
 }
 
 export function useSettingsBasicActions({
@@ -192,6 +195,9 @@ export function useSettingsBasicActions({
   // Status bar widget toggle (default: true)
   const [statusBarWidgetEnabled, setStatusBarWidgetEnabled] = useState<boolean>(true);
 
+  // Standby daemon toggle (default: false)
+  const [standbyDaemonEnabled, setStandbyDaemonEnabled] = useState<boolean>(false);
+
   // Diff expanded by default handler
   useEffect(() => {
     try {
@@ -342,6 +348,13 @@ export function useSettingsBasicActions({
     sendToJava(`set_status_bar_widget_enabled:${JSON.stringify(payload)}`);
   }, []);
 
+  // Standby daemon toggle change handler
+  const handleStandbyDaemonEnabledChange = useCallback((enabled: boolean) => {
+    setStandbyDaemonEnabled(enabled);
+    const payload = { standbyDaemonEnabled: enabled };
+    sendToJava(`set_standby_daemon_enabled:${JSON.stringify(payload)}`);
+  }, []);
+
   // Commit AI prompt save handler
   const handleSaveCommitPrompt = useCallback(() => {
     setSavingCommitPrompt(true);
@@ -416,5 +429,8 @@ export function useSettingsBasicActions({
     statusBarWidgetEnabled,
     setStatusBarWidgetEnabled,
     handleStatusBarWidgetEnabledChange,
+    standbyDaemonEnabled,
+    setStandbyDaemonEnabled,
+    handleStandbyDaemonEnabledChange,
   };
 }
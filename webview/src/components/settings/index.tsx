@@ -160,6 +160,9 @@ const SettingsView = ({
     statusBarWidgetEnabled,
     setStatusBarWidgetEnabled,
     handleStatusBarWidgetEnabledChange,
+    standbyDaemonEnabled,
+    setStandbyDaemonEnabled,
+    handleStandbyDaemonEnabledChange,
   } = useSettingsBasicActions({
     streamingEnabledProp,
     onStreamingEnabledChangeProp,
@@ -293,6 +296,7 @@ const SettingsView = ({
     setCustomSoundPath,
     setCommitGenerationEnabled,
     setStatusBarWidgetEnabled,
+    setStandbyDaemonEnabled,
   });
 
   // Save provider (wrapper function with validation logic)
@@ -443,6 +447,8 @@ const SettingsView = ({
                 handleStatusBarWidgetEnabledChange(enabled);
                 addToast(t('toast.restartRequired'), 'warning');
               }}
+              standbyDaemonEnabled={standbyDaemonEnabled}
+              onStandbyDaemonEnabledChange={handleStandbyDaemonEnabledChange}
               soundNotificationEnabled={soundNotificationEnabled}
               onSoundNotificationEnabledChange={handleSoundNotificationEnabledChange}
               soundOnlyWhenUnfocused={soundOnlyWhenUnfocused}
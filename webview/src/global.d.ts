@@ -7,6 +7,21 @@ interface Window {
    */
   sendToJava?: (message: string) => void;
 
+  /**
+   * Resolve a batched bridge request (called by Java with the request id and JSON result)
+   */
+  __resolveBridgeRequest?: (id: string, json: string) => void;
+
+  /**
+   * Reject a batched bridge request (called by Java with the request id and error message)
+   */
+  __rejectBridgeRequest?: (id: string, message: string) => void;
+
+  /**
+   * Deliver a partial result of a batched bridge request (called by Java with the request id and JSON)
+   */
+  __progressBridgeRequest?: (id: string, json: string) => void;
+
   /**
    * Get clipboard file path from Java
    */
@@ -260,6 +275,11 @@ interface Window {
    */
   updateStatusBarWidgetEnabled?: (json: string) => void;
 
+  /**
+   * Update standby daemon enabled state
+   */
+  updateStandbyDaemonEnabled?: (json: string) => void;
+
   /**
    * Update current Claude config
    */
@@ -0,0 +1,81 @@
+import { postToJava, requestFromJava } from './bridge';
+
+describe('batched bridge channel', () => {
+  let sent: string[];
+
+  beforeEach(() => {
+    sent = [];
+    window.sendToJava = (message: string) => {
+      sent.push(message);
+    };
+  });
+
+  afterEach(() => {
+    delete window.sendToJava;
+    vi.useRealTimers();
+  });
+
+  it('sends messages posted in the same tick as one batch', async () => {
+    postToJava('open_file', 'a.ts');
+    postToJava('refresh_file', { filePath: 'b.ts' });
+
+    await Promise.resolve();
+
+    expect(sent).toHaveLength(1);
+    expect(JSON.parse(sent[0])).toEqual([
+      { type: 'open_file', payload: 'a.ts' },
+      { type: 'refresh_file', payload: { filePath: 'b.ts' } },
+    ]);
+  });
+
+  it('resolves requests by correlation id', async () => {
+    const first = requestFromJava('list_files', { query: 'a' });
+    const second = requestFromJava('list_files', { query: 'b' });
+    await Promise.resolve();
+
+    const [a, b] = JSON.parse(sent[0]);
+    window.__resolveBridgeRequest?.(b.id, JSON.stringify({ files: ['b'] }));
+    window.__resolveBridgeRequest?.(a.id, JSON.stringify({ files: ['a'] }));
+
+    await expect(first).resolves.toEqual({ files: ['a'] });
+    await expect(second).resolves.toEqual({ files: ['b'] });
+  });
+
+  it('delivers progress updates before the final reply', async () => {
+    const partials: unknown[] = [];
+    const request = requestFromJava('list_files', {}, { onProgress: (value) => partials.push(value) });
+    await Promise.resolve();
+    const [entry] = JSON.parse(sent[0]);
+
+    window.__progressBridgeRequest?.(entry.id, JSON.stringify({ files: ['open'] }));
+    window.__resolveBridgeRequest?.(entry.id, JSON.stringify({ files: ['open', 'disk'] }));
+    window.__progressBridgeRequest?.(entry.id, JSON.stringify({ files: ['late'] }));
+
+    await expect(request).resolves.toEqual({ files: ['open', 'disk'] });
+    expect(partials).toEqual([{ files: ['open'] }]);
+  });
+
+  it('rejects unhandled requests and ignores late replies', async () => {
+    const request = requestFromJava('unknown_type');
+    await Promise.resolve();
+    const [entry] = JSON.parse(sent[0]);
+
+    window.__rejectBridgeRequest?.(entry.id, 'Unhandled message type: unknown_type');
+    window.__resolveBridgeRequest?.(entry.id, '{}');
+
+    await expect(request).rejects.toThrow('Unhandled message type');
+  });
+
+  it('rejects on abort and on timeout', async () => {
+    vi.useFakeTimers();
+    const controller = new AbortController();
+    const aborted = requestFromJava('list_files', {}, { signal: controller.signal });
+    const timedOut = requestFromJava('list_files', {}, { timeoutMs: 50 });
+
+    controller.abort();
+    vi.advanceTimersByTime(50);
+
+    await expect(aborted).rejects.toMatchObject({ name: 'AbortError' });
+    await expect(timedOut).rejects.toThrow('timed out');
+  });
+});
@@ -1,3 +1,5 @@
+import { debugWarn } from './debug.js';
+
 const BRIDGE_UNAVAILABLE_WARNED = new Set<string>();
 
 /** Regex to detect path traversal: matches ".." as a path segment, not as part of filenames */
@@ -32,6 +34,169 @@ export const sendBridgeEvent = (event: string, content = '') => {
   return callBridge(`${event}:${content}`);
 };
 
+// ==================== Batched channel ====================
+//
+// Messages posted within the same microtask are sent to Java as one JSON array of
+// {type, id, payload} envelopes. Entries with an id are requests: Java answers through
+// window.__resolveBridgeRequest / window.__rejectBridgeRequest and the promise settles;
+// window.__progressBridgeRequest delivers intermediate results to the onProgress callback.
+
+interface BridgeEnvelope {
+  type: string;
+  id?: string;
+  payload?: unknown;
+}
+
+interface PendingRequest {
+  resolve: (value: unknown) => void;
+  reject: (error: Error) => void;
+  timer: ReturnType<typeof setTimeout> | null;
+  cleanup: () => void;
+  onProgress?: (value: unknown) => void;
+}
+
+export interface BridgeRequestOptions {
+  /** Reject with a timeout error after this many milliseconds (default 10s, 0 disables) */
+  timeoutMs?: number;
+  /** Aborting rejects the promise with an AbortError and ignores any late reply */
+  signal?: AbortSignal;
+  /** Receives partial results sent before the final reply */
+  onProgress?: (value: unknown) => void;
+}
+
+const DEFAULT_REQUEST_TIMEOUT_MS = 10000;
+
+let outbox: BridgeEnvelope[] = [];
+let flushScheduled = false;
+let nextRequestId = 0;
+const pendingRequests = new Map<string, PendingRequest>();
+
+const flushOutbox = () => {
+  flushScheduled = false;
+  if (outbox.length === 0) {
+    return;
+  }
+  const batch = outbox;
+  outbox = [];
+  callBridge(JSON.stringify(batch));
+};
+
+const enqueueEnvelope = (envelope: BridgeEnvelope) => {
+  outbox.push(envelope);
+  if (!flushScheduled) {
+    flushScheduled = true;
+    queueMicrotask(flushOutbox);
+  }
+};
+
+const settleRequest = (id: string): PendingRequest | undefined => {
+  const pending = pendingRequests.get(id);
+  if (!pending) {
+    return undefined;
+  }
+  pendingRequests.delete(id);
+  if (pending.timer) {
+    clearTimeout(pending.timer);
+  }
+  pending.cleanup();
+  return pending;
+};
+
+const resolveBridgeRequest = (id: string, json: string) => {
+  const pending = settleRequest(id);
+  if (!pending) {
+    return;
+  }
+  try {
+    pending.resolve(json ? JSON.parse(json) : undefined);
+  } catch (error) {
+    pending.reject(error as Error);
+  }
+};
+
+const progressBridgeRequest = (id: string, json: string) => {
+  const pending = pendingRequests.get(id);
+  if (!pending?.onProgress) {
+    return;
+  }
+  try {
+    pending.onProgress(json ? JSON.parse(json) : undefined);
+  } catch (error) {
+    debugWarn('[bridge] Ignoring malformed progress update:', error);
+  }
+};
+
+const rejectBridgeRequest = (id: string, message: string) => {
+  settleRequest(id)?.reject(new Error(message || 'Bridge request failed'));
+};
+
+const installReplyCallbacks = () => {
+  if (typeof window === 'undefined') {
+    return;
+  }
+  window.__resolveBridgeRequest = resolveBridgeRequest;
+  window.__rejectBridgeRequest = rejectBridgeRequest;
+  window.__progressBridgeRequest = progressBridgeRequest;
+};
+
+installReplyCallbacks();
+
+/**
+ * Whether the Java bridge is available for batched messages
+ */
+export const isBridgeAvailable = () => typeof window !== 'undefined' && !!window.sendToJava;
+
+/**
+ * Post a fire-and-forget message through the batched channel
+ */
+export const postToJava = (type: string, payload?: unknown) => {
+  enqueueEnvelope({ type, payload });
+};
+
+/**
+ * Send a request through the batched channel and wait for Java's reply
+ */
+export const requestFromJava = <T = unknown>(
+  type: string,
+  payload: Record<string, unknown> = {},
+  options: BridgeRequestOptions = {}
+): Promise<T> => {
+  const { timeoutMs = DEFAULT_REQUEST_TIMEOUT_MS, signal, onProgress } = options;
+  if (signal?.aborted) {
+    return Promise.reject(new DOMException('Aborted', 'AbortError'));
+  }
+  if (!isBridgeAvailable()) {
+    return Promise.reject(new Error('Java bridge is not available'));
+  }
+
+  const id = `r${++nextRequestId}`;
+  return new Promise<T>((resolve, reject) => {
+    const onAbort = () => {
+      if (settleRequest(id)) {
+        reject(new DOMException('Aborted', 'AbortError'));
+      }
+    };
+    signal?.addEventListener('abort', onAbort);
+
+    const timer = timeoutMs > 0
+      ? setTimeout(() => {
+        if (settleRequest(id)) {
+          reject(new Error(`Bridge request ${type} timed out after ${timeoutMs}ms`));
+        }
+      }, timeoutMs)
+      : null;
+
+    pendingRequests.set(id, {
+      resolve: resolve as (value: unknown) => void,
+      reject,
+      timer,
+      cleanup: () => signal?.removeEventListener('abort', onAbort),
+      onProgress,
+    });
+    enqueueEnvelope({ type, id, payload });
+  });
+};
+
 export const openFile = (filePath?: string, lineStart?: number, lineEnd?: number) => {
   if (!filePath) {
     return;
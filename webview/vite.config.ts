@@ -1,25 +1,27 @@
 import { defineConfig } from 'vite';
 import react from '@vitejs/plugin-react-swc';
-import { viteSingleFile } from 'vite-plugin-singlefile';
 
-export default defineConfig({
+// Origin under which the plugin serves the built assets from its jar (see WebviewAssets.java).
+// The chat document itself is loaded by JCEF, so asset URLs must be absolute.
+const PLUGIN_ASSET_ORIGIN = 'https://codemoss.localhost/';
+
+export default defineConfig(({ command }) => ({
+  base: command === 'build' ? PLUGIN_ASSET_ORIGIN : '/',
   plugins: [
     react(),
-    viteSingleFile(),
   ],
   build: {
     minify: 'esbuild',
     esbuild: {
       drop: ['console', 'debugger'],
     },
-    assetsInlineLimit: 1024 * 1024,
     cssCodeSplit: false,
     sourcemap: false,
     rollupOptions: {
       output: {
-        manualChunks: undefined,
+        // One script file: cached by JCEF and V8 across reloads, and simple to inline as a fallback
+        inlineDynamicImports: true,
       },
     },
   },
-});
-
+}));